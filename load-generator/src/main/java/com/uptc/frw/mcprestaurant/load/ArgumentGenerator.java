@@ -0,0 +1,117 @@
+package com.uptc.frw.mcprestaurant.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.uptc.frw.mcprestaurant.stub.StubSettings;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Builds random but valid tool arguments from the input schemas returned by
+ * tools/list. Values are chosen from the parameter names, so ids land inside
+ * the ranges the stub backend generates and dates fall on days that have sales.
+ */
+final class ArgumentGenerator {
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    private static final int DAYS = 365;
+
+    private final StubSettings dataset;
+
+    /**
+     * @param dataset Sizes of the backend dataset, used as id ranges
+     */
+    ArgumentGenerator(StubSettings dataset) {
+        this.dataset = dataset;
+    }
+
+    /**
+     * @param tool Tool name, used to tell what a bare "id" refers to
+     * @param inputSchema The tool's input schema
+     * @return A fresh set of arguments
+     */
+    ObjectNode arguments(String tool, JsonNode inputSchema) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate from = FIRST_DAY.plusDays(random.nextInt(DAYS));
+        ObjectNode arguments = NODES.objectNode();
+        for (Map.Entry<String, JsonNode> property : inputSchema.path("properties").properties()) {
+            JsonNode value = value(tool, property.getKey(), property.getValue(), from, random);
+            if (value != null) {
+                arguments.set(property.getKey(), value);
+            }
+        }
+        return arguments;
+    }
+
+    private JsonNode value(String tool, String name, JsonNode schema, LocalDate from, ThreadLocalRandom random) {
+        String key = name.toLowerCase(Locale.ROOT);
+        String type = schema.path("type").asText("string");
+        if (key.contains("token")) {
+            return null; // first page
+        }
+        switch (type) {
+            case "array" -> {
+                ArrayNode items = NODES.arrayNode();
+                String itemName = key.endsWith("s") ? key.substring(0, key.length() - 1) : key;
+                for (int i = 0; i < 5; i++) {
+                    items.add(value(tool, itemName, schema.path("items"), from, random));
+                }
+                return items;
+            }
+            case "object" -> {
+                ObjectNode object = NODES.objectNode();
+                for (Map.Entry<String, JsonNode> property : schema.path("properties").properties()) {
+                    object.set(property.getKey(), value(tool, property.getKey(), property.getValue(), from, random));
+                }
+                return object;
+            }
+            case "integer" -> {
+                if (key.equals("quantity")) {
+                    return NODES.numberNode(1 + random.nextInt(5));
+                }
+                if (key.equals("limit")) {
+                    return NODES.numberNode(20);
+                }
+                return NODES.numberNode(id(tool, key, random));
+            }
+            case "number" -> {
+                return NODES.numberNode(Math.round(random.nextDouble(5, 40) * 100) / 100.0);
+            }
+            case "boolean" -> {
+                return NODES.booleanNode(random.nextBoolean());
+            }
+            default -> {
+                if (key.contains("todate")) {
+                    return NODES.textNode(from.plusDays(30).toString());
+                }
+                if (key.contains("date")) {
+                    return NODES.textNode(from.toString());
+                }
+                if (key.equals("rankby")) {
+                    return NODES.textNode(random.nextBoolean() ? "quantity" : "revenue");
+                }
+                return NODES.textNode("load " + Long.toString(random.nextLong(1L << 32), 36));
+            }
+        }
+    }
+
+    /**
+     * An existing id of the entity the parameter names, or of the tool's own entity for a bare id
+     */
+    private long id(String tool, String key, ThreadLocalRandom random) {
+        String entity = key.equals("id") || key.equals("ids") ? tool.toLowerCase(Locale.ROOT) : key;
+        if (entity.contains("dish")) {
+            return 1 + random.nextInt(dataset.dishes());
+        }
+        if (entity.contains("sale")) {
+            return 1 + random.nextLong(Math.max(1, dataset.sales()));
+        }
+        return 1 + random.nextInt(dataset.menus());
+    }
+}
@@ -0,0 +1,403 @@
+package com.uptc.frw.mcprestaurant.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.uptc.frw.mcprestaurant.stub.StubBackend;
+import com.uptc.frw.mcprestaurant.stub.StubSettings;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Measures what it costs several clients to keep their copy of the catalog
+ * current while it changes at the backend, made by someone else.
+ * <p>
+ * In poll mode every client calls getAllMenus, getAllDishes and getAllDishMenus
+ * on a fixed interval. In notify mode every client lists and reads the catalog
+ * resources once; on every notifications/resources/list_changed it lists them
+ * again and re-reads only the menus and dishes whose entry in the listing
+ * changed (a new description renames a menu or redescribes a dish). Meanwhile a menu or dish description is
+ * changed directly at the stub backend on a fixed interval, tagged with a
+ * marker, so each client can tell when it first sees the change.
+ * <p>
+ * Reported per mode: requests the clients made and how many returned exactly
+ * what the client already had, bytes the clients received, backend requests
+ * and bytes (the changes themselves excluded), and the time from a change to
+ * each client seeing it.
+ */
+public final class CatalogWatchSimulation {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final HttpClient HTTP = HttpClient.newHttpClient();
+    private static final List<String> LIST_TOOLS = List.of("getAllMenus", "getAllDishes", "getAllDishMenus");
+    private static final List<String> COLLECTIONS = List.of(
+        "restaurant://menus", "restaurant://dishes", "restaurant://dish-menus");
+    private static final Pattern ENTRY = Pattern.compile("restaurant://(menus|dishes)/\\d+");
+
+    private final WatchSettings settings;
+    private final StubSettings dataset;
+    private final StubBackend backend;
+    /** Marker of every change, with the time it was made */
+    private final Map<String, Long> changes = new ConcurrentHashMap<>();
+    /** Latest marker of each changed menu or dish; earlier ones were overwritten and cannot be seen */
+    private final Map<String, String> latest = new ConcurrentHashMap<>();
+    private final AtomicInteger revision = new AtomicInteger();
+    private final AtomicLong changeRequests = new AtomicLong();
+    private final AtomicLong changeBytes = new AtomicLong();
+
+    CatalogWatchSimulation(WatchSettings settings, StubSettings dataset, StubBackend backend) {
+        this.settings = settings;
+        this.dataset = dataset;
+        this.backend = backend;
+    }
+
+    public static void main(String[] args) throws Exception {
+        WatchSettings settings = WatchSettings.parse(args);
+        StubSettings dataset = StubSettings.parse(settings.stubArgs().toArray(String[]::new));
+        try (StubBackend backend = StubBackend.start(dataset)) {
+            if (settings.transport().equals("sse")) {
+                System.out.println("Stub backend on " + backend.baseUrl()
+                        + "; start the server with --restaurant.api.base-url=" + backend.baseUrl());
+            }
+            CatalogWatchSimulation simulation = new CatalogWatchSimulation(settings, dataset, backend);
+            List<Result> results = new ArrayList<>();
+            for (String mode : settings.modes()) {
+                System.out.printf("Running %s with %d client(s) for %ds%n", mode, settings.clients(),
+                        settings.duration().toSeconds());
+                results.add(simulation.run(mode));
+            }
+            print(results);
+        }
+    }
+
+    /**
+     * One run: connect the clients, change the catalog for the configured time, let the clients settle
+     */
+    Result run(String mode) throws Exception {
+        changes.clear();
+        latest.clear();
+        changeRequests.set(0);
+        changeBytes.set(0);
+        List<McpClient> clients = new ArrayList<>();
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(settings.clients() + 1, task -> {
+            Thread thread = new Thread(task, "catalog-watch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        LatencyRecorder staleness = new LatencyRecorder();
+        List<Follower> followers = new ArrayList<>();
+        try {
+            for (int i = 0; i < settings.clients(); i++) {
+                McpClient client = connect();
+                clients.add(client);
+                client.initialize();
+                followers.add(new Follower(client, staleness));
+            }
+            JsonNode before = stats();
+            for (Follower follower : followers) {
+                if (mode.equals("poll")) {
+                    long interval = settings.clientPoll().toMillis();
+                    scheduler.scheduleWithFixedDelay(follower::poll, 0, interval, TimeUnit.MILLISECONDS);
+                } else {
+                    follower.follow();
+                }
+            }
+            long every = settings.changeEvery().toMillis();
+            ScheduledFuture<?> changer = scheduler.scheduleAtFixedRate(this::changeQuietly, every, every,
+                    TimeUnit.MILLISECONDS);
+            Thread.sleep(settings.duration().toMillis());
+            changer.cancel(false);
+            Thread.sleep(settings.settle().toMillis());
+            scheduler.shutdownNow();
+            JsonNode after = stats();
+
+            Result result = new Result(mode, settings.clients(), changes.size(),
+                    after.path("requests").asLong() - before.path("requests").asLong() - changeRequests.get(),
+                    after.path("notModified").asLong() - before.path("notModified").asLong(),
+                    after.path("bytesSent").asLong() - before.path("bytesSent").asLong() - changeBytes.get(),
+                    staleness.summary());
+            for (Follower follower : followers) {
+                follower.addTo(result);
+            }
+            return result;
+        } finally {
+            scheduler.shutdownNow();
+            for (McpClient client : clients) {
+                client.close();
+            }
+        }
+    }
+
+    private McpClient connect() throws Exception {
+        if (settings.transport().equals("sse")) {
+            return new SseMcpClient(settings.url(), settings.ssePath());
+        }
+        List<String> command = new ArrayList<>(settings.command());
+        command.add("--restaurant.api.base-url=" + backend.baseUrl());
+        command.addAll(settings.serverArgs());
+        return new StdioMcpClient(command);
+    }
+
+    /**
+     * Change a random menu or dish description at the backend, tagged with a new marker
+     */
+    private void change() throws IOException, InterruptedException {
+        int number = revision.incrementAndGet();
+        String marker = String.format("rev-%06d", number);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String entity;
+        if (number % 2 == 0) {
+            long id = random.nextLong(1, dataset.menus() + 1);
+            entity = "menu " + id;
+            ObjectNode menu = JSON.createObjectNode().put("idMenu", id).put("description", "Menu " + id + " " + marker);
+            send("PUT", "/menus", menu);
+        } else {
+            long id = random.nextLong(1, dataset.dishes() + 1);
+            entity = "dish " + id;
+            ObjectNode dish = (ObjectNode) JSON.readTree(send("GET", "/dishes/" + id, null));
+            dish.put("description", "Plato " + id + " " + marker);
+            send("PUT", "/dishes", dish);
+        }
+        changes.put(marker, System.nanoTime());
+        latest.put(entity, marker);
+    }
+
+    private void changeQuietly() {
+        try {
+            change();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not change the catalog: " + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String send(String method, String path, JsonNode body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(backend.baseUrl() + path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        HttpResponse<String> response = HTTP.send(request, HttpResponse.BodyHandlers.ofString());
+        changeRequests.incrementAndGet();
+        changeBytes.addAndGet(response.body().length());
+        if (response.statusCode() != 200) {
+            throw new IOException(method + " " + path + " returned " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    private JsonNode stats() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(backend.baseUrl() + "/__stub/stats")).build();
+        return JSON.readTree(HTTP.send(request, HttpResponse.BodyHandlers.ofString()).body());
+    }
+
+    /**
+     * One client and its copy of the catalog: the last text of every tool or resource it fetched
+     */
+    private final class Follower {
+
+        private final McpClient client;
+        private final LatencyRecorder staleness;
+        private final Map<String, String> copy = new HashMap<>();
+        private final Map<String, String> listing = new HashMap<>();
+        private final Set<String> seen = new HashSet<>();
+        private final AtomicBoolean listInFlight = new AtomicBoolean();
+        private final AtomicBoolean listAgain = new AtomicBoolean();
+        private boolean listedOnce;
+        private long requests;
+        private long unchanged;
+        private long bytes;
+        private long errors;
+        private long notifications;
+
+        Follower(McpClient client, LatencyRecorder staleness) {
+            this.client = client;
+            this.staleness = staleness;
+        }
+
+        /**
+         * Poll mode: fetch the three lists, one after the other
+         */
+        void poll() {
+            for (String tool : LIST_TOOLS) {
+                try {
+                    JsonNode result = client.callTool(tool, JSON.createObjectNode())
+                            .get(30, TimeUnit.SECONDS);
+                    received(tool, result.path("content").path(0).path("text").asText());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    failed();
+                }
+            }
+        }
+
+        /**
+         * Notify mode: list and read the collections once, then re-list on every
+         * list_changed and re-read the entries whose listing changed
+         */
+        void follow() {
+            client.onNotification((method, params) -> {
+                if (method.equals("notifications/resources/list_changed")) {
+                    synchronized (this) {
+                        notifications++;
+                    }
+                    list();
+                }
+            });
+            list();
+            COLLECTIONS.forEach(this::read);
+        }
+
+        /**
+         * List the resources; notifications arriving while a listing is in flight cost one more listing
+         */
+        private void list() {
+            if (!listInFlight.compareAndSet(false, true)) {
+                listAgain.set(true);
+                return;
+            }
+            client.listResources().whenComplete((resources, failure) -> {
+                if (failure == null) {
+                    listed(resources).forEach(this::read);
+                } else {
+                    failed();
+                }
+                listInFlight.set(false);
+                if (listAgain.getAndSet(false)) {
+                    list();
+                }
+            });
+        }
+
+        /**
+         * Record a listing
+         * @return The menus and dishes whose entry changed since the previous listing
+         */
+        private synchronized List<String> listed(JsonNode resources) {
+            requests++;
+            bytes += resources.toString().length();
+            List<String> changed = new ArrayList<>();
+            for (JsonNode resource : resources) {
+                String uri = resource.path("uri").asText();
+                String entry = resource.toString();
+                if (ENTRY.matcher(uri).matches() && !entry.equals(listing.put(uri, entry)) && listedOnce) {
+                    changed.add(uri);
+                }
+            }
+            listedOnce = true;
+            return changed;
+        }
+
+        private void read(String uri) {
+            client.readResource(uri).whenComplete((text, failure) -> {
+                if (failure == null) {
+                    received(uri, text);
+                } else {
+                    failed();
+                }
+            });
+        }
+
+        private synchronized void received(String key, String text) {
+            requests++;
+            bytes += text.length();
+            if (text.equals(copy.put(key, text))) {
+                unchanged++;
+                return;
+            }
+            long now = System.nanoTime();
+            changes.forEach((marker, changedAt) -> {
+                if (!seen.contains(marker) && text.contains(marker)) {
+                    seen.add(marker);
+                    staleness.success(now - changedAt);
+                }
+            });
+        }
+
+        private synchronized void failed() {
+            errors++;
+        }
+
+        synchronized void addTo(Result result) {
+            result.requests += requests;
+            result.unchanged += unchanged;
+            result.clientBytes += bytes;
+            result.errors += errors;
+            result.notifications += notifications;
+            for (String marker : latest.values()) {
+                if (!seen.contains(marker)) {
+                    result.missed++;
+                }
+            }
+        }
+    }
+
+    /**
+     * The outcome of one mode; the client side is summed over every client
+     */
+    static final class Result {
+        final String mode;
+        final int clients;
+        final int changes;
+        final long backendRequests;
+        final long backendNotModified;
+        final long backendBytes;
+        final LatencyRecorder.Summary staleness;
+        long requests;
+        long unchanged;
+        long clientBytes;
+        long errors;
+        long notifications;
+        long missed;
+
+        Result(String mode, int clients, int changes, long backendRequests, long backendNotModified,
+               long backendBytes, LatencyRecorder.Summary staleness) {
+            this.mode = mode;
+            this.clients = clients;
+            this.changes = changes;
+            this.backendRequests = backendRequests;
+            this.backendNotModified = backendNotModified;
+            this.backendBytes = backendBytes;
+            this.staleness = staleness;
+        }
+    }
+
+    private static void print(List<Result> results) {
+        System.out.printf("%n%-7s %7s %7s %9s %9s %9s %9s %8s %9s %7s %9s %9s %7s%n", "mode", "clients", "changes",
+                "requests", "unchanged", "client KB", "backend", "304", "bknd KB", "notif", "stale p50", "stale p99",
+                "missed");
+        for (Result r : results) {
+            System.out.printf("%-7s %7d %7d %9d %9d %9d %9d %8d %9d %7d %9.0f %9.0f %7d%n", r.mode, r.clients, r.changes,
+                    r.requests, r.unchanged, r.clientBytes / 1024, r.backendRequests, r.backendNotModified,
+                    r.backendBytes / 1024, r.notifications, r.staleness.p50(), r.staleness.p99(), r.missed);
+            if (r.errors > 0) {
+                System.out.printf("        %d request(s) failed%n", r.errors);
+            }
+        }
+        System.out.println("(staleness in ms from the change at the backend to a client seeing it; missed = latest"
+                + " changes a client never saw)");
+    }
+}
@@ -0,0 +1,61 @@
+package com.uptc.frw.mcprestaurant.load;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of one tool during one step. Every sample is kept; a step at a
+ * few thousand calls per second is well within memory, and exact percentiles
+ * avoid the bucketing error of a histogram at the tail.
+ */
+final class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private long errors;
+
+    synchronized void success(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    synchronized void error() {
+        errors++;
+    }
+
+    /**
+     * @return Percentiles over the successful calls, in milliseconds
+     */
+    synchronized Summary summary() {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        double mean = count == 0 ? 0 : Arrays.stream(sorted).average().orElse(0) / 1e6;
+        return new Summary(count, errors, mean,
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), count == 0 ? 0 : sorted[count - 1] / 1e6);
+    }
+
+    /**
+     * Merge into another recorder, e.g. to build the all-tools row
+     */
+    synchronized void addTo(LatencyRecorder total) {
+        for (int i = 0; i < count; i++) {
+            total.success(samples[i]);
+        }
+        synchronized (total) {
+            total.errors += errors;
+        }
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, rank)] / 1e6;
+    }
+
+    record Summary(long calls, long errors, double mean, double p50, double p90, double p99, double p999, double max) {
+    }
+}
@@ -0,0 +1,241 @@
+package com.uptc.frw.mcprestaurant.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.uptc.frw.mcprestaurant.stub.StubBackend;
+import com.uptc.frw.mcprestaurant.stub.StubSettings;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a weighted mix of tool calls against the MCP server at fixed target
+ * rates and reports throughput and latency percentiles per tool.
+ * <p>
+ * Calls are scheduled open loop: each has an intended start time derived
+ * from the target rate and its latency is measured from that time, so a
+ * server that falls behind shows up as growing latency rather than as a
+ * silently lower request rate (coordinated omission).
+ */
+public final class LoadGenerator {
+
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final LoadSettings settings;
+    private final List<McpClient> clients;
+    private final ArgumentGenerator arguments;
+    private final Map<String, JsonNode> schemas;
+    private final String[] picks;
+
+    LoadGenerator(LoadSettings settings, List<McpClient> clients, ArgumentGenerator arguments,
+                  Map<String, JsonNode> schemas) {
+        this.settings = settings;
+        this.clients = clients;
+        this.arguments = arguments;
+        this.schemas = schemas;
+        List<String> weighted = new ArrayList<>();
+        settings.mix().forEach((tool, weight) -> {
+            if (!schemas.containsKey(tool)) {
+                throw new IllegalArgumentException("The server has no tool " + tool + "; it offers " + schemas.keySet());
+            }
+            for (int i = 0; i < weight; i++) {
+                weighted.add(tool);
+            }
+        });
+        this.picks = weighted.toArray(String[]::new);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadSettings settings = LoadSettings.parse(args);
+        StubSettings dataset = StubSettings.parse(settings.stubArgs().toArray(String[]::new));
+        StubBackend backend = settings.stub() ? StubBackend.start(dataset) : null;
+        if (backend != null && settings.transport().equals("sse")) {
+            System.out.println("Stub backend on " + backend.baseUrl()
+                    + "; start the server with --restaurant.api.base-url=" + backend.baseUrl());
+        }
+        List<McpClient> clients = new ArrayList<>();
+        try {
+            for (int i = 0; i < settings.sessions(); i++) {
+                McpClient client = connect(settings, backend);
+                clients.add(client);
+                client.initialize();
+            }
+            System.out.printf("%d session(s) open over %s%n", clients.size(), settings.transport());
+            Map<String, JsonNode> schemas = new HashMap<>();
+            for (JsonNode tool : clients.get(0).request("tools/list", JSON.createObjectNode()).get().path("tools")) {
+                schemas.put(tool.path("name").asText(), tool.path("inputSchema"));
+            }
+            LoadGenerator generator = new LoadGenerator(settings, clients, new ArgumentGenerator(dataset), schemas);
+            List<Step> steps = generator.run();
+            if (settings.output() != null) {
+                JSON.writeValue(new File(settings.output()), report(settings, steps));
+                System.out.println("Results written to " + settings.output());
+            }
+        } finally {
+            for (McpClient client : clients) {
+                client.close();
+            }
+            if (backend != null) {
+                backend.close();
+            }
+        }
+    }
+
+    private static McpClient connect(LoadSettings settings, StubBackend backend) throws Exception {
+        if (settings.transport().equals("sse")) {
+            return new SseMcpClient(settings.url(), settings.ssePath());
+        }
+        List<String> command = new ArrayList<>(settings.command());
+        if (backend != null) {
+            command.add("--restaurant.api.base-url=" + backend.baseUrl());
+        }
+        return new StdioMcpClient(command);
+    }
+
+    /**
+     * Warm up at the first rate, then run one measured step per rate
+     */
+    List<Step> run() throws InterruptedException {
+        int first = settings.rates().get(0);
+        System.out.printf("Warming up for %ds at %d calls/s%n", settings.warmup().toSeconds(), first);
+        step(first, settings.warmup());
+        List<Step> steps = new ArrayList<>();
+        for (int rate : settings.rates()) {
+            Step step = step(rate, settings.duration());
+            steps.add(step);
+            print(step);
+        }
+        saturation(steps);
+        return steps;
+    }
+
+    /**
+     * Issue calls at the target rate for the given time, then wait for the stragglers
+     */
+    private Step step(int rate, Duration length) throws InterruptedException {
+        Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+        settings.mix().keySet().forEach(tool -> recorders.put(tool, new LatencyRecorder()));
+        AtomicInteger inFlight = new AtomicInteger();
+        long dropped = 0;
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + length.toNanos();
+        int next = 0;
+        for (long intended = start; intended < end; intended += interval) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (inFlight.get() >= settings.maxInFlight()) {
+                dropped++;
+                continue;
+            }
+            String tool = picks[ThreadLocalRandom.current().nextInt(picks.length)];
+            LatencyRecorder recorder = recorders.get(tool);
+            long scheduled = intended;
+            McpClient client = clients.get(next++ % clients.size());
+            inFlight.incrementAndGet();
+            client.callTool(tool, arguments.arguments(tool, schemas.get(tool)))
+                    .orTimeout(settings.timeout().toMillis(), TimeUnit.MILLISECONDS)
+                    .whenComplete((result, failure) -> {
+                        if (failure == null) {
+                            recorder.success(System.nanoTime() - scheduled);
+                        } else {
+                            recorder.error();
+                        }
+                        inFlight.decrementAndGet();
+                    });
+        }
+        long drainUntil = System.nanoTime() + settings.timeout().toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+            Thread.sleep(10);
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        return new Step(rate, elapsed, dropped, recorders);
+    }
+
+    private static void print(Step step) {
+        LatencyRecorder.Summary total = step.total();
+        System.out.printf("%nTarget %d calls/s: achieved %.1f calls/s, %d errors, %d dropped%n",
+                step.rate(), step.achieved(), total.errors(), step.dropped());
+        System.out.printf("%-22s %8s %7s %9s %9s %9s %9s %9s%n",
+                "tool", "calls", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        step.recorders().forEach((tool, recorder) -> row(tool, recorder.summary()));
+        row("all", total);
+    }
+
+    private static void row(String name, LatencyRecorder.Summary summary) {
+        System.out.printf("%-22s %8d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, summary.calls(), summary.errors(),
+                summary.p50(), summary.p90(), summary.p99(), summary.p999(), summary.max());
+    }
+
+    /**
+     * Point out the first step that did not keep up: under 95% of the target
+     * rate, any call dropped, or more than 1% of calls failed
+     */
+    private static void saturation(List<Step> steps) {
+        for (Step step : steps) {
+            LatencyRecorder.Summary total = step.total();
+            if (step.achieved() < step.rate() * 0.95 || step.dropped() > 0
+                    || total.errors() > (total.calls() + total.errors()) / 100) {
+                System.out.printf("%nSaturated at a target of %d calls/s%n", step.rate());
+                return;
+            }
+        }
+        System.out.printf("%nKept up with every target rate; raise --rates to find the limit%n");
+    }
+
+    private static ObjectNode report(LoadSettings settings, List<Step> steps) {
+        ObjectNode report = JSON.createObjectNode();
+        report.put("transport", settings.transport());
+        report.put("sessions", settings.sessions());
+        report.set("mix", JSON.valueToTree(settings.mix()));
+        report.put("durationSeconds", settings.duration().toSeconds());
+        var array = report.putArray("steps");
+        for (Step step : steps) {
+            ObjectNode node = array.addObject();
+            node.put("targetRate", step.rate());
+            node.put("achievedRate", step.achieved());
+            node.put("dropped", step.dropped());
+            node.set("all", JSON.valueToTree(step.total()));
+            ObjectNode tools = node.putObject("tools");
+            step.recorders().forEach((tool, recorder) -> tools.set(tool, JSON.valueToTree(recorder.summary())));
+        }
+        return report;
+    }
+
+    /**
+     * The outcome of one rate
+     * @param rate Target calls per second
+     * @param seconds Time from the first call to the last completion
+     * @param dropped Calls not issued because too many were in flight
+     * @param recorders Latencies per tool
+     */
+    record Step(int rate, double seconds, long dropped, Map<String, LatencyRecorder> recorders) {
+
+        LatencyRecorder.Summary total() {
+            LatencyRecorder total = new LatencyRecorder();
+            recorders.values().forEach(recorder -> recorder.addTo(total));
+            return total.summary();
+        }
+
+        /**
+         * @return Completed calls per second, failed ones included
+         */
+        double achieved() {
+            LatencyRecorder.Summary total = total();
+            return (total.calls() + total.errors()) / seconds;
+        }
+    }
+}
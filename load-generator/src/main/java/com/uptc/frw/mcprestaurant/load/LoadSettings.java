@@ -0,0 +1,128 @@
+package com.uptc.frw.mcprestaurant.load;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line settings of the load generator, given as --name=value
+ * @param transport stdio (launch the server as a child process) or sse (connect to a running server)
+ * @param command Command that starts the server in stdio mode, split on spaces
+ * @param url Base URL of a server running in SSE mode
+ * @param ssePath Path of the SSE endpoint on that server
+ * @param sessions MCP sessions to spread the calls over: server processes for stdio, SSE connections for sse
+ * @param mix Tools to call and their relative weights, e.g. getAllDishes:5,getMenusBySaleId:3,addMenuToSale:1
+ * @param rates Target call rates in calls per second; each is run as one step, in order
+ * @param duration Length of each measured step
+ * @param warmup Calls made at the first rate before measuring, not reported
+ * @param maxInFlight Calls allowed outstanding at once; scheduled calls beyond it are counted as dropped
+ * @param timeout Per-call timeout
+ * @param stub Start an in-process stub backend and point the launched server at it
+ * @param stubArgs Extra --name=value settings for the stub backend, separated by spaces
+ * @param output JSON report file, or null for none
+ */
+public record LoadSettings(
+    String transport,
+    List<String> command,
+    String url,
+    String ssePath,
+    int sessions,
+    Map<String, Integer> mix,
+    List<Integer> rates,
+    Duration duration,
+    Duration warmup,
+    int maxInFlight,
+    Duration timeout,
+    boolean stub,
+    List<String> stubArgs,
+    String output
+) {
+
+    private static final Set<String> KNOWN = Set.of(
+        "transport", "command", "url", "sse-path", "sessions", "mix", "rates", "duration", "warmup",
+        "max-in-flight", "timeout", "stub", "stub-args", "output"
+    );
+
+    private static final String DEFAULT_MIX =
+        "getAllDishes:4,getMenuById:4,getMenusBySaleId:4,getMenuWithDishes:2,getRevenueByDay:1,addMenuToSale:1";
+
+    public LoadSettings {
+        if (!transport.equals("stdio") && !transport.equals("sse")) {
+            throw new IllegalArgumentException("transport must be stdio or sse");
+        }
+        if (mix.isEmpty() || rates.isEmpty()) {
+            throw new IllegalArgumentException("mix and rates must not be empty");
+        }
+        if (sessions < 1) {
+            throw new IllegalArgumentException("sessions must be at least 1");
+        }
+    }
+
+    public static LoadSettings parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        if (!KNOWN.containsAll(values.keySet())) {
+            List<String> unknown = new ArrayList<>(values.keySet());
+            unknown.removeAll(KNOWN);
+            throw new IllegalArgumentException("Unknown settings " + unknown);
+        }
+        return new LoadSettings(
+            values.getOrDefault("transport", "stdio"),
+            words(values.getOrDefault("command", "java -jar build/libs/mcprestaurant-0.0.1-SNAPSHOT.jar")),
+            values.getOrDefault("url", "http://localhost:3000"),
+            values.getOrDefault("sse-path", "/sse"),
+            Integer.parseInt(values.getOrDefault("sessions", "1")),
+            mix(values.getOrDefault("mix", DEFAULT_MIX)),
+            Arrays.stream(values.getOrDefault("rates", "50,100,200,400").split(","))
+                    .map(String::trim).map(Integer::parseInt).toList(),
+            duration(values.getOrDefault("duration", "30s")),
+            duration(values.getOrDefault("warmup", "10s")),
+            Integer.parseInt(values.getOrDefault("max-in-flight", "512")),
+            duration(values.getOrDefault("timeout", "30s")),
+            Boolean.parseBoolean(values.getOrDefault("stub", "true")),
+            words(values.getOrDefault("stub-args", "")),
+            values.get("output")
+        );
+    }
+
+    private static Map<String, Integer> mix(String text) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : text.split(",")) {
+            String[] parts = entry.trim().split(":");
+            mix.put(parts[0], parts.length > 1 ? Integer.parseInt(parts[1]) : 1);
+        }
+        return mix;
+    }
+
+    static List<String> words(String text) {
+        return Arrays.stream(text.trim().split("\\s+")).filter(word -> !word.isEmpty()).toList();
+    }
+
+    /**
+     * Parse a duration such as 250ms, 30s or 2m; a bare number is seconds
+     */
+    static Duration duration(String value) {
+        String text = value.trim();
+        if (text.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+        }
+        if (text.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(text.substring(0, text.length() - 1)));
+        }
+        if (text.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(text.substring(0, text.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(text));
+    }
+}
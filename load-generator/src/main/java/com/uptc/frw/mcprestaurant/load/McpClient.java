@@ -0,0 +1,160 @@
+package com.uptc.frw.mcprestaurant.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Minimal MCP client: JSON-RPC requests matched to their responses by id,
+ * notifications handed to an optional listener. Transports only have to send
+ * a message of JSON and hand every received message to {@link #received(String)}.
+ */
+abstract class McpClient implements AutoCloseable {
+
+    static final String PROTOCOL_VERSION = "2024-11-05";
+
+    protected final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Long, CompletableFuture<JsonNode>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private volatile BiConsumer<String, JsonNode> notificationListener;
+
+    /**
+     * Send one JSON-RPC message
+     * @return Completes once the message is handed over, or exceptionally if it could not be
+     */
+    protected abstract CompletableFuture<Void> send(String json);
+
+    /**
+     * Run the initialize handshake
+     */
+    void initialize() throws Exception {
+        ObjectNode params = objectMapper.createObjectNode();
+        params.put("protocolVersion", PROTOCOL_VERSION);
+        params.putObject("capabilities");
+        params.putObject("clientInfo").put("name", "mcprestaurant-load").put("version", "1");
+        request("initialize", params).get();
+        ObjectNode initialized = objectMapper.createObjectNode();
+        initialized.put("jsonrpc", "2.0");
+        initialized.put("method", "notifications/initialized");
+        send(objectMapper.writeValueAsString(initialized)).get();
+    }
+
+    /**
+     * Send a request
+     * @return The result, or an exception carrying the JSON-RPC error
+     */
+    CompletableFuture<JsonNode> request(String method, JsonNode params) {
+        long id = ids.incrementAndGet();
+        CompletableFuture<JsonNode> response = new CompletableFuture<>();
+        pending.put(id, response);
+        ObjectNode message = objectMapper.createObjectNode();
+        message.put("jsonrpc", "2.0");
+        message.put("id", id);
+        message.put("method", method);
+        message.set("params", params);
+        send(message.toString()).whenComplete((sent, failure) -> {
+            if (failure != null && pending.remove(id) != null) {
+                response.completeExceptionally(failure);
+            }
+        });
+        return response;
+    }
+
+    /**
+     * Call a tool
+     * @return The tool result; tools that report isError complete exceptionally
+     */
+    CompletableFuture<JsonNode> callTool(String name, JsonNode arguments) {
+        ObjectNode params = objectMapper.createObjectNode();
+        params.put("name", name);
+        params.set("arguments", arguments);
+        return request("tools/call", params).thenApply(result -> {
+            if (result.path("isError").asBoolean(false)) {
+                throw new ToolErrorException(result.path("content").path(0).path("text").asText("tool error"));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Read a resource
+     * @return The text of its first content
+     */
+    CompletableFuture<String> readResource(String uri) {
+        ObjectNode params = objectMapper.createObjectNode();
+        params.put("uri", uri);
+        return request("resources/read", params)
+                .thenApply(result -> result.path("contents").path(0).path("text").asText());
+    }
+
+    /**
+     * List the server's resources
+     * @return The resources array of the result
+     */
+    CompletableFuture<JsonNode> listResources() {
+        return request("resources/list", objectMapper.createObjectNode())
+                .thenApply(result -> result.path("resources"));
+    }
+
+    /**
+     * Receive the server's notifications (method and params) on the transport's reader thread
+     */
+    void onNotification(BiConsumer<String, JsonNode> listener) {
+        this.notificationListener = listener;
+    }
+
+    /**
+     * Handle one message from the server
+     */
+    protected void received(String json) {
+        JsonNode message;
+        try {
+            message = objectMapper.readTree(json);
+        } catch (IOException e) {
+            return; // not a JSON-RPC message, e.g. stray output of the server
+        }
+        if (!message.has("id")) {
+            BiConsumer<String, JsonNode> listener = notificationListener;
+            if (listener != null && message.has("method")) {
+                listener.accept(message.get("method").asText(), message.path("params"));
+            }
+            return;
+        }
+        if (message.has("method")) {
+            return; // server-to-client requests are not needed here
+        }
+        CompletableFuture<JsonNode> response = pending.remove(message.get("id").asLong());
+        if (response == null) {
+            return;
+        }
+        if (message.has("error")) {
+            response.completeExceptionally(new ToolErrorException(message.get("error").path("message").asText()));
+        } else {
+            response.complete(message.get("result"));
+        }
+    }
+
+    /**
+     * Fail every outstanding request, e.g. when the connection is lost
+     */
+    protected void failPending(Throwable cause) {
+        pending.values().forEach(response -> response.completeExceptionally(cause));
+        pending.clear();
+    }
+
+    /**
+     * A JSON-RPC error or a tool result flagged isError
+     */
+    static final class ToolErrorException extends RuntimeException {
+        ToolErrorException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.uptc.frw.mcprestaurant.load;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connects to a server running with the HTTP transport. Responses arrive as
+ * "message" events on the SSE stream; requests are POSTed to the URL given by
+ * the first "endpoint" event (spring.ai.mcp.server.sse-message-endpoint).
+ */
+final class SseMcpClient extends McpClient {
+
+    /** Shared by every session, as many sessions run in one load generator */
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final URI sse;
+    private final CompletableFuture<URI> messageEndpoint = new CompletableFuture<>();
+    private final InputStream events;
+
+    SseMcpClient(String baseUrl, String ssePath) throws Exception {
+        this.sse = URI.create(baseUrl).resolve(ssePath);
+        HttpResponse<InputStream> response = HTTP.send(
+                HttpRequest.newBuilder(sse).header("Accept", "text/event-stream").GET().build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new IOException("GET " + sse + " returned " + response.statusCode());
+        }
+        this.events = response.body();
+        Thread reader = new Thread(this::read, "mcp-sse-reader");
+        reader.setDaemon(true);
+        reader.start();
+        messageEndpoint.get(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    protected CompletableFuture<Void> send(String json) {
+        HttpRequest request = HttpRequest.newBuilder(messageEndpoint.join())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return HTTP.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenAccept(response -> {
+            if (response.statusCode() / 100 != 2) {
+                throw new IllegalStateException("POST " + request.uri() + " returned " + response.statusCode());
+            }
+        });
+    }
+
+    /**
+     * Parse the event stream: "event:" and "data:" lines, a blank line ends an event
+     */
+    private void read() {
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(events, StandardCharsets.UTF_8))) {
+            String event = "message";
+            StringBuilder data = new StringBuilder();
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (line.isEmpty()) {
+                    dispatch(event, data.toString());
+                    event = "message";
+                    data.setLength(0);
+                } else if (line.startsWith("event:")) {
+                    event = line.substring(6).trim();
+                } else if (line.startsWith("data:")) {
+                    if (!data.isEmpty()) {
+                        data.append('\n');
+                    }
+                    data.append(line.substring(5).stripLeading());
+                }
+            }
+            throw new IOException("SSE stream closed by the server");
+        } catch (IOException e) {
+            messageEndpoint.completeExceptionally(e);
+            failPending(e);
+        }
+    }
+
+    private void dispatch(String event, String data) {
+        if (data.isEmpty()) {
+            return;
+        }
+        if (event.equals("endpoint")) {
+            messageEndpoint.complete(sse.resolve(data));
+        } else if (event.equals("message")) {
+            received(data);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        events.close();
+    }
+}
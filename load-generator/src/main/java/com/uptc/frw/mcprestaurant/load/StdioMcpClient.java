@@ -0,0 +1,73 @@
+package com.uptc.frw.mcprestaurant.load;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Launches the server as a child process and talks to it over its standard
+ * input and output, one JSON-RPC message per line
+ */
+final class StdioMcpClient extends McpClient {
+
+    private final Process process;
+    private final OutputStream stdin;
+    private final Thread reader;
+
+    StdioMcpClient(List<String> command) throws IOException {
+        this.process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        this.stdin = process.getOutputStream();
+        this.reader = new Thread(this::read, "mcp-stdio-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    @Override
+    protected CompletableFuture<Void> send(String json) {
+        byte[] line = (json + "\n").getBytes(StandardCharsets.UTF_8);
+        try {
+            synchronized (stdin) {
+                stdin.write(line);
+                stdin.flush();
+            }
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void read() {
+        try (BufferedReader lines = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                received(line);
+            }
+            failPending(new IOException("Server exited with status " + process.waitFor()));
+        } catch (IOException | InterruptedException e) {
+            failPending(e);
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        try {
+            stdin.close();
+        } catch (IOException ignored) {
+            // the process is destroyed below anyway
+        }
+        if (!process.waitFor(5, TimeUnit.SECONDS)) {
+            process.destroy();
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+}
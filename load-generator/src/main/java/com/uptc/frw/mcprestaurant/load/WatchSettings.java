@@ -0,0 +1,87 @@
+package com.uptc.frw.mcprestaurant.load;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line settings of the catalog watch simulation, given as --name=value
+ * @param transport stdio (launch one server process per client) or sse (connect every client to a running server)
+ * @param command Command that starts the server in stdio mode, split on spaces
+ * @param serverArgs Extra arguments for every launched server, separated by spaces
+ * @param url Base URL of a server running in SSE mode
+ * @param ssePath Path of the SSE endpoint on that server
+ * @param clients Simulated clients, each keeping its own copy of the catalog
+ * @param modes How clients keep their copy current, run in order: poll (call the list tools) and/or notify (resources)
+ * @param duration Length of each mode's run
+ * @param clientPoll How often a polling client calls getAllMenus, getAllDishes and getAllDishMenus
+ * @param changeEvery How often a menu or dish is changed directly at the backend
+ * @param settle Time given after the last change for clients to catch up before it is counted as missed
+ * @param stubArgs Extra --name=value settings for the stub backend, separated by spaces
+ */
+public record WatchSettings(
+    String transport,
+    List<String> command,
+    List<String> serverArgs,
+    String url,
+    String ssePath,
+    int clients,
+    List<String> modes,
+    Duration duration,
+    Duration clientPoll,
+    Duration changeEvery,
+    Duration settle,
+    List<String> stubArgs
+) {
+
+    private static final Set<String> KNOWN = Set.of(
+        "transport", "command", "server-args", "url", "sse-path", "clients", "modes", "duration", "client-poll",
+        "change-every", "settle", "stub-args"
+    );
+
+    public WatchSettings {
+        if (!transport.equals("stdio") && !transport.equals("sse")) {
+            throw new IllegalArgumentException("transport must be stdio or sse");
+        }
+        if (clients < 1) {
+            throw new IllegalArgumentException("clients must be at least 1");
+        }
+        if (modes.isEmpty() || !Set.of("poll", "notify").containsAll(modes)) {
+            throw new IllegalArgumentException("modes must be poll, notify or both");
+        }
+    }
+
+    public static WatchSettings parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        if (!KNOWN.containsAll(values.keySet())) {
+            List<String> unknown = new ArrayList<>(values.keySet());
+            unknown.removeAll(KNOWN);
+            throw new IllegalArgumentException("Unknown settings " + unknown);
+        }
+        return new WatchSettings(
+            values.getOrDefault("transport", "stdio"),
+            LoadSettings.words(values.getOrDefault("command", "java -jar build/libs/mcprestaurant-0.0.1-SNAPSHOT.jar")),
+            LoadSettings.words(values.getOrDefault("server-args", "")),
+            values.getOrDefault("url", "http://localhost:3000"),
+            values.getOrDefault("sse-path", "/sse"),
+            Integer.parseInt(values.getOrDefault("clients", "4")),
+            Arrays.stream(values.getOrDefault("modes", "poll,notify").split(",")).map(String::trim).toList(),
+            LoadSettings.duration(values.getOrDefault("duration", "60s")),
+            LoadSettings.duration(values.getOrDefault("client-poll", "5s")),
+            LoadSettings.duration(values.getOrDefault("change-every", "2s")),
+            LoadSettings.duration(values.getOrDefault("settle", "10s")),
+            LoadSettings.words(values.getOrDefault("stub-args", ""))
+        );
+    }
+}
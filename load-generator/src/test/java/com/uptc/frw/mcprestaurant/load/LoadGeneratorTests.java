@@ -0,0 +1,189 @@
+package com.uptc.frw.mcprestaurant.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.uptc.frw.mcprestaurant.stub.StubBackend;
+import com.uptc.frw.mcprestaurant.stub.StubSettings;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoadGeneratorTests {
+
+	private static final String MIX = "--mix=getAllDishes:2,getMenuById:1,getSalesByDay:1";
+
+	private StubSettings dataset;
+
+	private StubBackend backend;
+
+	private InProcessServer server;
+
+	@BeforeEach
+	void start() throws Exception {
+		dataset = StubSettings.parse(new String[] {
+				"--port=0", "--menus=20", "--dishes=50", "--sales=1000", "--latency=2ms" });
+		backend = StubBackend.start(dataset);
+		server = new InProcessServer(backend.baseUrl());
+		server.initialize();
+	}
+
+	@AfterEach
+	void stop() {
+		server.close();
+		backend.close();
+	}
+
+	@Test
+	void everyCallIsCountedUnderItsTool() throws Exception {
+		List<LoadGenerator.Step> steps = generator(MIX, "--rates=100", "--duration=1s").run();
+
+		LoadGenerator.Step step = steps.get(0);
+		Map<String, LatencyRecorder.Summary> tools = new LinkedHashMap<>();
+		step.recorders().forEach((tool, recorder) -> tools.put(tool, recorder.summary()));
+		assertThat(step.dropped()).isZero();
+		assertThat(step.total().calls() + step.total().errors()).isEqualTo(100);
+		assertThat(tools.get("getAllDishes").calls()).isEqualTo(server.calls("getAllDishes"));
+		assertThat(tools.get("getMenuById").calls()).isEqualTo(server.calls("getMenuById"));
+		assertThat(tools.get("getAllDishes").errors() + tools.get("getMenuById").errors()).isZero();
+		// the stub has no sales-by-day endpoint and answers 400, so every call comes back as a tool error
+		assertThat(tools.get("getSalesByDay").calls()).isZero();
+		assertThat(tools.get("getSalesByDay").errors()).isEqualTo(server.calls("getSalesByDay"));
+	}
+
+	@Test
+	void percentilesAreInOrderAndIncludeTheBackendLatency() throws Exception {
+		List<LoadGenerator.Step> steps = generator(MIX, "--rates=50,100", "--duration=1s").run();
+
+		assertThat(steps).extracting(LoadGenerator.Step::rate).containsExactly(50, 100);
+		for (LoadGenerator.Step step : steps) {
+			LatencyRecorder.Summary total = step.total();
+			assertThat(total.calls() + total.errors()).isEqualTo(step.rate());
+			assertThat(total.p50()).isGreaterThanOrEqualTo(2.0);
+			assertThat(total.p50()).isLessThanOrEqualTo(total.p90());
+			assertThat(total.p90()).isLessThanOrEqualTo(total.p99());
+			assertThat(total.p99()).isLessThanOrEqualTo(total.p999());
+			assertThat(total.p999()).isLessThanOrEqualTo(total.max());
+		}
+	}
+
+	@Test
+	void toolTheServerDoesNotOfferIsRejected() {
+		assertThatThrownBy(() -> generator("--mix=getAllDishes:1,getMenuPrices:1", "--rates=10", "--duration=1s"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("getMenuPrices");
+	}
+
+	private LoadGenerator generator(String... args) throws Exception {
+		String[] settings = new String[args.length + 2];
+		System.arraycopy(args, 0, settings, 0, args.length);
+		settings[args.length] = "--warmup=0s";
+		settings[args.length + 1] = "--timeout=5s";
+		Map<String, JsonNode> schemas = new HashMap<>();
+		for (JsonNode tool : server.request("tools/list", server.objectMapper.createObjectNode()).get().path("tools")) {
+			schemas.put(tool.path("name").asText(), tool.path("inputSchema"));
+		}
+		return new LoadGenerator(LoadSettings.parse(settings), List.of(server), new ArgumentGenerator(dataset), schemas);
+	}
+
+	/**
+	 * Answers JSON-RPC in process and serves each tool with one GET on the stub
+	 * backend, the way the server's services do
+	 */
+	private static final class InProcessServer extends McpClient {
+
+		private static final Map<String, String> TOOLS = Map.of(
+				"getAllDishes", "/dishes",
+				"getMenuById", "/menus/{idMenu}",
+				"getSalesByDay", "/sales/day/{date}");
+
+		private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+		private final String baseUrl;
+
+		private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+		InProcessServer(String baseUrl) {
+			this.baseUrl = baseUrl;
+		}
+
+		long calls(String tool) {
+			return calls.getOrDefault(tool, new AtomicInteger()).get();
+		}
+
+		@Override
+		protected CompletableFuture<Void> send(String json) {
+			JsonNode message = readTree(json);
+			if (!message.has("id")) {
+				return CompletableFuture.completedFuture(null);
+			}
+			ObjectNode response = objectMapper.createObjectNode();
+			response.put("jsonrpc", "2.0");
+			response.set("id", message.get("id"));
+			ObjectNode result = response.putObject("result");
+			switch (message.path("method").asText()) {
+				case "tools/list" -> {
+					ArrayNode tools = result.putArray("tools");
+					TOOLS.forEach((name, path) -> {
+						ObjectNode properties = tools.addObject().put("name", name)
+								.putObject("inputSchema").put("type", "object").putObject("properties");
+						if (path.contains("{idMenu}")) {
+							properties.putObject("idMenu").put("type", "integer");
+						}
+						if (path.contains("{date}")) {
+							properties.putObject("date").put("type", "string");
+						}
+					});
+				}
+				case "tools/call" -> {
+					return call(message.path("params"), response, result);
+				}
+				default -> result.put("protocolVersion", PROTOCOL_VERSION);
+			}
+			return CompletableFuture.runAsync(() -> received(response.toString()));
+		}
+
+		private CompletableFuture<Void> call(JsonNode params, ObjectNode response, ObjectNode result) {
+			String tool = params.path("name").asText();
+			calls.computeIfAbsent(tool, name -> new AtomicInteger()).incrementAndGet();
+			String path = TOOLS.get(tool);
+			for (Map.Entry<String, JsonNode> argument : params.path("arguments").properties()) {
+				path = path.replace("{" + argument.getKey() + "}", argument.getValue().asText());
+			}
+			http.sendAsync(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+					HttpResponse.BodyHandlers.ofString()).thenAccept(backendResponse -> {
+						result.putArray("content").addObject().put("type", "text").put("text", backendResponse.body());
+						result.put("isError", backendResponse.statusCode() / 100 != 2);
+						received(response.toString());
+					});
+			return CompletableFuture.completedFuture(null);
+		}
+
+		private JsonNode readTree(String json) {
+			try {
+				return objectMapper.readTree(json);
+			} catch (Exception e) {
+				throw new IllegalArgumentException(e);
+			}
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
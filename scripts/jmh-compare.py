@@ -0,0 +1,59 @@
+#!/usr/bin/env python3
+"""Compare two JMH JSON result files (build/results/jmh/results.json).
+
+    scripts/jmh-compare.py baseline.json current.json [--threshold 10]
+
+Prints the score of every benchmark in both runs and the change. Exits with
+status 1 when a benchmark got slower (or lost throughput) by more than the
+threshold percentage, so it can gate a release build.
+"""
+import argparse
+import json
+import sys
+
+
+def load(path):
+    with open(path) as f:
+        runs = json.load(f)
+    results = {}
+    for run in runs:
+        params = run.get("params") or {}
+        name = run["benchmark"].rsplit(".", 2)[-2:]
+        key = ".".join(name) + "".join(f" {k}={v}" for k, v in sorted(params.items()))
+        metric = run["primaryMetric"]
+        results[key] = (run["mode"], metric["score"], metric.get("scoreError", 0.0), metric["scoreUnit"])
+    return results
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("baseline")
+    parser.add_argument("current")
+    parser.add_argument("--threshold", type=float, default=10.0, help="allowed regression in percent")
+    args = parser.parse_args()
+
+    baseline, current = load(args.baseline), load(args.current)
+    regressions = 0
+    width = max((len(k) for k in current), default=10)
+    print(f"{'benchmark':<{width}} {'baseline':>14} {'current':>14} {'change':>9}  unit")
+    for key in sorted(current):
+        mode, score, error, unit = current[key]
+        if key not in baseline:
+            print(f"{key:<{width}} {'-':>14} {score:>14.3f} {'new':>9}  {unit}")
+            continue
+        base = baseline[key][1]
+        change = (score - base) / base * 100 if base else 0.0
+        # Throughput modes get worse when the score drops, time modes when it grows
+        worse = -change if mode == "thrpt" else change
+        flag = ""
+        if worse > args.threshold:
+            regressions += 1
+            flag = "  REGRESSION"
+        print(f"{key:<{width}} {base:>14.3f} {score:>14.3f} {change:>+8.1f}%  {unit}{flag}")
+    for key in sorted(set(baseline) - set(current)):
+        print(f"{key:<{width}} {baseline[key][1]:>14.3f} {'-':>14} {'gone':>9}  {baseline[key][3]}")
+    sys.exit(1 if regressions else 0)
+
+
+if __name__ == "__main__":
+    main()
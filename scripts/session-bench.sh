@@ -0,0 +1,104 @@
+#!/usr/bin/env bash
+# Compares the STDIO-per-client model with one HTTP-mode process serving every
+# session: heap and RSS per session, and tool calls per second per core used.
+#
+#   ./gradlew bootJar :stub-backend:installDist :load-generator:installDist
+#   scripts/session-bench.sh
+#
+# For each session count the load generator opens that many sessions (one JVM
+# each for stdio, one SSE stream each for http) and calls tools at RATE calls/s
+# spread over them. Heap is read with jcmd after a full GC at the end of the
+# measured step, RSS and CPU time from /proc (Linux).
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+JAVA=${JAVA:-java}
+HEAP=${HEAP:-1g}
+RATE=${RATE:-200}
+DURATION=${DURATION:-30}
+WARMUP=${WARMUP:-10}
+MIX=${MIX:-getAllDishes:4,getMenuById:4,getMenusBySaleId:4,getRevenueByDay:1}
+STDIO_SESSIONS=${STDIO_SESSIONS:-"1 4 16"}
+HTTP_SESSIONS=${HTTP_SESSIONS:-"1 16 256 2048"}
+JAR=build/libs/mcprestaurant-0.0.1-SNAPSHOT.jar
+STUB=stub-backend/build/install/stub-backend/bin/stub-backend
+LOAD=load-generator/build/install/load-generator/bin/load-generator
+STUB_PORT=18080
+BACKEND=http://localhost:$STUB_PORT/api
+RESULTS=build/session-bench
+mkdir -p "$RESULTS"
+
+"$STUB" --port=$STUB_PORT >/dev/null &
+STUB_PID=$!
+trap 'kill $STUB_PID 2>/dev/null || true' EXIT
+sleep 3
+
+cpu_ticks() {
+    local total=0 pid
+    for pid in "$@"; do
+        total=$((total + $(awk '{ print $14 + $15 }' "/proc/$pid/stat")))
+    done
+    echo "$total"
+}
+
+# "<heap MB> <rss MB>" summed over the given JVMs
+memory() {
+    local heap=0 rss=0 pid
+    for pid in "$@"; do
+        jcmd "$pid" GC.run >/dev/null
+        heap=$((heap + $(jcmd "$pid" GC.heap_info | awk '/used/ { for (i = 1; i < NF; i++) if ($i == "used") { sub("K,?", "", $(i + 1)); print int($(i + 1) / 1024); exit } }')))
+        rss=$((rss + $(awk '/^VmRSS/ { print int($2 / 1024) }' "/proc/$pid/status")))
+    done
+    echo "$heap $rss"
+}
+
+# One measurement once the load generator has opened its sessions:
+# prints "<mode> <sessions> <calls/s> <cores> <heap MB> <rss MB>"
+measure() {
+    local mode=$1 sessions=$2 pids=$3 load_pid=$4 output=$5
+    local hz start end heap rss achieved cores
+    hz=$(getconf CLK_TCK)
+    until grep -q 'session(s) open' "$output.log"; do sleep 1; done
+    sleep "$WARMUP"
+    start=$(cpu_ticks $pids)
+    sleep "$DURATION"
+    end=$(cpu_ticks $pids)
+    read -r heap rss <<< "$(memory $pids)"
+    wait "$load_pid"
+    achieved=$(awk -F: '/"achievedRate"/ { gsub(/[ ,]/, "", $2); print $2; exit }' "$output")
+    cores=$(awk -v t=$((end - start)) -v hz="$hz" -v d="$DURATION" 'BEGIN { printf "%.2f", t / hz / d }')
+    echo "$mode $sessions $achieved $cores $heap $rss"
+}
+
+report() {
+    awk '{ printf "%-6s %9d %10.1f %10.1f %12.2f %12.2f %12.0f\n", $1, $2, $3, $3 / ($4 > 0 ? $4 : 1), $5 / $2, $6 / $2, $2 / ($5 > 0 ? $5 / 1024 : 1) }'
+}
+
+stdio() {
+    local sessions=$1 output=$RESULTS/stdio-$1.json load_pid pids
+    "$LOAD" --transport=stdio --sessions="$sessions" --stub=false --mix="$MIX" --rates="$RATE" \
+        --duration="${DURATION}s" --warmup="${WARMUP}s" --output="$output" \
+        --command="$JAVA -Xmx$HEAP -jar $JAR --restaurant.api.base-url=$BACKEND" >"$output.log" &
+    load_pid=$!
+    until grep -q 'session(s) open' "$output.log"; do sleep 1; done
+    pids=$(pgrep -P "$load_pid" | tr '\n' ' ')
+    measure stdio "$sessions" "$pids" "$load_pid" "$output"
+}
+
+http() {
+    local sessions=$1 output=$RESULTS/http-$1.json load_pid server_pid
+    "$JAVA" -Xmx"$HEAP" -jar "$JAR" --spring.profiles.active=http --logging.level.root=WARN \
+        --restaurant.api.base-url="$BACKEND" >/dev/null &
+    server_pid=$!
+    until (exec 3<>/dev/tcp/localhost/3000) 2>/dev/null; do sleep 1; done
+    "$LOAD" --transport=sse --url=http://localhost:3000 --sessions="$sessions" --stub=false --mix="$MIX" \
+        --rates="$RATE" --duration="${DURATION}s" --warmup="${WARMUP}s" --output="$output" >"$output.log" &
+    load_pid=$!
+    measure http "$sessions" "$server_pid" "$load_pid" "$output"
+    kill "$server_pid"
+    wait "$server_pid" 2>/dev/null || true
+}
+
+printf '%-6s %9s %10s %10s %12s %12s %12s\n' mode sessions calls/s calls/core heapMB/sess rssMB/sess sessions/GB
+for n in $STDIO_SESSIONS; do stdio "$n"; done | report
+for n in $HTTP_SESSIONS; do http "$n"; done | report
@@ -0,0 +1,77 @@
+#!/usr/bin/env bash
+# Startup benchmark for the STDIO server: time until the first tools/list
+# response and resident memory once it has settled, for the plain JVM, the
+# JVM with the AppCDS archive and the native image.
+#
+#   ./gradlew bootJar cdsArchive nativeCompile
+#   scripts/startup-bench.sh [runs]
+#
+# Modes whose artifact is missing are skipped. RSS is read from /proc (Linux).
+# Set FIRST_CALL to a tool name (e.g. FIRST_CALL=getAllMenus, with a backend
+# running) to also time the first tools/call, which creates the lazy service.
+# SERVER_ARGS is appended to every command line, e.g.
+# SERVER_ARGS=--restaurant.snapshot.enabled=false to time first calls without
+# the catalog snapshot.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS=${1:-5}
+SETTLE=${SETTLE:-3}
+JAVA=${JAVA:-java}
+JAR=build/libs/mcprestaurant-0.0.1-SNAPSHOT.jar
+CDS_JAR=build/cds/mcprestaurant.jar
+CDS_ARCHIVE=build/cds/application.jsa
+NATIVE=build/native/nativeCompile/mcprestaurant
+
+INITIALIZE='{"jsonrpc":"2.0","id":1,"method":"initialize","params":{"protocolVersion":"2024-11-05","capabilities":{},"clientInfo":{"name":"startup-bench","version":"1"}}}'
+INITIALIZED='{"jsonrpc":"2.0","method":"notifications/initialized"}'
+TOOLS_LIST='{"jsonrpc":"2.0","id":2,"method":"tools/list","params":{}}'
+FIRST_CALL=${FIRST_CALL:-}
+read -r -a SERVER_ARGS <<< "${SERVER_ARGS:-}"
+TOOLS_CALL='{"jsonrpc":"2.0","id":3,"method":"tools/call","params":{"name":"'"$FIRST_CALL"'","arguments":{}}}'
+
+# One run: prints "<millis to tools/list> <millis of first call> <rss in MB>"
+run_once() {
+    local start end call_start call_end=0 line rss
+    start=$(date +%s%N)
+    coproc SERVER { exec "$@" "${SERVER_ARGS[@]}" 2>/dev/null; }
+    printf '%s\n' "$INITIALIZE" >&"${SERVER[1]}"
+    read -r -t 120 line <&"${SERVER[0]}"
+    printf '%s\n%s\n' "$INITIALIZED" "$TOOLS_LIST" >&"${SERVER[1]}"
+    while read -r -t 120 line <&"${SERVER[0]}"; do
+        [[ $line == *'"id":2'* ]] && break
+    done
+    end=$(date +%s%N)
+    call_start=$end
+    if [[ -n $FIRST_CALL ]]; then
+        printf '%s\n' "$TOOLS_CALL" >&"${SERVER[1]}"
+        while read -r -t 120 line <&"${SERVER[0]}"; do
+            [[ $line == *'"id":3'* ]] && break
+        done
+        call_end=$(date +%s%N)
+    fi
+    sleep "$SETTLE"
+    rss=$(awk '/^VmRSS/ { print int($2 / 1024) }' "/proc/$SERVER_PID/status")
+    kill "$SERVER_PID" 2>/dev/null || true
+    wait "$SERVER_PID" 2>/dev/null || true
+    echo "$(( (end - start) / 1000000 )) $(( call_end > 0 ? (call_end - call_start) / 1000000 : 0 )) $rss"
+}
+
+bench() {
+    local name=$1; shift
+    local total_ms=0 total_call=0 total_rss=0 result ms call rss
+    for ((i = 0; i < RUNS; i++)); do
+        result=$(run_once "$@")
+        read -r ms call rss <<< "$result"
+        total_ms=$((total_ms + ms))
+        total_call=$((total_call + call))
+        total_rss=$((total_rss + rss))
+    done
+    printf '%-7s %10d ms %10d ms %10d MB\n' "$name" $((total_ms / RUNS)) $((total_call / RUNS)) $((total_rss / RUNS))
+}
+
+printf '%-7s %13s %13s %13s   (mean of %d runs)\n' mode tools/list first-call rss "$RUNS"
+[[ -f $JAR ]] && bench jvm "$JAVA" -jar "$JAR"
+[[ -f $CDS_ARCHIVE ]] && bench cds "$JAVA" -XX:SharedArchiveFile="$CDS_ARCHIVE" -jar "$CDS_JAR"
+[[ -x $NATIVE ]] && bench native "$NATIVE"
+exit 0
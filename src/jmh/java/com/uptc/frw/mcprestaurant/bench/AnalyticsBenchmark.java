@@ -0,0 +1,90 @@
+package com.uptc.frw.mcprestaurant.bench;
+
+import com.uptc.frw.mcprestaurant.analytics.SalesAnalytics;
+import com.uptc.frw.mcprestaurant.client.JsonArrayReader;
+import com.uptc.frw.mcprestaurant.config.SalesIndexProperties;
+import com.uptc.frw.mcprestaurant.model.DailyRevenue;
+import com.uptc.frw.mcprestaurant.model.MenuRanking;
+import com.uptc.frw.mcprestaurant.model.TicketStats;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sales index: a full resync streamed from the stub backend, and the analytics
+ * queries answered from the loaded index
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AnalyticsBenchmark {
+
+    private static final int MENUS = 200;
+
+    @Param({"100000"})
+    int sales;
+
+    private StubBackend backend;
+    private ClientStack stack;
+    private SalesAnalytics analytics;
+    private long fromDay;
+    private long toDay;
+
+    @Setup
+    public void setUp() {
+        try {
+            backend = new StubBackend()
+                    .collection("/dish-menus", Fixtures.dishMenus(MENUS, 4))
+                    .collection("/sales", Fixtures.sales(sales))
+                    .collection("/SalesMenu", Fixtures.saleMenus(sales, 3, MENUS));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start the stub backend", e);
+        }
+        stack = new ClientStack(backend.baseUrl());
+        analytics = new SalesAnalytics(new JsonArrayReader(stack.restClient, stack.objectMapper),
+                new SalesIndexProperties(false, Duration.ofHours(1), Duration.ofHours(1)));
+        analytics.sync();
+        fromDay = Fixtures.FIRST_DAY.toEpochDay();
+        toDay = fromDay + Fixtures.DAYS - 1;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        analytics.stop();
+        stack.close();
+        backend.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean resync() {
+        analytics.sync();
+        return analytics.isLoaded();
+    }
+
+    @Benchmark
+    public List<DailyRevenue> revenueByDayForAYear() {
+        return analytics.revenueByDay(fromDay, toDay);
+    }
+
+    @Benchmark
+    public List<MenuRanking> topTenMenusByRevenue() {
+        return analytics.topMenus(fromDay, toDay, true, 10);
+    }
+
+    @Benchmark
+    public TicketStats averageTicketForAMonth() {
+        return analytics.ticketStats(fromDay, fromDay + 30);
+    }
+}
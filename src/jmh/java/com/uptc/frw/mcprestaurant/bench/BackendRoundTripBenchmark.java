@@ -0,0 +1,116 @@
+package com.uptc.frw.mcprestaurant.bench;
+
+import com.uptc.frw.mcprestaurant.analytics.SalesAnalytics;
+import com.uptc.frw.mcprestaurant.cache.CatalogCache;
+import com.uptc.frw.mcprestaurant.cache.CatalogSnapshot;
+import com.uptc.frw.mcprestaurant.client.BulkFetcher;
+import com.uptc.frw.mcprestaurant.client.JsonArrayReader;
+import com.uptc.frw.mcprestaurant.client.RevalidatingReader;
+import com.uptc.frw.mcprestaurant.config.CatalogCacheProperties;
+import com.uptc.frw.mcprestaurant.config.CatalogSnapshotProperties;
+import com.uptc.frw.mcprestaurant.config.SalesIndexProperties;
+import com.uptc.frw.mcprestaurant.config.SearchIndexProperties;
+import com.uptc.frw.mcprestaurant.model.BulkResult;
+import com.uptc.frw.mcprestaurant.model.DishMenu;
+import com.uptc.frw.mcprestaurant.model.DishMenuItem;
+import com.uptc.frw.mcprestaurant.model.Menu;
+import com.uptc.frw.mcprestaurant.search.CatalogSearch;
+import com.uptc.frw.mcprestaurant.service.DishMenuService;
+import com.uptc.frw.mcprestaurant.service.MenuService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * End-to-end service calls through the production HTTP stack against an
+ * in-process stub of the restaurant API
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BackendRoundTripBenchmark {
+
+    private static final int MENUS = 1000;
+    private static final List<Long> HUNDRED_IDS = LongStream.rangeClosed(1, 100).boxed().toList();
+    private static final List<DishMenuItem> HUNDRED_LINES = LongStream.rangeClosed(1, 100)
+            .mapToObj(dish -> new DishMenuItem(dish, 12.5, "2025-01-01"))
+            .toList();
+
+    private StubBackend backend;
+    private ClientStack stack;
+    private MenuService uncachedMenus;
+    private MenuService cachedMenus;
+    private DishMenuService dishMenus;
+
+    @Setup
+    public void setUp() {
+        try {
+            backend = new StubBackend().collection("/menus", Fixtures.menus(MENUS));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start the stub backend", e);
+        }
+        stack = new ClientStack(backend.baseUrl());
+        BulkFetcher bulkFetcher = new BulkFetcher(stack.executor, stack.properties);
+        RevalidatingReader reader = new RevalidatingReader(stack.restClient);
+        CatalogCache uncached = catalogCache(false);
+        CatalogCache cached = catalogCache(true);
+        SalesAnalytics analytics = new SalesAnalytics(new JsonArrayReader(stack.restClient, stack.objectMapper),
+                new SalesIndexProperties(false, Duration.ofHours(1), Duration.ofHours(1)));
+
+        CatalogSearch catalogSearch = new CatalogSearch(new SearchIndexProperties(Duration.ofMinutes(10), 50));
+        uncachedMenus = new MenuService(stack.restClient, uncached, bulkFetcher, reader, catalogSearch);
+        cachedMenus = new MenuService(stack.restClient, cached, bulkFetcher, reader, catalogSearch);
+        dishMenus = new DishMenuService(stack.restClient, uncached, bulkFetcher, stack.properties, analytics, reader);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        stack.close();
+        backend.close();
+    }
+
+    @Benchmark
+    public Menu menuByIdRoundTrip() {
+        return uncachedMenus.getMenuById(ThreadLocalRandom.current().nextLong(1, MENUS + 1));
+    }
+
+    @Benchmark
+    public Menu menuByIdCached() {
+        return cachedMenus.getMenuById(ThreadLocalRandom.current().nextLong(1, MENUS + 1));
+    }
+
+    @Benchmark
+    public List<BulkResult<Menu>> hundredMenusByIds() {
+        return uncachedMenus.getMenusByIds(HUNDRED_IDS);
+    }
+
+    @Benchmark
+    public List<Menu> allMenusRevalidated() {
+        return uncachedMenus.getAllMenus();
+    }
+
+    @Benchmark
+    public List<BulkResult<DishMenu>> hundredDishesAddedToMenu() {
+        return dishMenus.addDishesToMenu(1L, HUNDRED_LINES);
+    }
+
+    private static CatalogCache catalogCache(boolean enabled) {
+        CatalogCacheProperties.Entity entity = new CatalogCacheProperties.Entity(enabled, 10_000, Duration.ofMinutes(10));
+        CatalogSnapshot noSnapshot = new CatalogSnapshot(
+                new CatalogSnapshotProperties(false, null, Duration.ofHours(24), Duration.ofSeconds(2)));
+        return new CatalogCache(new CatalogCacheProperties(entity, entity, entity), noSnapshot, ForkJoinPool.commonPool());
+    }
+}
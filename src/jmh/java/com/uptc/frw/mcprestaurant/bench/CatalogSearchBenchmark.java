@@ -0,0 +1,116 @@
+package com.uptc.frw.mcprestaurant.bench;
+
+import com.uptc.frw.mcprestaurant.config.SearchIndexProperties;
+import com.uptc.frw.mcprestaurant.model.Dish;
+import com.uptc.frw.mcprestaurant.model.Menu;
+import com.uptc.frw.mcprestaurant.model.SearchHit;
+import com.uptc.frw.mcprestaurant.search.CatalogSearch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog search over synthetic Spanish-like dishes: exact, multi-word, prefix
+ * and misspelled queries, the incremental update done on updateDish, and a
+ * full rebuild
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CatalogSearchBenchmark {
+
+    private static final String[] FOODS = ("sopa crema pollo res cerdo arroz frijol papa yuca plátano aguacate queso "
+            + "tomate cebolla ajo cilantro limón mango piña fresa mora lulo guayaba maracuyá arepa empanada tamal "
+            + "lechona sancocho ajiaco changua mazamorra natilla buñuelo oblea postre vegetariano picante dulce "
+            + "salado frito asado horneado").split(" ");
+    private static final String[] SYLLABLES = ("ba be bi bo bu ca ce ci co cu da de di do du fa fe fi fo ga go gu "
+            + "ja je jo la le li lo lu ma me mi mo mu na ne ni no nu pa pe pi po pu ra re ri ro ru sa se si so su "
+            + "ta te ti to tu va ve vi vo za zo").split(" ");
+    private static final String[] TYPES = {"Sopa", "Plato fuerte", "Postre", "Bebida", "Entrada"};
+
+    @Param({"100000"})
+    int dishes;
+
+    private final CatalogSearch search = new CatalogSearch(new SearchIndexProperties(Duration.ofDays(1), 50));
+    private List<Dish> catalog;
+    private List<Menu> menus;
+    private long nextUpdate;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        String[] vocabulary = new String[20_000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int syllables = 2 + random.nextInt(3); syllables > 0; syllables--) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            vocabulary[i] = word.toString();
+        }
+        catalog = new ArrayList<>(dishes);
+        for (long id = 1; id <= dishes; id++) {
+            String name = FOODS[random.nextInt(FOODS.length)] + " " + vocabulary[random.nextInt(2_000)] + " "
+                    + vocabulary[random.nextInt(vocabulary.length)];
+            // Description words follow a skewed distribution, like real text
+            StringBuilder description = new StringBuilder();
+            for (int word = 0; word < 12; word++) {
+                int index = (int) Math.min(vocabulary.length - 1, Math.abs(random.nextGaussian()) * 3_000);
+                description.append(vocabulary[index]).append(' ');
+            }
+            if (random.nextInt(10) == 0) {
+                description.append(FOODS[random.nextInt(FOODS.length)]);
+            }
+            catalog.add(new Dish(id, TYPES[(int) (id % TYPES.length)], name, description.toString()));
+        }
+        menus = new ArrayList<>();
+        for (long id = 1; id <= 1_000; id++) {
+            menus.add(new Menu(id, "Menú " + FOODS[(int) (id % FOODS.length)] + " " + vocabulary[(int) id]));
+        }
+        search.rebuild(() -> catalog, () -> menus);
+    }
+
+    @Benchmark
+    public List<SearchHit> oneWord() {
+        return search.search("ajiaco", null, null, 10);
+    }
+
+    @Benchmark
+    public List<SearchHit> twoWords() {
+        return search.search("sopa vegetariana", null, null, 10);
+    }
+
+    @Benchmark
+    public List<SearchHit> shortPrefix() {
+        return search.search("pla", null, null, 10);
+    }
+
+    @Benchmark
+    public List<SearchHit> misspelled() {
+        return search.search("mazamora", CatalogSearch.DISH, "postre", 10);
+    }
+
+    @Benchmark
+    public long updateDish() {
+        long id = 1 + nextUpdate++ % dishes;
+        search.putDish(new Dish(id, "Sopa", "Sopa de la casa " + id, "Caldo con verduras"));
+        return id;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int rebuild() {
+        search.rebuild(() -> catalog, () -> menus);
+        return search.getDocuments();
+    }
+}
@@ -0,0 +1,95 @@
+package com.uptc.frw.mcprestaurant.bench;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.uptc.frw.mcprestaurant.cache.CatalogCache;
+import com.uptc.frw.mcprestaurant.cache.CatalogSnapshot;
+import com.uptc.frw.mcprestaurant.config.CatalogCacheProperties;
+import com.uptc.frw.mcprestaurant.config.CatalogSnapshotProperties;
+import com.uptc.frw.mcprestaurant.model.Dish;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to the first getAllDishes answer of a freshly started cache, read from
+ * the mapped snapshot against binding the backend's JSON payload; run with
+ * -prof gc to compare the allocation of each
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CatalogSnapshotBenchmark {
+
+    @Param({"1000", "100000"})
+    int size;
+
+    private final ObjectReader dishesReader = new ObjectMapper().readerFor(new TypeReference<List<Dish>>() {});
+    private byte[] payload;
+    private Path directory;
+    private CatalogSnapshotProperties properties;
+
+    @Setup
+    public void setUp() throws IOException {
+        payload = Fixtures.dishes(size).getBytes(StandardCharsets.UTF_8);
+        directory = Files.createTempDirectory("catalog-snapshot-bench");
+        properties = new CatalogSnapshotProperties(true, directory.resolve("catalog.snapshot"),
+                Duration.ofHours(24), Duration.ofHours(1));
+        CatalogSnapshot snapshot = new CatalogSnapshot(properties);
+        catalogCache(snapshot).dishes().getAll(this::bind);
+        snapshot.write();
+        snapshot.stop();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(properties.file());
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public List<Dish> firstAnswerFromSnapshot() {
+        CatalogSnapshot snapshot = new CatalogSnapshot(properties);
+        try {
+            return catalogCache(snapshot).dishes().getAll(() -> null);
+        } finally {
+            snapshot.stop();
+        }
+    }
+
+    @Benchmark
+    public List<Dish> firstAnswerFromPayload() {
+        CatalogSnapshot snapshot = new CatalogSnapshot(
+                new CatalogSnapshotProperties(false, null, Duration.ofHours(24), Duration.ofHours(1)));
+        return catalogCache(snapshot).dishes().getAll(this::bind);
+    }
+
+    private List<Dish> bind() {
+        try {
+            return dishesReader.readValue(payload);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static CatalogCache catalogCache(CatalogSnapshot snapshot) {
+        CatalogCacheProperties.Entity entity = new CatalogCacheProperties.Entity(true, 1_000_000, Duration.ofMinutes(10));
+        return new CatalogCache(new CatalogCacheProperties(entity, entity, entity), snapshot, ForkJoinPool.commonPool());
+    }
+}
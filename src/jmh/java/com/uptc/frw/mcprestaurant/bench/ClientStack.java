@@ -0,0 +1,60 @@
+package com.uptc.frw.mcprestaurant.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uptc.frw.mcprestaurant.client.ConditionalGetInterceptor;
+import com.uptc.frw.mcprestaurant.client.ResilienceInterceptor;
+import com.uptc.frw.mcprestaurant.client.SingleFlightInterceptor;
+import com.uptc.frw.mcprestaurant.config.ExecutorConfig;
+import com.uptc.frw.mcprestaurant.config.ResilienceProperties;
+import com.uptc.frw.mcprestaurant.config.RestClientConfig;
+import com.uptc.frw.mcprestaurant.config.RestaurantApiProperties;
+import com.uptc.frw.mcprestaurant.metrics.BackendMetrics;
+import com.uptc.frw.mcprestaurant.metrics.BackendMetricsInterceptor;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The production HTTP stack (pooled client and the interceptor chain in bean
+ * order) wired by hand against a base URL, without a Spring context
+ */
+final class ClientStack implements AutoCloseable {
+
+    final ObjectMapper objectMapper = new ObjectMapper();
+    final RestaurantApiProperties properties;
+    final RestClient restClient;
+    final ExecutorService executor;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+
+    ClientStack(String baseUrl) {
+        properties = new RestaurantApiProperties(baseUrl, "admin", "password",
+                Duration.ofSeconds(2), Duration.ofSeconds(10), 16,
+                new RestaurantApiProperties.Pool(50, 50, Duration.ofSeconds(30), Duration.ofSeconds(2)),
+                new RestaurantApiProperties.BulkEndpoints(null, null));
+        ResilienceProperties resilience = new ResilienceProperties(20, Map.of(), Duration.ofMillis(500),
+                Duration.ofSeconds(15), 3, Duration.ofMillis(100), Duration.ofSeconds(2), 5, Duration.ofSeconds(10));
+        RestClientConfig config = new RestClientConfig();
+        connectionManager = config.restaurantApiConnectionManager(properties);
+        httpClient = config.restaurantApiHttpClient(connectionManager, properties);
+        restClient = config.restaurantRestClient(httpClient, properties, List.of(
+                new SingleFlightInterceptor(properties),
+                new ConditionalGetInterceptor(),
+                new ResilienceInterceptor(resilience, properties, objectMapper),
+                new BackendMetricsInterceptor(new BackendMetrics(objectMapper))));
+        executor = new ExecutorConfig().restaurantApiExecutor(properties);
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdownNow();
+        httpClient.close();
+        connectionManager.close();
+    }
+}
@@ -0,0 +1,117 @@
+package com.uptc.frw.mcprestaurant.bench;
+
+import java.time.LocalDate;
+
+/**
+ * Deterministic JSON payloads shaped like the restaurant API responses
+ */
+final class Fixtures {
+
+    static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    static final int DAYS = 365;
+
+    private Fixtures() {
+    }
+
+    static String menus(int count) {
+        StringBuilder json = new StringBuilder(count * 48).append('[');
+        for (int i = 1; i <= count; i++) {
+            if (i > 1) {
+                json.append(',');
+            }
+            json.append("{\"idMenu\":").append(i).append(",\"description\":\"Menu ").append(i).append("\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    static String menu(long id) {
+        return "{\"idMenu\":" + id + ",\"description\":\"Menu " + id + "\"}";
+    }
+
+    static String dishes(int count) {
+        StringBuilder json = new StringBuilder(count * 96).append('[');
+        for (int i = 1; i <= count; i++) {
+            if (i > 1) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i).append(",\"dishType\":\"main\",\"name\":\"Dish ").append(i)
+                    .append("\",\"description\":\"Dish number ").append(i).append("\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    /**
+     * Every menu gets dishesPerMenu dishes, each with pricesPerDish prices spread over the year
+     */
+    static String dishMenus(int menus, int dishesPerMenu, int pricesPerDish) {
+        StringBuilder json = new StringBuilder(menus * dishesPerMenu * pricesPerDish * 72).append('[');
+        boolean first = true;
+        for (int menu = 1; menu <= menus; menu++) {
+            for (int k = 0; k < dishesPerMenu; k++) {
+                int dish = (menu * 7 + k) % 500 + 1;
+                for (int change = 0; change < pricesPerDish; change++) {
+                    if (!first) {
+                        json.append(',');
+                    }
+                    first = false;
+                    json.append("{\"idMenu\":").append(menu).append(",\"idDish\":").append(dish)
+                            .append(",\"price\":").append(5 + (menu + k + change) % 20).append(".5")
+                            .append(",\"date\":\"").append(FIRST_DAY.plusDays((long) change * DAYS / pricesPerDish))
+                            .append("\"}");
+                }
+            }
+        }
+        return json.append(']').toString();
+    }
+
+    /**
+     * Every menu gets dishesPerMenu dishes, each with one price
+     */
+    static String dishMenus(int menus, int dishesPerMenu) {
+        StringBuilder json = new StringBuilder(menus * dishesPerMenu * 72).append('[');
+        boolean first = true;
+        for (int menu = 1; menu <= menus; menu++) {
+            for (int k = 0; k < dishesPerMenu; k++) {
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                int dish = (menu * 7 + k) % 500 + 1;
+                json.append("{\"idMenu\":").append(menu).append(",\"idDish\":").append(dish)
+                        .append(",\"price\":").append(5 + (menu + k) % 20).append(".5")
+                        .append(",\"date\":\"").append(FIRST_DAY).append("\"}");
+            }
+        }
+        return json.append(']').toString();
+    }
+
+    static String sales(int count) {
+        StringBuilder json = new StringBuilder(count * 32).append('[');
+        for (int i = 1; i <= count; i++) {
+            if (i > 1) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i).append(",\"date\":\"").append(FIRST_DAY.plusDays(i % DAYS)).append("\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    /**
+     * Every sale gets linesPerSale lines over menus 1..menus
+     */
+    static String saleMenus(int sales, int linesPerSale, int menus) {
+        StringBuilder json = new StringBuilder(sales * linesPerSale * 40).append('[');
+        boolean first = true;
+        for (int sale = 1; sale <= sales; sale++) {
+            for (int k = 0; k < linesPerSale; k++) {
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                json.append("{\"idMenu\":").append((sale + k * 13) % menus + 1).append(",\"idSale\":").append(sale)
+                        .append(",\"quantity\":").append(1 + (sale + k) % 4).append('}');
+            }
+        }
+        return json.append(']').toString();
+    }
+}
@@ -0,0 +1,82 @@
+package com.uptc.frw.mcprestaurant.bench;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.uptc.frw.mcprestaurant.model.Sale;
+import com.uptc.frw.mcprestaurant.model.SaleMenu;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson binding of large sale and sale-menu payloads into the model records,
+ * whole-list binding against the element-by-element streaming used by JsonArrayReader
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JsonBenchmark {
+
+    @Param({"1000", "100000"})
+    int size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ObjectReader salesReader;
+    private ObjectReader saleMenusReader;
+    private byte[] sales;
+    private byte[] saleMenus;
+
+    @Setup
+    public void setUp() {
+        salesReader = objectMapper.readerFor(new TypeReference<List<Sale>>() {});
+        saleMenusReader = objectMapper.readerFor(new TypeReference<List<SaleMenu>>() {});
+        sales = Fixtures.sales(size).getBytes(StandardCharsets.UTF_8);
+        saleMenus = Fixtures.saleMenus(size, 3, 50).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<Sale> bindSales() throws IOException {
+        return salesReader.readValue(sales);
+    }
+
+    @Benchmark
+    public List<SaleMenu> bindSaleMenus() throws IOException {
+        return saleMenusReader.readValue(saleMenus);
+    }
+
+    @Benchmark
+    public long streamSales(Blackhole blackhole) throws IOException {
+        return stream(sales, Sale.class, blackhole);
+    }
+
+    @Benchmark
+    public long streamSaleMenus(Blackhole blackhole) throws IOException {
+        return stream(saleMenus, SaleMenu.class, blackhole);
+    }
+
+    private <T> long stream(byte[] json, Class<T> type, Blackhole blackhole) throws IOException {
+        long count = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                blackhole.consume(objectMapper.readValue(parser, type));
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,95 @@
+package com.uptc.frw.mcprestaurant.bench;
+
+import com.uptc.frw.mcprestaurant.analytics.SalesAnalytics;
+import com.uptc.frw.mcprestaurant.client.JsonArrayReader;
+import com.uptc.frw.mcprestaurant.config.OrderJournalProperties;
+import com.uptc.frw.mcprestaurant.config.SalesIndexProperties;
+import com.uptc.frw.mcprestaurant.model.Sale;
+import com.uptc.frw.mcprestaurant.model.SaleMenu;
+import com.uptc.frw.mcprestaurant.model.SaleMenuItem;
+import com.uptc.frw.mcprestaurant.orders.RestOrderBackend;
+import com.uptc.frw.mcprestaurant.orders.WriteBehindOrders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * One order (a sale and three lines, each its own tool call) written straight
+ * to the stub API against acknowledged from the local journal and sent by the
+ * background senders. Run with -Pjmh.threads=8 for concurrent clients; once the queue is
+ * full the write-behind figure falls back to what the senders can drain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderWriteBenchmark {
+
+    private static final String DATE = "2025-03-01";
+
+    /** Time the stub API takes to commit each write */
+    @Param({"200", "2000"})
+    int backendMicros;
+
+    private StubBackend backend;
+    private ClientStack stack;
+    private RestOrderBackend direct;
+    private WriteBehindOrders writeBehind;
+    private Path directory;
+
+    @Setup
+    public void setUp() throws IOException {
+        backend = new StubBackend().writeDelay(Duration.ofNanos(backendMicros * 1_000L));
+        stack = new ClientStack(backend.baseUrl());
+        SalesAnalytics analytics = new SalesAnalytics(new JsonArrayReader(stack.restClient, stack.objectMapper),
+                new SalesIndexProperties(false, Duration.ofHours(1), Duration.ofHours(1)));
+        direct = new RestOrderBackend(stack.restClient, stack.properties, analytics);
+        directory = Files.createTempDirectory("order-journal-bench");
+        writeBehind = new WriteBehindOrders(new OrderJournalProperties(true, directory.resolve("orders.journal"),
+                4, 10_000, 50, Duration.ofMillis(200), Duration.ofSeconds(30), Duration.ofSeconds(10)), direct);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        writeBehind.stop();
+        stack.close();
+        backend.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public Sale syncOrder() {
+        Sale sale = direct.createSale(DATE, "sync");
+        for (long menu = 1; menu <= 3; menu++) {
+            direct.addSaleLines(List.of(new SaleMenu(menu, sale.id(), 1)), List.of("sync"), "sync");
+        }
+        return sale;
+    }
+
+    @Benchmark
+    public Sale writeBehindOrder() {
+        Sale sale = writeBehind.createSale(DATE);
+        for (long menu = 1; menu <= 3; menu++) {
+            writeBehind.addSaleLines(sale.id(), List.of(new SaleMenuItem(menu, 1)));
+        }
+        return sale;
+    }
+}
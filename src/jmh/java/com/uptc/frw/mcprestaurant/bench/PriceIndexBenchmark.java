@@ -0,0 +1,96 @@
+package com.uptc.frw.mcprestaurant.bench;
+
+import com.uptc.frw.mcprestaurant.analytics.SalesAnalytics;
+import com.uptc.frw.mcprestaurant.client.JsonArrayReader;
+import com.uptc.frw.mcprestaurant.config.SalesIndexProperties;
+import com.uptc.frw.mcprestaurant.model.MenuPrice;
+import com.uptc.frw.mcprestaurant.model.SaleTotal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Temporal price lookups over dish prices that change through the year: one
+ * menu price at a date, one sale total, and the totals of every sale computed
+ * in bulk from the line ledger against one sale at a time
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PriceIndexBenchmark {
+
+    private static final int MENUS = 200;
+
+    @Param({"100000"})
+    int sales;
+
+    private StubBackend backend;
+    private ClientStack stack;
+    private SalesAnalytics analytics;
+    private long fromDay;
+    private long toDay;
+
+    @Setup
+    public void setUp() {
+        try {
+            backend = new StubBackend()
+                    .collection("/dish-menus", Fixtures.dishMenus(MENUS, 4, 12))
+                    .collection("/sales", Fixtures.sales(sales))
+                    .collection("/SalesMenu", Fixtures.saleMenus(sales, 3, MENUS));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start the stub backend", e);
+        }
+        stack = new ClientStack(backend.baseUrl());
+        analytics = new SalesAnalytics(new JsonArrayReader(stack.restClient, stack.objectMapper),
+                new SalesIndexProperties(false, Duration.ofHours(1), Duration.ofHours(1)));
+        analytics.sync();
+        fromDay = Fixtures.FIRST_DAY.toEpochDay();
+        toDay = fromDay + Fixtures.DAYS - 1;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        analytics.stop();
+        stack.close();
+        backend.close();
+    }
+
+    @Benchmark
+    public MenuPrice menuPriceAtDate() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return analytics.menuPriceAt(random.nextLong(1, MENUS + 1), fromDay + random.nextLong(Fixtures.DAYS));
+    }
+
+    @Benchmark
+    public SaleTotal oneSaleTotal() {
+        return analytics.saleTotal(ThreadLocalRandom.current().nextLong(1, sales + 1));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<SaleTotal> allSaleTotalsInBulk() {
+        return analytics.saleTotals(fromDay, toDay, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public double allSaleTotalsOneByOne() {
+        double sum = 0;
+        for (long sale = 1; sale <= sales; sale++) {
+            sum += analytics.saleTotal(sale).total();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,91 @@
+package com.uptc.frw.mcprestaurant.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uptc.frw.mcprestaurant.model.Dish;
+import com.uptc.frw.mcprestaurant.model.SaleMenu;
+import com.uptc.frw.mcprestaurant.service.DishService;
+import com.uptc.frw.mcprestaurant.service.SaleMenuService;
+import com.uptc.frw.mcprestaurant.tool.ResultShape;
+import com.uptc.frw.mcprestaurant.tool.ResultShaper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.ai.tool.execution.DefaultToolCallResultConverter;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of large list results into the tool response: the default
+ * converter against field projection and the table encoding. The size of each
+ * encoding is printed once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ResultShapingBenchmark {
+
+    @Param({"1000", "100000"})
+    int size;
+
+    private final DefaultToolCallResultConverter defaultConverter = new DefaultToolCallResultConverter();
+    private final ResultShaper shaper = new ResultShaper(new ObjectMapper());
+    private final ResultShape idAndName = new ResultShape(List.of("id", "name"), 0, null, false);
+    private final ResultShape idAndNameTable = new ResultShape(List.of("id", "name"), 0, null, true);
+    private final ResultShape table = new ResultShape(null, 0, null, true);
+    private Type dishesType;
+    private Type saleMenusType;
+    private List<Dish> dishes;
+    private List<SaleMenu> saleMenus;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        Method getAllDishes = DishService.class.getMethod("getAllDishes");
+        Method getAllSaleMenus = SaleMenuService.class.getMethod("getAllSaleMenus");
+        dishesType = getAllDishes.getGenericReturnType();
+        saleMenusType = getAllSaleMenus.getGenericReturnType();
+        dishes = new ArrayList<>(size);
+        saleMenus = new ArrayList<>(size);
+        String description = "Slow-cooked with seasonal vegetables, herbs from the garden and a house sauce. ".repeat(3);
+        for (long i = 1; i <= size; i++) {
+            dishes.add(new Dish(i, i % 3 == 0 ? "dessert" : "main", "Dish " + i, description + i));
+            saleMenus.add(new SaleMenu(1 + i % 50, 1 + i / 3, (int) (1 + i % 4)));
+        }
+        System.out.printf("%nchars for %d items: dishes %d, id+name %d, id+name table %d; sale-menus %d, table %d%n",
+                size, defaultDishes().length(), projectedDishes().length(), projectedDishTable().length(),
+                defaultSaleMenus().length(), saleMenuTable().length());
+    }
+
+    @Benchmark
+    public String defaultDishes() {
+        return defaultConverter.convert(dishes, dishesType);
+    }
+
+    @Benchmark
+    public String projectedDishes() {
+        return shaper.shaped(idAndName, Dish.class, () -> shaper.convert(dishes, dishesType));
+    }
+
+    @Benchmark
+    public String projectedDishTable() {
+        return shaper.shaped(idAndNameTable, Dish.class, () -> shaper.convert(dishes, dishesType));
+    }
+
+    @Benchmark
+    public String defaultSaleMenus() {
+        return defaultConverter.convert(saleMenus, saleMenusType);
+    }
+
+    @Benchmark
+    public String saleMenuTable() {
+        return shaper.shaped(table, SaleMenu.class, () -> shaper.convert(saleMenus, saleMenusType));
+    }
+}
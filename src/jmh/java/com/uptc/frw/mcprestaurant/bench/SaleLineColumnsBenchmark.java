@@ -0,0 +1,121 @@
+package com.uptc.frw.mcprestaurant.bench;
+
+import com.uptc.frw.mcprestaurant.analytics.SaleLineColumns;
+import com.uptc.frw.mcprestaurant.model.SaleMenu;
+import com.uptc.frw.mcprestaurant.util.LongLongHashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sale lines held as boxed SaleMenu records with a sale id -> epoch day map,
+ * against the columnar ledger: a windowed sum and a group-by menu through the
+ * row scan that sale totals use. Heap bytes per line of each are printed once
+ * per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SaleLineColumnsBenchmark {
+
+    private static final int LINES_PER_SALE = 3;
+    private static final int MENUS = 200;
+
+    @Param({"1000000"})
+    int lines;
+
+    private List<SaleMenu> records;
+    private Map<Long, Long> saleDays;
+    private SaleLineColumns columns;
+    private long fromDay;
+    private long toDay;
+
+    @Setup
+    public void setUp() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long before = usedHeap(memory);
+        records = new ArrayList<>(lines);
+        saleDays = new HashMap<>();
+        long firstDay = Fixtures.FIRST_DAY.toEpochDay();
+        for (int i = 0; i < lines; i++) {
+            long sale = 1 + i / LINES_PER_SALE;
+            records.add(new SaleMenu((sale + i % LINES_PER_SALE * 13) % MENUS + 1, sale, 1 + i % 4));
+            saleDays.putIfAbsent(sale, firstDay + sale * Fixtures.DAYS / (lines / LINES_PER_SALE + 1));
+        }
+        long boxed = usedHeap(memory) - before;
+
+        columns = new SaleLineColumns();
+        for (SaleMenu line : records) {
+            columns.append(line.saleId(), line.menuId(), line.quantity(), saleDays.get(line.saleId()));
+        }
+        fromDay = firstDay + 150;
+        toDay = fromDay + 29;
+        System.out.printf("%nheap bytes per sale line for %d lines: boxed %.1f, columns %.1f%n",
+                lines, (double) boxed / lines, (double) columns.bytes() / lines);
+    }
+
+    @Benchmark
+    public long sumQuantityBoxed() {
+        long sum = 0;
+        for (SaleMenu line : records) {
+            long day = saleDays.get(line.saleId());
+            if (day >= fromDay && day <= toDay) {
+                sum += line.quantity();
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long sumQuantityColumns() {
+        long[] sum = {0};
+        columns.forEach(fromDay, toDay, (saleId, menuId, quantity, day) -> sum[0] += quantity);
+        return sum[0];
+    }
+
+    @Benchmark
+    public Map<Long, Long> quantityByMenuBoxed() {
+        Map<Long, Long> totals = new HashMap<>();
+        for (SaleMenu line : records) {
+            long day = saleDays.get(line.saleId());
+            if (day >= fromDay && day <= toDay) {
+                totals.merge(line.menuId(), (long) line.quantity(), Long::sum);
+            }
+        }
+        return totals;
+    }
+
+    @Benchmark
+    public LongLongHashMap quantityByMenuColumns() {
+        LongLongHashMap totals = new LongLongHashMap(MENUS);
+        columns.forEach(fromDay, toDay, (saleId, menuId, quantity, day) -> totals.addTo(menuId, quantity));
+        return totals;
+    }
+
+    @Benchmark
+    public LongLongHashMap quantityByMenuAllTime() {
+        LongLongHashMap totals = new LongLongHashMap(MENUS);
+        columns.forEach((saleId, menuId, quantity, day) -> totals.addTo(menuId, quantity));
+        return totals;
+    }
+
+    private static long usedHeap(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,109 @@
+package com.uptc.frw.mcprestaurant.bench;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process restaurant API for the round-trip benchmarks.
+ *
+ * Collections are served from fixed payloads with a strong ETag (answering 304
+ * to a matching If-None-Match), single items are built on the fly and writes
+ * echo their body back, with a fresh id for created sales. Writes can be
+ * slowed down to stand in for a backend that commits to a database.
+ */
+final class StubBackend implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(32);
+    private final Map<String, byte[]> collections = new ConcurrentHashMap<>();
+    private final AtomicLong saleIds = new AtomicLong();
+    private volatile long writeDelayNanos;
+
+    StubBackend() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+        server.setExecutor(executor);
+        server.createContext("/api", this::handle);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api";
+    }
+
+    /**
+     * Serve a JSON array at /api + path
+     */
+    StubBackend collection(String path, String json) {
+        collections.put(path, json.getBytes(StandardCharsets.UTF_8));
+        return this;
+    }
+
+    /**
+     * Hold every write for this long before answering
+     */
+    StubBackend writeDelay(Duration delay) {
+        writeDelayNanos = delay.toNanos();
+        return this;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange; InputStream in = exchange.getRequestBody()) {
+            byte[] request = in.readAllBytes();
+            String path = exchange.getRequestURI().getPath().substring("/api".length());
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method)) {
+                if (writeDelayNanos > 0) {
+                    LockSupport.parkNanos(writeDelayNanos);
+                }
+                if ("POST".equals(method) && "/sales".equals(path) && request.length > 1) {
+                    String body = new String(request, StandardCharsets.UTF_8);
+                    request = ("{\"id\":" + saleIds.incrementAndGet() + "," + body.substring(1))
+                            .getBytes(StandardCharsets.UTF_8);
+                }
+                send(exchange, 200, request.length == 0 ? "{}".getBytes(StandardCharsets.UTF_8) : request);
+                return;
+            }
+            byte[] collection = collections.get(path);
+            if (collection != null) {
+                String etag = "\"" + Integer.toHexString(System.identityHashCode(collection)) + "\"";
+                if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    exchange.sendResponseHeaders(304, -1);
+                    return;
+                }
+                exchange.getResponseHeaders().add("ETag", etag);
+                send(exchange, 200, collection);
+                return;
+            }
+            if (path.startsWith("/menus/")) {
+                send(exchange, 200, Fixtures.menu(Long.parseLong(path.substring("/menus/".length())))
+                        .getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            exchange.sendResponseHeaders(404, -1);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+}
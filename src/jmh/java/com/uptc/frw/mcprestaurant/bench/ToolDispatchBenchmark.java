@@ -0,0 +1,105 @@
+package com.uptc.frw.mcprestaurant.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uptc.frw.mcprestaurant.metrics.InstrumentedToolCallback;
+import com.uptc.frw.mcprestaurant.metrics.ToolMetrics;
+import com.uptc.frw.mcprestaurant.model.DishMenuItem;
+import com.uptc.frw.mcprestaurant.model.Menu;
+import com.uptc.frw.mcprestaurant.tool.LazyToolCallback;
+import com.uptc.frw.mcprestaurant.tool.ResultShaper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.method.MethodToolCallbackProvider;
+import org.springframework.ai.tool.support.ToolDefinitions;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tool dispatch from JSON arguments to the @Tool method and back to a JSON result,
+ * without any backend call: the plain MethodToolCallback, the lazy callback used
+ * by the server, and the same wrapped with the tool instrumentation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ToolDispatchBenchmark {
+
+    /**
+     * Tools with the argument shapes of the real services, answering from memory
+     */
+    public static class InMemoryTools {
+
+        @Tool(description = "Get a specific menu by its ID")
+        public Menu getMenuById(Long idMenu) {
+            return new Menu(idMenu, "Menu " + idMenu);
+        }
+
+        @Tool(description = "Add several dishes to a menu in one call")
+        public int addDishesToMenu(Long idMenu, List<DishMenuItem> items) {
+            return items.size();
+        }
+    }
+
+    private static final String BY_ID_INPUT = "{\"idMenu\":42}";
+    private static final String BATCH_INPUT = "{\"idMenu\":42,\"items\":["
+            + "{\"idDish\":1,\"price\":10.5,\"date\":\"2025-01-01\"},"
+            + "{\"idDish\":2,\"price\":12.0,\"date\":\"2025-01-01\"},"
+            + "{\"idDish\":3,\"price\":8.25,\"date\":\"2025-01-01\"}]}";
+
+    private ToolCallback plainById;
+    private ToolCallback lazyById;
+    private ToolCallback instrumentedById;
+    private ToolCallback instrumentedBatch;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        InMemoryTools tools = new InMemoryTools();
+        plainById = Arrays.stream(MethodToolCallbackProvider.builder().toolObjects(tools).build().getToolCallbacks())
+                .filter(callback -> callback.getToolDefinition().name().equals("getMenuById"))
+                .findFirst()
+                .orElseThrow();
+
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("inMemoryTools", tools);
+        ToolMetrics metrics = new ToolMetrics(new ObjectMapper());
+        ResultShaper shaper = new ResultShaper(new ObjectMapper());
+        Method byId = InMemoryTools.class.getMethod("getMenuById", Long.class);
+        Method batch = InMemoryTools.class.getMethod("addDishesToMenu", Long.class, List.class);
+        lazyById = new LazyToolCallback(beanFactory, InMemoryTools.class, byId, ToolDefinitions.from(byId), shaper);
+        instrumentedById = new InstrumentedToolCallback(lazyById, metrics);
+        instrumentedBatch = new InstrumentedToolCallback(
+                new LazyToolCallback(beanFactory, InMemoryTools.class, batch, ToolDefinitions.from(batch), shaper),
+                metrics);
+    }
+
+    @Benchmark
+    public String plainMethodCallback() {
+        return plainById.call(BY_ID_INPUT);
+    }
+
+    @Benchmark
+    public String lazyCallback() {
+        return lazyById.call(BY_ID_INPUT);
+    }
+
+    @Benchmark
+    public String instrumentedCallback() {
+        return instrumentedById.call(BY_ID_INPUT);
+    }
+
+    @Benchmark
+    public String instrumentedListArgument() {
+        return instrumentedBatch.call(BATCH_INPUT);
+    }
+}
@@ -1,11 +1,27 @@
 package com.uptc.frw.mcprestaurant;
 
+import com.uptc.frw.mcprestaurant.config.CatalogResourcesProperties;
+import com.uptc.frw.mcprestaurant.config.RestaurantRuntimeHints;
+import com.uptc.frw.mcprestaurant.metrics.InstrumentedToolCallback;
+import com.uptc.frw.mcprestaurant.metrics.ToolMetrics;
+import com.uptc.frw.mcprestaurant.resource.CatalogResources;
 import com.uptc.frw.mcprestaurant.service.*;
+import com.uptc.frw.mcprestaurant.tool.LazyToolCallback;
+import com.uptc.frw.mcprestaurant.tool.ResultShaper;
+import com.uptc.frw.mcprestaurant.tool.ToolSchemas;
+import io.modelcontextprotocol.server.McpServerFeatures.SyncResourceSpecification;
+import org.springframework.ai.tool.ToolCallback;
 import org.springframework.ai.tool.ToolCallbackProvider;
-import org.springframework.ai.tool.method.MethodToolCallbackProvider;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * MCP Server Application for Restaurant Management
@@ -14,59 +30,56 @@ import org.springframework.context.annotation.Bean;
  * It provides CRUD operations for menus, dishes, sales, and their relationships.
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@ImportRuntimeHints(RestaurantRuntimeHints.class)
 public class McprestaurantApplication {
 
-	public static void main(String[] args) {
-		SpringApplication.run(McprestaurantApplication.class, args);
-	}
-
 	/**
-	 * Register menu management tools
+	 * Services whose @Tool methods are exposed as MCP tools
 	 */
-	@Bean
-	public ToolCallbackProvider menuTools(MenuService menuService) {
-		return MethodToolCallbackProvider.builder()
-				.toolObjects(menuService)
-				.build();
-	}
+	public static final List<Class<?>> TOOL_SERVICES = List.of(
+			MenuService.class,
+			DishService.class,
+			DishMenuService.class,
+			MenuDetailService.class,
+			SaleService.class,
+			SaleMenuService.class,
+			AnalyticsService.class,
+			SearchService.class,
+			OrderQueueService.class
+	);
 
-	/**
-	 * Register dish management tools
-	 */
-	@Bean
-	public ToolCallbackProvider dishTools(DishService dishService) {
-		return MethodToolCallbackProvider.builder()
-				.toolObjects(dishService)
-				.build();
-	}
-
-	/**
-	 * Register dish-menu relationship tools
-	 */
-	@Bean
-	public ToolCallbackProvider dishMenuTools(DishMenuService dishMenuService) {
-		return MethodToolCallbackProvider.builder()
-				.toolObjects(dishMenuService)
-				.build();
+	public static void main(String[] args) {
+		SpringApplication.run(McprestaurantApplication.class, args);
 	}
 
 	/**
-	 * Register sale management tools
+	 * Register the restaurant tools.
+	 * Definitions come precomputed from the build, and each service is only created
+	 * on the first call to one of its tools; every callback is wrapped with latency
+	 * and error instrumentation. List tools shape their results with the ResultShaper.
 	 */
 	@Bean
-	public ToolCallbackProvider saleTools(SaleService saleService) {
-		return MethodToolCallbackProvider.builder()
-				.toolObjects(saleService)
-				.build();
+	public ToolCallbackProvider restaurantTools(BeanFactory beanFactory, ToolSchemas toolSchemas, ToolMetrics toolMetrics,
+			ResultShaper resultShaper) {
+		List<ToolCallback> callbacks = new ArrayList<>();
+		for (Class<?> service : TOOL_SERVICES) {
+			for (Method method : ToolSchemas.toolMethods(service)) {
+				ToolCallback callback = new LazyToolCallback(beanFactory, service, method, toolSchemas.definition(method),
+						resultShaper);
+				callbacks.add(new InstrumentedToolCallback(callback, toolMetrics));
+			}
+		}
+		return ToolCallbackProvider.from(callbacks);
 	}
 
 	/**
-	 * Register sale-menu relationship tools
+	 * Register the catalog resources (restaurant://menus/{id} and the like),
+	 * unless restaurant.resources.enabled is false
 	 */
 	@Bean
-	public ToolCallbackProvider saleMenuTools(SaleMenuService saleMenuService) {
-		return MethodToolCallbackProvider.builder()
-				.toolObjects(saleMenuService)
-				.build();
+	public List<SyncResourceSpecification> restaurantResources(CatalogResources catalogResources,
+			CatalogResourcesProperties properties) {
+		return properties.enabled() ? catalogResources.specifications() : List.of();
 	}
 }
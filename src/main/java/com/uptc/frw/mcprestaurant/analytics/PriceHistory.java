@@ -0,0 +1,91 @@
+package com.uptc.frw.mcprestaurant.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Prices of one dish on one menu over time, sorted by the epoch day each price took effect,
+ * up to the day the dish was taken off the menu. Not thread-safe.
+ */
+final class PriceHistory {
+
+    /** Returned by {@link #priceAt} for a day before the first known price or from the end day on */
+    static final long NONE = -1;
+
+    private static final long OPEN = Long.MAX_VALUE;
+
+    private long[] days = new long[2];
+    private long[] cents = new long[2];
+    private int size;
+    private long endDay = OPEN;
+
+    /**
+     * Record the price in effect from a day; a second price for the same day replaces the first.
+     * A price recorded after {@link #end} puts the dish back on the menu, for the days it was off too.
+     * @return true if the history changed
+     */
+    boolean record(long day, long priceCents) {
+        boolean reopened = endDay != OPEN;
+        endDay = OPEN;
+        int index = Arrays.binarySearch(days, 0, size, day);
+        if (index >= 0) {
+            if (cents[index] == priceCents) {
+                return reopened;
+            }
+            cents[index] = priceCents;
+            return true;
+        }
+        int insertAt = -index - 1;
+        if (size == days.length) {
+            days = Arrays.copyOf(days, size * 2);
+            cents = Arrays.copyOf(cents, size * 2);
+        }
+        System.arraycopy(days, insertAt, days, insertAt + 1, size - insertAt);
+        System.arraycopy(cents, insertAt, cents, insertAt + 1, size - insertAt);
+        days[insertAt] = day;
+        cents[insertAt] = priceCents;
+        size++;
+        return true;
+    }
+
+    /**
+     * Take the dish off the menu from a day on
+     */
+    void end(long day) {
+        endDay = day;
+    }
+
+    /**
+     * Price in effect on a day, in O(log n)
+     * @return The price in cents, or {@link #NONE}
+     */
+    long priceAt(long day) {
+        if (day >= endDay) {
+            return NONE;
+        }
+        int index = Arrays.binarySearch(days, 0, size, day);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return index >= 0 ? cents[index] : NONE;
+    }
+
+    long latestCents() {
+        return cents[size - 1];
+    }
+
+    long latestDay() {
+        return days[size - 1];
+    }
+
+    int size() {
+        return size;
+    }
+
+    long dayAt(int index) {
+        return days[index];
+    }
+
+    long centsAt(int index) {
+        return cents[index];
+    }
+}
@@ -0,0 +1,208 @@
+package com.uptc.frw.mcprestaurant.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only columnar table of sale-line facts: sale id, menu id, quantity
+ * and epoch day, one primitive column each.
+ *
+ * Rows go to an open segment of plain long arrays. Every {@link #SEGMENT_ROWS}
+ * rows the segment is sealed: each column is stored as its minimum plus the
+ * offsets from it, in the narrowest of byte, short, int or long that holds
+ * them, and the segment keeps its day range so windowed scans can skip it.
+ * Scans unpack one column at a time into a scratch array.
+ *
+ * Quantities are signed deltas: a changed line is appended as a new row, so
+ * sums over the table always give the current totals. Appends are not
+ * thread-safe; scans may run alongside each other.
+ */
+public final class SaleLineColumns {
+
+    public static final int SEGMENT_ROWS = 1 << 14;
+
+    /**
+     * Receives the rows of a scan
+     */
+    @FunctionalInterface
+    public interface RowConsumer {
+        void accept(long saleId, long menuId, long quantity, long day);
+    }
+
+    private final List<Segment> sealed = new ArrayList<>();
+    private long[] saleIds = new long[256];
+    private long[] menuIds = new long[256];
+    private long[] quantities = new long[256];
+    private long[] days = new long[256];
+    private int open;
+
+    public void append(long saleId, long menuId, long quantity, long day) {
+        if (open == saleIds.length) {
+            int capacity = Math.min(open * 2, SEGMENT_ROWS);
+            saleIds = Arrays.copyOf(saleIds, capacity);
+            menuIds = Arrays.copyOf(menuIds, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            days = Arrays.copyOf(days, capacity);
+        }
+        saleIds[open] = saleId;
+        menuIds[open] = menuId;
+        quantities[open] = quantity;
+        days[open] = day;
+        if (++open == SEGMENT_ROWS) {
+            sealed.add(new Segment(open, Packed.of(saleIds, open), Packed.of(menuIds, open),
+                    Packed.of(quantities, open), Packed.of(days, open), min(days, open), max(days, open)));
+            open = 0;
+        }
+    }
+
+    public long rows() {
+        return (long) sealed.size() * SEGMENT_ROWS + open;
+    }
+
+    /**
+     * Bytes held by the columns, including the unused tail of the open segment
+     */
+    public long bytes() {
+        long bytes = 4L * Long.BYTES * saleIds.length;
+        for (Segment segment : sealed) {
+            bytes += segment.saleIds.bytes() + segment.menuIds.bytes()
+                    + segment.quantities.bytes() + segment.days.bytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Visit every row, oldest first
+     */
+    public void forEach(RowConsumer action) {
+        forEach(Long.MIN_VALUE, Long.MAX_VALUE, action);
+    }
+
+    /**
+     * Visit the rows of a date window, oldest first. Sealed segments entirely outside it are not unpacked.
+     * @param fromDay First epoch day included
+     * @param toDay Last epoch day included
+     */
+    public void forEach(long fromDay, long toDay, RowConsumer action) {
+        long[] sale = new long[SEGMENT_ROWS];
+        long[] menu = new long[SEGMENT_ROWS];
+        long[] quantity = new long[SEGMENT_ROWS];
+        long[] day = new long[SEGMENT_ROWS];
+        for (Segment segment : sealed) {
+            if (segment.maxDay < fromDay || segment.minDay > toDay) {
+                continue;
+            }
+            segment.saleIds.unpack(sale);
+            segment.menuIds.unpack(menu);
+            segment.quantities.unpack(quantity);
+            segment.days.unpack(day);
+            visit(sale, menu, quantity, day, segment.rows, fromDay, toDay, action);
+        }
+        visit(saleIds, menuIds, quantities, days, open, fromDay, toDay, action);
+    }
+
+    private static void visit(long[] sale, long[] menu, long[] quantity, long[] day, int rows,
+                              long fromDay, long toDay, RowConsumer action) {
+        for (int i = 0; i < rows; i++) {
+            if (day[i] >= fromDay && day[i] <= toDay) {
+                action.accept(sale[i], menu[i], quantity[i], day[i]);
+            }
+        }
+    }
+
+    private static long min(long[] values, int rows) {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < rows; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    private static long max(long[] values, int rows) {
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < rows; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    private record Segment(int rows, Packed saleIds, Packed menuIds, Packed quantities, Packed days,
+                           long minDay, long maxDay) {
+    }
+
+    /**
+     * One sealed column: a base value and the unsigned offsets from it, in one of four widths
+     */
+    private static final class Packed {
+
+        private final long base;
+        private final byte[] bytes;
+        private final short[] shorts;
+        private final int[] ints;
+        private final long[] longs;
+
+        private Packed(long base, byte[] bytes, short[] shorts, int[] ints, long[] longs) {
+            this.base = base;
+            this.bytes = bytes;
+            this.shorts = shorts;
+            this.ints = ints;
+            this.longs = longs;
+        }
+
+        static Packed of(long[] values, int rows) {
+            long base = min(values, rows);
+            long spread = max(values, rows) - base;
+            if (Long.compareUnsigned(spread, 0xFFL) <= 0) {
+                byte[] packed = new byte[rows];
+                for (int i = 0; i < rows; i++) {
+                    packed[i] = (byte) (values[i] - base);
+                }
+                return new Packed(base, packed, null, null, null);
+            }
+            if (Long.compareUnsigned(spread, 0xFFFFL) <= 0) {
+                short[] packed = new short[rows];
+                for (int i = 0; i < rows; i++) {
+                    packed[i] = (short) (values[i] - base);
+                }
+                return new Packed(base, null, packed, null, null);
+            }
+            if (Long.compareUnsigned(spread, 0xFFFFFFFFL) <= 0) {
+                int[] packed = new int[rows];
+                for (int i = 0; i < rows; i++) {
+                    packed[i] = (int) (values[i] - base);
+                }
+                return new Packed(base, null, null, packed, null);
+            }
+            return new Packed(0, null, null, null, Arrays.copyOf(values, rows));
+        }
+
+        long bytes() {
+            if (bytes != null) {
+                return bytes.length;
+            }
+            if (shorts != null) {
+                return 2L * shorts.length;
+            }
+            return ints != null ? 4L * ints.length : 8L * longs.length;
+        }
+
+        void unpack(long[] out) {
+            if (bytes != null) {
+                for (int i = 0; i < bytes.length; i++) {
+                    out[i] = base + (bytes[i] & 0xFFL);
+                }
+            } else if (shorts != null) {
+                for (int i = 0; i < shorts.length; i++) {
+                    out[i] = base + (shorts[i] & 0xFFFFL);
+                }
+            } else if (ints != null) {
+                for (int i = 0; i < ints.length; i++) {
+                    out[i] = base + (ints[i] & 0xFFFFFFFFL);
+                }
+            } else {
+                System.arraycopy(longs, 0, out, 0, longs.length);
+            }
+        }
+    }
+}
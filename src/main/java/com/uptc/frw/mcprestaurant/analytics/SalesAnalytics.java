@@ -0,0 +1,453 @@
+package com.uptc.frw.mcprestaurant.analytics;
+
+import com.uptc.frw.mcprestaurant.client.JsonArrayReader;
+import com.uptc.frw.mcprestaurant.config.SalesIndexProperties;
+import com.uptc.frw.mcprestaurant.model.DailyRevenue;
+import com.uptc.frw.mcprestaurant.model.DishMenu;
+import com.uptc.frw.mcprestaurant.model.MenuPrice;
+import com.uptc.frw.mcprestaurant.model.MenuRanking;
+import com.uptc.frw.mcprestaurant.model.Sale;
+import com.uptc.frw.mcprestaurant.model.SaleMenu;
+import com.uptc.frw.mcprestaurant.model.SaleTotal;
+import com.uptc.frw.mcprestaurant.model.TicketStats;
+import com.uptc.frw.mcprestaurant.util.Dates;
+import com.uptc.frw.mcprestaurant.util.LongLongHashMap;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static com.uptc.frw.mcprestaurant.util.LongLongHashMap.high;
+import static com.uptc.frw.mcprestaurant.util.LongLongHashMap.low;
+
+/**
+ * Server-side sales analytics over the materialized index in {@link SalesFacts}.
+ *
+ * The index is bootstrapped once from the backend, then kept current from the
+ * server's own writes (write-through) and from the reads that pass through the
+ * services. A periodic resync reconciles it with the backend to pick up
+ * changes made elsewhere; writes that land while a resync is streaming are
+ * replayed on top of it so they are not lost. Only the first query waits for
+ * the index to load: an index older than the allowed staleness keeps being
+ * served while a resync runs in the background.
+ */
+@Component
+public class SalesAnalytics {
+
+    private final JsonArrayReader jsonArrayReader;
+    private final SalesIndexProperties properties;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object syncMonitor = new Object();
+    private final List<Consumer<SalesFacts>> writesDuringSync = new ArrayList<>();
+    private final AtomicBoolean resyncQueued = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "sales-index-resync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile SalesFacts facts;
+    private volatile long lastSyncNanos;
+    private boolean syncing;
+
+    public SalesAnalytics(JsonArrayReader jsonArrayReader, SalesIndexProperties properties) {
+        this.jsonArrayReader = jsonArrayReader;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (properties.bootstrapOnStartup()) {
+            scheduler.execute(this::syncQuietly);
+        }
+        long interval = properties.resyncInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::syncQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Stream the sales history from the backend and reconcile the index with it
+     */
+    public void sync() {
+        synchronized (syncMonitor) {
+            lock.writeLock().lock();
+            try {
+                syncing = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            SalesFacts fresh = new SalesFacts();
+            try {
+                jsonArrayReader.forEach("/dish-menus", DishMenu.class, fresh::recordDishMenu);
+                jsonArrayReader.forEach("/sales", Sale.class, fresh::recordSale);
+                jsonArrayReader.forEach("/SalesMenu", SaleMenu.class, fresh::recordSaleLine);
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    syncing = false;
+                    writesDuringSync.clear();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+            lock.writeLock().lock();
+            try {
+                syncing = false;
+                if (facts == null) {
+                    facts = fresh;
+                } else {
+                    facts.merge(fresh);
+                }
+                writesDuringSync.forEach(change -> change.accept(facts));
+                writesDuringSync.clear();
+                lastSyncNanos = System.nanoTime();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public boolean isLoaded() {
+        return facts != null;
+    }
+
+    public void recordSales(Iterable<Sale> sales) {
+        update(current -> sales.forEach(current::recordSale));
+    }
+
+    public void recordSaleLines(Iterable<SaleMenu> lines) {
+        update(current -> lines.forEach(current::recordSaleLine));
+    }
+
+    public void recordDishMenus(Iterable<DishMenu> dishMenus) {
+        update(current -> dishMenus.forEach(current::recordDishMenu));
+    }
+
+    public void removeSale(long saleId) {
+        update(current -> current.removeSale(saleId));
+    }
+
+    public void removeSaleLine(long menuId, long saleId) {
+        update(current -> current.removeSaleLine(menuId, saleId));
+    }
+
+    public void removeDishMenu(long menuId, long dishId) {
+        long today = LocalDate.now().toEpochDay();
+        update(current -> current.removeDishMenu(menuId, dishId, today));
+    }
+
+    /**
+     * Revenue and number of sales per day, oldest first. Lines are priced at the menu price on their day.
+     * @param fromDay First epoch day included
+     * @param toDay Last epoch day included
+     */
+    public List<DailyRevenue> revenueByDay(long fromDay, long toDay) {
+        return query(current -> {
+            LongLongHashMap revenue = new LongLongHashMap(64);
+            LongLongHashMap prices = new LongLongHashMap(256);
+            current.dayMenuQuantities.forEach((dayMenu, quantity) -> {
+                long day = high(dayMenu);
+                if (day >= fromDay && day <= toDay && quantity != 0) {
+                    revenue.addTo(day, quantity * current.menuPriceAt(low(dayMenu), day, prices));
+                }
+            });
+            current.daySales.subMap(fromDay, true, toDay, true).keySet()
+                    .forEach(day -> revenue.addTo(day, 0));
+            List<DailyRevenue> days = new ArrayList<>(revenue.size());
+            revenue.forEach((day, cents) -> {
+                LongLongHashMap sales = current.daySales.get(day);
+                days.add(new DailyRevenue(LocalDate.ofEpochDay(day).toString(), cents / 100.0,
+                        sales == null ? 0L : sales.size()));
+            });
+            days.sort(Comparator.comparing(DailyRevenue::date));
+            return days;
+        });
+    }
+
+    /**
+     * Best-selling menus over a date window. Revenue adds up each day's sales at that day's menu price.
+     * @param fromDay First epoch day included
+     * @param toDay Last epoch day included
+     * @param byRevenue Rank by revenue instead of quantity
+     * @param limit Number of menus to return
+     */
+    public List<MenuRanking> topMenus(long fromDay, long toDay, boolean byRevenue, int limit) {
+        return query(current -> {
+            LongLongHashMap quantities = new LongLongHashMap(64);
+            LongLongHashMap menuRevenues = new LongLongHashMap(64);
+            LongLongHashMap prices = new LongLongHashMap(256);
+            current.dayMenuQuantities.forEach((dayMenu, quantity) -> {
+                long day = high(dayMenu);
+                if (day >= fromDay && day <= toDay && quantity != 0) {
+                    long menuId = low(dayMenu);
+                    quantities.addTo(menuId, quantity);
+                    menuRevenues.addTo(menuId, quantity * current.menuPriceAt(menuId, day, prices));
+                }
+            });
+            int size = quantities.size();
+            long[] menuIds = new long[size];
+            long[] totals = new long[size];
+            long[] revenues = new long[size];
+            int[] next = {0};
+            quantities.forEach((menuId, quantity) -> {
+                int i = next[0]++;
+                menuIds[i] = menuId;
+                totals[i] = quantity;
+                revenues[i] = menuRevenues.get(menuId, 0);
+            });
+            long[] rankBy = byRevenue ? revenues : totals;
+            List<Integer> order = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                order.add(i);
+            }
+            order.sort((a, b) -> Long.compare(rankBy[b], rankBy[a]));
+            List<MenuRanking> ranking = new ArrayList<>(Math.min(limit, size));
+            for (int i = 0; i < Math.min(limit, size); i++) {
+                int index = order.get(i);
+                ranking.add(new MenuRanking(menuIds[index], totals[index], revenues[index] / 100.0));
+            }
+            return ranking;
+        });
+    }
+
+    /**
+     * Number of sales, revenue and average ticket over a date window, at the menu prices of each day
+     * @param fromDay First epoch day included
+     * @param toDay Last epoch day included
+     */
+    public TicketStats ticketStats(long fromDay, long toDay) {
+        return query(current -> {
+            long[] cents = {0};
+            LongLongHashMap prices = new LongLongHashMap(256);
+            current.dayMenuQuantities.forEach((dayMenu, quantity) -> {
+                long day = high(dayMenu);
+                if (day >= fromDay && day <= toDay && quantity != 0) {
+                    cents[0] += quantity * current.menuPriceAt(low(dayMenu), day, prices);
+                }
+            });
+            long sales = 0;
+            for (LongLongHashMap daySales : current.daySales.subMap(fromDay, true, toDay, true).values()) {
+                sales += daySales.size();
+            }
+            double average = sales == 0 ? 0 : cents[0] / 100.0 / sales;
+            return new TicketStats(sales, cents[0] / 100.0, average);
+        });
+    }
+
+    /**
+     * Sales in a date window, oldest first. Dates are returned as yyyy-MM-dd.
+     * @param fromDay First epoch day included
+     * @param toDay Last epoch day included
+     * @param limit Maximum number of sales returned
+     */
+    public List<Sale> salesBetween(long fromDay, long toDay, int limit) {
+        return query(current -> {
+            List<Sale> sales = new ArrayList<>();
+            for (var entry : current.daySales.subMap(fromDay, true, toDay, true).entrySet()) {
+                String date = LocalDate.ofEpochDay(entry.getKey()).toString();
+                long[] ids = new long[entry.getValue().size()];
+                int[] next = {0};
+                entry.getValue().forEach((saleId, unused) -> ids[next[0]++] = saleId);
+                Arrays.sort(ids);
+                for (long saleId : ids) {
+                    if (sales.size() == limit) {
+                        return sales;
+                    }
+                    sales.add(new Sale(saleId, date));
+                }
+            }
+            return sales;
+        });
+    }
+
+    /**
+     * Every sale line of a menu
+     * @param menuId The menu ID
+     * @param limit Maximum number of lines returned
+     */
+    public List<SaleMenu> saleLinesByMenu(long menuId, int limit) {
+        return query(current -> {
+            LongLongHashMap lines = current.menuLines.get(menuId);
+            List<SaleMenu> result = new ArrayList<>();
+            if (lines != null) {
+                lines.forEach((saleId, quantity) -> {
+                    if (result.size() < limit) {
+                        result.add(new SaleMenu(menuId, saleId, (int) quantity));
+                    }
+                });
+            }
+            result.sort(Comparator.comparing(SaleMenu::saleId));
+            return result;
+        });
+    }
+
+    /**
+     * Every price a dish has had on a menu, oldest first
+     * @param menuId The menu ID
+     * @param dishId The dish ID
+     */
+    public List<DishMenu> priceHistory(long menuId, long dishId) {
+        return query(current -> {
+            PriceHistory history = SalesFacts.indexable(menuId) && SalesFacts.indexable(dishId)
+                    ? current.priceHistories.get(LongLongHashMap.key(menuId, dishId)) : null;
+            List<DishMenu> prices = new ArrayList<>();
+            if (history != null) {
+                for (int i = 0; i < history.size(); i++) {
+                    long day = history.dayAt(i);
+                    prices.add(new DishMenu(menuId, dishId, history.centsAt(i) / 100.0,
+                            day == Dates.UNKNOWN ? null : LocalDate.ofEpochDay(day).toString()));
+                }
+            }
+            return prices;
+        });
+    }
+
+    /**
+     * Price of a menu in effect on a day
+     * @param menuId The menu ID
+     * @param day The epoch day
+     * @return The price, null if none of the menu's dishes had a price yet
+     */
+    public MenuPrice menuPriceAt(long menuId, long day) {
+        return query(current -> {
+            long cents = current.menuPriceAt(menuId, day);
+            return new MenuPrice(menuId, LocalDate.ofEpochDay(day).toString(),
+                    cents == PriceHistory.NONE ? null : cents / 100.0);
+        });
+    }
+
+    /**
+     * Total of a sale at the menu prices in effect on its date
+     * @param saleId The sale ID
+     * @throws IllegalArgumentException if the sale is not in the index
+     */
+    public SaleTotal saleTotal(long saleId) {
+        return query(current -> {
+            if (!current.saleDays.containsKey(saleId)) {
+                throw new IllegalArgumentException("Sale " + saleId + " not found");
+            }
+            long day = current.saleDays.get(saleId, Dates.UNKNOWN);
+            return new SaleTotal(saleId, day == Dates.UNKNOWN ? null : LocalDate.ofEpochDay(day).toString(),
+                    current.saleTotal(saleId) / 100.0);
+        });
+    }
+
+    /**
+     * Totals of the sales in a date window, oldest first
+     * @param fromDay First epoch day included
+     * @param toDay Last epoch day included
+     * @param limit Maximum number of sales returned
+     */
+    public List<SaleTotal> saleTotals(long fromDay, long toDay, int limit) {
+        return query(current -> {
+            LongLongHashMap totals = current.saleTotals(fromDay, toDay);
+            // Sort by (day, sale id), both packed into one long
+            long[] order = new long[totals.size()];
+            int[] next = {0};
+            totals.forEach((saleId, total) -> order[next[0]++] = LongLongHashMap.key(current.saleDays.get(saleId, 0), saleId));
+            Arrays.sort(order);
+            List<SaleTotal> result = new ArrayList<>(Math.min(limit, order.length));
+            String date = null;
+            for (int i = 0; i < Math.min(limit, order.length); i++) {
+                long saleId = low(order[i]);
+                if (i == 0 || high(order[i]) != high(order[i - 1])) {
+                    date = LocalDate.ofEpochDay(high(order[i])).toString();
+                }
+                result.add(new SaleTotal(saleId, date, totals.get(saleId, 0) / 100.0));
+            }
+            return result;
+        });
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            // Backend unreachable: keep serving the current index and retry on the next run
+        }
+    }
+
+    private void update(Consumer<SalesFacts> change) {
+        lock.writeLock().lock();
+        try {
+            if (syncing) {
+                writesDuringSync.add(change);
+            }
+            if (facts != null) {
+                change.accept(facts);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void resyncInBackground() {
+        if (!resyncQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduler.execute(() -> {
+                try {
+                    syncQuietly();
+                } finally {
+                    resyncQueued.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            resyncQueued.set(false);
+        }
+    }
+
+    private <R> R query(Function<SalesFacts, R> read) {
+        if (facts == null) {
+            synchronized (syncMonitor) {
+                if (facts == null) {
+                    sync();
+                }
+            }
+        } else if (System.nanoTime() - lastSyncNanos > properties.maxStaleness().toNanos()) {
+            resyncInBackground();
+        }
+        lock.readLock().lock();
+        try {
+            if (facts.pricesCurrent()) {
+                return read.apply(facts);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // A dish price changed: refresh under the write lock, then downgrade so the query runs alongside other readers
+        lock.writeLock().lock();
+        try {
+            facts.refreshPrices();
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            return read.apply(facts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.uptc.frw.mcprestaurant.analytics;
+
+import com.uptc.frw.mcprestaurant.model.DishMenu;
+import com.uptc.frw.mcprestaurant.model.Sale;
+import com.uptc.frw.mcprestaurant.model.SaleMenu;
+import com.uptc.frw.mcprestaurant.util.Dates;
+import com.uptc.frw.mcprestaurant.util.LongLongHashMap;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.uptc.frw.mcprestaurant.util.LongLongHashMap.high;
+import static com.uptc.frw.mcprestaurant.util.LongLongHashMap.key;
+import static com.uptc.frw.mcprestaurant.util.LongLongHashMap.low;
+
+/**
+ * Materialized sales index: sale facts, secondary indexes and pre-computed
+ * aggregates, held in primitive maps.
+ *
+ * Every change updates the per-day aggregates in place. Moving or deleting a
+ * sale touches one entry per menu, through the lines-by-menu index. Every
+ * quantity change is also appended to a columnar ledger of dated sale lines
+ * for scans the aggregates cannot answer. Prices are kept in cents. Ids are
+ * packed in pairs into 64-bit keys, so records with an id outside
+ * [0, 2^31) are left out. Not thread-safe: {@link SalesAnalytics} guards access.
+ */
+public final class SalesFacts {
+
+    /** sale id -> epoch day */
+    final LongLongHashMap saleDays = new LongLongHashMap(1024);
+    /** epoch day -> sale ids (as keys) */
+    final TreeMap<Long, LongLongHashMap> daySales = new TreeMap<>();
+    /** (sale id, menu id) -> quantity */
+    final LongLongHashMap lineQuantities = new LongLongHashMap(4096);
+    /** menu id -> (sale id -> quantity) */
+    final Map<Long, LongLongHashMap> menuLines = new HashMap<>();
+    /** (menu id, dish id) -> current price in cents, only for dishes still on the menu */
+    final LongLongHashMap dishPrices = new LongLongHashMap(256);
+    /** (menu id, dish id) -> every price seen, by the date it took effect */
+    final Map<Long, PriceHistory> priceHistories = new HashMap<>();
+    /** menu id -> price histories of every dish the menu has had */
+    final Map<Long, List<PriceHistory>> menuPriceHistories = new HashMap<>();
+
+    /** (epoch day, menu id) -> quantity sold */
+    final LongLongHashMap dayMenuQuantities = new LongLongHashMap(4096);
+    /** (sale id, menu id, quantity delta, epoch day) for every change to a dated line */
+    SaleLineColumns lineLedger = new SaleLineColumns();
+    /** menu id -> current menu price in cents, null when it must be recomputed */
+    private LongLongHashMap menuPrices;
+
+    public void recordSale(Sale sale) {
+        if (sale != null && sale.id() != null && indexable(sale.id())) {
+            recordSaleDay(sale.id(), Dates.epochDay(sale.date()));
+        }
+    }
+
+    public void removeSale(long saleId) {
+        if (!indexable(saleId)) {
+            return;
+        }
+        long day = saleDays.get(saleId, Dates.UNKNOWN);
+        saleDays.remove(saleId);
+        removeFromDay(day, saleId);
+        menuLines.forEach((menuId, lines) -> {
+            long quantity = lines.get(saleId, 0);
+            if (lines.remove(saleId)) {
+                lineQuantities.remove(key(saleId, menuId));
+                addToDay(day, saleId, menuId, -quantity);
+            }
+        });
+    }
+
+    public void recordSaleLine(SaleMenu line) {
+        if (line != null && line.saleId() != null && line.menuId() != null
+                && indexable(line.saleId()) && indexable(line.menuId())) {
+            recordLine(line.saleId(), line.menuId(), line.quantity() != null ? line.quantity() : 0);
+        }
+    }
+
+    public void removeSaleLine(long menuId, long saleId) {
+        if (!indexable(saleId) || !indexable(menuId)) {
+            return;
+        }
+        long lineKey = key(saleId, menuId);
+        long previous = lineQuantities.get(lineKey, 0);
+        if (lineQuantities.remove(lineKey)) {
+            menuLines.get(menuId).remove(saleId);
+            addToDay(saleDays.get(saleId, Dates.UNKNOWN), saleId, menuId, -previous);
+        }
+    }
+
+    public void recordDishMenu(DishMenu dishMenu) {
+        if (dishMenu != null && dishMenu.menuId() != null && dishMenu.dishId() != null && dishMenu.price() != null
+                && indexable(dishMenu.menuId()) && indexable(dishMenu.dishId())) {
+            recordPrice(key(dishMenu.menuId(), dishMenu.dishId()),
+                    Dates.epochDay(dishMenu.date()), Math.round(dishMenu.price() * 100));
+        }
+    }
+
+    /**
+     * Take a dish off a menu. Its price history is kept, since past sales were still sold at
+     * those prices, but ends on the given day.
+     * @param day Epoch day from which the dish no longer counts in the menu price
+     */
+    public void removeDishMenu(long menuId, long dishId, long day) {
+        if (!indexable(menuId) || !indexable(dishId)) {
+            return;
+        }
+        long priceKey = key(menuId, dishId);
+        if (dishPrices.remove(priceKey)) {
+            menuPrices = null;
+            priceHistories.get(priceKey).end(day);
+        }
+    }
+
+    /**
+     * Bring these facts in line with a freshly loaded snapshot, applying only the differences
+     * @param fresh Facts streamed from the backend
+     */
+    void merge(SalesFacts fresh) {
+        long today = LocalDate.now().toEpochDay();
+        fresh.saleDays.forEach((saleId, day) -> {
+            if (!saleDays.containsKey(saleId) || saleDays.get(saleId, Dates.UNKNOWN) != day) {
+                recordSaleDay(saleId, day);
+            }
+        });
+        LongLongHashMap goneSales = new LongLongHashMap();
+        saleDays.forEach((saleId, day) -> {
+            if (!fresh.saleDays.containsKey(saleId)) {
+                goneSales.put(saleId, 0);
+            }
+        });
+        goneSales.forEach((saleId, unused) -> removeSale(saleId));
+
+        fresh.lineQuantities.forEach((lineKey, quantity) -> {
+            if (!lineQuantities.containsKey(lineKey) || lineQuantities.get(lineKey, 0) != quantity) {
+                recordLine(high(lineKey), low(lineKey), quantity);
+            }
+        });
+        LongLongHashMap goneLines = new LongLongHashMap();
+        lineQuantities.forEach((lineKey, quantity) -> {
+            if (!fresh.lineQuantities.containsKey(lineKey)) {
+                goneLines.put(lineKey, 0);
+            }
+        });
+        goneLines.forEach((lineKey, unused) -> removeSaleLine(low(lineKey), high(lineKey)));
+
+        fresh.dishPrices.forEach((priceKey, cents) ->
+                recordPrice(priceKey, fresh.priceHistories.get(priceKey).latestDay(), cents));
+        LongLongHashMap gonePrices = new LongLongHashMap();
+        dishPrices.forEach((priceKey, cents) -> {
+            if (!fresh.dishPrices.containsKey(priceKey)) {
+                gonePrices.put(priceKey, 0);
+            }
+        });
+        gonePrices.forEach((priceKey, unused) -> removeDishMenu(high(priceKey), low(priceKey), today));
+
+        // The fresh ledger holds the same totals without the deltas this merge appended
+        lineLedger = fresh.lineLedger;
+    }
+
+    /**
+     * Current price of a menu in cents: the sum of the latest price of each of its dishes.
+     * Only valid after {@link #refreshPrices()}.
+     */
+    long menuPrice(long menuId) {
+        return menuPrices.get(menuId, 0);
+    }
+
+    /**
+     * Price of a menu in effect on a day, in cents: the sum of the price each of its dishes had on that day.
+     * Dishes priced only after the day are left out. The backend does not date removals, so a dish
+     * taken off the menu stops counting from the day its removal was seen here.
+     * @return The price in cents, or {@link PriceHistory#NONE} if no dish of the menu had a price yet
+     */
+    long menuPriceAt(long menuId, long day) {
+        List<PriceHistory> histories = menuPriceHistories.get(menuId);
+        if (histories == null) {
+            return PriceHistory.NONE;
+        }
+        long cents = PriceHistory.NONE;
+        for (PriceHistory history : histories) {
+            long price = history.priceAt(day);
+            if (price != PriceHistory.NONE) {
+                cents = cents == PriceHistory.NONE ? price : cents + price;
+            }
+        }
+        return cents;
+    }
+
+    /**
+     * {@link #menuPriceAt(long, long)} resolved once per (epoch day, menu id) for a query that prices many lines.
+     * A menu with no price yet on the day counts as zero.
+     * @param prices Cache of the query, (epoch day, menu id) -> price in cents
+     */
+    long menuPriceAt(long menuId, long day, LongLongHashMap prices) {
+        long priceKey = key(day, menuId);
+        long cents = prices.get(priceKey, Long.MIN_VALUE);
+        if (cents == Long.MIN_VALUE) {
+            cents = Math.max(0, menuPriceAt(menuId, day));
+            prices.put(priceKey, cents);
+        }
+        return cents;
+    }
+
+    /**
+     * Total of a sale in cents: each line's quantity times the menu price on the sale date,
+     * or the current menu price if the sale is undated. Only valid after {@link #refreshPrices()}.
+     */
+    long saleTotal(long saleId) {
+        long day = saleDays.get(saleId, Dates.UNKNOWN);
+        long[] cents = {0};
+        menuLines.forEach((menuId, lines) -> {
+            long quantity = lines.get(saleId, 0);
+            if (quantity != 0) {
+                cents[0] += quantity * (day == Dates.UNKNOWN ? menuPrice(menuId) : Math.max(0, menuPriceAt(menuId, day)));
+            }
+        });
+        return cents[0];
+    }
+
+    /**
+     * Totals in cents of every dated sale in a window, from one pass over the ledger segments it overlaps.
+     * Menu prices are resolved once per menu and day.
+     * @param fromDay First epoch day included
+     * @param toDay Last epoch day included
+     * @return sale id -> total in cents
+     */
+    LongLongHashMap saleTotals(long fromDay, long toDay) {
+        LongLongHashMap totals = new LongLongHashMap(1024);
+        LongLongHashMap prices = new LongLongHashMap(1024);
+        lineLedger.forEach(fromDay, toDay, (saleId, menuId, quantity, day) ->
+                totals.addTo(saleId, quantity * menuPriceAt(menuId, day, prices)));
+        // Sales in the window without lines still have a total
+        daySales.subMap(fromDay, true, toDay, true).values()
+                .forEach(sales -> sales.forEach((saleId, unused) -> totals.addTo(saleId, 0)));
+        return totals;
+    }
+
+    /**
+     * Whether menu prices are current, so that {@link #refreshPrices()} has nothing to do
+     */
+    boolean pricesCurrent() {
+        return menuPrices != null;
+    }
+
+    /**
+     * Recompute menu prices if a dish price changed
+     */
+    void refreshPrices() {
+        if (menuPrices == null) {
+            LongLongHashMap prices = new LongLongHashMap(64);
+            dishPrices.forEach((priceKey, cents) -> prices.addTo(high(priceKey), cents));
+            menuPrices = prices;
+        }
+    }
+
+    /**
+     * Whether an id fits both halves of a composite key
+     */
+    static boolean indexable(long id) {
+        return id >= 0 && id <= Integer.MAX_VALUE;
+    }
+
+    public int saleCount() {
+        return saleDays.size();
+    }
+
+    public int saleLineCount() {
+        return lineQuantities.size();
+    }
+
+    private void recordSaleDay(long saleId, long day) {
+        boolean known = saleDays.containsKey(saleId);
+        long previous = saleDays.get(saleId, Dates.UNKNOWN);
+        if (known && previous == day) {
+            return;
+        }
+        saleDays.put(saleId, day);
+        removeFromDay(previous, saleId);
+        if (day != Dates.UNKNOWN) {
+            daySales.computeIfAbsent(day, d -> new LongLongHashMap(8)).put(saleId, 1);
+        }
+        // Move the sale's lines (which may have arrived before the sale itself) to the new day
+        menuLines.forEach((menuId, lines) -> {
+            long quantity = lines.get(saleId, 0);
+            if (quantity != 0) {
+                addToDay(previous, saleId, menuId, -quantity);
+                addToDay(day, saleId, menuId, quantity);
+            }
+        });
+    }
+
+    private void recordLine(long saleId, long menuId, long quantity) {
+        long lineKey = key(saleId, menuId);
+        long previous = lineQuantities.get(lineKey, 0);
+        lineQuantities.put(lineKey, quantity);
+        menuLines.computeIfAbsent(menuId, id -> new LongLongHashMap(64)).put(saleId, quantity);
+        addToDay(saleDays.get(saleId, Dates.UNKNOWN), saleId, menuId, quantity - previous);
+    }
+
+    private void recordPrice(long priceKey, long day, long cents) {
+        PriceHistory history = priceHistories.get(priceKey);
+        if (history == null) {
+            history = new PriceHistory();
+            priceHistories.put(priceKey, history);
+            menuPriceHistories.computeIfAbsent(high(priceKey), menuId -> new ArrayList<>()).add(history);
+        }
+        history.record(day, cents);
+        long latest = history.latestCents();
+        if (!dishPrices.containsKey(priceKey) || dishPrices.get(priceKey, 0) != latest) {
+            dishPrices.put(priceKey, latest);
+            menuPrices = null;
+        }
+    }
+
+    private void removeFromDay(long day, long saleId) {
+        if (day == Dates.UNKNOWN) {
+            return;
+        }
+        LongLongHashMap sales = daySales.get(day);
+        if (sales != null && sales.remove(saleId) && sales.isEmpty()) {
+            daySales.remove(day);
+        }
+    }
+
+    private void addToDay(long day, long saleId, long menuId, long delta) {
+        if (day != Dates.UNKNOWN && delta != 0) {
+            dayMenuQuantities.addTo(key(day, menuId), delta);
+            lineLedger.append(saleId, menuId, delta, day);
+        }
+    }
+}
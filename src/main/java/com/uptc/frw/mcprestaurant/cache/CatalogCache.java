@@ -0,0 +1,106 @@
+package com.uptc.frw.mcprestaurant.cache;
+
+import com.uptc.frw.mcprestaurant.config.CatalogCacheProperties;
+import com.uptc.frw.mcprestaurant.model.Dish;
+import com.uptc.frw.mcprestaurant.model.DishMenu;
+import com.uptc.frw.mcprestaurant.model.Menu;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Read-through cache for the catalog (menus, dishes and dish-menu prices),
+ * backed by the on-disk {@link CatalogSnapshot}.
+ *
+ * Hit, miss and eviction counters are published over JMX.
+ */
+@Component
+@ManagedResource(objectName = "mcprestaurant:type=CatalogCache")
+public class CatalogCache {
+
+    /**
+     * Key of a dish-menu relationship
+     */
+    public record DishMenuKey(Long menuId, Long dishId) {
+    }
+
+    private final EntityCache<Long, Menu> menus;
+    private final EntityCache<Long, Dish> dishes;
+    private final EntityCache<DishMenuKey, DishMenu> dishMenus;
+
+    public CatalogCache(CatalogCacheProperties properties, CatalogSnapshot snapshot,
+                        ExecutorService restaurantApiExecutor) {
+        this.menus = new EntityCache<>(properties.menus(), Menu::id, snapshot.menus(), restaurantApiExecutor);
+        this.dishes = new EntityCache<>(properties.dishes(), Dish::id, snapshot.dishes(), restaurantApiExecutor);
+        this.dishMenus = new EntityCache<>(properties.dishMenus(),
+                dishMenu -> new DishMenuKey(dishMenu.menuId(), dishMenu.dishId()),
+                snapshot.dishMenus(), restaurantApiExecutor);
+    }
+
+    public EntityCache<Long, Menu> menus() {
+        return menus;
+    }
+
+    public EntityCache<Long, Dish> dishes() {
+        return dishes;
+    }
+
+    public EntityCache<DishMenuKey, DishMenu> dishMenus() {
+        return dishMenus;
+    }
+
+    @ManagedOperation(description = "Drop every cached catalog entry")
+    public void clearAll() {
+        menus.clear();
+        dishes.clear();
+        dishMenus.clear();
+    }
+
+    @ManagedAttribute
+    public long getMenuHits() {
+        return menus.stats().hitCount();
+    }
+
+    @ManagedAttribute
+    public long getMenuMisses() {
+        return menus.stats().missCount();
+    }
+
+    @ManagedAttribute
+    public long getMenuEvictions() {
+        return menus.stats().evictionCount();
+    }
+
+    @ManagedAttribute
+    public long getDishHits() {
+        return dishes.stats().hitCount();
+    }
+
+    @ManagedAttribute
+    public long getDishMisses() {
+        return dishes.stats().missCount();
+    }
+
+    @ManagedAttribute
+    public long getDishEvictions() {
+        return dishes.stats().evictionCount();
+    }
+
+    @ManagedAttribute
+    public long getDishMenuHits() {
+        return dishMenus.stats().hitCount();
+    }
+
+    @ManagedAttribute
+    public long getDishMenuMisses() {
+        return dishMenus.stats().missCount();
+    }
+
+    @ManagedAttribute
+    public long getDishMenuEvictions() {
+        return dishMenus.stats().evictionCount();
+    }
+}
@@ -0,0 +1,489 @@
+package com.uptc.frw.mcprestaurant.cache;
+
+import com.uptc.frw.mcprestaurant.config.CatalogSnapshotProperties;
+import com.uptc.frw.mcprestaurant.model.Dish;
+import com.uptc.frw.mcprestaurant.model.DishMenu;
+import com.uptc.frw.mcprestaurant.model.Menu;
+import jakarta.annotation.PreDestroy;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary copy of the catalog (menus, dishes and dish-menu prices) kept
+ * in a local file, so a new session can answer catalog reads before the
+ * backend has been asked and can keep answering while the backend is down.
+ *
+ * The file is memory-mapped at startup and a section is only decoded into
+ * records when it is first served. It is rewritten (to a temporary file, then
+ * moved into place) shortly after a load brings a list that differs from the
+ * saved one, each time with a higher version stamp.
+ * <pre>
+ * "MCPSNAP1" | version long | section count int
+ * per section: entity int | taken-at epoch millis long | count int | offset int | length int | CRC32 int
+ * section data: records, with nullable longs/doubles as a presence byte plus value
+ *               and strings as a UTF-8 length (-1 for null) plus bytes
+ * </pre>
+ */
+@Component
+@ManagedResource(objectName = "mcprestaurant:type=CatalogSnapshot")
+public class CatalogSnapshot {
+
+    private static final byte[] MAGIC = "MCPSNAP1".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER = MAGIC.length + Long.BYTES + Integer.BYTES;
+    private static final int DIRECTORY_ENTRY = 5 * Integer.BYTES + Long.BYTES;
+
+    /** Catalog entities in the snapshot, identified in the file by ordinal */
+    enum Entity { MENUS, DISHES, DISH_MENUS }
+
+    private final CatalogSnapshotProperties properties;
+    private final Section<Menu> menus = new Section<>(Entity.MENUS, new Codec<>() {
+        @Override
+        public void write(DataOutputStream out, Menu menu) throws IOException {
+            writeLong(out, menu.id());
+            writeString(out, menu.description());
+        }
+
+        @Override
+        public Menu read(ByteBuffer in) {
+            return new Menu(readLong(in), readString(in));
+        }
+    });
+    private final Section<Dish> dishes = new Section<>(Entity.DISHES, new Codec<>() {
+        @Override
+        public void write(DataOutputStream out, Dish dish) throws IOException {
+            writeLong(out, dish.id());
+            writeString(out, dish.dishType());
+            writeString(out, dish.name());
+            writeString(out, dish.description());
+        }
+
+        @Override
+        public Dish read(ByteBuffer in) {
+            return new Dish(readLong(in), readString(in), readString(in), readString(in));
+        }
+    });
+    private final Section<DishMenu> dishMenus = new Section<>(Entity.DISH_MENUS, new Codec<>() {
+        @Override
+        public void write(DataOutputStream out, DishMenu dishMenu) throws IOException {
+            writeLong(out, dishMenu.menuId());
+            writeLong(out, dishMenu.dishId());
+            writeDouble(out, dishMenu.price());
+            writeString(out, dishMenu.date());
+        }
+
+        @Override
+        public DishMenu read(ByteBuffer in) {
+            return new DishMenu(readLong(in), readLong(in), readDouble(in), readString(in));
+        }
+    });
+    private final List<Section<?>> sections = List.of(menus, dishes, dishMenus);
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "catalog-snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean writeScheduled = new AtomicBoolean();
+    private final LongAdder warmServed = new LongAdder();
+    private final LongAdder staleServed = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private volatile long version;
+    private volatile String lastError;
+
+    public CatalogSnapshot(CatalogSnapshotProperties properties) {
+        this.properties = properties;
+        if (properties.enabled() && Files.isRegularFile(properties.file())) {
+            try {
+                map(properties.file());
+            } catch (IOException | RuntimeException e) {
+                lastError = "Ignored unreadable snapshot: " + e;
+            }
+        }
+    }
+
+    Section<Menu> menus() {
+        return menus;
+    }
+
+    Section<Dish> dishes() {
+        return dishes;
+    }
+
+    Section<DishMenu> dishMenus() {
+        return dishMenus;
+    }
+
+    /**
+     * Write any lists loaded since the last write before shutting down
+     */
+    @PreDestroy
+    public void stop() {
+        writer.shutdownNow();
+        if (writeScheduled.get()) {
+            write();
+        }
+    }
+
+    @ManagedOperation(description = "Write the snapshot now")
+    public synchronized void write() {
+        writeScheduled.set(false);
+        if (!properties.enabled()) {
+            return;
+        }
+        try {
+            List<Encoded> encoded = new ArrayList<>();
+            for (Section<?> section : sections) {
+                Encoded data = section.encode();
+                if (data != null) {
+                    encoded.add(data);
+                }
+            }
+            Path file = properties.file();
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            // Unique per write, so two processes sharing the file never write into each other's copy
+            Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName() + ".", ".tmp");
+            try {
+                Files.write(temporary, layout(version + 1, encoded));
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+            map(file);
+            encoded.forEach(data -> sections.get(data.entity().ordinal()).written(data.source()));
+            writes.increment();
+            lastError = null;
+        } catch (IOException | RuntimeException e) {
+            lastError = "Snapshot write failed: " + e;
+        }
+    }
+
+    private static byte[] layout(long newVersion, List<Encoded> encoded) {
+        int offset = HEADER + encoded.size() * DIRECTORY_ENTRY;
+        int total = offset + encoded.stream().mapToInt(data -> data.bytes().length).sum();
+        ByteBuffer out = ByteBuffer.allocate(total);
+        out.put(MAGIC).putLong(newVersion).putInt(encoded.size());
+        for (Encoded data : encoded) {
+            CRC32 crc = new CRC32();
+            crc.update(data.bytes());
+            out.putInt(data.entity().ordinal()).putLong(data.takenAt().toEpochMilli()).putInt(data.count())
+                    .putInt(offset).putInt(data.bytes().length).putInt((int) crc.getValue());
+            offset += data.bytes().length;
+        }
+        encoded.forEach(data -> out.put(data.bytes()));
+        return out.array();
+    }
+
+    /**
+     * Map a snapshot file and point every section at its bytes
+     * @throws IOException If the file is not a complete, intact snapshot
+     */
+    private void map(Path file) throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        byte[] magic = new byte[MAGIC.length];
+        mapped.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a catalog snapshot");
+        }
+        long fileVersion = mapped.getLong();
+        int count = mapped.getInt();
+        Mapping[] mappings = new Mapping[sections.size()];
+        for (int i = 0; i < count; i++) {
+            int entity = mapped.getInt();
+            Instant at = Instant.ofEpochMilli(mapped.getLong());
+            int records = mapped.getInt();
+            int offset = mapped.getInt();
+            int length = mapped.getInt();
+            int crc = mapped.getInt();
+            ByteBuffer slice = mapped.slice(offset, length);
+            CRC32 check = new CRC32();
+            check.update(slice.duplicate());
+            if ((int) check.getValue() != crc) {
+                throw new IOException("Corrupt section " + Entity.values()[entity]);
+            }
+            mappings[entity] = new Mapping(slice, at, records);
+        }
+        for (int i = 0; i < sections.size(); i++) {
+            sections.get(i).mapped(mappings[i]);
+        }
+        version = fileVersion;
+    }
+
+    private void scheduleWrite() {
+        if (writeScheduled.compareAndSet(false, true)) {
+            writer.schedule(this::write, properties.writeDelay().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Whether a failed load means the backend could not be reached, as opposed to a rejected request.
+     * Any error response with a 5xx status counts, whichever RestClientResponseException carries it.
+     */
+    static boolean unreachable(RuntimeException failure) {
+        return failure instanceof ResourceAccessException
+                || failure instanceof RestClientResponseException response && response.getStatusCode().is5xxServerError();
+    }
+
+    @ManagedAttribute(description = "Version stamp of the snapshot file, raised on every write")
+    public long getVersion() {
+        return version;
+    }
+
+    @ManagedAttribute(description = "Cold-start reads answered from the snapshot")
+    public long getWarmServed() {
+        return warmServed.sum();
+    }
+
+    @ManagedAttribute(description = "Reads answered from the snapshot, flagged stale, because the backend was down")
+    public long getStaleServed() {
+        return staleServed.sum();
+    }
+
+    @ManagedAttribute(description = "Snapshot files written")
+    public long getWrites() {
+        return writes.sum();
+    }
+
+    @ManagedAttribute(description = "When each section was taken")
+    public String getTakenAt() {
+        StringBuilder out = new StringBuilder();
+        for (Section<?> section : sections) {
+            Mapping mapping = section.mapping;
+            out.append(section.entity).append('=').append(mapping == null ? "none" : mapping.takenAt()).append(' ');
+        }
+        return out.toString().trim();
+    }
+
+    @ManagedAttribute(description = "Last problem reading or writing the snapshot, if any")
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * The snapshot of one entity, as seen by its {@link EntityCache}
+     */
+    final class Section<V> {
+
+        private final Entity entity;
+        private final Codec<V> codec;
+        private volatile Mapping mapping;
+        private volatile Loaded<V> latest;
+        private List<V> decoded;
+        private Mapping decodedFrom;
+
+        private Section(Entity entity, Codec<V> codec) {
+            this.entity = entity;
+            this.codec = codec;
+        }
+
+        /**
+         * The snapshot list for a cold start, if there is one recent enough,
+         * flagged stale until the backend has been asked
+         */
+        SnapshotList<V> warm() {
+            Mapping current = mapping;
+            if (current == null || current.takenAt().plus(properties.maxAge()).isBefore(Instant.now())) {
+                return null;
+            }
+            List<V> values = decode(current);
+            warmServed.increment();
+            return new SnapshotList<>(values, current.takenAt());
+        }
+
+        /**
+         * The newest copy of the list, flagged stale, to serve instead of a failed load
+         * @return null when there is none or the failure is not the backend being unreachable
+         */
+        SnapshotList<V> stale(RuntimeException failure) {
+            if (!properties.enabled() || !unreachable(failure)) {
+                return null;
+            }
+            Loaded<V> loaded = latest;
+            Mapping current = mapping;
+            if (loaded == null && current == null) {
+                return null;
+            }
+            staleServed.increment();
+            return loaded != null
+                    ? new SnapshotList<>(loaded.values(), loaded.at())
+                    : new SnapshotList<>(decode(current), current.takenAt());
+        }
+
+        /**
+         * Record a list freshly loaded from the backend, to be written shortly.
+         * A list equal to the saved one is only written again once that copy is
+         * half as old as maxAge, so an unchanged catalog stays warm without a
+         * rewrite on every load.
+         */
+        void save(List<V> values) {
+            if (!properties.enabled() || sameAsSaved(values)) {
+                return;
+            }
+            latest = new Loaded<>(values, Instant.now());
+            scheduleWrite();
+        }
+
+        private boolean sameAsSaved(List<V> values) {
+            Instant recent = Instant.now().minus(properties.maxAge().dividedBy(2));
+            Loaded<V> loaded = latest;
+            if (loaded != null) {
+                return loaded.at().isAfter(recent) && loaded.values().equals(values);
+            }
+            Mapping current = mapping;
+            return current != null && current.takenAt().isAfter(recent) && decode(current).equals(values);
+        }
+
+        /**
+         * Decode the mapped records, once per mapping
+         */
+        private List<V> decode(Mapping current) {
+            synchronized (this) {
+                if (decodedFrom != current) {
+                    ByteBuffer in = current.bytes().duplicate();
+                    List<V> read = new ArrayList<>(current.count());
+                    for (int i = 0; i < current.count(); i++) {
+                        read.add(codec.read(in));
+                    }
+                    decoded = Collections.unmodifiableList(read);
+                    decodedFrom = current;
+                }
+                return decoded;
+            }
+        }
+
+        /**
+         * Encode the newest list for writing
+         * @return null when this entity has never been loaded or mapped
+         */
+        private Encoded encode() throws IOException {
+            Loaded<V> loaded = latest;
+            if (loaded == null) {
+                Mapping current = mapping;
+                if (current == null) {
+                    return null;
+                }
+                byte[] bytes = new byte[current.bytes().remaining()];
+                current.bytes().duplicate().get(bytes);
+                return new Encoded(entity, bytes, current.takenAt(), current.count(), null);
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(loaded.values().size() * 32);
+            DataOutputStream out = new DataOutputStream(bytes);
+            for (V value : loaded.values()) {
+                codec.write(out, value);
+            }
+            out.flush();
+            return new Encoded(entity, bytes.toByteArray(), loaded.at(), loaded.values().size(), loaded);
+        }
+
+        private void mapped(Mapping mapped) {
+            mapping = mapped;
+        }
+
+        /**
+         * Drop the pending list once it is on disk, unless a newer one arrived meanwhile
+         */
+        private void written(Object source) {
+            if (source != null && latest == source) {
+                latest = null;
+            }
+        }
+    }
+
+    /**
+     * The mapped bytes of one section
+     */
+    private record Mapping(ByteBuffer bytes, Instant takenAt, int count) {
+    }
+
+    /**
+     * A list loaded from the backend and not yet written
+     */
+    private record Loaded<V>(List<V> values, Instant at) {
+    }
+
+    /**
+     * One section ready to be written, with the list it came from
+     */
+    private record Encoded(Entity entity, byte[] bytes, Instant takenAt, int count, Object source) {
+    }
+
+    /**
+     * Binary form of one record type
+     */
+    private interface Codec<V> {
+
+        void write(DataOutputStream out, V value) throws IOException;
+
+        V read(ByteBuffer in);
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static void writeDouble(DataOutputStream out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static Long readLong(ByteBuffer in) {
+        return in.get() != 0 ? in.getLong() : null;
+    }
+
+    private static Double readDouble(ByteBuffer in) {
+        return in.get() != 0 ? in.getDouble() : null;
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
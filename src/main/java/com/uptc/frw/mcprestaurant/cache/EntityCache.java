@@ -0,0 +1,278 @@
+package com.uptc.frw.mcprestaurant.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.uptc.frw.mcprestaurant.config.CatalogCacheProperties;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL-evicting read-through cache for one catalog entity.
+ *
+ * The full list is kept under its own key next to the individual entries.
+ * Every local write bumps a generation counter so that a load which started
+ * before the write never stores its (now stale) result.
+ *
+ * With a {@link CatalogSnapshot} section, the first miss of the list is
+ * answered from the snapshot, flagged stale, while the backend is asked in
+ * the background, fresh lists are saved to the snapshot, and a list load that
+ * fails because the backend is unreachable falls back to the snapshot, also
+ * flagged stale.
+ */
+public class EntityCache<K, V> {
+
+    private static final Object ALL = new Object();
+
+    private final Cache<Object, Object> cache;
+    private final Function<V, K> keyOf;
+    private final AtomicLong generation = new AtomicLong();
+    private final CatalogSnapshot.Section<V> snapshot;
+    private final Executor refreshExecutor;
+    private final AtomicBoolean coldStart = new AtomicBoolean(true);
+    private volatile Runnable localWriteListener;
+
+    public EntityCache(CatalogCacheProperties.Entity settings, Function<V, K> keyOf) {
+        this(settings, keyOf, null, null);
+    }
+
+    /**
+     * @param snapshot The snapshot section of this entity, or null for none
+     * @param refreshExecutor Runs the background load after a snapshot answer
+     */
+    EntityCache(CatalogCacheProperties.Entity settings, Function<V, K> keyOf,
+                CatalogSnapshot.Section<V> snapshot, Executor refreshExecutor) {
+        this.keyOf = keyOf;
+        this.snapshot = snapshot;
+        this.refreshExecutor = refreshExecutor;
+        this.cache = settings.enabled()
+                ? Caffeine.newBuilder()
+                        .maximumSize(settings.maximumSize())
+                        .expireAfterWrite(settings.ttl())
+                        .recordStats()
+                        .build()
+                : null;
+    }
+
+    /**
+     * Get the full list, loading it on a miss
+     * @param loader Fetches the list from the backend
+     * @return The cached or freshly loaded list
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> getAll(Supplier<List<V>> loader) {
+        if (cache == null) {
+            return load(loader);
+        }
+        Object cached = cache.getIfPresent(ALL);
+        if (cached != null) {
+            return (List<V>) cached;
+        }
+        if (snapshot != null && coldStart.compareAndSet(true, false)) {
+            SnapshotList<V> warm = snapshot.warm();
+            if (warm != null) {
+                storeWarm(warm, generation.get());
+                refreshExecutor.execute(() -> refresh(loader, warm));
+                return warm;
+            }
+        }
+        long startedAt = generation.get();
+        List<V> values = load(loader);
+        if (values == null || values instanceof SnapshotList) {
+            return values;
+        }
+        values = Collections.unmodifiableList(values);
+        store(values, startedAt);
+        return values;
+    }
+
+    /**
+     * Load the list from the backend, saving it to the snapshot, or fall back
+     * to the snapshot if the backend cannot be reached
+     */
+    private List<V> load(Supplier<List<V>> loader) {
+        List<V> values;
+        try {
+            values = loader.get();
+        } catch (RuntimeException e) {
+            SnapshotList<V> stale = snapshot == null ? null : snapshot.stale(e);
+            if (stale == null) {
+                throw e;
+            }
+            return stale;
+        }
+        if (snapshot != null && values != null) {
+            snapshot.save(values);
+        }
+        return values;
+    }
+
+    /**
+     * Replace a list answered from the snapshot with the backend's. If that
+     * fails the snapshot list is dropped, so the next read asks the backend
+     * again and gets its error or the stale-flagged fallback.
+     */
+    private void refresh(Supplier<List<V>> loader, SnapshotList<V> warm) {
+        long startedAt = generation.get();
+        List<V> values;
+        try {
+            values = loader.get();
+        } catch (RuntimeException e) {
+            cache.asMap().remove(ALL, warm);
+            return;
+        }
+        if (values == null) {
+            cache.asMap().remove(ALL, warm);
+            return;
+        }
+        snapshot.save(values);
+        store(Collections.unmodifiableList(values), startedAt);
+    }
+
+    /**
+     * Keep a snapshot list under the list key only, so single entries are
+     * still read from the backend while it is waiting to be refreshed
+     */
+    private void storeWarm(SnapshotList<V> warm, long startedAt) {
+        synchronized (this) {
+            if (generation.get() == startedAt) {
+                cache.put(ALL, warm);
+            }
+        }
+    }
+
+    private void store(List<V> values, long startedAt) {
+        synchronized (this) {
+            if (generation.get() == startedAt) {
+                cache.put(ALL, values);
+                for (V value : values) {
+                    K key = keyOf.apply(value);
+                    if (key != null) {
+                        cache.put(key, value);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Get a single entry, loading it on a miss
+     * @param key The entity key
+     * @param loader Fetches the entry from the backend
+     * @return The cached or freshly loaded entry
+     */
+    @SuppressWarnings("unchecked")
+    public V get(K key, Function<K, V> loader) {
+        if (cache == null) {
+            return loader.apply(key);
+        }
+        Object cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return (V) cached;
+        }
+        long startedAt = generation.get();
+        V value = loader.apply(key);
+        if (value != null) {
+            synchronized (this) {
+                if (generation.get() == startedAt) {
+                    cache.put(key, value);
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Record a locally written entry: the entry is replaced and the list dropped
+     * @param value The entry returned by the backend
+     */
+    public void put(V value) {
+        if (value == null) {
+            return;
+        }
+        if (cache != null) {
+            synchronized (this) {
+                generation.incrementAndGet();
+                cache.invalidate(ALL);
+                K key = keyOf.apply(value);
+                if (key != null) {
+                    cache.put(key, value);
+                }
+            }
+        }
+        localWrite();
+    }
+
+    /**
+     * Drop an entry and the list that contains it
+     * @param key The entity key
+     */
+    public void evict(K key) {
+        if (cache != null) {
+            synchronized (this) {
+                generation.incrementAndGet();
+                cache.invalidate(ALL);
+                cache.invalidate(key);
+            }
+        }
+        localWrite();
+    }
+
+    /**
+     * Drop entries that changed at the backend, and the list. Unlike
+     * {@link #evict} this is not reported as a local write.
+     * @param keys The changed entity keys
+     */
+    public void invalidate(Collection<K> keys) {
+        if (cache == null) {
+            return;
+        }
+        synchronized (this) {
+            generation.incrementAndGet();
+            cache.invalidate(ALL);
+            cache.invalidateAll(keys);
+        }
+    }
+
+    /**
+     * Run a callback after every local write ({@link #put} or {@link #evict})
+     */
+    public void onLocalWrite(Runnable listener) {
+        this.localWriteListener = listener;
+    }
+
+    /**
+     * Drop every entry of this entity
+     */
+    public void clear() {
+        if (cache == null) {
+            return;
+        }
+        synchronized (this) {
+            generation.incrementAndGet();
+            cache.invalidateAll();
+        }
+    }
+
+    private void localWrite() {
+        Runnable listener = localWriteListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    public CacheStats stats() {
+        return cache == null ? CacheStats.empty() : cache.stats();
+    }
+}
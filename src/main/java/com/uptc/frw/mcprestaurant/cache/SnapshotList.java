@@ -0,0 +1,36 @@
+package com.uptc.frw.mcprestaurant.cache;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A list served from the catalog snapshot because the backend could not be
+ * reached. Tool results built from it are flagged as stale with the time the
+ * snapshot was taken.
+ */
+public final class SnapshotList<V> extends AbstractList<V> implements RandomAccess {
+
+    private final List<V> values;
+    private final Instant takenAt;
+
+    SnapshotList(List<V> values, Instant takenAt) {
+        this.values = values;
+        this.takenAt = takenAt;
+    }
+
+    public Instant takenAt() {
+        return takenAt;
+    }
+
+    @Override
+    public V get(int index) {
+        return values.get(index);
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+}
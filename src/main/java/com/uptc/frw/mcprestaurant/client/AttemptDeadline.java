@@ -0,0 +1,38 @@
+package com.uptc.frw.mcprestaurant.client;
+
+import java.time.Duration;
+
+/**
+ * Deadline of the backend attempt running on the current thread.
+ *
+ * {@link ResilienceInterceptor} sets it around each attempt, and the request
+ * factory turns the time left into that attempt's response timeout, so the
+ * last attempt cannot wait a full read timeout past the call's deadline.
+ */
+public final class AttemptDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private AttemptDeadline() {
+    }
+
+    /**
+     * Time left before the deadline, never below one millisecond, or null
+     * when no attempt is running on this thread
+     */
+    public static Duration remaining() {
+        Long deadline = DEADLINE.get();
+        if (deadline == null) {
+            return null;
+        }
+        return Duration.ofNanos(Math.max(Duration.ofMillis(1).toNanos(), deadline - System.nanoTime()));
+    }
+
+    static void set(long deadlineNanos) {
+        DEADLINE.set(deadlineNanos);
+    }
+
+    static void clear() {
+        DEADLINE.remove();
+    }
+}
@@ -0,0 +1,14 @@
+package com.uptc.frw.mcprestaurant.client;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a call is rejected without reaching the restaurant API,
+ * because the endpoint's circuit is open or its bulkhead is full
+ */
+public class BackendUnavailableException extends IOException {
+
+    public BackendUnavailableException(String message) {
+        super(message);
+    }
+}
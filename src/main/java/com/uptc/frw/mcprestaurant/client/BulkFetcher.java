@@ -0,0 +1,104 @@
+package com.uptc.frw.mcprestaurant.client;
+
+import com.uptc.frw.mcprestaurant.config.RestaurantApiProperties;
+import com.uptc.frw.mcprestaurant.model.BulkResult;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * Runs per-id lookups concurrently for the bulk tools.
+ *
+ * Duplicate ids are fetched once, each backend endpoint gets its own
+ * concurrency cap, and a failing id does not fail the others.
+ */
+@Component
+public class BulkFetcher {
+
+    private final ExecutorService executor;
+    private final int maxConcurrency;
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+    public BulkFetcher(ExecutorService restaurantApiExecutor, RestaurantApiProperties properties) {
+        this.executor = restaurantApiExecutor;
+        this.maxConcurrency = properties.maxConcurrencyPerEndpoint();
+    }
+
+    /**
+     * Fetch every id concurrently
+     * @param endpoint Name of the backend endpoint, used to pick the concurrency cap
+     * @param ids The ids to fetch, in the order results are returned
+     * @param fetch Single-id lookup
+     * @return One result per distinct id
+     */
+    public <T> List<BulkResult<T>> fetchAll(String endpoint, List<Long> ids, Function<Long, T> fetch) {
+        Semaphore limit = permits.computeIfAbsent(endpoint, name -> new Semaphore(maxConcurrency));
+        Map<Long, CompletableFuture<T>> pending = new LinkedHashMap<>();
+        for (Long id : ids) {
+            if (id != null) {
+                pending.computeIfAbsent(id, key -> CompletableFuture.supplyAsync(() -> fetchLimited(limit, key, fetch), executor));
+            }
+        }
+
+        List<BulkResult<T>> results = new ArrayList<>(pending.size());
+        pending.forEach((id, future) -> {
+            try {
+                results.add(BulkResult.success(id, future.join()));
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                results.add(BulkResult.failure(id, cause.getMessage()));
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Run one write per item concurrently, keeping every item (no deduplication)
+     * @param endpoint Name of the backend endpoint, used to pick the concurrency cap
+     * @param items The items to write, in the order results are returned
+     * @param idOf Id reported in the result of each item
+     * @param write Single-item write
+     * @return One result per item
+     */
+    public <I, T> List<BulkResult<T>> writeAll(String endpoint, List<I> items, Function<I, Long> idOf, Function<I, T> write) {
+        Semaphore limit = permits.computeIfAbsent(endpoint, name -> new Semaphore(maxConcurrency));
+        List<CompletableFuture<T>> pending = items.stream()
+                .map(item -> CompletableFuture.supplyAsync(() -> fetchLimited(limit, idOf.apply(item), id -> write.apply(item)), executor))
+                .toList();
+
+        List<BulkResult<T>> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Long id = idOf.apply(items.get(i));
+            try {
+                results.add(BulkResult.success(id, pending.get(i).join()));
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                results.add(BulkResult.failure(id, cause.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    private static <T> T fetchLimited(Semaphore limit, Long id, Function<Long, T> fetch) {
+        try {
+            limit.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to fetch id " + id, e);
+        }
+        try {
+            return fetch.apply(id);
+        } finally {
+            limit.release();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.uptc.frw.mcprestaurant.client;
+
+import com.uptc.frw.mcprestaurant.client.SingleFlightInterceptor.BufferedResponse;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Revalidates GET requests marked with {@link #REVALIDATE} instead of downloading
+ * them again.
+ *
+ * The last 200 response of each URI is kept with its ETag and Last-Modified
+ * validators, which are sent back as If-None-Match/If-Modified-Since. A 304 is
+ * answered from the stored copy. Every response handed out carries a
+ * {@link #VERSION_HEADER}: the ETag when the backend sends one, otherwise a
+ * SHA-256 of the body, so readers can tell an unchanged payload and skip
+ * deserializing it even when the backend has no validators.
+ */
+@Component
+@Order(200)
+@ManagedResource(objectName = "mcprestaurant:type=ConditionalGet")
+public class ConditionalGetInterceptor implements ClientHttpRequestInterceptor {
+
+    /** Request attribute that opts a GET into revalidation */
+    public static final String REVALIDATE = ConditionalGetInterceptor.class.getName() + ".REVALIDATE";
+
+    /** Response header with the version of the payload */
+    public static final String VERSION_HEADER = "X-Content-Version";
+
+    private record Stored(String etag, String lastModified, String version, BufferedResponse response) {
+    }
+
+    private final Map<String, Stored> stored = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (request.getMethod() != HttpMethod.GET || !Boolean.TRUE.equals(request.getAttributes().get(REVALIDATE))) {
+            return execution.execute(request, body);
+        }
+        requests.increment();
+        String key = request.getURI() + "|" + request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        Stored previous = stored.get(key);
+        if (previous != null) {
+            if (previous.etag() != null) {
+                request.getHeaders().set(HttpHeaders.IF_NONE_MATCH, previous.etag());
+            }
+            if (previous.lastModified() != null) {
+                request.getHeaders().set(HttpHeaders.IF_MODIFIED_SINCE, previous.lastModified());
+            }
+        }
+
+        ClientHttpResponse response = execution.execute(request, body);
+        if (previous != null && response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+            response.close();
+            notModified.increment();
+            bytesSaved.add(previous.response().body().length);
+            return previous.response().copy();
+        }
+        if (response.getStatusCode().value() != HttpStatus.OK.value()) {
+            return response;
+        }
+
+        BufferedResponse buffered;
+        try (response) {
+            buffered = BufferedResponse.of(response);
+        }
+        bytesReceived.add(buffered.body().length);
+        String etag = buffered.headers().getETag();
+        String lastModified = buffered.headers().getFirst(HttpHeaders.LAST_MODIFIED);
+        String version = etag != null ? etag : sha256(buffered.body());
+        buffered.headers().set(VERSION_HEADER, version);
+        stored.put(key, new Stored(etag, lastModified, version, buffered));
+        return buffered.copy();
+    }
+
+    @ManagedAttribute(description = "GET requests that went through revalidation")
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    @ManagedAttribute(description = "Revalidations answered with 304 Not Modified")
+    public long getNotModified() {
+        return notModified.sum();
+    }
+
+    @ManagedAttribute(description = "Body bytes downloaded for revalidated GETs")
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    @ManagedAttribute(description = "Body bytes not downloaded thanks to 304 responses")
+    public long getBytesSaved() {
+        return bytesSaved.sum();
+    }
+
+    @ManagedAttribute(description = "URIs with a stored response")
+    public int getStored() {
+        return stored.size();
+    }
+
+    @ManagedOperation(description = "Forget every stored response and validator")
+    public void clear() {
+        stored.clear();
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return "\"sha256:" + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
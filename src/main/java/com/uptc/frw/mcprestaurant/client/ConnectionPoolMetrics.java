@@ -0,0 +1,42 @@
+package com.uptc.frw.mcprestaurant.client;
+
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the restaurant API connection pool state over JMX.
+ *
+ * STDIO must stay clean, so metrics are published as an MBean instead of being logged.
+ */
+@Component
+@ManagedResource(objectName = "mcprestaurant:type=ConnectionPool")
+public class ConnectionPoolMetrics {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    public ConnectionPoolMetrics(PoolingHttpClientConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    @ManagedAttribute(description = "Connections currently in use")
+    public int getLeased() {
+        return connectionManager.getTotalStats().getLeased();
+    }
+
+    @ManagedAttribute(description = "Idle connections ready for reuse")
+    public int getIdle() {
+        return connectionManager.getTotalStats().getAvailable();
+    }
+
+    @ManagedAttribute(description = "Requests waiting for a connection")
+    public int getPending() {
+        return connectionManager.getTotalStats().getPending();
+    }
+
+    @ManagedAttribute(description = "Maximum number of connections")
+    public int getMax() {
+        return connectionManager.getTotalStats().getMax();
+    }
+}
@@ -0,0 +1,39 @@
+package com.uptc.frw.mcprestaurant.client;
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The exception {@code retrieve()} would throw for an error response, for the
+ * readers that use {@code exchange()} to look at the response themselves, so
+ * callers can tell a 5xx (HttpServerErrorException) from a 4xx
+ * (HttpClientErrorException and its subclasses) the same way everywhere
+ */
+final class ErrorResponses {
+
+    private ErrorResponses() {
+    }
+
+    static RestClientResponseException of(String method, String uri, ClientHttpResponse response) throws IOException {
+        HttpStatusCode status = response.getStatusCode();
+        String message = status + " on " + method + " " + uri;
+        byte[] body = StreamUtils.copyToByteArray(response.getBody());
+        if (status.is4xxClientError()) {
+            return HttpClientErrorException.create(message, status, response.getStatusText(), response.getHeaders(),
+                    body, StandardCharsets.UTF_8);
+        }
+        if (status.is5xxServerError()) {
+            return HttpServerErrorException.create(message, status, response.getStatusText(), response.getHeaders(),
+                    body, StandardCharsets.UTF_8);
+        }
+        return new RestClientResponseException(message, status, response.getStatusText(), response.getHeaders(),
+                body, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,133 @@
+package com.uptc.frw.mcprestaurant.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uptc.frw.mcprestaurant.model.Page;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Reads JSON array responses element by element with Jackson's streaming parser.
+ *
+ * Only the requested page is kept on the heap, and reading stops as soon as the
+ * page is full, so memory stays flat regardless of how large the array is.
+ *
+ * The backend has no paging parameters, so this is offset paging over a full
+ * re-fetch: the page token is the number of matching elements to skip, and
+ * every page streams the array again from its first element. Reading N
+ * elements in pages of L streams about N²/2L elements, and an element added
+ * or removed between two pages shifts the ones after it.
+ */
+@Component
+public class JsonArrayReader {
+
+    private final RestClient restClient;
+    private final ObjectMapper objectMapper;
+
+    public JsonArrayReader(RestClient restaurantRestClient, ObjectMapper objectMapper) {
+        this.restClient = restaurantRestClient;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Read one page of the matching elements of a JSON array endpoint
+     * @param uri The endpoint path
+     * @param type The element type
+     * @param filter Elements that do not match are skipped and not counted
+     * @param pageToken Token of the page to read (an offset into the matching elements), or null for the first page
+     * @param limit Maximum number of elements in the page
+     * @return The page, with a token for the next page if more elements match
+     */
+    public <T> Page<T> readPage(String uri, Class<T> type, Predicate<T> filter, String pageToken, int limit) {
+        int offset = decodeToken(pageToken);
+        return stream(uri, parser -> {
+            List<T> items = new ArrayList<>(Math.min(limit, 256));
+            int matched = 0;
+            boolean more = false;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                T item = objectMapper.readValue(parser, type);
+                if (!filter.test(item) || matched++ < offset) {
+                    continue;
+                }
+                if (items.size() == limit) {
+                    more = true;
+                    break;
+                }
+                items.add(item);
+            }
+            return new Page<>(items, more ? encodeToken(offset + limit) : null);
+        });
+    }
+
+    /**
+     * Hand every element of a JSON array endpoint to a consumer without collecting them
+     * @param uri The endpoint path
+     * @param type The element type
+     * @param action Called once per element, in array order
+     * @return The number of elements read
+     */
+    public <T> long forEach(String uri, Class<T> type, Consumer<T> action) {
+        return stream(uri, parser -> {
+            long count = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                action.accept(objectMapper.readValue(parser, type));
+                count++;
+            }
+            return count;
+        });
+    }
+
+    @FunctionalInterface
+    private interface ArrayHandler<R> {
+        R handle(JsonParser parser) throws IOException;
+    }
+
+    private <R> R stream(String uri, ArrayHandler<R> handler) {
+        return restClient.get()
+                .uri(uri)
+                .attribute(SingleFlightInterceptor.BYPASS, true)
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isError()) {
+                        throw ErrorResponses.of("GET", uri, response);
+                    }
+                    try (JsonParser parser = objectMapper.getFactory().createParser(response.getBody())) {
+                        if (parser.nextToken() != JsonToken.START_ARRAY) {
+                            throw new IllegalStateException("Expected a JSON array from " + uri);
+                        }
+                        return handler.handle(parser);
+                    }
+                });
+    }
+
+    private static String encodeToken(int offset) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("o:" + offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decodeToken(String pageToken) {
+        if (pageToken == null || pageToken.isBlank()) {
+            return 0;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+            if (decoded.startsWith("o:")) {
+                int offset = Integer.parseInt(decoded.substring(2));
+                if (offset >= 0) {
+                    return offset;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // fall through to the error below
+        }
+        throw new IllegalArgumentException("Invalid page token: " + pageToken);
+    }
+}
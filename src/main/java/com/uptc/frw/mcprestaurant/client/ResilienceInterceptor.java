@@ -0,0 +1,222 @@
+package com.uptc.frw.mcprestaurant.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uptc.frw.mcprestaurant.config.ResilienceProperties;
+import com.uptc.frw.mcprestaurant.config.RestaurantApiProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint bulkheads, retries and circuit breakers for the restaurant API.
+ *
+ * Each endpoint (first path segment below the base URL) has its own bulkhead,
+ * so a slow /sales cannot take every connection away from /dishes, and its own
+ * circuit breaker, which fails fast once the endpoint keeps failing. Only GETs
+ * are retried, on I/O errors and 502/503/504, with exponential backoff and full
+ * jitter. The call's deadline bounds the bulkhead wait and the backoff, and
+ * through {@link AttemptDeadline} the response timeout of every attempt.
+ */
+@Component
+@Order(300)
+@ManagedResource(objectName = "mcprestaurant:type=Resilience")
+public class ResilienceInterceptor implements ClientHttpRequestInterceptor {
+
+    /**
+     * Point-in-time state of one endpoint
+     */
+    public record EndpointState(
+        String endpoint,
+        String circuit,
+        int inUse,
+        int maxConcurrent,
+        long calls,
+        long failures,
+        long retries,
+        long rejectedByBulkhead,
+        long rejectedByCircuit
+    ) {
+    }
+
+    private final class Endpoint {
+        final String name;
+        final int maxConcurrent;
+        final Semaphore bulkhead;
+        final CircuitBreaker breaker;
+        final LongAdder calls = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder retries = new LongAdder();
+        final LongAdder bulkheadRejections = new LongAdder();
+
+        Endpoint(String name) {
+            this.name = name;
+            this.maxConcurrent = properties.maxConcurrent(name);
+            this.bulkhead = new Semaphore(maxConcurrent);
+            this.breaker = new CircuitBreaker(properties.failureThreshold(), properties.openDuration().toNanos());
+        }
+    }
+
+    private final ResilienceProperties properties;
+    private final ObjectMapper objectMapper;
+    private final String basePath;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public ResilienceInterceptor(ResilienceProperties properties, RestaurantApiProperties apiProperties,
+                                 ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        String path = URI.create(apiProperties.baseUrl()).getPath();
+        this.basePath = path == null ? "" : path.replaceAll("/+$", "");
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Endpoint endpoint = endpoints.computeIfAbsent(endpointOf(request.getURI()), Endpoint::new);
+        boolean idempotent = request.getMethod() == HttpMethod.GET;
+        int maxAttempts = idempotent ? Math.max(1, properties.maxAttempts()) : 1;
+        long deadline = System.nanoTime() + properties.deadline().toNanos();
+
+        for (int attempt = 1; ; attempt++) {
+            boolean last = attempt >= maxAttempts;
+            ClientHttpResponse response;
+            try {
+                response = attempt(endpoint, request, body, execution, deadline);
+            } catch (BackendUnavailableException e) {
+                throw e;
+            } catch (IOException e) {
+                long delay = last ? -1 : backoff(attempt, deadline);
+                if (delay < 0) {
+                    throw e;
+                }
+                sleep(endpoint, delay);
+                continue;
+            }
+            if (last || !isRetryable(response.getStatusCode().value())) {
+                return response;
+            }
+            long delay = backoff(attempt, deadline);
+            if (delay < 0) {
+                return response;
+            }
+            // Hand the connection back to the pool before waiting, not after
+            response.close();
+            sleep(endpoint, delay);
+        }
+    }
+
+    @ManagedOperation(description = "Bulkhead and circuit breaker state per endpoint as JSON")
+    public String report() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(states());
+    }
+
+    public List<EndpointState> states() {
+        List<EndpointState> states = new ArrayList<>(endpoints.size());
+        endpoints.values().forEach(endpoint -> states.add(new EndpointState(
+                endpoint.name,
+                endpoint.breaker.state().name(),
+                endpoint.maxConcurrent - endpoint.bulkhead.availablePermits(),
+                endpoint.maxConcurrent,
+                endpoint.calls.sum(),
+                endpoint.failures.sum(),
+                endpoint.retries.sum(),
+                endpoint.bulkheadRejections.sum(),
+                endpoint.breaker.rejected())));
+        states.sort(Comparator.comparing(EndpointState::endpoint));
+        return states;
+    }
+
+    private ClientHttpResponse attempt(Endpoint endpoint, HttpRequest request, byte[] body,
+                                       ClientHttpRequestExecution execution, long deadline) throws IOException {
+        if (!endpoint.breaker.tryAcquire(System.nanoTime())) {
+            throw new BackendUnavailableException("Circuit open for /" + endpoint.name + ", failing fast");
+        }
+        long wait = Math.min(properties.bulkheadWait().toNanos(), Math.max(0, deadline - System.nanoTime()));
+        boolean admitted;
+        try {
+            admitted = endpoint.bulkhead.tryAcquire(wait, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            endpoint.breaker.release();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a slot on /" + endpoint.name);
+        }
+        if (!admitted) {
+            endpoint.breaker.release();
+            endpoint.bulkheadRejections.increment();
+            throw new BackendUnavailableException("Too many concurrent calls to /" + endpoint.name + ", rejected");
+        }
+        endpoint.calls.increment();
+        AttemptDeadline.set(deadline);
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            if (response.getStatusCode().is5xxServerError()) {
+                endpoint.failures.increment();
+                endpoint.breaker.onFailure(System.nanoTime());
+            } else {
+                endpoint.breaker.onSuccess();
+            }
+            return response;
+        } catch (IOException | RuntimeException e) {
+            endpoint.failures.increment();
+            endpoint.breaker.onFailure(System.nanoTime());
+            throw e;
+        } finally {
+            AttemptDeadline.clear();
+            endpoint.bulkhead.release();
+        }
+    }
+
+    /**
+     * Full-jitter delay before the next attempt
+     * @return the delay in nanoseconds, or -1 if it would run past the deadline
+     */
+    private long backoff(int attempt, long deadline) {
+        long cap = Math.min(properties.maxBackoff().toNanos(), properties.backoff().toNanos() << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+        return System.nanoTime() + delay >= deadline ? -1 : delay;
+    }
+
+    private static void sleep(Endpoint endpoint, long delay) throws InterruptedIOException {
+        endpoint.retries.increment();
+        try {
+            TimeUnit.NANOSECONDS.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted before retrying /" + endpoint.name);
+        }
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 502 || status == 503 || status == 504;
+    }
+
+    private String endpointOf(URI uri) {
+        String path = uri.getPath() == null ? "" : uri.getPath();
+        if (path.startsWith(basePath)) {
+            path = path.substring(basePath.length());
+        }
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.indexOf('/', start);
+        return path.substring(start, end < 0 ? path.length() : end);
+    }
+}
@@ -0,0 +1,82 @@
+package com.uptc.frw.mcprestaurant.client;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reads catalog endpoints through {@link ConditionalGetInterceptor} and keeps the
+ * last decoded value per URI.
+ *
+ * When the response carries the same version as the previous one (a 304 from the
+ * backend, or an identical body hash) the previous value is returned as is and
+ * the body is never deserialized. Returned values are shared and must not be
+ * modified.
+ */
+@Component
+@ManagedResource(objectName = "mcprestaurant:type=RevalidatingReader")
+public class RevalidatingReader {
+
+    private record Decoded(String version, Object value) {
+    }
+
+    private final RestClient restClient;
+    private final Map<String, Decoded> decoded = new ConcurrentHashMap<>();
+    private final LongAdder decodes = new LongAdder();
+    private final LongAdder decodesSkipped = new LongAdder();
+
+    public RevalidatingReader(RestClient restaurantRestClient) {
+        this.restClient = restaurantRestClient;
+    }
+
+    /**
+     * GET an endpoint, revalidating the previous response
+     * @param uri The endpoint path
+     * @param type The body type
+     * @return The decoded body, shared with earlier calls while it is unchanged
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String uri, ParameterizedTypeReference<T> type) {
+        return restClient.get()
+                .uri(uri)
+                .attribute(ConditionalGetInterceptor.REVALIDATE, true)
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isError()) {
+                        throw ErrorResponses.of("GET", uri, response);
+                    }
+                    String version = response.getHeaders().getFirst(ConditionalGetInterceptor.VERSION_HEADER);
+                    Decoded previous = decoded.get(uri);
+                    if (version != null && previous != null && version.equals(previous.version())) {
+                        decodesSkipped.increment();
+                        return (T) previous.value();
+                    }
+                    T value = response.bodyTo(type);
+                    decodes.increment();
+                    if (version != null && value != null) {
+                        decoded.put(uri, new Decoded(version, value));
+                    }
+                    return value;
+                });
+    }
+
+    @ManagedAttribute(description = "Response bodies deserialized")
+    public long getDecodes() {
+        return decodes.sum();
+    }
+
+    @ManagedAttribute(description = "Unchanged response bodies served without deserializing")
+    public long getDecodesSkipped() {
+        return decodesSkipped.sum();
+    }
+
+    @ManagedAttribute(description = "Endpoints with a decoded value")
+    public int getEntries() {
+        return decoded.size();
+    }
+}
@@ -0,0 +1,180 @@
+package com.uptc.frw.mcprestaurant.client;
+
+import com.uptc.frw.mcprestaurant.config.RestaurantApiProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces identical concurrent GET requests (same URI and same Authorization
+ * header) into one backend call.
+ *
+ * Every other method through the client bumps a write epoch, once when it
+ * starts and once when it ends, and the epoch is part of the key: a GET that
+ * starts after a write never joins a GET that was already in flight before
+ * it, so a read after a local write does not get the pre-write body.
+ *
+ * The first caller executes the request and buffers the response; callers that
+ * arrive while it is in flight wait for it and get their own copy. Failures are
+ * propagated to every waiter. A waiter gives up after the wait timeout, and the
+ * entry is always removed by the caller that created it, so nothing is left
+ * behind. Requests carrying the {@link #BYPASS} attribute (streamed reads) are
+ * never coalesced.
+ */
+@Component
+@Order(100)
+@ManagedResource(objectName = "mcprestaurant:type=SingleFlight")
+public class SingleFlightInterceptor implements ClientHttpRequestInterceptor {
+
+    /** Request attribute that excludes a request from coalescing */
+    public static final String BYPASS = SingleFlightInterceptor.class.getName() + ".BYPASS";
+
+    private final Map<String, CompletableFuture<BufferedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong writeEpoch = new AtomicLong();
+    private final long waitTimeoutNanos;
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    @Autowired
+    public SingleFlightInterceptor(RestaurantApiProperties properties) {
+        this(properties.readTimeout().plus(properties.pool().acquireTimeout()));
+    }
+
+    SingleFlightInterceptor(Duration waitTimeout) {
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (request.getMethod() != HttpMethod.GET) {
+            writeEpoch.incrementAndGet();
+            try {
+                return execution.execute(request, body);
+            } finally {
+                writeEpoch.incrementAndGet();
+            }
+        }
+        if (Boolean.TRUE.equals(request.getAttributes().get(BYPASS))) {
+            return execution.execute(request, body);
+        }
+        String key = writeEpoch.get() + "|" + request.getURI() + "|"
+                + request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        CompletableFuture<BufferedResponse> mine = new CompletableFuture<>();
+        CompletableFuture<BufferedResponse> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            coalesced.increment();
+            return await(leader, request).copy();
+        }
+
+        executed.increment();
+        try (ClientHttpResponse response = execution.execute(request, body)) {
+            BufferedResponse buffered = BufferedResponse.of(response);
+            mine.complete(buffered);
+            return buffered.copy();
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    @ManagedAttribute(description = "GET requests sent to the backend")
+    public long getExecuted() {
+        return executed.sum();
+    }
+
+    @ManagedAttribute(description = "GET requests served from another caller's in-flight request")
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    @ManagedAttribute(description = "Distinct GET requests currently in flight")
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    private BufferedResponse await(CompletableFuture<BufferedResponse> leader, HttpRequest request) throws IOException {
+        try {
+            return leader.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new SocketTimeoutException("Timed out waiting for in-flight GET " + request.getURI());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for in-flight GET " + request.getURI());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Fully read response that can be handed out any number of times
+     */
+    record BufferedResponse(HttpStatusCode statusCode, String statusText, HttpHeaders headers, byte[] body) {
+
+        static BufferedResponse of(ClientHttpResponse response) throws IOException {
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(response.getHeaders());
+            return new BufferedResponse(response.getStatusCode(), response.getStatusText(), headers,
+                    StreamUtils.copyToByteArray(response.getBody()));
+        }
+
+        ClientHttpResponse copy() {
+            return new ClientHttpResponse() {
+                @Override
+                public HttpStatusCode getStatusCode() {
+                    return statusCode;
+                }
+
+                @Override
+                public String getStatusText() {
+                    return statusText;
+                }
+
+                @Override
+                public HttpHeaders getHeaders() {
+                    return headers;
+                }
+
+                @Override
+                public InputStream getBody() {
+                    return new ByteArrayInputStream(body);
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+    }
+}
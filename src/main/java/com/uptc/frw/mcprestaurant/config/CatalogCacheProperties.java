@@ -0,0 +1,30 @@
+package com.uptc.frw.mcprestaurant.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for the in-process catalog cache (restaurant.cache.*)
+ */
+@ConfigurationProperties(prefix = "restaurant.cache")
+public record CatalogCacheProperties(
+    @DefaultValue Entity menus,
+    @DefaultValue Entity dishes,
+    @DefaultValue Entity dishMenus
+) {
+
+    /**
+     * Cache settings for one catalog entity
+     * @param enabled Whether reads of this entity are cached at all
+     * @param maximumSize Maximum number of cached entries
+     * @param ttl How long an entry is served before it is fetched again
+     */
+    public record Entity(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("10m") Duration ttl
+    ) {
+    }
+}
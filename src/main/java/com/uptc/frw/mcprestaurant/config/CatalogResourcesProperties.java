@@ -0,0 +1,20 @@
+package com.uptc.frw.mcprestaurant.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for the catalog MCP resources (restaurant.resources.*)
+ * @param enabled Expose menus, dishes and dish-menus as resources
+ * @param pollInterval How often the catalog lists are revalidated at the backend once a client has read a resource
+ * @param coalesceWindow Changes found within this window are sent as one notification per resource
+ */
+@ConfigurationProperties(prefix = "restaurant.resources")
+public record CatalogResourcesProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("5s") Duration pollInterval,
+    @DefaultValue("250ms") Duration coalesceWindow
+) {
+}
@@ -0,0 +1,29 @@
+package com.uptc.frw.mcprestaurant.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for the on-disk catalog snapshot (restaurant.snapshot.*)
+ * @param enabled Keep a snapshot of menus, dishes and dish-menu prices and read it at startup
+ * @param file Location of the snapshot; defaults to ~/.mcprestaurant/catalog.snapshot
+ * @param maxAge Oldest snapshot answered from on a cold start; older ones are only served when the backend is down
+ * @param writeDelay How long after a fresh load the snapshot is rewritten, so loads in quick succession write once
+ */
+@ConfigurationProperties(prefix = "restaurant.snapshot")
+public record CatalogSnapshotProperties(
+    @DefaultValue("true") boolean enabled,
+    Path file,
+    @DefaultValue("24h") Duration maxAge,
+    @DefaultValue("2s") Duration writeDelay
+) {
+
+    public CatalogSnapshotProperties {
+        if (file == null) {
+            file = Path.of(System.getProperty("user.home"), ".mcprestaurant", "catalog.snapshot");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.uptc.frw.mcprestaurant.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executor used to fan out independent calls to the restaurant API.
+ *
+ * Uses a virtual thread per task when running on Java 21 or newer and falls
+ * back to a fixed pool sized to the connection pool on Java 17.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService restaurantApiExecutor(RestaurantApiProperties properties) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(properties.pool().maxPerRoute());
+        }
+    }
+}
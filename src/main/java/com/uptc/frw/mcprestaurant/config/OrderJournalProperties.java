@@ -0,0 +1,37 @@
+package com.uptc.frw.mcprestaurant.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for write-behind order writes (restaurant.orders.*)
+ * @param writeBehind Acknowledge createSale and addMenuToSale once they are in the local journal and send them in the background
+ * @param journal Location of the journal; defaults to ~/.mcprestaurant/orders.journal
+ * @param senders Threads sending queued writes; writes of one sale are always sent in order
+ * @param maxPending Most unsent writes; further writes wait for the senders, up to syncWait
+ * @param maxBatch Most sale lines sent in one request to the sale-menus batch endpoint
+ * @param retryBackoff First wait before resending after the backend could not be reached, doubled on every failure
+ * @param maxRetryBackoff Longest wait between resends
+ * @param syncWait How long a synchronous write on a sale waits for that sale's queued writes to be sent
+ */
+@ConfigurationProperties(prefix = "restaurant.orders")
+public record OrderJournalProperties(
+    @DefaultValue("false") boolean writeBehind,
+    Path journal,
+    @DefaultValue("4") int senders,
+    @DefaultValue("10000") int maxPending,
+    @DefaultValue("50") int maxBatch,
+    @DefaultValue("200ms") Duration retryBackoff,
+    @DefaultValue("30s") Duration maxRetryBackoff,
+    @DefaultValue("10s") Duration syncWait
+) {
+
+    public OrderJournalProperties {
+        if (journal == null) {
+            journal = Path.of(System.getProperty("user.home"), ".mcprestaurant", "orders.journal");
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.uptc.frw.mcprestaurant.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Bulkhead, retry and circuit breaker settings for calls to the restaurant API (restaurant.resilience.*).
+ * Endpoints are named after the first path segment below the base URL, e.g. sales, dishes, SalesMenu.
+ * @param maxConcurrent Concurrent calls allowed per endpoint unless overridden in bulkheads
+ * @param bulkheads Per-endpoint overrides of maxConcurrent, e.g. restaurant.resilience.bulkheads.sales=4
+ * @param bulkheadWait How long a call waits for a free slot before it is rejected
+ * @param deadline Total time budget of one call, retries and waits included
+ * @param maxAttempts Attempts per idempotent GET, the first one included
+ * @param backoff Base delay before the first retry; doubles on each retry, with full jitter
+ * @param maxBackoff Upper bound of the retry delay
+ * @param failureThreshold Consecutive failures that open an endpoint's circuit
+ * @param openDuration How long an open circuit rejects calls before letting a probe through
+ */
+@ConfigurationProperties(prefix = "restaurant.resilience")
+public record ResilienceProperties(
+    @DefaultValue("20") int maxConcurrent,
+    @DefaultValue Map<String, Integer> bulkheads,
+    @DefaultValue("500ms") Duration bulkheadWait,
+    @DefaultValue("15s") Duration deadline,
+    @DefaultValue("3") int maxAttempts,
+    @DefaultValue("100ms") Duration backoff,
+    @DefaultValue("2s") Duration maxBackoff,
+    @DefaultValue("5") int failureThreshold,
+    @DefaultValue("10s") Duration openDuration
+) {
+
+    public int maxConcurrent(String endpoint) {
+        return bulkheads == null ? maxConcurrent : bulkheads.getOrDefault(endpoint, maxConcurrent);
+    }
+}
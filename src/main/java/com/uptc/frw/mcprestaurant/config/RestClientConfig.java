@@ -0,0 +1,99 @@
+package com.uptc.frw.mcprestaurant.config;
+
+import com.uptc.frw.mcprestaurant.client.AttemptDeadline;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Shared HTTP transport for the restaurant API.
+ *
+ * All services use the same pooled, keep-alive connection manager instead of
+ * opening a new connection per tool call.
+ */
+@Configuration
+public class RestClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager restaurantApiConnectionManager(RestaurantApiProperties properties) {
+        RestaurantApiProperties.Pool pool = properties.pool();
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(pool.maxTotal())
+                .setMaxConnPerRoute(pool.maxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.connectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.readTimeout()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient restaurantApiHttpClient(PoolingHttpClientConnectionManager connectionManager,
+                                                       RestaurantApiProperties properties) {
+        RestaurantApiProperties.Pool pool = properties.pool();
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(pool.keepAlive()))
+                .evictIdleConnections(TimeValue.of(pool.keepAlive()))
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(pool.acquireTimeout()))
+                        .setResponseTimeout(Timeout.of(properties.readTimeout()))
+                        .build())
+                .build();
+    }
+
+    /**
+     * RestClient used by every service, with base URL and Basic Auth applied once.
+     * Interceptor beans are applied in their {@code @Order}, outermost first.
+     */
+    @Bean
+    public RestClient restaurantRestClient(CloseableHttpClient restaurantApiHttpClient,
+                                           RestaurantApiProperties properties,
+                                           List<ClientHttpRequestInterceptor> interceptors) {
+        HttpComponentsClientHttpRequestFactory requestFactory =
+                new HttpComponentsClientHttpRequestFactory(restaurantApiHttpClient);
+        requestFactory.setHttpContextFactory((method, uri) -> attemptContext(properties));
+        return RestClient.builder()
+                .baseUrl(properties.baseUrl())
+                .defaultHeaders(headers -> headers.setBasicAuth(properties.username(), properties.password()))
+                .requestFactory(requestFactory)
+                .requestInterceptors(list -> list.addAll(interceptors))
+                .build();
+    }
+
+    /**
+     * Caps the pool wait and response timeout of a resilient attempt to the
+     * time left before its call's deadline; null keeps the client defaults
+     */
+    private static HttpClientContext attemptContext(RestaurantApiProperties properties) {
+        Duration remaining = AttemptDeadline.remaining();
+        if (remaining == null) {
+            return null;
+        }
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(min(properties.pool().acquireTimeout(), remaining)))
+                .setResponseTimeout(Timeout.of(min(properties.readTimeout(), remaining)))
+                .build());
+        return context;
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+}
@@ -0,0 +1,49 @@
+package com.uptc.frw.mcprestaurant.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Connection settings for the external restaurant API (restaurant.api.*)
+ */
+@ConfigurationProperties(prefix = "restaurant.api")
+public record RestaurantApiProperties(
+    @DefaultValue("http://localhost:8080/api") String baseUrl,
+    @DefaultValue("admin") String username,
+    @DefaultValue("password") String password,
+    @DefaultValue("2s") Duration connectTimeout,
+    @DefaultValue("10s") Duration readTimeout,
+    @DefaultValue("16") int maxConcurrencyPerEndpoint,
+    @DefaultValue Pool pool,
+    @DefaultValue BulkEndpoints bulkEndpoints
+) {
+
+    /**
+     * Connection pool shared by every service talking to the restaurant API
+     * @param maxTotal Maximum number of open connections
+     * @param maxPerRoute Maximum number of open connections to the same host
+     * @param keepAlive How long an idle connection is kept for reuse
+     * @param acquireTimeout How long a request waits for a free connection
+     */
+    public record Pool(
+        @DefaultValue("50") int maxTotal,
+        @DefaultValue("50") int maxPerRoute,
+        @DefaultValue("30s") Duration keepAlive,
+        @DefaultValue("2s") Duration acquireTimeout
+    ) {
+    }
+
+    /**
+     * Optional backend endpoints that accept a whole batch in one POST.
+     * When a path is not set, batch tools send one request per item.
+     * @param dishMenus Path for batch dish-menu creation, e.g. /dish-menus/batch
+     * @param saleMenus Path for batch sale-menu creation, e.g. /SalesMenu/batch
+     */
+    public record BulkEndpoints(
+        String dishMenus,
+        String saleMenus
+    ) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.uptc.frw.mcprestaurant.config;
+
+import com.uptc.frw.mcprestaurant.McprestaurantApplication;
+import com.uptc.frw.mcprestaurant.model.BulkResult;
+import com.uptc.frw.mcprestaurant.model.DailyRevenue;
+import com.uptc.frw.mcprestaurant.model.Dish;
+import com.uptc.frw.mcprestaurant.model.DishMenu;
+import com.uptc.frw.mcprestaurant.model.DishMenuItem;
+import com.uptc.frw.mcprestaurant.model.Menu;
+import com.uptc.frw.mcprestaurant.model.MenuDish;
+import com.uptc.frw.mcprestaurant.model.MenuPrice;
+import com.uptc.frw.mcprestaurant.model.MenuRanking;
+import com.uptc.frw.mcprestaurant.model.MenuWithDishes;
+import com.uptc.frw.mcprestaurant.model.OrderQueueStatus;
+import com.uptc.frw.mcprestaurant.model.Page;
+import com.uptc.frw.mcprestaurant.model.QueuedOrderWrite;
+import com.uptc.frw.mcprestaurant.model.Sale;
+import com.uptc.frw.mcprestaurant.model.SaleMenu;
+import com.uptc.frw.mcprestaurant.model.SaleMenuItem;
+import com.uptc.frw.mcprestaurant.model.SaleTotal;
+import com.uptc.frw.mcprestaurant.model.SearchHit;
+import com.uptc.frw.mcprestaurant.model.TicketStats;
+import com.uptc.frw.mcprestaurant.tool.ToolSchemas;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.ExecutableMode;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Reflection hints for the native image.
+ *
+ * Tool methods are discovered and invoked reflectively, the models are bound
+ * by Jackson and described in the tool JSON schemas, and the precomputed
+ * schemas are read from the classpath, none of which the AOT engine can see
+ * on its own.
+ */
+public class RestaurantRuntimeHints implements RuntimeHintsRegistrar {
+
+    static final List<Class<?>> MODELS = List.of(
+        Menu.class, Dish.class, DishMenu.class, Sale.class, SaleMenu.class,
+        DishMenuItem.class, SaleMenuItem.class, MenuDish.class, MenuWithDishes.class,
+        BulkResult.class, Page.class, DailyRevenue.class, MenuRanking.class, TicketStats.class,
+        MenuPrice.class, SaleTotal.class, SearchHit.class, OrderQueueStatus.class, QueuedOrderWrite.class
+    );
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        McprestaurantApplication.TOOL_SERVICES.forEach(service -> hints.reflection().registerType(service,
+                MemberCategory.INTROSPECT_PUBLIC_METHODS, MemberCategory.INVOKE_PUBLIC_METHODS));
+
+        BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+        MODELS.forEach(model -> bindings.registerReflectionHints(hints.reflection(), model));
+
+        hints.resources().registerPattern(ToolSchemas.RESOURCE);
+
+        // ExecutorConfig looks this up reflectively so the bytecode still runs on Java 17
+        hints.reflection().registerType(TypeReference.of(Executors.class), type -> type
+                .withMethod("newVirtualThreadPerTaskExecutor", List.of(), ExecutableMode.INVOKE));
+    }
+}
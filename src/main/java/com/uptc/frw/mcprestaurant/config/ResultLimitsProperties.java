@@ -0,0 +1,30 @@
+package com.uptc.frw.mcprestaurant.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Limits on the size of list results returned by a single tool call (restaurant.results.*)
+ * @param defaultPageSize Page size used when a paged tool is called without a limit
+ * @param maxPageSize Largest page a paged tool returns
+ * @param maxResults Largest number of items any list tool returns
+ */
+@ConfigurationProperties(prefix = "restaurant.results")
+public record ResultLimitsProperties(
+    @DefaultValue("100") int defaultPageSize,
+    @DefaultValue("500") int maxPageSize,
+    @DefaultValue("10000") int maxResults
+) {
+
+    /**
+     * Clamp a requested page size to the configured limits
+     * @param limit The requested size, or null
+     * @return The page size to use
+     */
+    public int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(limit, maxPageSize);
+    }
+}
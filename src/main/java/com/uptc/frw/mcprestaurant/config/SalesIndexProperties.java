@@ -0,0 +1,20 @@
+package com.uptc.frw.mcprestaurant.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for the in-memory sales index (restaurant.index.*)
+ * @param bootstrapOnStartup Load the index in the background as soon as the server is ready
+ * @param resyncInterval How often the index is reconciled with the backend to pick up outside changes
+ * @param maxStaleness Oldest the index may be when a query arrives; an older index is still served while it is resynced in the background
+ */
+@ConfigurationProperties(prefix = "restaurant.index")
+public record SalesIndexProperties(
+    @DefaultValue("true") boolean bootstrapOnStartup,
+    @DefaultValue("5m") Duration resyncInterval,
+    @DefaultValue("15m") Duration maxStaleness
+) {
+}
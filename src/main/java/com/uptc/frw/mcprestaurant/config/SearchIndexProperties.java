@@ -0,0 +1,18 @@
+package com.uptc.frw.mcprestaurant.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for the catalog search index (restaurant.search.*)
+ * @param maxStaleness Oldest the index may be when a search arrives; older indexes are rebuilt from the catalog first
+ * @param maxResults Most hits a search returns
+ */
+@ConfigurationProperties(prefix = "restaurant.search")
+public record SearchIndexProperties(
+    @DefaultValue("10m") Duration maxStaleness,
+    @DefaultValue("50") int maxResults
+) {
+}
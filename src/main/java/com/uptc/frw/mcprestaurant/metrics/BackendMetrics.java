@@ -0,0 +1,42 @@
+package com.uptc.frw.mcprestaurant.metrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Per-endpoint timings, payload sizes and error counts of calls to the restaurant API, published over JMX
+ */
+@Component
+@ManagedResource(objectName = "mcprestaurant:type=BackendMetrics")
+public class BackendMetrics {
+
+    private final CallMetrics calls = new CallMetrics();
+    private final ObjectMapper objectMapper;
+
+    public BackendMetrics(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public void record(String endpoint, long nanos, long bytesIn, long bytesOut, boolean failed) {
+        calls.record(endpoint, nanos, bytesIn, bytesOut, failed);
+    }
+
+    public List<CallMetrics.Snapshot> snapshot() {
+        return calls.snapshot();
+    }
+
+    @ManagedOperation(description = "Per-endpoint statistics as JSON")
+    public String report() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(calls.snapshot());
+    }
+
+    @ManagedOperation(description = "Clear all endpoint statistics")
+    public void reset() {
+        calls.reset();
+    }
+}
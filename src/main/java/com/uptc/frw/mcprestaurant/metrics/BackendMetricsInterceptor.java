@@ -0,0 +1,54 @@
+package com.uptc.frw.mcprestaurant.metrics;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Times every call to the restaurant API, grouped by method and path template
+ * (numeric path segments become {id}, query values are dropped)
+ */
+@Component
+@Order(400)
+public class BackendMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    private final BackendMetrics metrics;
+
+    public BackendMetricsInterceptor(BackendMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String endpoint = endpointOf(request);
+        long start = System.nanoTime();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            metrics.record(endpoint, System.nanoTime() - start, body.length,
+                    response.getHeaders().getContentLength(), response.getStatusCode().isError());
+            return response;
+        } catch (IOException | RuntimeException e) {
+            metrics.record(endpoint, System.nanoTime() - start, body.length, -1, true);
+            throw e;
+        }
+    }
+
+    static String endpointOf(HttpRequest request) {
+        String path = request.getURI().getRawPath();
+        String template = NUMERIC_SEGMENT.matcher(path == null ? "" : path).replaceAll("/{id}");
+        String query = request.getURI().getRawQuery();
+        if (query != null) {
+            template += "?" + query.replaceAll("=[^&]*", "=");
+        }
+        return request.getMethod().name() + " " + template;
+    }
+}
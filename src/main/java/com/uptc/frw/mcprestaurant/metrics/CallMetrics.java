@@ -0,0 +1,88 @@
+package com.uptc.frw.mcprestaurant.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency, error and payload counters for a set of named calls
+ */
+public final class CallMetrics {
+
+    /**
+     * Point-in-time view of one named call; latencies in microseconds
+     */
+    public record Snapshot(
+        String name,
+        long calls,
+        long errors,
+        double meanMicros,
+        long p50Micros,
+        long p90Micros,
+        long p99Micros,
+        long maxMicros,
+        long bytesIn,
+        long bytesOut
+    ) {
+    }
+
+    private static final class Stats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final LongAdder bytesIn = new LongAdder();
+        final LongAdder bytesOut = new LongAdder();
+    }
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Record one call
+     * @param name The call name (tool or endpoint)
+     * @param nanos Elapsed time in nanoseconds
+     * @param bytesIn Size of the request payload, or a negative value if unknown
+     * @param bytesOut Size of the response payload, or a negative value if unknown
+     * @param failed Whether the call failed
+     */
+    public void record(String name, long nanos, long bytesIn, long bytesOut, boolean failed) {
+        Stats entry = stats.computeIfAbsent(name, key -> new Stats());
+        entry.latency.record(nanos);
+        if (bytesIn > 0) {
+            entry.bytesIn.add(bytesIn);
+        }
+        if (bytesOut > 0) {
+            entry.bytesOut.add(bytesOut);
+        }
+        if (failed) {
+            entry.errors.increment();
+        }
+    }
+
+    public List<Snapshot> snapshot() {
+        List<Snapshot> snapshots = new ArrayList<>(stats.size());
+        stats.forEach((name, entry) -> snapshots.add(new Snapshot(
+                name,
+                entry.latency.count(),
+                entry.errors.sum(),
+                entry.latency.mean() / 1000.0,
+                micros(entry.latency.percentile(50)),
+                micros(entry.latency.percentile(90)),
+                micros(entry.latency.percentile(99)),
+                micros(entry.latency.max()),
+                entry.bytesIn.sum(),
+                entry.bytesOut.sum())));
+        snapshots.sort(Comparator.comparing(Snapshot::name));
+        return snapshots;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -0,0 +1,54 @@
+package com.uptc.frw.mcprestaurant.metrics;
+
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+/**
+ * Tool callback decorator that records latency, argument and result sizes and failures
+ */
+public class InstrumentedToolCallback implements ToolCallback {
+
+    private final ToolCallback delegate;
+    private final ToolMetrics metrics;
+    private final String name;
+
+    public InstrumentedToolCallback(ToolCallback delegate, ToolMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.name = delegate.getToolDefinition().name();
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return call(toolInput, null);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        long start = System.nanoTime();
+        String result = null;
+        boolean failed = true;
+        try {
+            result = toolContext == null ? delegate.call(toolInput) : delegate.call(toolInput, toolContext);
+            failed = false;
+            return result;
+        } finally {
+            metrics.record(name, System.nanoTime() - start,
+                    toolInput == null ? 0 : toolInput.length(),
+                    result == null ? 0 : result.length(),
+                    failed);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.uptc.frw.mcprestaurant.metrics;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts MCP sessions served over HTTP, published over JMX.
+ *
+ * A session lives as long as its SSE stream, which is an async request, so
+ * it is counted as open from the GET until the async request completes,
+ * times out or fails. Only registered when running as a web application.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ManagedResource(objectName = "mcprestaurant:type=Sessions")
+public class SessionMetrics extends OncePerRequestFilter {
+
+    private final String sseEndpoint;
+    private final String messageEndpoint;
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder messages = new LongAdder();
+
+    public SessionMetrics(@Value("${spring.ai.mcp.server.sse-endpoint:/sse}") String sseEndpoint,
+                          @Value("${spring.ai.mcp.server.sse-message-endpoint:/mcp/message}") String messageEndpoint) {
+        this.sseEndpoint = sseEndpoint;
+        this.messageEndpoint = messageEndpoint;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.equals(messageEndpoint)) {
+            messages.increment();
+        }
+        chain.doFilter(request, response);
+        if (path.equals(sseEndpoint) && request.isAsyncStarted()) {
+            opened.increment();
+            peak.accumulateAndGet(open.incrementAndGet(), Math::max);
+            request.getAsyncContext().addListener(new Closed());
+        }
+    }
+
+    @ManagedAttribute(description = "SSE sessions currently open")
+    public int getOpen() {
+        return open.get();
+    }
+
+    @ManagedAttribute(description = "Most SSE sessions open at once")
+    public int getPeak() {
+        return peak.get();
+    }
+
+    @ManagedAttribute(description = "SSE sessions opened since startup")
+    public long getOpened() {
+        return opened.sum();
+    }
+
+    @ManagedAttribute(description = "JSON-RPC messages posted by clients")
+    public long getMessages() {
+        return messages.sum();
+    }
+
+    /**
+     * Decrements the open count exactly once, whichever way the stream ends
+     */
+    private final class Closed implements AsyncListener {
+
+        private boolean closed;
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private synchronized void close() {
+            if (!closed) {
+                closed = true;
+                open.decrementAndGet();
+            }
+        }
+    }
+}
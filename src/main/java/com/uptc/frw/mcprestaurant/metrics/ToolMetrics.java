@@ -0,0 +1,42 @@
+package com.uptc.frw.mcprestaurant.metrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Per-tool latency, payload size and error counts, published over JMX
+ */
+@Component
+@ManagedResource(objectName = "mcprestaurant:type=ToolMetrics")
+public class ToolMetrics {
+
+    private final CallMetrics calls = new CallMetrics();
+    private final ObjectMapper objectMapper;
+
+    public ToolMetrics(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public void record(String tool, long nanos, long bytesIn, long bytesOut, boolean failed) {
+        calls.record(tool, nanos, bytesIn, bytesOut, failed);
+    }
+
+    public List<CallMetrics.Snapshot> snapshot() {
+        return calls.snapshot();
+    }
+
+    @ManagedOperation(description = "Per-tool statistics as JSON")
+    public String report() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(calls.snapshot());
+    }
+
+    @ManagedOperation(description = "Clear all tool statistics")
+    public void reset() {
+        calls.reset();
+    }
+}
@@ -0,0 +1,42 @@
+package com.uptc.frw.mcprestaurant.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of one id in a bulk lookup: either the value or the error for that id
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkResult<T>(
+    @JsonProperty("id") Long id,
+    @JsonProperty("value") T value,
+    @JsonProperty("error") String error
+) {
+
+    public static <T> BulkResult<T> success(Long id, T value) {
+        return new BulkResult<>(id, value, null);
+    }
+
+    public static <T> BulkResult<T> failure(Long id, String error) {
+        return new BulkResult<>(id, null, error);
+    }
+
+    /**
+     * Pair each id sent to a batch endpoint with the value returned at the same position.
+     * Ids the response leaves out, or answers with null, are failures: the backend gave
+     * no sign that they were written.
+     * @param ids The ids in the order they were sent
+     * @param values The response body, may be null
+     */
+    public static <T> List<BulkResult<T>> byPosition(List<Long> ids, List<T> values) {
+        List<BulkResult<T>> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            T value = values != null && i < values.size() ? values.get(i) : null;
+            results.add(value != null ? success(ids.get(i), value) : failure(ids.get(i), "not returned by the backend"));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,34 @@
+package com.uptc.frw.mcprestaurant.model;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A list result cut at the configured result cap. Tool results built from it
+ * are flagged as truncated with the token that continues in the paged tool.
+ */
+public final class CappedList<T> extends AbstractList<T> implements RandomAccess {
+
+    private final List<T> values;
+    private final String nextPageToken;
+
+    public CappedList(List<T> values, String nextPageToken) {
+        this.values = values;
+        this.nextPageToken = nextPageToken;
+    }
+
+    public String nextPageToken() {
+        return nextPageToken;
+    }
+
+    @Override
+    public T get(int index) {
+        return values.get(index);
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+}
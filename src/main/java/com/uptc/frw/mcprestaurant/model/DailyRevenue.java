@@ -0,0 +1,13 @@
+package com.uptc.frw.mcprestaurant.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Revenue and number of sales for one day
+ */
+public record DailyRevenue(
+    @JsonProperty("date") String date,
+    @JsonProperty("revenue") Double revenue,
+    @JsonProperty("sales") Long sales
+) {
+}
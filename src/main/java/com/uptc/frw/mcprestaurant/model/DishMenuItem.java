@@ -0,0 +1,13 @@
+package com.uptc.frw.mcprestaurant.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A dish to add to a menu in a batch, with its price and date
+ */
+public record DishMenuItem(
+    @JsonProperty("idDish") Long dishId,
+    @JsonProperty("price") Double price,
+    @JsonProperty("date") String date
+) {
+}
@@ -0,0 +1,16 @@
+package com.uptc.frw.mcprestaurant.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A dish as it appears on a menu, with the price it has there
+ */
+public record MenuDish(
+    @JsonProperty("idDish") Long dishId,
+    @JsonProperty("dishType") String dishType,
+    @JsonProperty("name") String name,
+    @JsonProperty("description") String description,
+    @JsonProperty("price") Double price,
+    @JsonProperty("date") String date
+) {
+}
@@ -0,0 +1,13 @@
+package com.uptc.frw.mcprestaurant.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Price of a menu in effect on a date: the sum of its dish prices on that date
+ */
+public record MenuPrice(
+    @JsonProperty("idMenu") Long menuId,
+    @JsonProperty("date") String date,
+    @JsonProperty("price") Double price
+) {
+}
@@ -0,0 +1,13 @@
+package com.uptc.frw.mcprestaurant.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Quantity sold and revenue of one menu over a date window
+ */
+public record MenuRanking(
+    @JsonProperty("idMenu") Long menuId,
+    @JsonProperty("quantity") Long quantity,
+    @JsonProperty("revenue") Double revenue
+) {
+}
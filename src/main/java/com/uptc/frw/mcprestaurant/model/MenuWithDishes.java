@@ -0,0 +1,16 @@
+package com.uptc.frw.mcprestaurant.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Denormalized view of a menu joined with its dishes and prices
+ */
+public record MenuWithDishes(
+    @JsonProperty("idMenu") Long id,
+    @JsonProperty("description") String description,
+    @JsonProperty("dishes") List<MenuDish> dishes,
+    @JsonProperty("totalPrice") Double totalPrice
+) {
+}
@@ -0,0 +1,22 @@
+package com.uptc.frw.mcprestaurant.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * State of the write-behind order queue
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OrderQueueStatus(
+    @JsonProperty("writeBehind") Boolean writeBehind,
+    @JsonProperty("pending") Integer pending,
+    @JsonProperty("sent") Long sent,
+    @JsonProperty("failed") Long failed,
+    @JsonProperty("oldestPendingSince") String oldestPendingSince,
+    @JsonProperty("attempts") Integer attempts,
+    @JsonProperty("lastError") String lastError,
+    @JsonProperty("writes") List<QueuedOrderWrite> writes
+) {
+}
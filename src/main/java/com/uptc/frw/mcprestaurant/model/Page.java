@@ -0,0 +1,14 @@
+package com.uptc.frw.mcprestaurant.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * One page of a list result; pass nextPageToken back to get the following page
+ */
+public record Page<T>(
+    @JsonProperty("items") List<T> items,
+    @JsonProperty("nextPageToken") String nextPageToken
+) {
+}
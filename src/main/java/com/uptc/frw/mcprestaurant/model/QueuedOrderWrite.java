@@ -0,0 +1,22 @@
+package com.uptc.frw.mcprestaurant.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * An order write acknowledged in write-behind mode that is still waiting to be
+ * sent, or that the backend rejected
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record QueuedOrderWrite(
+    @JsonProperty("sequence") Long sequence,
+    @JsonProperty("kind") String kind,
+    @JsonProperty("state") String state,
+    @JsonProperty("idSale") Long saleId,
+    @JsonProperty("idMenu") Long menuId,
+    @JsonProperty("quantity") Integer quantity,
+    @JsonProperty("date") String date,
+    @JsonProperty("enqueuedAt") String enqueuedAt,
+    @JsonProperty("error") String error
+) {
+}
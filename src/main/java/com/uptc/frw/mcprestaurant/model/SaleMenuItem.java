@@ -0,0 +1,12 @@
+package com.uptc.frw.mcprestaurant.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A menu line to add to a sale in a batch, with its quantity
+ */
+public record SaleMenuItem(
+    @JsonProperty("idMenu") Long menuId,
+    @JsonProperty("quantity") Integer quantity
+) {
+}
@@ -0,0 +1,13 @@
+package com.uptc.frw.mcprestaurant.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Total of a sale: each line's quantity times the menu price on the sale date
+ */
+public record SaleTotal(
+    @JsonProperty("idSale") Long saleId,
+    @JsonProperty("date") String date,
+    @JsonProperty("total") Double total
+) {
+}
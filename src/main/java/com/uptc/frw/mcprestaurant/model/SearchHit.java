@@ -0,0 +1,18 @@
+package com.uptc.frw.mcprestaurant.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A dish or menu matching a catalog search, with its relevance score
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record SearchHit(
+    @JsonProperty("kind") String kind,
+    @JsonProperty("id") Long id,
+    @JsonProperty("name") String name,
+    @JsonProperty("dishType") String dishType,
+    @JsonProperty("description") String description,
+    @JsonProperty("score") Integer score
+) {
+}
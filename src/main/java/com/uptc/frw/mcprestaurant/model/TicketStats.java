@@ -0,0 +1,13 @@
+package com.uptc.frw.mcprestaurant.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Number of sales, revenue and average ticket size over a date window
+ */
+public record TicketStats(
+    @JsonProperty("sales") Long sales,
+    @JsonProperty("revenue") Double revenue,
+    @JsonProperty("averageTicket") Double averageTicket
+) {
+}
@@ -0,0 +1,35 @@
+package com.uptc.frw.mcprestaurant.orders;
+
+import com.uptc.frw.mcprestaurant.model.Sale;
+import com.uptc.frw.mcprestaurant.model.SaleMenu;
+
+import java.util.List;
+
+/**
+ * Where {@link WriteBehindOrders} sends queued order writes
+ */
+public interface OrderBackend {
+
+    /** Header carrying the key that lets the backend recognise a resent request */
+    String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    /**
+     * Create a sale
+     * @return The created sale, with its backend id
+     */
+    Sale createSale(String date, String idempotencyKey);
+
+    /**
+     * Add lines to sales that already exist in the backend
+     * @param lines One line, or up to the batch size when {@link #batchesLines()}
+     * @param lineKeys The key of each line on its own, sent inside a batch so that lines of a rejected batch
+     *                 can be recognised when they are resent one at a time
+     * @param idempotencyKey The key of the request
+     */
+    List<SaleMenu> addSaleLines(List<SaleMenu> lines, List<String> lineKeys, String idempotencyKey);
+
+    /**
+     * Whether several lines can go in one request
+     */
+    boolean batchesLines();
+}
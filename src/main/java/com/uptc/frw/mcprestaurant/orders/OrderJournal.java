@@ -0,0 +1,361 @@
+package com.uptc.frw.mcprestaurant.orders;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of order writes and of their outcome.
+ *
+ * Every record is framed with its length and a CRC32, so a record torn by a
+ * crash is detected on the next open and cut off along with anything after
+ * it. Appends only reach the page cache; {@link #force} makes them durable
+ * with group commit: one caller at a time runs the fsync, outside the
+ * monitor, while callers that arrive meanwhile keep appending and then wait
+ * for it; the next fsync covers all of them at once, so concurrent writers
+ * share fsyncs instead of queueing one each. Compaction and reset write the
+ * records still needed to a temporary file, force it and move it into place,
+ * so a crash leaves either the old journal or the new one.
+ * <pre>
+ * record: length int | CRC32 int | type byte | payload
+ * HEADER  journal id long | next sequence long | next provisional sale id long
+ * SALE    sequence long | enqueued-at long | provisional sale id long | date string
+ * LINE    sequence long | enqueued-at long | sale id long | menu id long | quantity int
+ * SENT    sequence long | backend id long (the created sale id, 0 for lines)
+ * FAILED  sequence long | message string
+ * BATCH   idempotency key string | count int | sequence long... (lines sent, and resent, as one request)
+ * </pre>
+ * Strings are a UTF-8 length (-1 for null) plus bytes. Not thread-safe for
+ * appends; {@link #force} may be called from any thread.
+ */
+class OrderJournal implements Closeable {
+
+    private static final byte HEADER = 0;
+    private static final byte SALE = 1;
+    private static final byte LINE = 2;
+    private static final byte SENT = 3;
+    private static final byte FAILED = 4;
+    private static final byte BATCH = 5;
+    private static final int FRAME = 2 * Integer.BYTES;
+
+    private final Path file;
+    private final Object forceMonitor = new Object();
+    private final Recovered recovered;
+    private FileChannel channel;
+    private volatile long written;
+    private long forced;
+    private boolean syncing;
+    private long forces;
+
+    /**
+     * Open the journal, creating it if needed, and read back what it holds
+     */
+    OrderJournal(Path file) throws IOException {
+        this.file = file;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        recovered = recover();
+        forced = written;
+    }
+
+    /**
+     * What the journal held when it was opened
+     * @param journalId Identifies this journal in idempotency keys; 0 if it had no header
+     * @param nextSequence Next sequence recorded by the last header
+     * @param nextLocalId Next provisional sale id recorded by the last header
+     * @param writes Every write, oldest first
+     * @param sent sequence -> backend id, for writes the backend accepted
+     * @param failed sequence -> error, for writes the backend rejected
+     * @param batches idempotency key -> sequences, for line batches sent at least once
+     * @param truncatedBytes Bytes of torn or corrupt records cut off the end
+     */
+    record Recovered(long journalId, long nextSequence, long nextLocalId, List<OrderWrite> writes, Map<Long, Long> sent,
+                     Map<Long, String> failed, Map<String, List<Long>> batches, long truncatedBytes) {
+    }
+
+    Recovered recovered() {
+        return recovered;
+    }
+
+    /**
+     * Append an order write
+     * @return Position after the record, to pass to {@link #force}
+     */
+    long append(OrderWrite write) throws IOException {
+        return append(encode(write));
+    }
+
+    long appendSent(long sequence, long backendId) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(1 + 2 * Long.BYTES);
+        payload.put(SENT).putLong(sequence).putLong(backendId);
+        return append(payload);
+    }
+
+    long appendFailed(long sequence, String message) throws IOException {
+        byte[] text = bytes(message);
+        ByteBuffer payload = ByteBuffer.allocate(1 + Long.BYTES + Integer.BYTES + (text == null ? 0 : text.length));
+        payload.put(FAILED).putLong(sequence);
+        putBytes(payload, text);
+        return append(payload);
+    }
+
+    /**
+     * Record which lines go in one request, and under which key, before it is first sent
+     */
+    long appendBatch(String key, List<Long> sequences) throws IOException {
+        return append(encodeBatch(key, sequences));
+    }
+
+    /**
+     * Make everything appended up to a position durable
+     */
+    void force(long position) throws IOException {
+        FileChannel current;
+        synchronized (forceMonitor) {
+            awaitSync(position);
+            if (forced >= position) {
+                return;
+            }
+            syncing = true;
+            current = channel;
+        }
+        long target = written;
+        try {
+            current.force(false);
+        } finally {
+            synchronized (forceMonitor) {
+                syncing = false;
+                forced = Math.max(forced, target);
+                forces++;
+                forceMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Empty the journal once nothing in it is still needed, and start it again
+     * with a header holding the counters so sequences and provisional ids are
+     * not reused after a restart. Written like {@link #rewrite}, so a crash
+     * never leaves the file without that header.
+     */
+    void reset(long journalId, long nextSequence, long nextLocalId) throws IOException {
+        rewrite(journalId, nextSequence, nextLocalId, List.of(), Map.of());
+    }
+
+    /**
+     * Replace the journal, durably, with a header, the given writes and the batches they are sent in
+     */
+    void rewrite(long journalId, long nextSequence, long nextLocalId, Collection<OrderWrite> writes,
+                 Map<String, List<Long>> batches) throws IOException {
+        synchronized (forceMonitor) {
+            awaitSync(Long.MAX_VALUE);
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            long position = 0;
+            try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                position = write(out, frame(header(journalId, nextSequence, nextLocalId)), position);
+                for (OrderWrite write : writes) {
+                    position = write(out, frame(encode(write)), position);
+                }
+                for (Map.Entry<String, List<Long>> batch : batches.entrySet()) {
+                    position = write(out, frame(encodeBatch(batch.getKey(), batch.getValue())), position);
+                }
+                out.force(false);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel.close();
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            written = position;
+            forced = position;
+            forces++;
+        }
+    }
+
+    long size() {
+        return written;
+    }
+
+    long forces() {
+        synchronized (forceMonitor) {
+            return forces;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Wait while another caller runs an fsync that does not cover a position
+     */
+    private void awaitSync(long position) throws InterruptedIOException {
+        while (syncing && forced < position) {
+            try {
+                forceMonitor.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for the journal fsync");
+            }
+        }
+    }
+
+    private long append(ByteBuffer payload) throws IOException {
+        written = write(channel, frame(payload), written);
+        return written;
+    }
+
+    private static long write(FileChannel out, ByteBuffer record, long position) throws IOException {
+        while (record.hasRemaining()) {
+            position += out.write(record, position);
+        }
+        return position;
+    }
+
+    /**
+     * Prefix a payload with its length and CRC32
+     */
+    private static ByteBuffer frame(ByteBuffer payload) {
+        payload.flip();
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        ByteBuffer record = ByteBuffer.allocate(FRAME + payload.remaining());
+        record.putInt(payload.remaining()).putInt((int) crc.getValue()).put(payload).flip();
+        return record;
+    }
+
+    private static ByteBuffer header(long journalId, long nextSequence, long nextLocalId) {
+        ByteBuffer payload = ByteBuffer.allocate(1 + 3 * Long.BYTES);
+        return payload.put(HEADER).putLong(journalId).putLong(nextSequence).putLong(nextLocalId);
+    }
+
+    private static ByteBuffer encode(OrderWrite write) {
+        if (write.kind() == OrderWrite.Kind.SALE) {
+            byte[] date = bytes(write.date());
+            ByteBuffer payload = ByteBuffer.allocate(1 + 3 * Long.BYTES + Integer.BYTES + (date == null ? 0 : date.length));
+            payload.put(SALE).putLong(write.sequence()).putLong(write.enqueuedAt()).putLong(write.saleId());
+            putBytes(payload, date);
+            return payload;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(1 + 4 * Long.BYTES + Integer.BYTES);
+        return payload.put(LINE).putLong(write.sequence()).putLong(write.enqueuedAt()).putLong(write.saleId())
+                .putLong(write.menuId()).putInt(write.quantity());
+    }
+
+    private static ByteBuffer encodeBatch(String key, List<Long> sequences) {
+        byte[] text = bytes(key);
+        ByteBuffer payload = ByteBuffer.allocate(1 + 2 * Integer.BYTES + text.length + sequences.size() * Long.BYTES);
+        payload.put(BATCH);
+        putBytes(payload, text);
+        payload.putInt(sequences.size());
+        for (long sequence : sequences) {
+            payload.putLong(sequence);
+        }
+        return payload;
+    }
+
+    /**
+     * Read every intact record and cut the file after the last one
+     */
+    private Recovered recover() throws IOException {
+        long size = channel.size();
+        ByteBuffer in = ByteBuffer.allocate((int) Math.min(size, Integer.MAX_VALUE - 8));
+        while (in.hasRemaining()) {
+            if (channel.read(in, in.position()) < 0) {
+                break;
+            }
+        }
+        in.flip();
+        long journalId = 0;
+        long nextSequence = 1;
+        long nextLocalId = -1;
+        List<OrderWrite> writes = new ArrayList<>();
+        Map<Long, Long> sent = new HashMap<>();
+        Map<Long, String> failed = new HashMap<>();
+        Map<String, List<Long>> batches = new LinkedHashMap<>();
+        int good = 0;
+        while (in.remaining() >= FRAME) {
+            int length = in.getInt();
+            int crc = in.getInt();
+            if (length <= 0 || length > in.remaining()) {
+                break;
+            }
+            ByteBuffer payload = in.slice(in.position(), length);
+            CRC32 check = new CRC32();
+            check.update(payload.duplicate());
+            if ((int) check.getValue() != crc) {
+                break;
+            }
+            in.position(in.position() + length);
+            byte type = payload.get();
+            switch (type) {
+                case HEADER -> {
+                    journalId = payload.getLong();
+                    nextSequence = payload.getLong();
+                    nextLocalId = payload.getLong();
+                }
+                case SALE -> writes.add(new OrderWrite(payload.getLong(), OrderWrite.Kind.SALE, payload.getLong(),
+                        payload.getLong(), null, null, readString(payload)));
+                case LINE -> writes.add(new OrderWrite(payload.getLong(), OrderWrite.Kind.LINE, payload.getLong(),
+                        payload.getLong(), payload.getLong(), payload.getInt(), null));
+                case SENT -> sent.put(payload.getLong(), payload.getLong());
+                case FAILED -> failed.put(payload.getLong(), readString(payload));
+                case BATCH -> {
+                    String key = readString(payload);
+                    List<Long> sequences = new ArrayList<>();
+                    for (int i = payload.getInt(); i > 0; i--) {
+                        sequences.add(payload.getLong());
+                    }
+                    batches.put(key, sequences);
+                }
+                default -> throw new IOException("Unknown journal record type " + type);
+            }
+            good = in.position();
+        }
+        if (good < size) {
+            channel.truncate(good);
+            channel.force(false);
+        }
+        written = good;
+        return new Recovered(journalId, nextSequence, nextLocalId, writes, sent, failed, batches, size - good);
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putBytes(ByteBuffer out, byte[] bytes) {
+        if (bytes == null) {
+            out.putInt(-1);
+            return;
+        }
+        out.putInt(bytes.length).put(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,24 @@
+package com.uptc.frw.mcprestaurant.orders;
+
+/**
+ * One order write accepted in write-behind mode, as kept in the journal
+ * @param sequence Position in the journal, also the idempotency key suffix
+ * @param kind A new sale or a new sale line
+ * @param enqueuedAt Epoch millis when it was acknowledged
+ * @param saleId For a sale, its provisional (negative) id; for a line, the sale it belongs to, provisional or not
+ * @param menuId The menu of a line
+ * @param quantity The quantity of a line
+ * @param date The date of a sale
+ */
+record OrderWrite(long sequence, Kind kind, long enqueuedAt, long saleId, Long menuId, Integer quantity, String date) {
+
+    enum Kind { SALE, LINE }
+
+    static OrderWrite sale(long sequence, long localId, String date) {
+        return new OrderWrite(sequence, Kind.SALE, System.currentTimeMillis(), localId, null, null, date);
+    }
+
+    static OrderWrite line(long sequence, long saleId, Long menuId, Integer quantity) {
+        return new OrderWrite(sequence, Kind.LINE, System.currentTimeMillis(), saleId, menuId, quantity, null);
+    }
+}
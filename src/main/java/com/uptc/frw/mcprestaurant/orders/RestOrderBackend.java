@@ -0,0 +1,90 @@
+package com.uptc.frw.mcprestaurant.orders;
+
+import com.uptc.frw.mcprestaurant.analytics.SalesAnalytics;
+import com.uptc.frw.mcprestaurant.config.RestaurantApiProperties;
+import com.uptc.frw.mcprestaurant.model.Sale;
+import com.uptc.frw.mcprestaurant.model.SaleMenu;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends queued order writes to the restaurant API with the same requests as
+ * the synchronous tools, plus an {@value OrderBackend#IDEMPOTENCY_KEY} header
+ * (and, on each item of a batch, an idempotencyKey field with the line's own
+ * key), and records what was created in the sales index
+ */
+@Component
+public class RestOrderBackend implements OrderBackend {
+
+    private final RestClient restClient;
+    private final String bulkPath;
+    private final SalesAnalytics salesAnalytics;
+
+    public RestOrderBackend(RestClient restaurantRestClient, RestaurantApiProperties properties,
+                            SalesAnalytics salesAnalytics) {
+        this.restClient = restaurantRestClient;
+        this.bulkPath = properties.bulkEndpoints().saleMenus();
+        this.salesAnalytics = salesAnalytics;
+    }
+
+    @Override
+    public Sale createSale(String date, String idempotencyKey) {
+        Sale created = restClient.post()
+                .uri("/sales")
+                .header(IDEMPOTENCY_KEY, idempotencyKey)
+                .body(Map.of("date", date))
+                .retrieve()
+                .body(Sale.class);
+        if (created == null || created.id() == null) {
+            throw new IllegalStateException("The backend did not return the id of the created sale");
+        }
+        salesAnalytics.recordSales(List.of(created));
+        return created;
+    }
+
+    @Override
+    public List<SaleMenu> addSaleLines(List<SaleMenu> lines, List<String> lineKeys, String idempotencyKey) {
+        List<Map<String, Object>> body = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            SaleMenu line = lines.get(i);
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("menuId", line.menuId());
+            item.put("saleId", line.saleId());
+            item.put("quantity", line.quantity());
+            if (batchesLines()) {
+                item.put("idempotencyKey", lineKeys.get(i));
+            }
+            body.add(item);
+        }
+        List<SaleMenu> created;
+        if (batchesLines()) {
+            created = restClient.post()
+                    .uri(bulkPath)
+                    .header(IDEMPOTENCY_KEY, idempotencyKey)
+                    .body(body)
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<List<SaleMenu>>() {});
+        } else {
+            SaleMenu one = restClient.post()
+                    .uri("/SalesMenu")
+                    .header(IDEMPOTENCY_KEY, idempotencyKey)
+                    .body(body.get(0))
+                    .retrieve()
+                    .body(SaleMenu.class);
+            created = one == null ? null : List.of(one);
+        }
+        salesAnalytics.recordSaleLines(created != null && created.size() == lines.size() ? created : lines);
+        return created != null ? created : lines;
+    }
+
+    @Override
+    public boolean batchesLines() {
+        return bulkPath != null && !bulkPath.isBlank();
+    }
+}
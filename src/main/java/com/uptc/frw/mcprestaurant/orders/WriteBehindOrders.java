@@ -0,0 +1,940 @@
+package com.uptc.frw.mcprestaurant.orders;
+
+import com.uptc.frw.mcprestaurant.config.OrderJournalProperties;
+import com.uptc.frw.mcprestaurant.metrics.LatencyHistogram;
+import com.uptc.frw.mcprestaurant.model.OrderQueueStatus;
+import com.uptc.frw.mcprestaurant.model.QueuedOrderWrite;
+import com.uptc.frw.mcprestaurant.model.Sale;
+import com.uptc.frw.mcprestaurant.model.SaleMenu;
+import com.uptc.frw.mcprestaurant.model.SaleMenuItem;
+import jakarta.annotation.PreDestroy;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind mode for new sales and sale lines (restaurant.orders.write-behind).
+ *
+ * A write is appended to the {@link OrderJournal}, made durable together with
+ * whatever other writes arrived meanwhile, and acknowledged; a new sale gets a
+ * provisional negative id that later lines can refer to. Senders only pick a
+ * write up once it is durable; a write whose fsync fails is taken off the
+ * queue and recorded as failed, so a client retrying the error cannot get it
+ * applied twice. Sender threads
+ * replay the queue to the backend, each request carrying an idempotency key
+ * made of the journal id and the write's sequence. Sales are sent in parallel
+ * but the writes of one sale are sent one request at a time in journal order,
+ * and queued lines are grouped into one request when a sale-menus batch
+ * endpoint is configured. A batch is journaled before it is first sent, with
+ * its key (journal id, first and last sequence), and every retry, also after
+ * a restart, resends exactly those lines under that key; each line also
+ * carries its own key in the request body. When the backend cannot be
+ * reached, sending pauses with exponential backoff; a write the backend
+ * rejects is set aside as failed, along with the lines of a rejected sale. A
+ * rejected batch is resent one line at a time, each under the key it carried
+ * in the batch, to find the line at fault.
+ *
+ * Outcomes are appended to the journal but not forced, so after a crash a
+ * write the backend already accepted can be sent again, with the same key. On
+ * startup the journal is read back and every write without a recorded outcome
+ * is queued again. Past {@link #COMPACT_BYTES} the journal is emptied the
+ * next time nothing is queued; past {@link #REWRITE_BYTES}, under a lasting
+ * backlog, it is rewritten with only the queued writes.
+ * Reads of a sale by id and of its lines see queued writes, and synchronous
+ * writes on a sale first wait for that sale's queued writes to be sent.
+ * Provisional ids of sales already sent keep resolving to the backend id
+ * until the journal is compacted; after that only the last
+ * {@link #KEPT_RESOLVED} are kept, and none survive a restart. An id no
+ * longer known is reported as not found.
+ */
+@Component
+@ManagedResource(objectName = "mcprestaurant:type=WriteBehindOrders")
+public class WriteBehindOrders {
+
+    static final long COMPACT_BYTES = 1 << 20;
+    static final long REWRITE_BYTES = 16 * COMPACT_BYTES;
+    private static final int KEPT_FAILURES = 100;
+    /** Provisional ids of sent or rejected sales kept past a compaction */
+    static final int KEPT_RESOLVED = 10_000;
+    /** Queued writes looked at when picking the next batch */
+    private static final int SCAN_LIMIT = 1024;
+
+    private final OrderJournalProperties properties;
+    private final OrderBackend backend;
+    private final OrderJournal journal;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    /** Sequence -> write, for every write without an outcome, oldest first */
+    private final LinkedHashMap<Long, OrderWrite> queue = new LinkedHashMap<>();
+    /** Queued writes not yet durable, held back from the senders */
+    private final Set<Long> unforced = new HashSet<>();
+    private final Set<Long> inFlight = new HashSet<>();
+    /** Sales with a write in flight, by {@link #saleKey} */
+    private final Set<Long> busySales = new HashSet<>();
+    /** Provisional id -> queued sale */
+    private final Map<Long, OrderWrite> unsentSales = new HashMap<>();
+    /** Provisional id -> backend id, for sales already created, oldest first */
+    private final LinkedHashMap<Long, Long> resolved = new LinkedHashMap<>();
+    /** Provisional id -> error, for sales the backend rejected, oldest first */
+    private final LinkedHashMap<Long, String> rejectedSales = new LinkedHashMap<>();
+    /** Idempotency key -> sequences, for line batches sent at least once and not finished */
+    private final Map<String, List<Long>> pinned = new LinkedHashMap<>();
+    /** Sequence -> key of the pinned batch it belongs to */
+    private final Map<Long, String> pinnedBy = new HashMap<>();
+    private final ArrayDeque<Failure> failures = new ArrayDeque<>();
+    private final LatencyHistogram ackMicros = new LatencyHistogram();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private final List<Thread> senders = new ArrayList<>();
+    private final int recoveredWrites;
+
+    private long journalId;
+    private long nextSequence;
+    private long nextLocalId;
+    private long splitThrough;
+    private int attempts;
+    private long retryAt;
+    private String lastError;
+    private boolean stopping;
+
+    public WriteBehindOrders(OrderJournalProperties properties, OrderBackend backend) {
+        this(properties, backend, properties.writeBehind() ? open(properties) : null);
+    }
+
+    /**
+     * @param journal The opened journal, or null when write-behind is off
+     */
+    WriteBehindOrders(OrderJournalProperties properties, OrderBackend backend, OrderJournal journal) {
+        this.properties = properties;
+        this.backend = backend;
+        this.journal = journal;
+        if (journal == null) {
+            recoveredWrites = 0;
+            return;
+        }
+        try {
+            recoveredWrites = recover(journal.recovered());
+            journal.rewrite(journalId, nextSequence, nextLocalId, queuedForRewrite(), pinned);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the order journal " + properties.journal(), e);
+        }
+        for (int i = 0; i < Math.max(1, properties.senders()); i++) {
+            Thread sender = new Thread(this::sendLoop, "order-journal-sender-" + i);
+            sender.setDaemon(true);
+            sender.start();
+            senders.add(sender);
+        }
+    }
+
+    private static OrderJournal open(OrderJournalProperties properties) {
+        try {
+            return new OrderJournal(properties.journal());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the order journal " + properties.journal(), e);
+        }
+    }
+
+    public boolean enabled() {
+        return journal != null;
+    }
+
+    /**
+     * Stop sending; writes still queued stay in the journal for the next start
+     */
+    @PreDestroy
+    public void stop() {
+        if (journal == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            stopping = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            for (Thread sender : senders) {
+                TimeUnit.NANOSECONDS.timedJoin(sender, Math.max(1, deadline - System.nanoTime()));
+            }
+            journal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            lastError = "Closing the journal failed: " + e;
+        }
+    }
+
+    /**
+     * Queue a new sale
+     * @return The sale with its provisional (negative) id
+     */
+    public Sale createSale(String date) {
+        if (date == null || date.isBlank()) {
+            throw new IllegalArgumentException("date is required");
+        }
+        long startedAt = System.nanoTime();
+        OrderWrite write;
+        long position;
+        lock.lock();
+        try {
+            awaitRoom(1);
+            write = OrderWrite.sale(nextSequence++, nextLocalId--, date);
+            position = append(write);
+        } finally {
+            lock.unlock();
+        }
+        publish(List.of(write), position, startedAt);
+        return new Sale(write.saleId(), date);
+    }
+
+    /**
+     * Queue new lines of a sale, all made durable together
+     * @param saleId A backend id or the provisional id of a queued sale
+     * @return The lines as they will be sent
+     */
+    public List<SaleMenu> addSaleLines(Long saleId, List<SaleMenuItem> items) {
+        if (saleId == null) {
+            throw new IllegalArgumentException("idSale is required");
+        }
+        for (SaleMenuItem item : items) {
+            if (item.menuId() == null || item.quantity() == null) {
+                throw new IllegalArgumentException("menuId and quantity are required");
+            }
+        }
+        long startedAt = System.nanoTime();
+        List<SaleMenu> lines = new ArrayList<>(items.size());
+        List<OrderWrite> writes = new ArrayList<>(items.size());
+        long position = 0;
+        lock.lock();
+        try {
+            long target = known(saleId);
+            String rejection = rejectedSales.get(saleId);
+            if (rejection != null) {
+                throw new IllegalStateException("Sale " + saleId + " was rejected by the backend: " + rejection);
+            }
+            awaitRoom(items.size());
+            for (SaleMenuItem item : items) {
+                OrderWrite write = OrderWrite.line(nextSequence++, target, item.menuId(), item.quantity());
+                position = append(write);
+                writes.add(write);
+                lines.add(new SaleMenu(item.menuId(), saleId, item.quantity()));
+            }
+        } finally {
+            lock.unlock();
+        }
+        publish(writes, position, startedAt);
+        return lines;
+    }
+
+    /**
+     * A sale that is still queued, as acknowledged
+     * @return null if the id is not a queued sale
+     */
+    public Sale unsentSale(long id) {
+        lock.lock();
+        try {
+            OrderWrite write = unsentSales.get(id);
+            return write == null ? null : new Sale(id, write.date());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<Sale> unsentSales() {
+        lock.lock();
+        try {
+            return unsentSales.values().stream()
+                    .map(write -> new Sale(write.saleId(), write.date()))
+                    .toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lines of a sale that are still queued
+     * @param saleId A backend id or a provisional id; lines are reported with this id
+     */
+    public List<SaleMenu> unsentLines(long saleId) {
+        lock.lock();
+        try {
+            long target = resolve(saleId);
+            List<SaleMenu> lines = new ArrayList<>();
+            for (OrderWrite write : queue.values()) {
+                if (write.kind() == OrderWrite.Kind.LINE && resolve(write.saleId()) == target
+                        && !unforced.contains(write.sequence())) {
+                    lines.add(new SaleMenu(write.menuId(), saleId, write.quantity()));
+                }
+            }
+            return lines;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The backend id of a sale
+     * @return The backend id, or the given id if it is a backend id or a sale not sent yet
+     * @throws IllegalArgumentException For a provisional id that is no longer (or was never) known
+     */
+    public long backendId(long saleId) {
+        lock.lock();
+        try {
+            return known(saleId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait until no queued write touches a sale, before writing to it synchronously
+     * @return The backend id of the sale
+     * @throws IllegalStateException If the sale was rejected or its writes are still queued after restaurant.orders.sync-wait
+     */
+    public long awaitSent(long saleId) {
+        lock.lock();
+        try {
+            known(saleId);
+            long deadline = System.nanoTime() + properties.syncWait().toNanos();
+            while (touches(saleId)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IllegalStateException("Queued writes for sale " + saleId + " have not reached the backend yet"
+                            + (lastError == null ? "" : ": " + lastError));
+                }
+                changed.awaitNanos(remaining);
+            }
+            String rejection = rejectedSales.get(saleId);
+            if (rejection != null) {
+                throw new IllegalStateException("Sale " + saleId + " was rejected by the backend: " + rejection);
+            }
+            return resolve(saleId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for sale " + saleId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queued and rejected writes, oldest first
+     * @param limit Most writes listed
+     */
+    public OrderQueueStatus status(int limit) {
+        lock.lock();
+        try {
+            List<QueuedOrderWrite> writes = new ArrayList<>(Math.min(limit, queue.size() + failures.size()));
+            for (Failure failure : failures) {
+                if (writes.size() < limit) {
+                    writes.add(describe(failure.write(), "failed", failure.error()));
+                }
+            }
+            for (OrderWrite write : queue.values()) {
+                if (writes.size() >= limit) {
+                    break;
+                }
+                writes.add(describe(write, "pending", null));
+            }
+            OrderWrite oldest = queue.isEmpty() ? null : queue.values().iterator().next();
+            return new OrderQueueStatus(enabled(), queue.size(), sent.sum(), failed.sum(),
+                    oldest == null ? null : Instant.ofEpochMilli(oldest.enqueuedAt()).toString(),
+                    attempts, lastError, writes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @ManagedAttribute(description = "Order writes acknowledged and not yet sent")
+    public int getPending() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @ManagedAttribute(description = "Order writes accepted by the backend")
+    public long getSent() {
+        return sent.sum();
+    }
+
+    @ManagedAttribute(description = "Order writes rejected by the backend or never made durable")
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    @ManagedAttribute(description = "Requests made to the backend by the senders")
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    @ManagedAttribute(description = "Order writes acknowledged")
+    public long getAcknowledged() {
+        return ackMicros.count();
+    }
+
+    @ManagedAttribute(description = "Journal fsyncs; fewer than acknowledged writes when writers share them")
+    public long getFsyncs() {
+        return journal == null ? 0 : journal.forces();
+    }
+
+    @ManagedAttribute(description = "Median time to acknowledge a write, in microseconds")
+    public long getAckP50Micros() {
+        return ackMicros.percentile(50);
+    }
+
+    @ManagedAttribute(description = "99th percentile time to acknowledge a write, in microseconds")
+    public long getAckP99Micros() {
+        return ackMicros.percentile(99);
+    }
+
+    @ManagedAttribute(description = "Size of the journal file in bytes")
+    public long getJournalBytes() {
+        return journal == null ? 0 : journal.size();
+    }
+
+    @ManagedAttribute(description = "Writes found unsent in the journal at startup")
+    public int getRecoveredWrites() {
+        return recoveredWrites;
+    }
+
+    @ManagedAttribute(description = "Last error sending or journaling, if any")
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Rebuild the queue from the journal: writes with no recorded outcome are queued again
+     * @return Number of writes queued
+     */
+    private int recover(OrderJournal.Recovered recovered) {
+        journalId = recovered.journalId();
+        while (journalId == 0) {
+            journalId = new SecureRandom().nextLong();
+        }
+        nextSequence = recovered.nextSequence();
+        nextLocalId = recovered.nextLocalId();
+        Map<Long, Long> created = new HashMap<>();
+        for (OrderWrite write : recovered.writes()) {
+            Long backendId = recovered.sent().get(write.sequence());
+            if (write.kind() == OrderWrite.Kind.SALE && backendId != null) {
+                created.put(write.saleId(), backendId);
+            }
+        }
+        for (OrderWrite write : recovered.writes()) {
+            nextSequence = Math.max(nextSequence, write.sequence() + 1);
+            Long backendId = recovered.sent().get(write.sequence());
+            String error = recovered.failed().get(write.sequence());
+            if (write.kind() == OrderWrite.Kind.SALE) {
+                nextLocalId = Math.min(nextLocalId, write.saleId() - 1);
+                if (backendId != null) {
+                    resolved.put(write.saleId(), backendId);
+                } else if (error != null) {
+                    rejectedSales.put(write.saleId(), error);
+                } else {
+                    unsentSales.put(write.saleId(), write);
+                }
+            }
+            if (backendId == null && error == null) {
+                Long saleId = write.kind() == OrderWrite.Kind.LINE ? created.get(write.saleId()) : null;
+                queue.put(write.sequence(), saleId == null ? write : withSale(write, saleId));
+            }
+        }
+        recovered.batches().forEach((key, sequences) -> {
+            List<Long> unsent = sequences.stream()
+                    .filter(sequence -> queue.containsKey(sequence) && !pinnedBy.containsKey(sequence))
+                    .toList();
+            if (!unsent.isEmpty()) {
+                pin(key, unsent);
+            }
+        });
+        trimResolved();
+        return queue.size();
+    }
+
+    /**
+     * Check that a provisional sale id belongs to a sale this server queued
+     * @return The backend id when the sale was already created, so the line does not depend on the journal that created it
+     */
+    private long known(long saleId) {
+        if (saleId >= 0) {
+            return saleId;
+        }
+        if (!unsentSales.containsKey(saleId) && !resolved.containsKey(saleId) && !rejectedSales.containsKey(saleId)) {
+            throw new IllegalArgumentException("Sale " + saleId + " not found; provisional ids are only kept until"
+                    + " the order journal is compacted, use the sale's backend id");
+        }
+        return resolve(saleId);
+    }
+
+    private long resolve(long saleId) {
+        return saleId < 0 ? resolved.getOrDefault(saleId, saleId) : saleId;
+    }
+
+    private boolean touches(long saleId) {
+        if (unsentSales.containsKey(saleId)) {
+            return true;
+        }
+        long target = resolve(saleId);
+        for (OrderWrite write : queue.values()) {
+            if (write.kind() == OrderWrite.Kind.LINE && resolve(write.saleId()) == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void awaitRoom(int writes) {
+        long deadline = System.nanoTime() + properties.syncWait().toNanos();
+        try {
+            while (!queue.isEmpty() && queue.size() + writes > properties.maxPending()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new IllegalStateException(queue.size() + " order writes are waiting to be sent; try again later"
+                            + (lastError == null ? "" : " (" + lastError + ")"));
+                }
+                changed.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for room in the order queue");
+        }
+    }
+
+    private long append(OrderWrite write) {
+        long position;
+        try {
+            position = journal.append(write);
+        } catch (IOException e) {
+            lastError = "Journal append failed: " + e;
+            throw new UncheckedIOException("Could not journal the order write", e);
+        }
+        queue.put(write.sequence(), write);
+        unforced.add(write.sequence());
+        return position;
+    }
+
+    /**
+     * Make writes durable, then hand them to the senders and count their
+     * acknowledgement time. Writes that cannot be made durable are taken off
+     * the queue and recorded as failed instead, never to be sent.
+     * @param position Journal position after the last of the writes
+     */
+    private void publish(List<OrderWrite> writes, long position, long startedAt) {
+        IOException failure = null;
+        try {
+            journal.force(position);
+        } catch (IOException e) {
+            failure = e;
+        }
+        lock.lock();
+        try {
+            for (OrderWrite write : writes) {
+                unforced.remove(write.sequence());
+                if (failure != null) {
+                    queue.remove(write.sequence());
+                    recordFailure(write, "Not made durable: " + failure);
+                } else if (write.kind() == OrderWrite.Kind.SALE) {
+                    unsentSales.put(write.saleId(), write);
+                }
+            }
+            if (failure != null) {
+                lastError = "Journal fsync failed: " + failure;
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Could not make the order write durable", failure);
+        }
+        ackMicros.record((System.nanoTime() - startedAt) / 1_000);
+    }
+
+    private void sendLoop() {
+        while (true) {
+            Batch batch;
+            lock.lock();
+            try {
+                while (true) {
+                    if (stopping) {
+                        return;
+                    }
+                    batch = nextBatch();
+                    if (batch != null) {
+                        break;
+                    }
+                    long backoff = retryAt - System.nanoTime();
+                    if (backoff > 0 && !queue.isEmpty()) {
+                        changed.awaitNanos(backoff);
+                    } else {
+                        changed.await();
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            send(batch);
+        }
+    }
+
+    /**
+     * The oldest queued write whose sale has nothing in flight and, if it is a
+     * line, the queued lines after it up to the batch size, skipping the sales
+     * of any write left behind so that each sale stays in order. A line that
+     * was already sent in a batch brings back that same batch.
+     * @return null when there is nothing to send now
+     */
+    private Batch nextBatch() {
+        if (queue.size() == inFlight.size() || System.nanoTime() < retryAt) {
+            return null;
+        }
+        Set<Long> blocked = new HashSet<>(busySales);
+        List<OrderWrite> writes = new ArrayList<>();
+        List<SaleMenu> lines = new ArrayList<>();
+        int limit = 1;
+        int scanned = 0;
+        for (Iterator<OrderWrite> it = queue.values().iterator(); it.hasNext() && scanned++ < SCAN_LIMIT; ) {
+            OrderWrite write = it.next();
+            long sale = saleKey(write);
+            if (inFlight.contains(write.sequence()) || unforced.contains(write.sequence()) || blocked.contains(sale)) {
+                blocked.add(sale);
+                continue;
+            }
+            String pinnedKey = pinnedBy.get(write.sequence());
+            if (pinnedKey != null) {
+                Batch again = writes.isEmpty() ? pinnedBatch(pinnedKey, blocked) : null;
+                if (again != null) {
+                    return take(again);
+                }
+                blocked.add(sale);
+                continue;
+            }
+            if (writes.isEmpty()) {
+                String rejection = write.kind() == OrderWrite.Kind.LINE ? rejection(write) : null;
+                if (write.kind() == OrderWrite.Kind.SALE || rejection != null) {
+                    return take(new Batch(List.of(write), null, rejection, key(write.sequence(), write.sequence()), 0));
+                }
+                limit = backend.batchesLines() && write.sequence() > splitThrough ? properties.maxBatch() : 1;
+            } else if (write.kind() == OrderWrite.Kind.SALE || rejection(write) != null) {
+                blocked.add(sale);
+                continue;
+            }
+            writes.add(write);
+            lines.add(line(write));
+            if (writes.size() == limit) {
+                break;
+            }
+        }
+        if (writes.isEmpty()) {
+            return null;
+        }
+        long first = writes.get(0).sequence();
+        String key = key(first, writes.get(writes.size() - 1).sequence());
+        if (writes.size() == 1) {
+            return take(new Batch(writes, lines, null, key, 0));
+        }
+        List<Long> sequences = writes.stream().map(OrderWrite::sequence).toList();
+        long durableAt = 0;
+        try {
+            durableAt = journal.appendBatch(key, sequences);
+        } catch (IOException e) {
+            // Still pinned in memory; only a restart could regroup these lines
+            lastError = "Journal append failed: " + e;
+        }
+        pin(key, sequences);
+        return take(new Batch(writes, lines, null, key, durableAt));
+    }
+
+    /**
+     * A batch sent before, again with the same lines, unless one of its sales is busy
+     */
+    private Batch pinnedBatch(String key, Set<Long> blocked) {
+        List<OrderWrite> writes = new ArrayList<>();
+        List<SaleMenu> lines = new ArrayList<>();
+        for (long sequence : pinned.get(key)) {
+            OrderWrite write = queue.get(sequence);
+            if (inFlight.contains(sequence) || blocked.contains(saleKey(write))) {
+                pinned.get(key).forEach(member -> blocked.add(saleKey(queue.get(member))));
+                return null;
+            }
+            writes.add(write);
+            lines.add(line(write));
+        }
+        return new Batch(writes, lines, null, key, 0);
+    }
+
+    private void pin(String key, List<Long> sequences) {
+        pinned.put(key, sequences);
+        sequences.forEach(sequence -> pinnedBy.put(sequence, key));
+    }
+
+    private void unpin(long sequence) {
+        String key = pinnedBy.remove(sequence);
+        if (key != null) {
+            pinned.remove(key).forEach(pinnedBy::remove);
+        }
+    }
+
+    private SaleMenu line(OrderWrite write) {
+        return new SaleMenu(write.menuId(), resolve(write.saleId()), write.quantity());
+    }
+
+    /**
+     * Idempotency key of the writes from one sequence to another
+     */
+    private String key(long first, long last) {
+        return Long.toHexString(journalId) + "-" + first + (last != first ? "-" + last : "");
+    }
+
+    private Batch take(Batch batch) {
+        for (OrderWrite write : batch.writes()) {
+            inFlight.add(write.sequence());
+            busySales.add(saleKey(write));
+        }
+        return batch;
+    }
+
+    /**
+     * Put a batch back to be picked again
+     */
+    private void release(Batch batch) {
+        for (OrderWrite write : batch.writes()) {
+            inFlight.remove(write.sequence());
+            busySales.remove(saleKey(write));
+        }
+        changed.signalAll();
+    }
+
+    /**
+     * The sale a write belongs to: its backend id once created, its provisional id until then
+     */
+    private long saleKey(OrderWrite write) {
+        return resolve(write.saleId());
+    }
+
+    /**
+     * Why a line cannot be sent, if its sale was rejected or is unknown after a restart
+     */
+    private String rejection(OrderWrite line) {
+        String rejected = rejectedSales.get(line.saleId());
+        if (rejected != null) {
+            return "Sale " + line.saleId() + " was rejected: " + rejected;
+        }
+        if (resolve(line.saleId()) >= 0) {
+            return null;
+        }
+        return unsentSales.containsKey(line.saleId()) ? null : "Sale " + line.saleId() + " is unknown";
+    }
+
+    private void send(Batch batch) {
+        if (batch.rejection() != null) {
+            complete(batch, 0, batch.rejection());
+            return;
+        }
+        List<OrderWrite> writes = batch.writes();
+        try {
+            if (batch.durableAt() > 0) {
+                journal.force(batch.durableAt());
+            }
+        } catch (IOException e) {
+            lastError = "Journal fsync failed: " + e;
+        }
+        try {
+            requests.increment();
+            if (batch.lines() == null) {
+                Sale created = backend.createSale(writes.get(0).date(), batch.key());
+                complete(batch, created.id(), null);
+            } else {
+                List<String> lineKeys = writes.stream().map(write -> key(write.sequence(), write.sequence())).toList();
+                backend.addSaleLines(batch.lines(), lineKeys, batch.key());
+                complete(batch, 0, null);
+            }
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                if (unreachable(e)) {
+                    attempts++;
+                    lastError = e.getMessage();
+                    long backoff = properties.retryBackoff().toNanos() << Math.min(attempts - 1, 20);
+                    retryAt = System.nanoTime() + Math.min(backoff, properties.maxRetryBackoff().toNanos());
+                    release(batch);
+                    return;
+                }
+                if (writes.size() > 1) {
+                    // Find the rejected line by sending the group one line at a time, each under its own key
+                    splitThrough = Math.max(splitThrough, writes.get(writes.size() - 1).sequence());
+                    unpin(writes.get(0).sequence());
+                    release(batch);
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            complete(batch, 0, String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * Record the outcome of a batch and take it off the queue
+     * @param backendId The created sale id, for a sale
+     * @param error Why the backend rejected the batch, or null
+     */
+    private void complete(Batch batch, long backendId, String error) {
+        lock.lock();
+        try {
+            release(batch);
+            for (OrderWrite write : batch.writes()) {
+                queue.remove(write.sequence());
+                unpin(write.sequence());
+                if (write.kind() == OrderWrite.Kind.SALE) {
+                    unsentSales.remove(write.saleId());
+                    if (error == null) {
+                        resolved.put(write.saleId(), backendId);
+                    } else {
+                        rejectedSales.put(write.saleId(), error);
+                    }
+                }
+                if (error == null) {
+                    sent.increment();
+                    try {
+                        journal.appendSent(write.sequence(), backendId);
+                    } catch (IOException e) {
+                        lastError = "Journal append failed: " + e;
+                    }
+                } else {
+                    recordFailure(write, error);
+                }
+            }
+            attempts = 0;
+            retryAt = 0;
+            if (journal.size() >= (queue.isEmpty() ? COMPACT_BYTES : REWRITE_BYTES)) {
+                compact();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Count a failed write, keep it for {@link #status} and append its outcome to the journal
+     */
+    private void recordFailure(OrderWrite write, String error) {
+        failed.increment();
+        failures.add(new Failure(write, error));
+        if (failures.size() > KEPT_FAILURES) {
+            failures.remove();
+        }
+        try {
+            journal.appendFailed(write.sequence(), error);
+        } catch (IOException e) {
+            lastError = "Journal append failed: " + e;
+        }
+    }
+
+    /**
+     * Drop the outcomes and finished writes from the journal
+     */
+    private void compact() {
+        try {
+            if (queue.isEmpty()) {
+                journal.reset(journalId, nextSequence, nextLocalId);
+            } else {
+                List<OrderWrite> writes = queuedForRewrite();
+                journal.rewrite(journalId, nextSequence, nextLocalId, writes, pinned);
+                // Queued lines now carry backend ids, so trimming the provisional ids cannot strand them
+                writes.forEach(write -> queue.put(write.sequence(), write));
+            }
+        } catch (IOException e) {
+            lastError = "Journal compaction failed: " + e;
+            return;
+        }
+        trimResolved();
+    }
+
+    /**
+     * Forget the oldest provisional ids of sent and rejected sales beyond {@link #KEPT_RESOLVED}
+     */
+    private void trimResolved() {
+        for (Iterator<Long> it = resolved.keySet().iterator(); resolved.size() > KEPT_RESOLVED && it.hasNext(); ) {
+            it.next();
+            it.remove();
+        }
+        for (Iterator<Long> it = rejectedSales.keySet().iterator(); rejectedSales.size() > KEPT_RESOLVED && it.hasNext(); ) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    /**
+     * The queued writes, lines pointing at backend ids where known so they do
+     * not depend on the outcome records of their sale
+     */
+    private List<OrderWrite> queuedForRewrite() {
+        List<OrderWrite> writes = new ArrayList<>(queue.size());
+        for (OrderWrite write : queue.values()) {
+            writes.add(write.kind() == OrderWrite.Kind.LINE ? withSale(write, resolve(write.saleId())) : write);
+        }
+        return writes;
+    }
+
+    private static OrderWrite withSale(OrderWrite line, long saleId) {
+        return new OrderWrite(line.sequence(), line.kind(), line.enqueuedAt(), saleId, line.menuId(), line.quantity(),
+                line.date());
+    }
+
+    /**
+     * Whether a failed send is worth retrying: the backend was unreachable or asked to slow down
+     */
+    static boolean unreachable(RuntimeException failure) {
+        if (failure instanceof RestClientResponseException response) {
+            return response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == 429;
+        }
+        return failure instanceof ResourceAccessException;
+    }
+
+    private static QueuedOrderWrite describe(OrderWrite write, String state, String error) {
+        return new QueuedOrderWrite(write.sequence(), write.kind().name().toLowerCase(), state, write.saleId(),
+                write.menuId(), write.quantity(), write.date(), Instant.ofEpochMilli(write.enqueuedAt()).toString(), error);
+    }
+
+    /**
+     * Writes sent in one request
+     * @param lines The lines with backend sale ids, or null for a sale
+     * @param rejection Set when the writes must fail without being sent
+     * @param key The idempotency key of the request
+     * @param durableAt Journal position to force before sending, once the batch record was appended; 0 if none
+     */
+    private record Batch(List<OrderWrite> writes, List<SaleMenu> lines, String rejection, String key, long durableAt) {
+    }
+
+    private record Failure(OrderWrite write, String error) {
+    }
+}
@@ -0,0 +1,164 @@
+package com.uptc.frw.mcprestaurant.resource;
+
+import com.uptc.frw.mcprestaurant.model.Dish;
+import com.uptc.frw.mcprestaurant.model.DishMenu;
+import com.uptc.frw.mcprestaurant.model.Menu;
+import com.uptc.frw.mcprestaurant.util.LongLongHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 64-bit fingerprints of every catalog entry and of every menu view (a menu
+ * with its dish-menu prices and dishes), diffed against the previous lists to
+ * tell which resources changed.
+ *
+ * A menu view changes when the menu, one of its prices or one of its dishes
+ * does, so a renamed dish marks every menu that serves it. The first lists
+ * are only remembered. Not thread-safe.
+ */
+final class CatalogFingerprints {
+
+    private static final long MISSING = 0;
+
+    /**
+     * Entries changed, added or removed since the previous lists
+     * @param menus Menu ids
+     * @param dishes Dish ids
+     * @param dishMenus Whether any dish-menu price changed
+     * @param menuViews Ids of the menus whose view changed
+     */
+    record Changes(Set<Long> menus, Set<Long> dishes, boolean dishMenus, Set<Long> menuViews) {
+
+        static final Changes NONE = new Changes(Set.of(), Set.of(), false, Set.of());
+
+        boolean isEmpty() {
+            return menus.isEmpty() && dishes.isEmpty() && !dishMenus && menuViews.isEmpty();
+        }
+
+        /**
+         * @return The collection resources that changed, then the changed entries
+         */
+        List<String> uris() {
+            List<String> uris = new ArrayList<>();
+            if (!menus.isEmpty()) {
+                uris.add(CatalogResources.MENUS);
+            }
+            if (!dishes.isEmpty()) {
+                uris.add(CatalogResources.DISHES);
+            }
+            if (dishMenus) {
+                uris.add(CatalogResources.DISH_MENUS);
+            }
+            menuViews.forEach(id -> uris.add(CatalogResources.menu(id)));
+            dishes.forEach(id -> uris.add(CatalogResources.dish(id)));
+            return uris;
+        }
+    }
+
+    private LongLongHashMap menus;
+    private LongLongHashMap dishes;
+    private LongLongHashMap views;
+    private long dishMenus;
+
+    /**
+     * Fingerprint the current lists and compare them with the previous ones
+     * @return What changed; {@link Changes#NONE} on the first call
+     */
+    Changes update(List<Menu> menuList, List<Dish> dishList, List<DishMenu> dishMenuList) {
+        LongLongHashMap menuPrints = new LongLongHashMap(menuList.size());
+        for (Menu menu : menuList) {
+            if (menu.id() != null) {
+                menuPrints.put(menu.id(), of(menu));
+            }
+        }
+        LongLongHashMap dishPrints = new LongLongHashMap(dishList.size());
+        for (Dish dish : dishList) {
+            if (dish.id() != null) {
+                dishPrints.put(dish.id(), of(dish));
+            }
+        }
+        LongLongHashMap viewPrints = new LongLongHashMap(menuPrints.size());
+        menuPrints.forEach(viewPrints::put);
+        long dishMenuPrint = 0;
+        for (DishMenu dishMenu : dishMenuList) {
+            if (dishMenu.menuId() == null) {
+                continue;
+            }
+            long print = of(dishMenu);
+            dishMenuPrint += print;
+            long dish = dishMenu.dishId() == null ? MISSING : dishPrints.get(dishMenu.dishId(), MISSING);
+            viewPrints.addTo(dishMenu.menuId(), mix(print ^ dish));
+        }
+
+        Changes changes = menus == null ? Changes.NONE : new Changes(
+                changed(menus, menuPrints), changed(dishes, dishPrints),
+                dishMenuPrint != dishMenus, changed(views, viewPrints));
+        menus = menuPrints;
+        dishes = dishPrints;
+        views = viewPrints;
+        dishMenus = dishMenuPrint;
+        return changes;
+    }
+
+    private static Set<Long> changed(LongLongHashMap before, LongLongHashMap after) {
+        Set<Long> changed = new TreeSet<>();
+        after.forEach((key, print) -> {
+            if (before.get(key, MISSING) != print) {
+                changed.add(key);
+            }
+        });
+        before.forEach((key, print) -> {
+            if (!after.containsKey(key)) {
+                changed.add(key);
+            }
+        });
+        return changed;
+    }
+
+    static long of(Menu menu) {
+        return finish(hash(hash(0x4D454E55L, menu.id()), menu.description()));
+    }
+
+    static long of(Dish dish) {
+        return finish(hash(hash(hash(hash(0x44495348L, dish.id()), dish.dishType()), dish.name()), dish.description()));
+    }
+
+    static long of(DishMenu dishMenu) {
+        long price = dishMenu.price() == null ? 0 : Double.doubleToLongBits(dishMenu.price());
+        return finish(hash(mix(hash(hash(0x50524943L, dishMenu.menuId()), dishMenu.dishId()) ^ price), dishMenu.date()));
+    }
+
+    private static long hash(long hash, Long value) {
+        return mix(hash ^ (value == null ? 0x6E756C6CL : value));
+    }
+
+    /**
+     * FNV-1a over the characters, with null and "" kept apart
+     */
+    private static long hash(long hash, String value) {
+        if (value == null) {
+            return mix(hash ^ 0x6E756C6CL);
+        }
+        long h = hash ^ 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(h ^ value.length());
+    }
+
+    private static long mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * Zero marks a missing entry, so no fingerprint may be zero
+     */
+    private static long finish(long hash) {
+        long h = mix(hash);
+        return h == MISSING ? 1 : h;
+    }
+}
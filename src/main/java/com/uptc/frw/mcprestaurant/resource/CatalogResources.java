@@ -0,0 +1,209 @@
+package com.uptc.frw.mcprestaurant.resource;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uptc.frw.mcprestaurant.model.Dish;
+import com.uptc.frw.mcprestaurant.model.Menu;
+import com.uptc.frw.mcprestaurant.service.DishMenuService;
+import com.uptc.frw.mcprestaurant.service.DishService;
+import com.uptc.frw.mcprestaurant.service.MenuDetailService;
+import com.uptc.frw.mcprestaurant.service.MenuService;
+import io.modelcontextprotocol.server.McpServerFeatures.SyncResourceSpecification;
+import io.modelcontextprotocol.server.McpSyncServer;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The catalog as MCP resources, read through the same services (and caches)
+ * as the tools:
+ *
+ * restaurant://menus, restaurant://menus/{id} (the menu with its dishes and
+ * prices), restaurant://dishes, restaurant://dishes/{id} and
+ * restaurant://dish-menus.
+ *
+ * The collections, and every menu and dish by its concrete URI
+ * (restaurant://menus/7, ...), are registered at startup from the catalog as
+ * the cache or the snapshot has it; if it cannot be loaded, only the
+ * collections are, and the entries follow with the watcher's first poll.
+ *
+ * Reading any of them starts the {@link CatalogWatcher}. The catalog it hands
+ * over, at most once per coalescing window, is diffed against what is listed
+ * and the difference applied as one batch: new menus and dishes are added,
+ * removed ones taken out and renamed ones replaced. The MCP server sends
+ * notifications/resources/list_changed for each of those (it has no batch
+ * registration), and nothing when the listing is unchanged, so clients
+ * re-list and re-read only when the listed catalog really changed.
+ */
+@Component
+public class CatalogResources {
+
+    public static final String MENUS = "restaurant://menus";
+    public static final String DISHES = "restaurant://dishes";
+    public static final String DISH_MENUS = "restaurant://dish-menus";
+
+    private static final String JSON = "application/json";
+
+    private final ObjectProvider<MenuService> menuService;
+    private final ObjectProvider<MenuDetailService> menuDetailService;
+    private final ObjectProvider<DishService> dishService;
+    private final ObjectProvider<DishMenuService> dishMenuService;
+    private final CatalogWatcher watcher;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<McpSyncServer> server;
+    private final Map<String, McpSchema.Resource> listed = new HashMap<>();
+
+    public CatalogResources(ObjectProvider<MenuService> menuService, ObjectProvider<MenuDetailService> menuDetailService,
+                            ObjectProvider<DishService> dishService, ObjectProvider<DishMenuService> dishMenuService,
+                            CatalogWatcher watcher, ObjectMapper objectMapper, ObjectProvider<McpSyncServer> server) {
+        this.menuService = menuService;
+        this.menuDetailService = menuDetailService;
+        this.dishService = dishService;
+        this.dishMenuService = dishMenuService;
+        this.watcher = watcher;
+        this.objectMapper = objectMapper;
+        this.server = server;
+        watcher.onCatalog(this::list);
+    }
+
+    public static String menu(long id) {
+        return MENUS + "/" + id;
+    }
+
+    public static String dish(long id) {
+        return DISHES + "/" + id;
+    }
+
+    /**
+     * The resources to register with the MCP server at startup: the
+     * collections, and each menu and dish of the catalog when it can be loaded
+     */
+    public synchronized List<SyncResourceSpecification> specifications() {
+        List<SyncResourceSpecification> specifications = new ArrayList<>(List.of(
+                specification(new McpSchema.Resource(MENUS, "menus", "Every menu of the restaurant", JSON, null)),
+                specification(new McpSchema.Resource(DISHES, "dishes", "Every dish of the restaurant", JSON, null)),
+                specification(new McpSchema.Resource(DISH_MENUS, "dish-menus",
+                        "Every dish-menu relationship, with the dish's price in the menu", JSON, null))
+        ));
+        Map<String, McpSchema.Resource> items;
+        try {
+            items = itemResources(orEmpty(menuService.getObject().getAllMenus()),
+                    orEmpty(dishService.getObject().getAllDishes()));
+        } catch (RuntimeException e) {
+            // Backend unreachable and no snapshot: the watcher lists the entries once it can
+            return specifications;
+        }
+        listed.clear();
+        listed.putAll(items);
+        items.values().forEach(resource -> specifications.add(specification(resource)));
+        return specifications;
+    }
+
+    /**
+     * One resource per menu and per dish of the catalog, keyed by URI
+     */
+    static Map<String, McpSchema.Resource> itemResources(List<Menu> menus, List<Dish> dishes) {
+        Map<String, McpSchema.Resource> resources = new LinkedHashMap<>();
+        for (Menu menu : menus) {
+            if (menu.id() != null) {
+                resources.put(menu(menu.id()), new McpSchema.Resource(menu(menu.id()),
+                        menu.description() != null ? menu.description() : "menu " + menu.id(),
+                        "The menu with its dishes, the price of each dish in the menu and the total price", JSON, null));
+            }
+        }
+        for (Dish dish : dishes) {
+            if (dish.id() != null) {
+                resources.put(dish(dish.id()), new McpSchema.Resource(dish(dish.id()),
+                        dish.name() != null ? dish.name() : "dish " + dish.id(), dish.description(), JSON, null));
+            }
+        }
+        return resources;
+    }
+
+    /**
+     * Bring the listed menu and dish resources in line with the catalog the
+     * watcher last saw, as one batch. Runs on the watcher's thread.
+     */
+    synchronized void list(List<Menu> menus, List<Dish> dishes) {
+        McpSyncServer mcp = server.getIfAvailable();
+        if (mcp == null) {
+            return;
+        }
+        Map<String, McpSchema.Resource> wanted = itemResources(menus, dishes);
+        Iterator<Map.Entry<String, McpSchema.Resource>> entries = listed.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, McpSchema.Resource> entry = entries.next();
+            if (!entry.getValue().equals(wanted.get(entry.getKey()))) {
+                mcp.removeResource(entry.getKey());
+                entries.remove();
+            }
+        }
+        for (McpSchema.Resource resource : wanted.values()) {
+            if (!listed.containsKey(resource.uri())) {
+                mcp.addResource(specification(resource));
+                listed.put(resource.uri(), resource);
+            }
+        }
+    }
+
+    /**
+     * Read a catalog resource as JSON
+     * @param uri A concrete resource URI, e.g. restaurant://menus/7
+     */
+    public String read(String uri) {
+        watcher.watch();
+        try {
+            return objectMapper.writeValueAsString(load(uri));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + uri, e);
+        }
+    }
+
+    private Object load(String uri) {
+        switch (uri) {
+            case MENUS -> {
+                return menuService.getObject().getAllMenus();
+            }
+            case DISHES -> {
+                return dishService.getObject().getAllDishes();
+            }
+            case DISH_MENUS -> {
+                return dishMenuService.getObject().getAllDishMenus();
+            }
+            default -> {
+                if (uri.startsWith(MENUS + "/")) {
+                    return menuDetailService.getObject().getMenuWithDishes(id(uri, MENUS));
+                }
+                if (uri.startsWith(DISHES + "/")) {
+                    return dishService.getObject().getDishById(id(uri, DISHES));
+                }
+                throw new IllegalArgumentException("Unknown resource " + uri);
+            }
+        }
+    }
+
+    private SyncResourceSpecification specification(McpSchema.Resource resource) {
+        return new SyncResourceSpecification(resource,
+                (exchange, request) -> new McpSchema.ReadResourceResult(List.of(
+                        new McpSchema.TextResourceContents(request.uri(), JSON, read(request.uri())))));
+    }
+
+    private static <T> List<T> orEmpty(List<T> values) {
+        return values == null ? List.of() : values;
+    }
+
+    private static long id(String uri, String collection) {
+        try {
+            return Long.parseLong(uri.substring(collection.length() + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Unknown resource " + uri);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.uptc.frw.mcprestaurant.resource;
+
+import com.uptc.frw.mcprestaurant.cache.CatalogCache;
+import com.uptc.frw.mcprestaurant.client.RevalidatingReader;
+import com.uptc.frw.mcprestaurant.config.CatalogResourcesProperties;
+import com.uptc.frw.mcprestaurant.model.Dish;
+import com.uptc.frw.mcprestaurant.model.DishMenu;
+import com.uptc.frw.mcprestaurant.model.Menu;
+import jakarta.annotation.PreDestroy;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Finds catalog changes at the backend and keeps the caches and the listed
+ * catalog resources in line with them.
+ *
+ * Once a client has read a catalog resource, the menu, dish and dish-menu
+ * lists are revalidated every restaurant.resources.poll-interval. While the
+ * backend answers 304 (or the same body hash) the reader hands back the same
+ * list and nothing else is done; otherwise every entry is fingerprinted and
+ * diffed by {@link CatalogFingerprints}, and the changed entries are dropped
+ * from the {@link CatalogCache}. Listeners registered with {@link #onCatalog}
+ * get the latest menus and dishes once per restaurant.resources.coalesce-window,
+ * after the baseline and after polls where a list changed. Local writes
+ * through the tools trigger a revalidation after the same window, so a burst
+ * of writes costs one poll.
+ *
+ * The server does not advertise resources/subscribe, so no
+ * notifications/resources/updated are sent: clients learn about changes from
+ * the resources/list_changed that {@link CatalogResources} causes.
+ */
+@Component
+@ManagedResource(objectName = "mcprestaurant:type=CatalogWatcher")
+public class CatalogWatcher {
+
+    private static final ParameterizedTypeReference<List<Menu>> MENUS = new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<List<Dish>> DISHES = new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<List<DishMenu>> DISH_MENUS = new ParameterizedTypeReference<>() {};
+
+    private final CatalogResourcesProperties properties;
+    private final RevalidatingReader reader;
+    private final CatalogCache catalogCache;
+    private final CatalogFingerprints fingerprints = new CatalogFingerprints();
+    private final AtomicReference<Catalog> pending = new AtomicReference<>();
+    private final List<BiConsumer<List<Menu>, List<Dish>>> catalogListeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean watching = new AtomicBoolean();
+    private final AtomicBoolean pollQueued = new AtomicBoolean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "catalog-watcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder polls = new LongAdder();
+    private final LongAdder unchangedPolls = new LongAdder();
+    private final LongAdder changes = new LongAdder();
+    private final LongAdder announcements = new LongAdder();
+
+    private List<Menu> menus;
+    private List<Dish> dishes;
+    private List<DishMenu> dishMenus;
+    private volatile long lastPollMicros;
+    private volatile String lastError;
+
+    /**
+     * The menus and dishes handed to the listeners
+     */
+    private record Catalog(List<Menu> menus, List<Dish> dishes) {
+    }
+
+    public CatalogWatcher(CatalogResourcesProperties properties, RevalidatingReader revalidatingReader,
+                          CatalogCache catalogCache) {
+        this.properties = properties;
+        this.reader = revalidatingReader;
+        this.catalogCache = catalogCache;
+        catalogCache.menus().onLocalWrite(this::pollSoon);
+        catalogCache.dishes().onLocalWrite(this::pollSoon);
+        catalogCache.dishMenus().onLocalWrite(this::pollSoon);
+    }
+
+    /**
+     * A client read a catalog resource: on the first call take the baseline
+     * to diff against and start polling
+     */
+    public void watch() {
+        reads.increment();
+        if (watching.get() || !watching.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduler.submit(this::pollQuietly).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // recorded in lastError; the next poll takes the baseline
+        }
+        long interval = properties.pollInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::pollQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Call the listener with the menus and dishes after the baseline and
+     * whenever a poll finds a list changed, at most once per coalescing window
+     */
+    public void onCatalog(BiConsumer<List<Menu>, List<Dish>> listener) {
+        catalogListeners.add(listener);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Revalidate the three lists, drop what changed from the caches and queue
+     * the catalog for the listeners. Runs on the scheduler thread.
+     */
+    void poll() {
+        long startedAt = System.nanoTime();
+        List<Menu> currentMenus = reader.get("/menus", MENUS);
+        List<Dish> currentDishes = reader.get("/dishes", DISHES);
+        List<DishMenu> currentDishMenus = reader.get("/dish-menus", DISH_MENUS);
+        polls.increment();
+        if (currentMenus == menus && currentDishes == dishes && currentDishMenus == dishMenus) {
+            unchangedPolls.increment();
+        } else {
+            CatalogFingerprints.Changes found = fingerprints.update(
+                    currentMenus == null ? List.of() : currentMenus,
+                    currentDishes == null ? List.of() : currentDishes,
+                    currentDishMenus == null ? List.of() : currentDishMenus);
+            menus = currentMenus;
+            dishes = currentDishes;
+            dishMenus = currentDishMenus;
+            if (!found.isEmpty()) {
+                changes.add(found.uris().size());
+                invalidate(found);
+            }
+            announceSoon(new Catalog(currentMenus == null ? List.of() : currentMenus,
+                    currentDishes == null ? List.of() : currentDishes));
+        }
+        lastPollMicros = (System.nanoTime() - startedAt) / 1_000;
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            // Backend unreachable: keep the last lists and try again on the next poll
+            lastError = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+
+    /**
+     * A local write: revalidate once the coalescing window is over
+     */
+    private void pollSoon() {
+        if (!watching.get() || !pollQueued.compareAndSet(false, true)) {
+            return;
+        }
+        scheduler.schedule(() -> {
+            pollQueued.set(false);
+            pollQuietly();
+        }, properties.coalesceWindow().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Hand the catalog to the listeners once the coalescing window is over;
+     * polls within the window only replace the catalog that will be handed over
+     */
+    private void announceSoon(Catalog catalog) {
+        if (pending.getAndSet(catalog) == null) {
+            scheduler.schedule(this::announce, properties.coalesceWindow().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void announce() {
+        Catalog catalog = pending.getAndSet(null);
+        if (catalog == null) {
+            return;
+        }
+        announcements.increment();
+        for (BiConsumer<List<Menu>, List<Dish>> listener : catalogListeners) {
+            try {
+                listener.accept(catalog.menus(), catalog.dishes());
+            } catch (RuntimeException e) {
+                lastError = e.getClass().getSimpleName() + ": " + e.getMessage();
+            }
+        }
+    }
+
+    private void invalidate(CatalogFingerprints.Changes found) {
+        if (!found.menus().isEmpty()) {
+            catalogCache.menus().invalidate(found.menus());
+        }
+        if (!found.dishes().isEmpty()) {
+            catalogCache.dishes().invalidate(found.dishes());
+        }
+        if (found.dishMenus()) {
+            catalogCache.dishMenus().clear();
+        }
+    }
+
+    @ManagedAttribute(description = "Whether a client has read a catalog resource and the catalog is being polled")
+    public boolean isWatching() {
+        return watching.get();
+    }
+
+    @ManagedAttribute(description = "Catalog resource reads")
+    public long getResourceReads() {
+        return reads.sum();
+    }
+
+    @ManagedAttribute(description = "Revalidations of the catalog lists")
+    public long getPolls() {
+        return polls.sum();
+    }
+
+    @ManagedAttribute(description = "Revalidations where no list changed, answered without fingerprinting")
+    public long getUnchangedPolls() {
+        return unchangedPolls.sum();
+    }
+
+    @ManagedAttribute(description = "Changed menus, dishes and collections found, before coalescing")
+    public long getChanges() {
+        return changes.sum();
+    }
+
+    @ManagedAttribute(description = "Times the latest catalog was handed to the listeners")
+    public long getAnnouncements() {
+        return announcements.sum();
+    }
+
+    @ManagedAttribute(description = "Duration of the last poll in microseconds")
+    public long getLastPollMicros() {
+        return lastPollMicros;
+    }
+
+    @ManagedAttribute(description = "Last problem polling the backend or updating the listed resources, if any")
+    public String getLastError() {
+        return lastError;
+    }
+}
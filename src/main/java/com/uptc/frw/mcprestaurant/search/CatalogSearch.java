@@ -0,0 +1,209 @@
+package com.uptc.frw.mcprestaurant.search;
+
+import com.uptc.frw.mcprestaurant.config.SearchIndexProperties;
+import com.uptc.frw.mcprestaurant.model.Dish;
+import com.uptc.frw.mcprestaurant.model.Menu;
+import com.uptc.frw.mcprestaurant.model.SearchHit;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Full-text search over the catalog, answered from an in-memory {@link SearchIndex}.
+ *
+ * The index is built from the full dish and menu lists on the first search,
+ * kept current from the server's own writes, and rebuilt once it is older than
+ * restaurant.search.max-staleness to pick up changes made elsewhere. Writes
+ * that land while a rebuild is reading the lists are replayed on top of it.
+ * If a rebuild fails the previous index keeps answering.
+ */
+@Component
+@ManagedResource(objectName = "mcprestaurant:type=CatalogSearch")
+public class CatalogSearch {
+
+    public static final String DISH = "dish";
+    public static final String MENU = "menu";
+
+    private final SearchIndexProperties properties;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildMonitor = new Object();
+    private final List<Consumer<SearchIndex>> writesDuringRebuild = new ArrayList<>();
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+
+    private volatile SearchIndex index;
+    private volatile long builtAtNanos;
+    private volatile long lastRebuildMillis;
+    private boolean rebuilding;
+
+    public CatalogSearch(SearchIndexProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Rebuild the index if it was never built or is older than the allowed staleness
+     * @param dishes Loads every dish
+     * @param menus Loads every menu
+     */
+    public void refreshIfStale(Supplier<List<Dish>> dishes, Supplier<List<Menu>> menus) {
+        if (isFresh()) {
+            return;
+        }
+        synchronized (rebuildMonitor) {
+            if (isFresh()) {
+                return;
+            }
+            try {
+                rebuild(dishes, menus);
+            } catch (RuntimeException e) {
+                if (index == null) {
+                    throw e;
+                }
+                // Backend unreachable: keep searching the current index and retry on the next search
+            }
+        }
+    }
+
+    /**
+     * Build a new index from the full lists and swap it in
+     */
+    public void rebuild(Supplier<List<Dish>> dishes, Supplier<List<Menu>> menus) {
+        synchronized (rebuildMonitor) {
+            long startedAt = System.nanoTime();
+            lock.writeLock().lock();
+            try {
+                rebuilding = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            SearchIndex fresh = new SearchIndex();
+            try {
+                dishes.get().forEach(fresh::put);
+                menus.get().forEach(fresh::put);
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    rebuilding = false;
+                    writesDuringRebuild.clear();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+                writesDuringRebuild.forEach(change -> change.accept(fresh));
+                writesDuringRebuild.clear();
+                index = fresh;
+                builtAtNanos = System.nanoTime();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            rebuilds.increment();
+            lastRebuildMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        }
+    }
+
+    /**
+     * Search dishes and menus
+     * @param query Free text; every word must match, by prefix or within one typo
+     * @param kind {@link #DISH}, {@link #MENU} or null for both
+     * @param dishType Only dishes of this type (accents and case ignored), or null
+     * @param limit Number of hits to return, capped at restaurant.search.max-results
+     * @return The best hits first; empty if the index was never built
+     */
+    public List<SearchHit> search(String query, String kind, String dishType, int limit) {
+        searches.increment();
+        int kindCode = kind == null ? -1 : kind.equals(DISH) ? SearchIndex.DISH : SearchIndex.MENU;
+        String type = dishType == null || dishType.isBlank() ? null : SearchIndex.fold(dishType).trim();
+        List<SearchIndex.Hit> hits;
+        lock.readLock().lock();
+        try {
+            if (index == null) {
+                return List.of();
+            }
+            hits = index.search(query, kindCode, type, Math.min(limit, properties.maxResults()));
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<SearchHit> results = new ArrayList<>(hits.size());
+        for (SearchIndex.Hit hit : hits) {
+            if (hit.document() instanceof Dish dish) {
+                results.add(new SearchHit(DISH, dish.id(), dish.name(), dish.dishType(), dish.description(), hit.score()));
+            } else {
+                Menu menu = (Menu) hit.document();
+                results.add(new SearchHit(MENU, menu.id(), null, null, menu.description(), hit.score()));
+            }
+        }
+        return results;
+    }
+
+    public void putDish(Dish dish) {
+        update(current -> current.put(dish));
+    }
+
+    public void removeDish(long id) {
+        update(current -> current.remove(SearchIndex.DISH, id));
+    }
+
+    public void putMenu(Menu menu) {
+        update(current -> current.put(menu));
+    }
+
+    public void removeMenu(long id) {
+        update(current -> current.remove(SearchIndex.MENU, id));
+    }
+
+    @ManagedAttribute(description = "Dishes and menus in the index")
+    public int getDocuments() {
+        SearchIndex current = index;
+        return current == null ? 0 : current.documents();
+    }
+
+    @ManagedAttribute(description = "Distinct terms in the index")
+    public int getTerms() {
+        SearchIndex current = index;
+        return current == null ? 0 : current.vocabulary();
+    }
+
+    @ManagedAttribute(description = "Searches answered")
+    public long getSearches() {
+        return searches.sum();
+    }
+
+    @ManagedAttribute(description = "Full rebuilds from the catalog")
+    public long getRebuilds() {
+        return rebuilds.sum();
+    }
+
+    @ManagedAttribute(description = "Duration of the last rebuild in milliseconds, loading included")
+    public long getLastRebuildMillis() {
+        return lastRebuildMillis;
+    }
+
+    private boolean isFresh() {
+        return index != null && System.nanoTime() - builtAtNanos <= properties.maxStaleness().toNanos();
+    }
+
+    private void update(Consumer<SearchIndex> change) {
+        lock.writeLock().lock();
+        try {
+            if (rebuilding) {
+                writesDuringRebuild.add(change);
+            }
+            if (index != null) {
+                change.accept(index);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
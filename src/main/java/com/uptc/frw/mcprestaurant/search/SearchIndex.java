@@ -0,0 +1,434 @@
+package com.uptc.frw.mcprestaurant.search;
+
+import com.uptc.frw.mcprestaurant.model.Dish;
+import com.uptc.frw.mcprestaurant.model.Menu;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over dish names, descriptions and types and menu descriptions.
+ *
+ * Text is folded to lowercase ASCII (accents stripped, so "piña" matches
+ * "pina") and split into terms. Each term keeps a posting list of document
+ * numbers in increasing order, with the fields it appears in. Terms are held
+ * sorted for prefix matches, and every term is also filed under each of its
+ * one-letter deletions, so a query term within one edit of it is found with a
+ * handful of lookups instead of a scan of the vocabulary.
+ *
+ * Documents are only ever appended: an update retires the old document and
+ * adds a new one, and retired documents are skipped until the next rebuild.
+ * Not thread-safe: {@link CatalogSearch} guards access.
+ */
+final class SearchIndex {
+
+    static final byte DISH = 0;
+    static final byte MENU = 1;
+
+    static final int NAME = 1;
+    static final int TYPE = 2;
+    static final int DESCRIPTION = 4;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    /** Scores above this rank together */
+    private static final int MAX_SCORE = 255;
+    /** Shortest query term matched by prefix or within one edit */
+    private static final int MIN_LOOSE_LENGTH = 3;
+
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<String, List<String>> deletions = new HashMap<>();
+    private final Map<Long, Integer> dishDocuments = new HashMap<>();
+    private final Map<Long, Integer> menuDocuments = new HashMap<>();
+    private Object[] documents = new Object[1024];
+    private String[] types = new String[1024];
+    private boolean[] retired = new boolean[1024];
+    private int size;
+    private int live;
+
+    /**
+     * One search result: the document and its score
+     */
+    record Hit(Object document, int score) {
+    }
+
+    static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+                return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+            }
+        }
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> terms(String text) {
+        String folded = fold(text);
+        List<String> terms = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            char c = i < folded.length() ? folded.charAt(i) : ' ';
+            boolean letter = c >= 'a' && c <= 'z' || c >= '0' && c <= '9';
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                terms.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    int documents() {
+        return live;
+    }
+
+    int vocabulary() {
+        return terms.size();
+    }
+
+    void put(Dish dish) {
+        if (dish == null || dish.id() == null) {
+            return;
+        }
+        remove(DISH, dish.id());
+        int document = add(dish, fold(dish.dishType()).trim());
+        dishDocuments.put(dish.id(), document);
+        index(document, dish.name(), NAME);
+        index(document, dish.dishType(), TYPE);
+        index(document, dish.description(), DESCRIPTION);
+    }
+
+    void put(Menu menu) {
+        if (menu == null || menu.id() == null) {
+            return;
+        }
+        remove(MENU, menu.id());
+        int document = add(menu, null);
+        menuDocuments.put(menu.id(), document);
+        index(document, menu.description(), DESCRIPTION);
+    }
+
+    void remove(byte kind, long id) {
+        Integer document = (kind == DISH ? dishDocuments : menuDocuments).remove(id);
+        if (document != null) {
+            retired[document] = true;
+            documents[document] = null;
+            live--;
+        }
+    }
+
+    /**
+     * Find the documents matching every query term, best first.
+     *
+     * A query term matches an indexed term that equals it, starts with it, or
+     * (for terms of three letters or more with no such match) is one edit
+     * away. Exact matches outscore prefix matches, which outscore fuzzy ones,
+     * and a match in a name counts more than one in a type or description.
+     * @param query Free text
+     * @param kind {@link #DISH}, {@link #MENU} or -1 for both
+     * @param dishType Folded dish type the dishes must have, or null
+     * @param limit Number of hits to return
+     */
+    List<Hit> search(String query, int kind, String dishType, int limit) {
+        List<String> queryTerms = terms(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        long[] matches = null;
+        for (String term : queryTerms) {
+            long[] termMatches = matches(term);
+            matches = matches == null ? termMatches : intersect(matches, termMatches);
+            if (matches.length == 0) {
+                return List.of();
+            }
+        }
+        // Scores are small integers: count the hits per score to find the lowest score that makes the cut
+        int[] perScore = new int[MAX_SCORE + 1];
+        for (int i = 0; i < matches.length; i++) {
+            int document = document(matches[i]);
+            if (retired[document] || !accepts(document, kind, dishType)) {
+                matches[i] = -1;
+            } else {
+                perScore[Math.min(score(matches[i]), MAX_SCORE)]++;
+            }
+        }
+        int cut = MAX_SCORE;
+        int above = perScore[cut];
+        while (cut > 0 && above < limit) {
+            above += perScore[--cut];
+        }
+        // Everything above the cut, then the lowest-numbered documents at the cut until the limit
+        int atCut = limit - (above - perScore[cut]);
+        long[] best = new long[Math.min(limit, above)];
+        int count = 0;
+        for (long match : matches) {
+            if (match == -1 || score(match) < cut || score(match) == cut && atCut-- <= 0) {
+                continue;
+            }
+            // Highest score first, then lowest document number
+            best[count++] = (long) (MAX_SCORE - Math.min(score(match), MAX_SCORE)) << 32 | document(match);
+        }
+        Arrays.sort(best, 0, count);
+        List<Hit> hits = new ArrayList<>(Math.min(limit, count));
+        for (int i = 0; i < Math.min(limit, count); i++) {
+            int document = (int) best[i];
+            hits.add(new Hit(documents[document], MAX_SCORE - (int) (best[i] >>> 32)));
+        }
+        return hits;
+    }
+
+    /**
+     * Documents matching one query term, as (document, score) pairs packed in longs, in document order
+     */
+    private long[] matches(String term) {
+        List<Postings> matched = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        Postings exact = terms.get(term);
+        if (exact != null) {
+            matched.add(exact);
+            weights.add(3);
+        }
+        if (term.length() >= MIN_LOOSE_LENGTH) {
+            for (Postings postings : terms.subMap(term, false, term + Character.MAX_VALUE, false).values()) {
+                matched.add(postings);
+                weights.add(2);
+            }
+            if (matched.isEmpty()) {
+                for (String near : near(term)) {
+                    matched.add(terms.get(near));
+                    weights.add(1);
+                }
+            }
+        }
+        if (matched.isEmpty()) {
+            return new long[0];
+        }
+        if (matched.size() == 1) {
+            return matched.get(0).matches(weights.get(0));
+        }
+        int total = 0;
+        for (Postings postings : matched) {
+            total += postings.size;
+        }
+        if (total > size / 8) {
+            return denseUnion(matched, weights);
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (int i = 0; i < matched.size(); i++) {
+            long[] some = matched.get(i).matches(weights.get(i));
+            System.arraycopy(some, 0, all, offset, some.length);
+            offset += some.length;
+        }
+        // Sorted by document then score, so the last pair of each document has its best score
+        Arrays.sort(all);
+        int kept = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (i + 1 == all.length || document(all[i + 1]) != document(all[i])) {
+                all[kept++] = all[i];
+            }
+        }
+        return Arrays.copyOf(all, kept);
+    }
+
+    /**
+     * Union of many long posting lists through a per-document score array instead of a sort
+     */
+    private long[] denseUnion(List<Postings> matched, List<Integer> weights) {
+        byte[] best = new byte[size];
+        int count = 0;
+        for (int i = 0; i < matched.size(); i++) {
+            count += matched.get(i).raise(best, weights.get(i));
+        }
+        long[] all = new long[count];
+        int next = 0;
+        for (int document = 0; document < size; document++) {
+            if (best[document] != 0) {
+                all[next++] = match(document, best[document]);
+            }
+        }
+        return all;
+    }
+
+    /**
+     * Documents in both lists, with their scores added
+     */
+    private static long[] intersect(long[] left, long[] right) {
+        long[] both = new long[Math.min(left.length, right.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            int a = document(left[i]);
+            int b = document(right[j]);
+            if (a < b) {
+                i++;
+            } else if (a > b) {
+                j++;
+            } else {
+                both[size++] = match(a, score(left[i++]) + score(right[j++]));
+            }
+        }
+        return Arrays.copyOf(both, size);
+    }
+
+    private static long match(int document, int score) {
+        return (long) document << 32 | score;
+    }
+
+    private static int document(long match) {
+        return (int) (match >>> 32);
+    }
+
+    private static int score(long match) {
+        return (int) match;
+    }
+
+    /**
+     * Indexed terms one insertion, deletion or substitution away from a term
+     */
+    private List<String> near(String term) {
+        List<String> near = new ArrayList<>();
+        collect(term, term, near);
+        for (int i = 0; i < term.length(); i++) {
+            String deleted = term.substring(0, i) + term.substring(i + 1);
+            if (terms.containsKey(deleted) && !near.contains(deleted)) {
+                near.add(deleted);
+            }
+            collect(deleted, term, near);
+        }
+        return near;
+    }
+
+    private void collect(String key, String term, List<String> near) {
+        List<String> found = deletions.get(key);
+        if (found == null) {
+            return;
+        }
+        for (String candidate : found) {
+            if (!candidate.equals(term) && !near.contains(candidate) && withinOneEdit(candidate, term)) {
+                near.add(candidate);
+            }
+        }
+    }
+
+    private boolean accepts(int document, int kind, String dishType) {
+        boolean dish = documents[document] instanceof Dish;
+        if (kind == DISH && !dish || kind == MENU && dish) {
+            return false;
+        }
+        return dishType == null || dish && dishType.equals(types[document]);
+    }
+
+    private int add(Object document, String type) {
+        if (size == documents.length) {
+            documents = Arrays.copyOf(documents, size * 2);
+            types = Arrays.copyOf(types, size * 2);
+            retired = Arrays.copyOf(retired, size * 2);
+        }
+        documents[size] = document;
+        types[size] = type;
+        live++;
+        return size++;
+    }
+
+    private void index(int document, String text, int field) {
+        for (String term : terms(text)) {
+            Postings postings = terms.get(term);
+            if (postings == null) {
+                postings = new Postings();
+                terms.put(term, postings);
+                for (int i = 0; i < term.length(); i++) {
+                    deletions.computeIfAbsent(term.substring(0, i) + term.substring(i + 1), key -> new ArrayList<>(1))
+                            .add(term);
+                }
+            }
+            postings.add(document, field);
+        }
+    }
+
+    private static int fieldWeight(int fields) {
+        return (fields & NAME) != 0 ? 3 : (fields & TYPE) != 0 ? 2 : 1;
+    }
+
+    static boolean withinOneEdit(String a, String b) {
+        int lengthDifference = a.length() - b.length();
+        if (Math.abs(lengthDifference) > 1) {
+            return false;
+        }
+        String longer = lengthDifference >= 0 ? a : b;
+        String shorter = lengthDifference >= 0 ? b : a;
+        int i = 0;
+        while (i < shorter.length() && longer.charAt(i) == shorter.charAt(i)) {
+            i++;
+        }
+        if (longer.length() == shorter.length()) {
+            return longer.regionMatches(i + 1, shorter, i + 1, shorter.length() - i - 1);
+        }
+        return longer.regionMatches(i + 1, shorter, i, shorter.length() - i);
+    }
+
+    /**
+     * Documents containing one term, in increasing order, with the fields it appears in
+     */
+    private static final class Postings {
+
+        private int[] documents = new int[2];
+        private byte[] fields = new byte[2];
+        private int size;
+
+        void add(int document, int field) {
+            if (size > 0 && documents[size - 1] == document) {
+                fields[size - 1] |= (byte) field;
+                return;
+            }
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                fields = Arrays.copyOf(fields, size * 2);
+            }
+            documents[size] = document;
+            fields[size] = (byte) field;
+            size++;
+        }
+
+        /**
+         * Raise each document's best score to the match weight times its best field weight
+         * @return How many documents had no score before
+         */
+        int raise(byte[] best, int weight) {
+            int added = 0;
+            for (int i = 0; i < size; i++) {
+                int score = weight * fieldWeight(fields[i]);
+                int document = documents[i];
+                if (best[document] == 0) {
+                    added++;
+                }
+                if (score > best[document]) {
+                    best[document] = (byte) score;
+                }
+            }
+            return added;
+        }
+
+        /**
+         * The documents as (document, score) pairs: the match weight times the best field weight
+         */
+        long[] matches(int weight) {
+            long[] matches = new long[size];
+            for (int i = 0; i < size; i++) {
+                matches[i] = match(documents[i], weight * fieldWeight(fields[i]));
+            }
+            return matches;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.uptc.frw.mcprestaurant.service;
+
+import com.uptc.frw.mcprestaurant.analytics.SalesAnalytics;
+import com.uptc.frw.mcprestaurant.config.ResultLimitsProperties;
+import com.uptc.frw.mcprestaurant.model.DailyRevenue;
+import com.uptc.frw.mcprestaurant.model.DishMenu;
+import com.uptc.frw.mcprestaurant.model.MenuPrice;
+import com.uptc.frw.mcprestaurant.model.MenuRanking;
+import com.uptc.frw.mcprestaurant.model.Sale;
+import com.uptc.frw.mcprestaurant.model.SaleMenu;
+import com.uptc.frw.mcprestaurant.model.SaleTotal;
+import com.uptc.frw.mcprestaurant.model.TicketStats;
+import com.uptc.frw.mcprestaurant.util.Dates;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Service for sales analytics and lookups answered from the in-memory sales index
+ */
+@Service
+@Lazy
+public class AnalyticsService {
+
+    private static final int DEFAULT_TOP = 5;
+
+    private final SalesAnalytics salesAnalytics;
+    private final ResultLimitsProperties limits;
+
+    public AnalyticsService(SalesAnalytics salesAnalytics, ResultLimitsProperties limits) {
+        this.salesAnalytics = salesAnalytics;
+        this.limits = limits;
+    }
+
+    /**
+     * Get the revenue and number of sales per day
+     * @param fromDate First date included (yyyy-MM-dd), or null for no lower bound
+     * @param toDate Last date included (yyyy-MM-dd), or null for no upper bound
+     * @return Revenue per day, oldest first
+     */
+    @Tool(description = "Get revenue and number of sales per day between two dates (yyyy-MM-dd, inclusive, both optional)")
+    public List<DailyRevenue> getRevenueByDay(String fromDate, String toDate) {
+        return salesAnalytics.revenueByDay(
+                Dates.epochDayOrDefault(fromDate, Long.MIN_VALUE),
+                Dates.epochDayOrDefault(toDate, Long.MAX_VALUE));
+    }
+
+    /**
+     * Get the best-selling menus
+     * @param fromDate First date included (yyyy-MM-dd), or null for no lower bound
+     * @param toDate Last date included (yyyy-MM-dd), or null for no upper bound
+     * @param rankBy "quantity" or "revenue"
+     * @param limit Number of menus to return
+     * @return The top menus with quantity sold and revenue
+     */
+    @Tool(description = "Get the top N menus between two dates (yyyy-MM-dd, inclusive, both optional), ranked by 'quantity' or 'revenue'")
+    public List<MenuRanking> getTopMenus(String fromDate, String toDate, String rankBy, Integer limit) {
+        boolean byRevenue;
+        if (rankBy == null || rankBy.isBlank() || rankBy.equalsIgnoreCase("quantity")) {
+            byRevenue = false;
+        } else if (rankBy.equalsIgnoreCase("revenue")) {
+            byRevenue = true;
+        } else {
+            throw new IllegalArgumentException("rankBy must be 'quantity' or 'revenue'");
+        }
+        return salesAnalytics.topMenus(
+                Dates.epochDayOrDefault(fromDate, Long.MIN_VALUE),
+                Dates.epochDayOrDefault(toDate, Long.MAX_VALUE),
+                byRevenue,
+                limit == null || limit <= 0 ? DEFAULT_TOP : limit);
+    }
+
+    /**
+     * Get the number of sales, total revenue and average ticket size
+     * @param fromDate First date included (yyyy-MM-dd), or null for no lower bound
+     * @param toDate Last date included (yyyy-MM-dd), or null for no upper bound
+     * @return The ticket statistics
+     */
+    @Tool(description = "Get number of sales, total revenue and average ticket size between two dates (yyyy-MM-dd, inclusive, both optional)")
+    public TicketStats getAverageTicket(String fromDate, String toDate) {
+        return salesAnalytics.ticketStats(
+                Dates.epochDayOrDefault(fromDate, Long.MIN_VALUE),
+                Dates.epochDayOrDefault(toDate, Long.MAX_VALUE));
+    }
+
+    /**
+     * Get the sales made between two dates
+     * @param fromDate First date included (yyyy-MM-dd), or null for no lower bound
+     * @param toDate Last date included (yyyy-MM-dd), or null for no upper bound
+     * @return The sales, oldest first
+     */
+    @Tool(description = "Get the sales made between two dates (yyyy-MM-dd, inclusive, both optional), oldest first")
+    public List<Sale> getSalesBetween(String fromDate, String toDate) {
+        return salesAnalytics.salesBetween(
+                Dates.epochDayOrDefault(fromDate, Long.MIN_VALUE),
+                Dates.epochDayOrDefault(toDate, Long.MAX_VALUE),
+                limits.maxResults());
+    }
+
+    /**
+     * Get every sale line of a menu
+     * @param idMenu The menu ID
+     * @return The sale-menu relationships of the menu
+     */
+    @Tool(description = "Get every sale line (sale and quantity) of a menu")
+    public List<SaleMenu> getSaleLinesByMenu(Long idMenu) {
+        return salesAnalytics.saleLinesByMenu(idMenu, limits.maxResults());
+    }
+
+    /**
+     * Get every price a dish has had on a menu
+     * @param idMenu The menu ID
+     * @param idDish The dish ID
+     * @return The prices with the date each took effect, oldest first
+     */
+    @Tool(description = "Get the price history of a dish on a menu, with the date each price took effect")
+    public List<DishMenu> getPriceHistory(Long idMenu, Long idDish) {
+        return salesAnalytics.priceHistory(idMenu, idDish);
+    }
+
+    /**
+     * Get the price a menu had on a date
+     * @param idMenu The menu ID
+     * @param date The date (yyyy-MM-dd), or null for today
+     * @return The sum of the menu's dish prices in effect on that date
+     */
+    @Tool(description = "Get the price of a menu on a date (yyyy-MM-dd, optional, default today): the sum of the prices its dishes had that day")
+    public MenuPrice getMenuPriceAt(Long idMenu, String date) {
+        return salesAnalytics.menuPriceAt(idMenu, Dates.epochDayOrDefault(date, LocalDate.now().toEpochDay()));
+    }
+
+    /**
+     * Get the total of a sale
+     * @param idSale The sale ID
+     * @return Each line's quantity times the menu price on the sale date, summed
+     */
+    @Tool(description = "Get the total of a sale: each menu's quantity times the menu price in effect on the sale date")
+    public SaleTotal getSaleTotal(Long idSale) {
+        return salesAnalytics.saleTotal(idSale);
+    }
+
+    /**
+     * Get the totals of the sales made between two dates
+     * @param fromDate First date included (yyyy-MM-dd), or null for no lower bound
+     * @param toDate Last date included (yyyy-MM-dd), or null for no upper bound
+     * @return The sale totals, oldest first
+     */
+    @Tool(description = "Get the total of every sale between two dates (yyyy-MM-dd, inclusive, both optional), at the menu prices of each sale date, oldest first")
+    public List<SaleTotal> getSaleTotalsBetween(String fromDate, String toDate) {
+        return salesAnalytics.saleTotals(
+                Dates.epochDayOrDefault(fromDate, Long.MIN_VALUE),
+                Dates.epochDayOrDefault(toDate, Long.MAX_VALUE),
+                limits.maxResults());
+    }
+}
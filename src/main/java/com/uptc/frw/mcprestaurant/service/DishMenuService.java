@@ -1,9 +1,16 @@
 package com.uptc.frw.mcprestaurant.service;
 
+import com.uptc.frw.mcprestaurant.analytics.SalesAnalytics;
+import com.uptc.frw.mcprestaurant.cache.CatalogCache;
+import com.uptc.frw.mcprestaurant.client.BulkFetcher;
+import com.uptc.frw.mcprestaurant.client.RevalidatingReader;
+import com.uptc.frw.mcprestaurant.config.RestaurantApiProperties;
+import com.uptc.frw.mcprestaurant.model.BulkResult;
 import com.uptc.frw.mcprestaurant.model.DishMenu;
+import com.uptc.frw.mcprestaurant.model.DishMenuItem;
 import org.springframework.ai.tool.annotation.Tool;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 
@@ -14,17 +21,25 @@ import java.util.Map;
  * Service for managing dish-menu relationships
  */
 @Service
+@Lazy
 public class DishMenuService {
 
     private final RestClient restClient;
+    private final CatalogCache catalogCache;
+    private final BulkFetcher bulkFetcher;
+    private final String bulkPath;
+    private final SalesAnalytics salesAnalytics;
+    private final RevalidatingReader revalidatingReader;
 
-    public DishMenuService(@Value("${restaurant.api.base-url:http://localhost:8080/api}") String baseUrl,
-                          @Value("${restaurant.api.username:admin}") String username,
-                          @Value("${restaurant.api.password:password}") String password) {
-        this.restClient = RestClient.builder()
-                .baseUrl(baseUrl)
-                .defaultHeaders(headers -> headers.setBasicAuth(username, password))
-                .build();
+    public DishMenuService(RestClient restaurantRestClient, CatalogCache catalogCache,
+                          BulkFetcher bulkFetcher, RestaurantApiProperties properties,
+                          SalesAnalytics salesAnalytics, RevalidatingReader revalidatingReader) {
+        this.restClient = restaurantRestClient;
+        this.catalogCache = catalogCache;
+        this.bulkFetcher = bulkFetcher;
+        this.bulkPath = properties.bulkEndpoints().dishMenus();
+        this.salesAnalytics = salesAnalytics;
+        this.revalidatingReader = revalidatingReader;
     }
 
     /**
@@ -33,10 +48,14 @@ public class DishMenuService {
      */
     @Tool(description = "Get all dish-menu relationships")
     public List<DishMenu> getAllDishMenus() {
-        return restClient.get()
-                .uri("/dish-menus")
-                .retrieve()
-                .body(new ParameterizedTypeReference<List<DishMenu>>() {});
+        return catalogCache.dishMenus().getAll(() -> {
+            List<DishMenu> dishMenus = revalidatingReader.get("/dish-menus",
+                    new ParameterizedTypeReference<List<DishMenu>>() {});
+            if (dishMenus != null) {
+                salesAnalytics.recordDishMenus(dishMenus);
+            }
+            return dishMenus;
+        });
     }
 
     /**
@@ -47,10 +66,10 @@ public class DishMenuService {
      */
     @Tool(description = "Get a specific dish-menu relationship")
     public DishMenu getDishMenu(Long idMenu, Long iddish) {
-        return restClient.get()
-                .uri("/dish-menus/{idMenu}/{iddish}", idMenu, iddish)
+        return catalogCache.dishMenus().get(new CatalogCache.DishMenuKey(idMenu, iddish), key -> restClient.get()
+                .uri("/dish-menus/{idMenu}/{iddish}", key.menuId(), key.dishId())
                 .retrieve()
-                .body(DishMenu.class);
+                .body(DishMenu.class));
     }
 
     /**
@@ -63,7 +82,7 @@ public class DishMenuService {
      */
     @Tool(description = "Add a dish to a menu with price and date")
     public DishMenu addDishToMenu(Long idMenu, Long idDish, Double price, String date) {
-        return restClient.post()
+        DishMenu created = restClient.post()
                 .uri("/dish-menus")
                 .body(Map.of(
                     "idMenu", idMenu,
@@ -73,6 +92,51 @@ public class DishMenuService {
                 ))
                 .retrieve()
                 .body(DishMenu.class);
+        catalogCache.dishMenus().evict(new CatalogCache.DishMenuKey(idMenu, idDish));
+        catalogCache.dishMenus().put(created);
+        salesAnalytics.recordDishMenus(List.of(created != null ? created : new DishMenu(idMenu, idDish, price, date)));
+        return created;
+    }
+
+    /**
+     * Add several dishes to a menu in one call.
+     * Uses the configured batch endpoint when there is one, otherwise sends
+     * the individual requests concurrently.
+     * @param idMenu The menu ID
+     * @param items The dishes to add, each with its price and date
+     * @return One result per item, with the created relationship or the error for that dish,
+     *         including dishes the batch response left out
+     */
+    @Tool(description = "Add several dishes to a menu in one call, each with price and date. Returns a result or error per dish")
+    public List<BulkResult<DishMenu>> addDishesToMenu(Long idMenu, List<DishMenuItem> items) {
+        if (bulkPath == null || bulkPath.isBlank()) {
+            return bulkFetcher.writeAll("dish-menus", items, DishMenuItem::dishId,
+                    item -> addDishToMenu(idMenu, item.dishId(), item.price(), item.date()));
+        }
+
+        List<Map<String, Object>> body = items.stream()
+                .map(item -> Map.<String, Object>of(
+                    "idMenu", idMenu,
+                    "idDish", item.dishId(),
+                    "price", item.price(),
+                    "date", item.date()
+                ))
+                .toList();
+        List<BulkResult<DishMenu>> results;
+        try {
+            List<DishMenu> created = restClient.post()
+                    .uri(bulkPath)
+                    .body(body)
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<List<DishMenu>>() {});
+            results = BulkResult.byPosition(items.stream().map(DishMenuItem::dishId).toList(), created);
+            salesAnalytics.recordDishMenus(created != null ? created : List.of());
+        } catch (RuntimeException e) {
+            results = items.stream().map(item -> BulkResult.<DishMenu>failure(item.dishId(), e.getMessage())).toList();
+        } finally {
+            catalogCache.dishMenus().clear();
+        }
+        return results;
     }
 
     /**
@@ -85,7 +149,7 @@ public class DishMenuService {
      */
     @Tool(description = "Update a dish-menu relationship (price and/or date)")
     public DishMenu updateDishMenu(Long idMenu, Long idDish, Double price, String date) {
-        return restClient.put()
+        DishMenu updated = restClient.put()
                 .uri("/dish-menus")
                 .body(Map.of(
                     "idMenu", idMenu,
@@ -95,6 +159,10 @@ public class DishMenuService {
                 ))
                 .retrieve()
                 .body(DishMenu.class);
+        catalogCache.dishMenus().evict(new CatalogCache.DishMenuKey(idMenu, idDish));
+        catalogCache.dishMenus().put(updated);
+        salesAnalytics.recordDishMenus(List.of(updated != null ? updated : new DishMenu(idMenu, idDish, price, date)));
+        return updated;
     }
 
     /**
@@ -109,6 +177,8 @@ public class DishMenuService {
                 .uri("/dish-menus?idmenu={idMenu}&iddish={idDish}", idMenu, idDish)
                 .retrieve()
                 .toBodilessEntity();
+        catalogCache.dishMenus().evict(new CatalogCache.DishMenuKey(idMenu, idDish));
+        salesAnalytics.removeDishMenu(idMenu, idDish);
         return "Dish removed from menu successfully";
     }
 }
@@ -1,9 +1,14 @@
 package com.uptc.frw.mcprestaurant.service;
 
+import com.uptc.frw.mcprestaurant.cache.CatalogCache;
+import com.uptc.frw.mcprestaurant.client.BulkFetcher;
+import com.uptc.frw.mcprestaurant.client.RevalidatingReader;
+import com.uptc.frw.mcprestaurant.model.BulkResult;
 import com.uptc.frw.mcprestaurant.model.Dish;
+import com.uptc.frw.mcprestaurant.search.CatalogSearch;
 import org.springframework.ai.tool.annotation.Tool;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 
@@ -14,17 +19,22 @@ import java.util.Map;
  * Service for managing restaurant dishes
  */
 @Service
+@Lazy
 public class DishService {
 
     private final RestClient restClient;
+    private final CatalogCache catalogCache;
+    private final BulkFetcher bulkFetcher;
+    private final RevalidatingReader revalidatingReader;
+    private final CatalogSearch catalogSearch;
 
-    public DishService(@Value("${restaurant.api.base-url:http://localhost:8080/api}") String baseUrl,
-                      @Value("${restaurant.api.username:admin}") String username,
-                      @Value("${restaurant.api.password:password}") String password) {
-        this.restClient = RestClient.builder()
-                .baseUrl(baseUrl)
-                .defaultHeaders(headers -> headers.setBasicAuth(username, password))
-                .build();
+    public DishService(RestClient restaurantRestClient, CatalogCache catalogCache, BulkFetcher bulkFetcher,
+                       RevalidatingReader revalidatingReader, CatalogSearch catalogSearch) {
+        this.restClient = restaurantRestClient;
+        this.catalogCache = catalogCache;
+        this.bulkFetcher = bulkFetcher;
+        this.revalidatingReader = revalidatingReader;
+        this.catalogSearch = catalogSearch;
     }
 
     /**
@@ -33,10 +43,8 @@ public class DishService {
      */
     @Tool(description = "Get all dishes from the restaurant")
     public List<Dish> getAllDishes() {
-        return restClient.get()
-                .uri("/dishes")
-                .retrieve()
-                .body(new ParameterizedTypeReference<List<Dish>>() {});
+        return catalogCache.dishes().getAll(() -> revalidatingReader.get("/dishes",
+                new ParameterizedTypeReference<List<Dish>>() {}));
     }
 
     /**
@@ -46,10 +54,20 @@ public class DishService {
      */
     @Tool(description = "Get a specific dish by its ID")
     public Dish getDishById(Long id) {
-        return restClient.get()
-                .uri("/dishes/{id}", id)
+        return catalogCache.dishes().get(id, key -> restClient.get()
+                .uri("/dishes/{id}", key)
                 .retrieve()
-                .body(Dish.class);
+                .body(Dish.class));
+    }
+
+    /**
+     * Get several dishes by ID in one call, fetched concurrently
+     * @param ids The dish IDs
+     * @return One result per distinct ID, with the dish or the error for that ID
+     */
+    @Tool(description = "Get several dishes by their IDs in one call. Each ID returns its dish or its own error")
+    public List<BulkResult<Dish>> getDishesByIds(List<Long> ids) {
+        return bulkFetcher.fetchAll("dishes", ids, this::getDishById);
     }
 
     /**
@@ -61,7 +79,7 @@ public class DishService {
      */
     @Tool(description = "Create a new dish with type, name, and description")
     public Dish createDish(String dishType, String name, String description) {
-        return restClient.post()
+        Dish created = restClient.post()
                 .uri("/dishes")
                 .body(Map.of(
                     "dishType", dishType,
@@ -70,6 +88,9 @@ public class DishService {
                 ))
                 .retrieve()
                 .body(Dish.class);
+        catalogCache.dishes().put(created);
+        catalogSearch.putDish(created);
+        return created;
     }
 
     /**
@@ -82,7 +103,7 @@ public class DishService {
      */
     @Tool(description = "Update an existing dish's information")
     public Dish updateDish(Long id, String dishType, String name, String description) {
-        return restClient.put()
+        Dish updated = restClient.put()
                 .uri("/dishes")
                 .body(Map.of(
                     "id", id,
@@ -92,6 +113,10 @@ public class DishService {
                 ))
                 .retrieve()
                 .body(Dish.class);
+        catalogCache.dishes().evict(id);
+        catalogCache.dishes().put(updated);
+        catalogSearch.putDish(updated);
+        return updated;
     }
 
     /**
@@ -105,6 +130,9 @@ public class DishService {
                 .uri("/dishes?id={id}", id)
                 .retrieve()
                 .toBodilessEntity();
+        catalogCache.dishes().evict(id);
+        catalogCache.dishMenus().clear();
+        catalogSearch.removeDish(id);
         return "Dish deleted successfully";
     }
 }
@@ -0,0 +1,105 @@
+package com.uptc.frw.mcprestaurant.service;
+
+import com.uptc.frw.mcprestaurant.model.Dish;
+import com.uptc.frw.mcprestaurant.model.DishMenu;
+import com.uptc.frw.mcprestaurant.model.Menu;
+import com.uptc.frw.mcprestaurant.model.MenuDish;
+import com.uptc.frw.mcprestaurant.model.MenuWithDishes;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Service for composite menu views built from menus, dishes and dish-menu relationships
+ */
+@Service
+@Lazy
+public class MenuDetailService {
+
+    private final MenuService menuService;
+    private final DishService dishService;
+    private final DishMenuService dishMenuService;
+    private final ExecutorService executor;
+
+    public MenuDetailService(MenuService menuService, DishService dishService,
+                             DishMenuService dishMenuService, ExecutorService restaurantApiExecutor) {
+        this.menuService = menuService;
+        this.dishService = dishService;
+        this.dishMenuService = dishMenuService;
+        this.executor = restaurantApiExecutor;
+    }
+
+    /**
+     * Get a menu together with its dishes and their prices.
+     * The menu, the dish-menu relationships and each dish are fetched concurrently
+     * and served from the catalog cache when possible. A dish the backend no
+     * longer has keeps its entry and price, without the dish details. A menu the
+     * backend answers with an empty body fails the call as a 404, like a missing one.
+     * @param idMenu The menu ID
+     * @return The menu with its dishes and total price
+     */
+    @Tool(description = "Get a menu with all its dishes, the price of each dish in the menu and the total price")
+    public MenuWithDishes getMenuWithDishes(Long idMenu) {
+        CompletableFuture<Menu> menu = CompletableFuture.supplyAsync(() -> menuService.getMenuById(idMenu), executor);
+        CompletableFuture<List<MenuDish>> dishes = CompletableFuture
+                .supplyAsync(dishMenuService::getAllDishMenus, executor)
+                .thenCompose(dishMenus -> {
+                    List<CompletableFuture<MenuDish>> entries = dishMenus.stream()
+                            .filter(dishMenu -> Objects.equals(dishMenu.menuId(), idMenu))
+                            .map(dishMenu -> CompletableFuture.supplyAsync(
+                                    () -> toMenuDish(dishMenu, findDish(dishMenu.dishId())), executor))
+                            .toList();
+                    return CompletableFuture.allOf(entries.toArray(CompletableFuture[]::new))
+                            .thenApply(done -> entries.stream().map(CompletableFuture::join).toList());
+                });
+
+        Menu found = join(menu);
+        if (found == null) {
+            throw HttpClientErrorException.create(HttpStatus.NOT_FOUND + " on GET /menus/" + idMenu,
+                    HttpStatus.NOT_FOUND, HttpStatus.NOT_FOUND.getReasonPhrase(), null, null, null);
+        }
+        List<MenuDish> menuDishes = join(dishes);
+        double total = menuDishes.stream()
+                .map(MenuDish::price)
+                .filter(Objects::nonNull)
+                .mapToDouble(Double::doubleValue)
+                .sum();
+        return new MenuWithDishes(found.id(), found.description(), menuDishes, total);
+    }
+
+    private Dish findDish(Long id) {
+        try {
+            return dishService.getDishById(id);
+        } catch (HttpClientErrorException.NotFound e) {
+            return null;
+        }
+    }
+
+    private static MenuDish toMenuDish(DishMenu dishMenu, Dish dish) {
+        return new MenuDish(dishMenu.dishId(),
+                dish != null ? dish.dishType() : null,
+                dish != null ? dish.name() : null,
+                dish != null ? dish.description() : null,
+                dishMenu.price(),
+                dishMenu.date());
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
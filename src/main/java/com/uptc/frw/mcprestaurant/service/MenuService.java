@@ -1,9 +1,14 @@
 package com.uptc.frw.mcprestaurant.service;
 
+import com.uptc.frw.mcprestaurant.cache.CatalogCache;
+import com.uptc.frw.mcprestaurant.client.BulkFetcher;
+import com.uptc.frw.mcprestaurant.client.RevalidatingReader;
+import com.uptc.frw.mcprestaurant.model.BulkResult;
 import com.uptc.frw.mcprestaurant.model.Menu;
+import com.uptc.frw.mcprestaurant.search.CatalogSearch;
 import org.springframework.ai.tool.annotation.Tool;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 
@@ -14,17 +19,22 @@ import java.util.Map;
  * Service for managing restaurant menus
  */
 @Service
+@Lazy
 public class MenuService {
 
     private final RestClient restClient;
+    private final CatalogCache catalogCache;
+    private final BulkFetcher bulkFetcher;
+    private final RevalidatingReader revalidatingReader;
+    private final CatalogSearch catalogSearch;
 
-    public MenuService(@Value("${restaurant.api.base-url:http://localhost:8080/api}") String baseUrl,
-                      @Value("${restaurant.api.username:admin}") String username,
-                      @Value("${restaurant.api.password:password}") String password) {
-        this.restClient = RestClient.builder()
-                .baseUrl(baseUrl)
-                .defaultHeaders(headers -> headers.setBasicAuth(username, password))
-                .build();
+    public MenuService(RestClient restaurantRestClient, CatalogCache catalogCache, BulkFetcher bulkFetcher,
+                       RevalidatingReader revalidatingReader, CatalogSearch catalogSearch) {
+        this.restClient = restaurantRestClient;
+        this.catalogCache = catalogCache;
+        this.bulkFetcher = bulkFetcher;
+        this.revalidatingReader = revalidatingReader;
+        this.catalogSearch = catalogSearch;
     }
 
     /**
@@ -33,10 +43,8 @@ public class MenuService {
      */
     @Tool(description = "Get all menus from the restaurant")
     public List<Menu> getAllMenus() {
-        return restClient.get()
-                .uri("/menus")
-                .retrieve()
-                .body(new ParameterizedTypeReference<List<Menu>>() {});
+        return catalogCache.menus().getAll(() -> revalidatingReader.get("/menus",
+                new ParameterizedTypeReference<List<Menu>>() {}));
     }
 
     /**
@@ -46,10 +54,20 @@ public class MenuService {
      */
     @Tool(description = "Get a specific menu by its ID")
     public Menu getMenuById(Long idMenu) {
-        return restClient.get()
-                .uri("/menus/{id}", idMenu)
+        return catalogCache.menus().get(idMenu, id -> restClient.get()
+                .uri("/menus/{id}", id)
                 .retrieve()
-                .body(Menu.class);
+                .body(Menu.class));
+    }
+
+    /**
+     * Get several menus by ID in one call, fetched concurrently
+     * @param ids The menu IDs
+     * @return One result per distinct ID, with the menu or the error for that ID
+     */
+    @Tool(description = "Get several menus by their IDs in one call. Each ID returns its menu or its own error")
+    public List<BulkResult<Menu>> getMenusByIds(List<Long> ids) {
+        return bulkFetcher.fetchAll("menus", ids, this::getMenuById);
     }
 
     /**
@@ -59,11 +77,14 @@ public class MenuService {
      */
     @Tool(description = "Create a new menu with a description")
     public Menu createMenu(String description) {
-        return restClient.post()
+        Menu created = restClient.post()
                 .uri("/menus")
                 .body(Map.of("description", description))
                 .retrieve()
                 .body(Menu.class);
+        catalogCache.menus().put(created);
+        catalogSearch.putMenu(created);
+        return created;
     }
 
     /**
@@ -74,7 +95,7 @@ public class MenuService {
      */
     @Tool(description = "Update an existing menu's description")
     public Menu updateMenu(Long idMenu, String description) {
-        return restClient.put()
+        Menu updated = restClient.put()
                 .uri("/menus")
                 .body(Map.of(
                     "idMenu", idMenu,
@@ -82,6 +103,10 @@ public class MenuService {
                 ))
                 .retrieve()
                 .body(Menu.class);
+        catalogCache.menus().evict(idMenu);
+        catalogCache.menus().put(updated);
+        catalogSearch.putMenu(updated);
+        return updated;
     }
 
     /**
@@ -95,6 +120,9 @@ public class MenuService {
                 .uri("/menus?id={idMenu}", idMenu)
                 .retrieve()
                 .toBodilessEntity();
+        catalogCache.menus().evict(idMenu);
+        catalogCache.dishMenus().clear();
+        catalogSearch.removeMenu(idMenu);
         return "Menu deleted successfully";
     }
 }
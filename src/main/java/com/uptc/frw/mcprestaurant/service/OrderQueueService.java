@@ -0,0 +1,35 @@
+package com.uptc.frw.mcprestaurant.service;
+
+import com.uptc.frw.mcprestaurant.model.OrderQueueStatus;
+import com.uptc.frw.mcprestaurant.orders.WriteBehindOrders;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service reporting on order writes queued in write-behind mode
+ */
+@Service
+@Lazy
+public class OrderQueueService {
+
+    private static final int DEFAULT_LIMIT = 50;
+
+    private final WriteBehindOrders writeBehind;
+
+    public OrderQueueService(WriteBehindOrders writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    /**
+     * Get the sales and sale lines acknowledged but not yet sent to the backend,
+     * and the ones the backend rejected
+     * @param limit Number of writes to list
+     * @return Counts, the last send error and the writes, oldest first
+     */
+    @Tool(description = "Get the sales and sale lines created in write-behind mode that are still waiting to be sent to "
+            + "the backend, and those the backend rejected, with the last send error")
+    public OrderQueueStatus getPendingOrderWrites(Integer limit) {
+        return writeBehind.status(limit == null || limit <= 0 ? DEFAULT_LIMIT : limit);
+    }
+}
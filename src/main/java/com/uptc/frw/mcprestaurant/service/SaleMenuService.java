@@ -1,55 +1,119 @@
 package com.uptc.frw.mcprestaurant.service;
 
+import com.uptc.frw.mcprestaurant.analytics.SalesAnalytics;
+import com.uptc.frw.mcprestaurant.client.BulkFetcher;
+import com.uptc.frw.mcprestaurant.client.JsonArrayReader;
+import com.uptc.frw.mcprestaurant.config.RestaurantApiProperties;
+import com.uptc.frw.mcprestaurant.config.ResultLimitsProperties;
+import com.uptc.frw.mcprestaurant.model.BulkResult;
+import com.uptc.frw.mcprestaurant.model.CappedList;
+import com.uptc.frw.mcprestaurant.model.Page;
 import com.uptc.frw.mcprestaurant.model.SaleMenu;
+import com.uptc.frw.mcprestaurant.model.SaleMenuItem;
+import com.uptc.frw.mcprestaurant.orders.WriteBehindOrders;
 import org.springframework.ai.tool.annotation.Tool;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Service for managing sale-menu relationships
  */
 @Service
+@Lazy
 public class SaleMenuService {
 
     private final RestClient restClient;
+    private final BulkFetcher bulkFetcher;
+    private final String bulkPath;
+    private final JsonArrayReader jsonArrayReader;
+    private final ResultLimitsProperties limits;
+    private final SalesAnalytics salesAnalytics;
+    private final WriteBehindOrders writeBehind;
 
-    public SaleMenuService(@Value("${restaurant.api.base-url:http://localhost:8080/api}") String baseUrl,
-                          @Value("${restaurant.api.username:admin}") String username,
-                          @Value("${restaurant.api.password:password}") String password) {
-        this.restClient = RestClient.builder()
-                .baseUrl(baseUrl)
-                .defaultHeaders(headers -> headers.setBasicAuth(username, password))
-                .build();
+    public SaleMenuService(RestClient restaurantRestClient, BulkFetcher bulkFetcher,
+                          RestaurantApiProperties properties, JsonArrayReader jsonArrayReader,
+                          ResultLimitsProperties limits, SalesAnalytics salesAnalytics,
+                          WriteBehindOrders writeBehind) {
+        this.restClient = restaurantRestClient;
+        this.bulkFetcher = bulkFetcher;
+        this.bulkPath = properties.bulkEndpoints().saleMenus();
+        this.jsonArrayReader = jsonArrayReader;
+        this.limits = limits;
+        this.salesAnalytics = salesAnalytics;
+        this.writeBehind = writeBehind;
     }
 
     /**
-     * Get all sale-menu relationships
-     * @return List of all sale-menu relationships
+     * Get all sale-menu relationships, up to the configured result cap
+     * @return The relationships; a {@link CappedList} with a token for getSaleMenusPage when the history was cut at the cap
      */
-    @Tool(description = "Get all sale-menu relationships")
+    @Tool(description = "Get all sale-menu relationships. A history longer than the result cap is cut and returned as "
+            + "{truncated, nextPageToken, result}: pass nextPageToken to getSaleMenusPage for the rest")
     public List<SaleMenu> getAllSaleMenus() {
-        return restClient.get()
-                .uri("/SalesMenu")
-                .retrieve()
-                .body(new ParameterizedTypeReference<List<SaleMenu>>() {});
+        Page<SaleMenu> page = jsonArrayReader.readPage("/SalesMenu", SaleMenu.class, saleMenu -> true, null, limits.maxResults());
+        salesAnalytics.recordSaleLines(page.items());
+        return page.nextPageToken() == null ? page.items() : new CappedList<>(page.items(), page.nextPageToken());
     }
 
     /**
-     * Get all menus for a specific sale
-     * @param idSale The sale ID
+     * Get one page of sale-menu relationships, optionally for a single menu
+     * @param idMenu Only return lines of this menu, or null for all menus
+     * @param pageToken Token returned by the previous page, or null for the first page
+     * @param limit Maximum number of relationships in the page
+     * @return The page of relationships and the token for the next page
+     */
+    @Tool(description = "Get sale-menu relationships page by page, optionally for one menu. Pass nextPageToken to continue. "
+            + "The backend cannot page, so every page re-reads the relationships from the start")
+    public Page<SaleMenu> getSaleMenusPage(Long idMenu, String pageToken, Integer limit) {
+        Page<SaleMenu> page = jsonArrayReader.readPage("/SalesMenu", SaleMenu.class,
+                saleMenu -> idMenu == null || Objects.equals(saleMenu.menuId(), idMenu),
+                pageToken, limits.pageSize(limit));
+        salesAnalytics.recordSaleLines(page.items());
+        return page;
+    }
+
+    /**
+     * Get all menus for a specific sale, including lines added in write-behind
+     * mode that are not sent yet
+     * @param idSale The sale ID, or the provisional ID of a sale created in write-behind mode
      * @return List of menus in the sale
      */
     @Tool(description = "Get all menus for a specific sale")
     public List<SaleMenu> getMenusBySaleId(Long idSale) {
-        return restClient.get()
-                .uri("/SalesMenu/sale/{idSale}", idSale)
+        List<SaleMenu> unsent = List.of();
+        Long backendId = idSale;
+        if (writeBehind.enabled() && idSale != null) {
+            // Taken before the read so a line sent meanwhile shows up at least once
+            unsent = writeBehind.unsentLines(idSale);
+            backendId = writeBehind.backendId(idSale);
+            if (backendId < 0) {
+                return unsent;
+            }
+        }
+        List<SaleMenu> lines = restClient.get()
+                .uri("/SalesMenu/sale/{idSale}", backendId)
                 .retrieve()
                 .body(new ParameterizedTypeReference<List<SaleMenu>>() {});
+        if (lines != null) {
+            salesAnalytics.recordSaleLines(lines);
+        }
+        if (unsent.isEmpty()) {
+            return lines;
+        }
+        List<SaleMenu> merged = lines == null ? new ArrayList<>() : new ArrayList<>(lines);
+        for (SaleMenu line : unsent) {
+            if (merged.stream().noneMatch(existing -> Objects.equals(existing.menuId(), line.menuId()))) {
+                merged.add(line);
+            }
+        }
+        return merged;
     }
 
     /**
@@ -60,6 +124,14 @@ public class SaleMenuService {
      */
     @Tool(description = "Get a specific sale-menu relationship")
     public SaleMenu getSaleMenu(Long idMenu, Long idSale) {
+        if (writeBehind.enabled() && idSale != null) {
+            for (SaleMenu line : writeBehind.unsentLines(idSale)) {
+                if (Objects.equals(line.menuId(), idMenu)) {
+                    return line;
+                }
+            }
+            idSale = writeBehind.backendId(idSale);
+        }
         return restClient.get()
                 .uri("/SalesMenu/{menuId}/{saleId}", idMenu, idSale)
                 .retrieve()
@@ -67,15 +139,19 @@ public class SaleMenuService {
     }
 
     /**
-     * Add a menu to a sale
+     * Add a menu to a sale. In write-behind mode the line is journaled locally
+     * and sent in the background
      * @param menuId The menu ID
-     * @param saleId The sale ID
+     * @param saleId The sale ID, or the provisional ID returned by createSale
      * @param quantity The quantity of this menu in the sale
      * @return The created relationship
      */
     @Tool(description = "Add a menu to a sale with quantity")
     public SaleMenu addMenuToSale(Long idMenu, Long idSale, Integer quantity) {
-        return restClient.post()
+        if (writeBehind.enabled()) {
+            return writeBehind.addSaleLines(idSale, List.of(new SaleMenuItem(idMenu, quantity))).get(0);
+        }
+        SaleMenu created = restClient.post()
                 .uri("/SalesMenu")
                 .body(Map.of(
                     "menuId", idMenu,
@@ -84,6 +160,50 @@ public class SaleMenuService {
                 ))
                 .retrieve()
                 .body(SaleMenu.class);
+        salesAnalytics.recordSaleLines(List.of(created != null ? created : new SaleMenu(idMenu, idSale, quantity)));
+        return created;
+    }
+
+    /**
+     * Add several menu lines to a sale in one call.
+     * Uses the configured batch endpoint when there is one, otherwise sends
+     * the individual requests concurrently.
+     * @param idSale The sale ID
+     * @param items The menus to add, each with its quantity
+     * @return One result per item, with the created relationship or the error for that menu,
+     *         including menus the batch response left out
+     */
+    @Tool(description = "Add several menus to a sale in one call, each with quantity. Returns a result or error per menu")
+    public List<BulkResult<SaleMenu>> addMenusToSale(Long idSale, List<SaleMenuItem> items) {
+        if (writeBehind.enabled()) {
+            List<SaleMenu> queued = writeBehind.addSaleLines(idSale, items);
+            return queued.stream().map(line -> BulkResult.success(line.menuId(), line)).toList();
+        }
+        if (bulkPath == null || bulkPath.isBlank()) {
+            return bulkFetcher.writeAll("SalesMenu", items, SaleMenuItem::menuId,
+                    item -> addMenuToSale(item.menuId(), idSale, item.quantity()));
+        }
+
+        List<Map<String, Object>> body = items.stream()
+                .map(item -> Map.<String, Object>of(
+                    "menuId", item.menuId(),
+                    "saleId", idSale,
+                    "quantity", item.quantity()
+                ))
+                .toList();
+        List<BulkResult<SaleMenu>> results;
+        try {
+            List<SaleMenu> created = restClient.post()
+                    .uri(bulkPath)
+                    .body(body)
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<List<SaleMenu>>() {});
+            results = BulkResult.byPosition(items.stream().map(SaleMenuItem::menuId).toList(), created);
+            salesAnalytics.recordSaleLines(created != null ? created : List.of());
+        } catch (RuntimeException e) {
+            results = items.stream().map(item -> BulkResult.<SaleMenu>failure(item.menuId(), e.getMessage())).toList();
+        }
+        return results;
     }
 
     /**
@@ -95,7 +215,10 @@ public class SaleMenuService {
      */
     @Tool(description = "Update the quantity of a menu in a sale")
     public SaleMenu updateSaleMenu(Long idMenu, Long idSale, Integer quantity) {
-        return restClient.put()
+        if (writeBehind.enabled() && idSale != null) {
+            idSale = writeBehind.awaitSent(idSale);
+        }
+        SaleMenu updated = restClient.put()
                 .uri("/SalesMenu")
                 .body(Map.of(
                     "idMenu", idMenu,
@@ -104,6 +227,8 @@ public class SaleMenuService {
                 ))
                 .retrieve()
                 .body(SaleMenu.class);
+        salesAnalytics.recordSaleLines(List.of(updated != null ? updated : new SaleMenu(idMenu, idSale, quantity)));
+        return updated;
     }
 
     /**
@@ -114,10 +239,14 @@ public class SaleMenuService {
      */
     @Tool(description = "Remove a menu from a sale")
     public String removeMenuFromSale(Long idMenu, Long idSale) {
+        if (writeBehind.enabled() && idSale != null) {
+            idSale = writeBehind.awaitSent(idSale);
+        }
         restClient.delete()
                 .uri("/SalesMenu?idmenu={idMenu}&idsale={idSale}", idMenu, idSale)
                 .retrieve()
                 .toBodilessEntity();
+        salesAnalytics.removeSaleLine(idMenu, idSale);
         return "Menu removed from sale successfully";
     }
 }
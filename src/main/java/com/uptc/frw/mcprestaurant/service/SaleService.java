@@ -1,12 +1,21 @@
 package com.uptc.frw.mcprestaurant.service;
 
+import com.uptc.frw.mcprestaurant.analytics.SalesAnalytics;
+import com.uptc.frw.mcprestaurant.client.BulkFetcher;
+import com.uptc.frw.mcprestaurant.client.JsonArrayReader;
+import com.uptc.frw.mcprestaurant.config.ResultLimitsProperties;
+import com.uptc.frw.mcprestaurant.model.BulkResult;
+import com.uptc.frw.mcprestaurant.model.CappedList;
+import com.uptc.frw.mcprestaurant.model.Page;
 import com.uptc.frw.mcprestaurant.model.Sale;
+import com.uptc.frw.mcprestaurant.orders.WriteBehindOrders;
+import com.uptc.frw.mcprestaurant.util.Dates;
 import org.springframework.ai.tool.annotation.Tool;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -14,56 +23,127 @@ import java.util.Map;
  * Service for managing restaurant sales
  */
 @Service
+@Lazy
 public class SaleService {
 
     private final RestClient restClient;
+    private final BulkFetcher bulkFetcher;
+    private final JsonArrayReader jsonArrayReader;
+    private final ResultLimitsProperties limits;
+    private final SalesAnalytics salesAnalytics;
+    private final WriteBehindOrders writeBehind;
 
-    public SaleService(@Value("${restaurant.api.base-url:http://localhost:8080/api}") String baseUrl,
-                      @Value("${restaurant.api.username:admin}") String username,
-                      @Value("${restaurant.api.password:password}") String password) {
-        this.restClient = RestClient.builder()
-                .baseUrl(baseUrl)
-                .defaultHeaders(headers -> headers.setBasicAuth(username, password))
-                .build();
+    public SaleService(RestClient restaurantRestClient, BulkFetcher bulkFetcher,
+                      JsonArrayReader jsonArrayReader, ResultLimitsProperties limits,
+                      SalesAnalytics salesAnalytics, WriteBehindOrders writeBehind) {
+        this.restClient = restaurantRestClient;
+        this.bulkFetcher = bulkFetcher;
+        this.jsonArrayReader = jsonArrayReader;
+        this.limits = limits;
+        this.salesAnalytics = salesAnalytics;
+        this.writeBehind = writeBehind;
     }
 
     /**
-     * Get all sales from the restaurant
-     * @return List of all sales
+     * Get all sales from the restaurant, up to the configured result cap,
+     * followed by sales created in write-behind mode that are not sent yet
+     * @return The sales; a {@link CappedList} with a token for getSalesPage when the history was cut at the cap
      */
-    @Tool(description = "Get all sales from the restaurant")
+    @Tool(description = "Get all sales from the restaurant. A history longer than the result cap is cut and returned as "
+            + "{truncated, nextPageToken, result}: pass nextPageToken to getSalesPage for the rest")
     public List<Sale> getAllSales() {
-        return restClient.get()
-                .uri("/sales")
-                .retrieve()
-                .body(new ParameterizedTypeReference<List<Sale>>() {});
+        Page<Sale> page = jsonArrayReader.readPage("/sales", Sale.class, sale -> true, null, limits.maxResults());
+        salesAnalytics.recordSales(page.items());
+        List<Sale> sales = page.items();
+        if (writeBehind.enabled()) {
+            List<Sale> unsent = writeBehind.unsentSales();
+            if (!unsent.isEmpty()) {
+                sales = new ArrayList<>(sales);
+                sales.addAll(unsent);
+            }
+        }
+        return page.nextPageToken() == null ? sales : new CappedList<>(sales, page.nextPageToken());
+    }
+
+    /**
+     * Get one page of sales, optionally limited to a date range
+     * @param fromDate First date included (yyyy-MM-dd), or null
+     * @param toDate Last date included (yyyy-MM-dd), or null
+     * @param pageToken Token returned by the previous page, or null for the first page
+     * @param limit Maximum number of sales in the page
+     * @return The page of sales and the token for the next page
+     */
+    @Tool(description = "Get sales page by page, optionally between two dates (yyyy-MM-dd, inclusive). Pass nextPageToken to continue. "
+            + "The backend cannot page, so every page re-reads the sales from the start: prefer a date range over paging far")
+    public Page<Sale> getSalesPage(String fromDate, String toDate, String pageToken, Integer limit) {
+        long from = Dates.epochDayOrDefault(fromDate, Long.MIN_VALUE);
+        long to = Dates.epochDayOrDefault(toDate, Long.MAX_VALUE);
+        boolean unbounded = from == Long.MIN_VALUE && to == Long.MAX_VALUE;
+        Page<Sale> page = jsonArrayReader.readPage("/sales", Sale.class, sale -> {
+            if (unbounded) {
+                return true;
+            }
+            long day = Dates.epochDay(sale.date());
+            return day != Dates.UNKNOWN && day >= from && day <= to;
+        }, pageToken, limits.pageSize(limit));
+        salesAnalytics.recordSales(page.items());
+        return page;
     }
 
     /**
      * Get a specific sale by ID
-     * @param id The sale ID
-     * @return The sale details
+     * @param id The sale ID, or the provisional ID of a sale created in write-behind mode
+     * @return The sale details; once a provisional sale is sent, with its backend ID
      */
-    @Tool(description = "Get a specific sale by its ID")
+    @Tool(description = "Get a specific sale by its ID. For a provisional (negative) ID, returns the sale with its real ID once it has been sent")
     public Sale getSaleById(Long id) {
-        return restClient.get()
+        if (writeBehind.enabled() && id != null && id < 0) {
+            Sale unsent = writeBehind.unsentSale(id);
+            if (unsent != null) {
+                return unsent;
+            }
+            id = writeBehind.backendId(id);
+        }
+        Sale sale = restClient.get()
                 .uri("/sales/{id}", id)
                 .retrieve()
                 .body(Sale.class);
+        if (sale != null) {
+            salesAnalytics.recordSales(List.of(sale));
+        }
+        return sale;
+    }
+
+    /**
+     * Get several sales by ID in one call, fetched concurrently
+     * @param ids The sale IDs
+     * @return One result per distinct ID, with the sale or the error for that ID
+     */
+    @Tool(description = "Get several sales by their IDs in one call. Each ID returns its sale or its own error")
+    public List<BulkResult<Sale>> getSalesByIds(List<Long> ids) {
+        return bulkFetcher.fetchAll("sales", ids, this::getSaleById);
     }
 
     /**
-     * Create a new sale
+     * Create a new sale. In write-behind mode the sale is journaled locally and
+     * sent in the background, and a provisional negative ID is returned
      * @param date The sale date
      * @return The created sale
      */
-    @Tool(description = "Create a new sale record")
+    @Tool(description = "Create a new sale record. May return a provisional negative ID, usable in addMenuToSale and the sale reads")
     public Sale createSale(String date) {
-        return restClient.post()
+        if (writeBehind.enabled()) {
+            return writeBehind.createSale(date);
+        }
+        Sale created = restClient.post()
                 .uri("/sales")
                 .body(Map.of("date", date))
                 .retrieve()
                 .body(Sale.class);
+        if (created != null) {
+            salesAnalytics.recordSales(List.of(created));
+        }
+        return created;
     }
 
     /**
@@ -74,7 +154,10 @@ public class SaleService {
      */
     @Tool(description = "Update an existing sale's date")
     public Sale updateSale(Long id, String date) {
-        return restClient.put()
+        if (writeBehind.enabled() && id != null) {
+            id = writeBehind.awaitSent(id);
+        }
+        Sale updated = restClient.put()
                 .uri("/sales")
                 .body(Map.of(
                     "id", id,
@@ -82,6 +165,8 @@ public class SaleService {
                 ))
                 .retrieve()
                 .body(Sale.class);
+        salesAnalytics.recordSales(List.of(updated != null ? updated : new Sale(id, date)));
+        return updated;
     }
 
     /**
@@ -91,10 +176,14 @@ public class SaleService {
      */
     @Tool(description = "Delete a sale by its ID")
     public String deleteSale(Long id) {
+        if (writeBehind.enabled() && id != null) {
+            id = writeBehind.awaitSent(id);
+        }
         restClient.delete()
                 .uri("/sales?id={id}", id)
                 .retrieve()
                 .toBodilessEntity();
+        salesAnalytics.removeSale(id);
         return "Sale deleted successfully";
     }
 }
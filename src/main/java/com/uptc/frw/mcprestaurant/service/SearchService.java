@@ -0,0 +1,53 @@
+package com.uptc.frw.mcprestaurant.service;
+
+import com.uptc.frw.mcprestaurant.model.SearchHit;
+import com.uptc.frw.mcprestaurant.search.CatalogSearch;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Service for full-text search over dishes and menus
+ */
+@Service
+@Lazy
+public class SearchService {
+
+    private static final int DEFAULT_LIMIT = 10;
+
+    private final CatalogSearch catalogSearch;
+    private final DishService dishService;
+    private final MenuService menuService;
+
+    public SearchService(CatalogSearch catalogSearch, DishService dishService, MenuService menuService) {
+        this.catalogSearch = catalogSearch;
+        this.dishService = dishService;
+        this.menuService = menuService;
+    }
+
+    /**
+     * Search dishes and menus by words in their name, type or description
+     * @param query The words to look for
+     * @param kind "dish", "menu", or null for both
+     * @param dishType Only dishes of this type, or null
+     * @param limit Number of results to return
+     * @return The matching dishes and menus, best first
+     */
+    @Tool(description = "Search dishes (name, type, description) and menus (description) by words. Accents and case are ignored, "
+            + "words match by prefix or with one typo, and every word must match. Optionally restrict to kind 'dish' or 'menu' "
+            + "and to one dishType")
+    public List<SearchHit> searchCatalog(String query, String kind, String dishType, Integer limit) {
+        String kindFilter;
+        if (kind == null || kind.isBlank()) {
+            kindFilter = null;
+        } else if (kind.equalsIgnoreCase(CatalogSearch.DISH) || kind.equalsIgnoreCase(CatalogSearch.MENU)) {
+            kindFilter = kind.toLowerCase();
+        } else {
+            throw new IllegalArgumentException("kind must be 'dish' or 'menu'");
+        }
+        catalogSearch.refreshIfStale(dishService::getAllDishes, menuService::getAllMenus);
+        return catalogSearch.search(query, kindFilter, dishType, limit == null || limit <= 0 ? DEFAULT_LIMIT : limit);
+    }
+}
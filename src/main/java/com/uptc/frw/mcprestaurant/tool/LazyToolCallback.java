@@ -0,0 +1,101 @@
+package com.uptc.frw.mcprestaurant.tool;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+import org.springframework.ai.tool.method.MethodToolCallback;
+import org.springframework.ai.tool.support.ToolUtils;
+import org.springframework.ai.util.json.JsonParser;
+import org.springframework.beans.factory.BeanFactory;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+
+/**
+ * Tool callback whose service bean is only looked up on the first call.
+ *
+ * The definition is known up front, so tools/list can be answered without
+ * creating the (lazy) service or anything it depends on. List tools also
+ * accept the {@link ResultShape} options, applied by the {@link ResultShaper}.
+ */
+public class LazyToolCallback implements ToolCallback {
+
+    private final BeanFactory beanFactory;
+    private final Class<?> serviceType;
+    private final Method method;
+    private final ToolDefinition definition;
+    private final ToolMetadata metadata;
+    private final ResultShaper resultShaper;
+    private final Set<String> shapeOptions;
+    private volatile ToolCallback delegate;
+
+    public LazyToolCallback(BeanFactory beanFactory, Class<?> serviceType, Method method, ToolDefinition definition,
+                            ResultShaper resultShaper) {
+        this.beanFactory = beanFactory;
+        this.serviceType = serviceType;
+        this.method = method;
+        this.definition = definition;
+        this.metadata = ToolMetadata.from(method);
+        this.resultShaper = resultShaper;
+        this.shapeOptions = ResultShape.options(method);
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return definition;
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return metadata;
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return call(toolInput, null);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        ResultShape shape = shape(toolInput);
+        if (shape == null) {
+            return delegate().call(toolInput, toolContext);
+        }
+        return resultShaper.shaped(shape, ResultShape.elementType(method), () -> delegate().call(toolInput, toolContext));
+    }
+
+    private ResultShape shape(String toolInput) {
+        if (shapeOptions.isEmpty() || toolInput == null) {
+            return null;
+        }
+        try {
+            return ResultShape.parse(JsonParser.getObjectMapper().readTree(toolInput), shapeOptions);
+        } catch (JsonProcessingException e) {
+            return null; // left to the method callback to report
+        }
+    }
+
+    private ToolCallback delegate() {
+        ToolCallback callback = delegate;
+        if (callback == null) {
+            synchronized (this) {
+                callback = delegate;
+                if (callback == null) {
+                    callback = MethodToolCallback.builder()
+                            .toolDefinition(definition)
+                            .toolMetadata(metadata)
+                            .toolMethod(method)
+                            .toolObject(beanFactory.getBean(serviceType))
+                            .toolCallResultConverter(shapeOptions.isEmpty()
+                                    ? ToolUtils.getToolCallResultConverter(method)
+                                    : resultShaper)
+                            .build();
+                    delegate = callback;
+                }
+            }
+        }
+        return callback;
+    }
+}
@@ -0,0 +1,153 @@
+package com.uptc.frw.mcprestaurant.tool;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.uptc.frw.mcprestaurant.model.BulkResult;
+import com.uptc.frw.mcprestaurant.model.Page;
+import org.springframework.ai.tool.definition.ToolDefinition;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * How to shape the result of a list tool: which fields of each item to keep,
+ * which slice of the list to return, and whether to encode it as a table.
+ *
+ * The options are extra, optional tool arguments. They are offered by every
+ * tool returning a List or Page of records, except bulk results, and not where
+ * the tool already has a parameter of the same name (e.g. the page size of the
+ * paged tools).
+ * @param fields JSON property names to keep, in this order, or null for all
+ * @param offset Items to skip
+ * @param limit Most items to return, or null for no limit
+ * @param table Encode as {"columns": [...], "rows": [[...], ...]} instead of an array of objects
+ */
+public record ResultShape(List<String> fields, int offset, Integer limit, boolean table) {
+
+    public static final String FIELDS = "fields";
+    public static final String OFFSET = "offset";
+    public static final String LIMIT = "limit";
+    public static final String FORMAT = "format";
+
+    private static final ObjectMapper SCHEMA_MAPPER = new ObjectMapper();
+
+    public ResultShape {
+        if (offset < 0 || (limit != null && limit < 0)) {
+            throw new IllegalArgumentException("offset and limit must not be negative");
+        }
+    }
+
+    /**
+     * The shaping options a tool method accepts
+     * @return Empty when the method does not return a List or Page of records
+     */
+    public static Set<String> options(Method method) {
+        Class<?> element = elementType(method);
+        if (element == null || !element.isRecord() || element == BulkResult.class) {
+            return Set.of();
+        }
+        Set<String> options = new LinkedHashSet<>(List.of(FIELDS, FORMAT));
+        if (method.getReturnType() == List.class) {
+            options.add(OFFSET);
+            options.add(LIMIT);
+        }
+        Arrays.stream(method.getParameters()).map(Parameter::getName).forEach(options::remove);
+        return options;
+    }
+
+    /**
+     * The item type of a List or Page return type
+     * @return The item class, or null for any other return type
+     */
+    public static Class<?> elementType(Method method) {
+        Class<?> returnType = method.getReturnType();
+        if ((returnType != List.class && returnType != Page.class)
+                || !(method.getGenericReturnType() instanceof ParameterizedType parameterized)) {
+            return null;
+        }
+        Type argument = parameterized.getActualTypeArguments()[0];
+        return argument instanceof Class<?> element ? element : null;
+    }
+
+    /**
+     * Add the method's shaping options to a generated definition as optional properties
+     */
+    public static ToolDefinition withOptions(ToolDefinition definition, Method method) {
+        Set<String> options = options(method);
+        if (options.isEmpty()) {
+            return definition;
+        }
+        try {
+            ObjectNode schema = (ObjectNode) SCHEMA_MAPPER.readTree(definition.inputSchema());
+            ObjectNode properties = schema.has("properties")
+                    ? (ObjectNode) schema.get("properties")
+                    : schema.putObject("properties");
+            if (options.contains(FIELDS)) {
+                properties.putObject(FIELDS).put("type", "string").put("description",
+                        "Comma-separated fields to return for each item, e.g. id,name. Defaults to all fields");
+            }
+            if (options.contains(OFFSET)) {
+                properties.putObject(OFFSET).put("type", "integer").put("description", "Number of items to skip");
+            }
+            if (options.contains(LIMIT)) {
+                properties.putObject(LIMIT).put("type", "integer").put("description", "Maximum number of items to return");
+            }
+            if (options.contains(FORMAT)) {
+                ObjectNode format = properties.putObject(FORMAT).put("type", "string").put("description",
+                        "json for an array of objects (default), table for {columns, rows} without repeated field names");
+                format.putArray("enum").add("json").add("table");
+            }
+            return ToolDefinition.builder()
+                    .name(definition.name())
+                    .description(definition.description())
+                    .inputSchema(SCHEMA_MAPPER.writeValueAsString(schema))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable input schema of " + definition.name(), e);
+        }
+    }
+
+    /**
+     * Read the shaping options from the tool arguments
+     * @param input The tool arguments
+     * @param options The options this tool accepts
+     * @return The shape, or null when no option is given
+     */
+    public static ResultShape parse(JsonNode input, Set<String> options) {
+        String fields = text(input, options, FIELDS);
+        String format = text(input, options, FORMAT);
+        JsonNode offset = options.contains(OFFSET) ? input.path(OFFSET) : null;
+        JsonNode limit = options.contains(LIMIT) ? input.path(LIMIT) : null;
+        boolean hasOffset = offset != null && offset.isNumber();
+        boolean hasLimit = limit != null && limit.isNumber();
+        if (fields == null && format == null && !hasOffset && !hasLimit) {
+            return null;
+        }
+        if (format != null && !format.equals("json") && !format.equals("table")) {
+            throw new IllegalArgumentException("format must be json or table, not " + format);
+        }
+        List<String> fieldList = fields == null ? null : Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .distinct()
+                .toList();
+        return new ResultShape(fieldList == null || fieldList.isEmpty() ? null : fieldList,
+                hasOffset ? offset.asInt() : 0, hasLimit ? limit.asInt() : null, "table".equals(format));
+    }
+
+    private static String text(JsonNode input, Set<String> options, String name) {
+        if (!options.contains(name)) {
+            return null;
+        }
+        JsonNode value = input.path(name);
+        return value.isTextual() && !value.asText().isBlank() ? value.asText().trim() : null;
+    }
+}
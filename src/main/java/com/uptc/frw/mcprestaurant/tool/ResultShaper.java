@@ -0,0 +1,219 @@
+package com.uptc.frw.mcprestaurant.tool;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.uptc.frw.mcprestaurant.cache.SnapshotList;
+import com.uptc.frw.mcprestaurant.model.CappedList;
+import com.uptc.frw.mcprestaurant.model.Page;
+import org.springframework.ai.tool.execution.DefaultToolCallResultConverter;
+import org.springframework.ai.tool.execution.ToolCallResultConverter;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Result converter of the list tools that applies a {@link ResultShape}.
+ *
+ * Items are written field by field through a JsonGenerator using the accessors
+ * Jackson resolves for the record (so @JsonProperty names apply), without
+ * building maps or a JSON tree first. The shape of the call in progress is
+ * held per thread by {@link #shaped}, since the converter only sees the result;
+ * calls without shaping options get the default conversion. Lists served from
+ * the catalog snapshot while the backend is down are wrapped with a stale flag,
+ * and lists cut at the result cap with a truncated flag and the next page token.
+ */
+@Component
+@ManagedResource(objectName = "mcprestaurant:type=ResultShaping")
+public class ResultShaper implements ToolCallResultConverter {
+
+    /** One output field: its JSON name and how to read it from an item */
+    private record Column(String name, AnnotatedMember accessor) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final ToolCallResultConverter defaultConverter = new DefaultToolCallResultConverter();
+    private final ThreadLocal<ResultShape> current = new ThreadLocal<>();
+    private final Map<Class<?>, List<Column>> columns = new ConcurrentHashMap<>();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder items = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    public ResultShaper(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Run a tool call whose result is converted with the given shape
+     * @param shape The shaping options of the call
+     * @param elementType The item type of the result, to check the requested fields against
+     * @param call The tool call
+     */
+    public String shaped(ResultShape shape, Class<?> elementType, Supplier<String> call) {
+        if (shape.fields() != null) {
+            select(elementType, shape.fields());
+        }
+        current.set(shape);
+        try {
+            return call.get();
+        } finally {
+            current.remove();
+        }
+    }
+
+    @Override
+    public String convert(Object result, Type returnType) {
+        ResultShape shape = current.get();
+        String json = shape == null || result == null
+                ? defaultConverter.convert(result, returnType)
+                : write(result, returnType, shape);
+        if (result instanceof SnapshotList<?> stale) {
+            return "{\"stale\":true,\"takenAt\":\"" + stale.takenAt() + "\",\"result\":" + json + "}";
+        }
+        if (result instanceof CappedList<?> capped) {
+            return "{\"truncated\":true,\"nextPageToken\":\"" + capped.nextPageToken() + "\",\"result\":" + json + "}";
+        }
+        return json;
+    }
+
+    private String write(Object result, Type returnType, ResultShape shape) {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            if (result instanceof Page<?> page) {
+                generator.writeStartObject();
+                if (!shape.table()) {
+                    generator.writeFieldName("items");
+                }
+                write(generator, page.items(), elementType(returnType), shape);
+                generator.writeStringField("nextPageToken", page.nextPageToken());
+                generator.writeEndObject();
+            } else {
+                if (shape.table()) {
+                    generator.writeStartObject();
+                }
+                write(generator, (List<?>) result, elementType(returnType), shape);
+                if (shape.table()) {
+                    generator.writeEndObject();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String json = out.toString();
+        calls.increment();
+        bytes.add(json.length());
+        return json;
+    }
+
+    /**
+     * Write the slice of the list as an array of objects, or as the
+     * columns/rows/total fields of an already opened object
+     */
+    private void write(JsonGenerator generator, List<?> list, Class<?> elementType, ResultShape shape)
+            throws IOException {
+        List<?> slice = slice(list, shape);
+        List<Column> selected = select(elementType, shape.fields());
+        items.add(slice.size());
+        if (shape.table()) {
+            generator.writeArrayFieldStart("columns");
+            for (Column column : selected) {
+                generator.writeString(column.name());
+            }
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("rows");
+            for (Object item : slice) {
+                generator.writeStartArray();
+                for (Column column : selected) {
+                    generator.writeObject(column.accessor().getValue(item));
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndArray();
+            generator.writeNumberField("total", list.size());
+            return;
+        }
+        generator.writeStartArray();
+        for (Object item : slice) {
+            generator.writeStartObject();
+            for (Column column : selected) {
+                generator.writeFieldName(column.name());
+                generator.writeObject(column.accessor().getValue(item));
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    private static Class<?> elementType(Type returnType) {
+        return (Class<?>) ((ParameterizedType) returnType).getActualTypeArguments()[0];
+    }
+
+    private static List<?> slice(List<?> list, ResultShape shape) {
+        int from = Math.min(shape.offset(), list.size());
+        int to = shape.limit() == null ? list.size() : (int) Math.min(list.size(), (long) from + shape.limit());
+        return list.subList(from, to);
+    }
+
+    /**
+     * The columns to write, in the requested order
+     * @param fields JSON property names, or null for all
+     * @throws IllegalArgumentException If a field does not exist
+     */
+    private List<Column> select(Class<?> type, List<String> fields) {
+        List<Column> all = columns.computeIfAbsent(type, this::introspect);
+        if (fields == null) {
+            return all;
+        }
+        List<Column> selected = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selected.add(all.stream()
+                    .filter(column -> column.name().equals(field))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown field " + field + "; available: "
+                            + all.stream().map(Column::name).toList())));
+        }
+        return selected;
+    }
+
+    private List<Column> introspect(Class<?> type) {
+        BeanDescription description = objectMapper.getSerializationConfig().introspect(objectMapper.constructType(type));
+        List<Column> found = new ArrayList<>();
+        for (BeanPropertyDefinition property : description.findProperties()) {
+            AnnotatedMember accessor = property.getAccessor();
+            if (accessor != null) {
+                accessor.fixAccess(true);
+                found.add(new Column(property.getName(), accessor));
+            }
+        }
+        return List.copyOf(found);
+    }
+
+    @ManagedAttribute(description = "Tool results written with shaping options")
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @ManagedAttribute(description = "Items written in shaped results")
+    public long getItems() {
+        return items.sum();
+    }
+
+    @ManagedAttribute(description = "Characters of JSON written in shaped results")
+    public long getBytes() {
+        return bytes.sum();
+    }
+}
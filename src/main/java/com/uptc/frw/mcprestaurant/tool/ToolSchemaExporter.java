@@ -0,0 +1,39 @@
+package com.uptc.frw.mcprestaurant.tool;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uptc.frw.mcprestaurant.McprestaurantApplication;
+import org.springframework.ai.tool.definition.ToolDefinition;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the definitions of every @Tool method to a JSON file at build time
+ * (Gradle task generateToolSchemas), for {@link ToolSchemas} to load at startup.
+ */
+public final class ToolSchemaExporter {
+
+    private ToolSchemaExporter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: ToolSchemaExporter <output file>");
+        }
+        List<ToolSchemas.Entry> entries = new ArrayList<>();
+        for (Class<?> service : McprestaurantApplication.TOOL_SERVICES) {
+            for (Method method : ToolSchemas.toolMethods(service)) {
+                ToolDefinition definition = ToolSchemas.generate(method);
+                entries.add(new ToolSchemas.Entry(ToolSchemas.key(method), definition.name(),
+                        definition.description(), definition.inputSchema()));
+            }
+        }
+        Path output = Path.of(args[0]);
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(output.toFile(), entries);
+    }
+}
@@ -0,0 +1,117 @@
+package com.uptc.frw.mcprestaurant.tool;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.support.ToolDefinitions;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Tool definitions (name, description and JSON input schema) of the @Tool methods.
+ *
+ * Definitions are read from {@link #RESOURCE}, written at build time by
+ * {@link ToolSchemaExporter}, so startup does not reflect over parameter types
+ * to generate schemas. A method missing from the file (e.g. when running from
+ * the IDE without the Gradle task) gets its definition generated once and cached.
+ */
+@Component
+@ManagedResource(objectName = "mcprestaurant:type=ToolSchemas")
+public class ToolSchemas {
+
+    /** Classpath location of the precomputed definitions */
+    public static final String RESOURCE = "META-INF/mcprestaurant/tool-schemas.json";
+
+    /**
+     * One precomputed definition, keyed by method signature
+     */
+    record Entry(String key, String name, String description, String inputSchema) {
+    }
+
+    private final Map<String, ToolDefinition> definitions = new ConcurrentHashMap<>();
+    private final LongAdder generated = new LongAdder();
+    private final int precomputed;
+
+    public ToolSchemas(ObjectMapper objectMapper) {
+        this(objectMapper, new ClassPathResource(RESOURCE));
+    }
+
+    ToolSchemas(ObjectMapper objectMapper, Resource resource) {
+        if (resource.exists()) {
+            try (InputStream in = resource.getInputStream()) {
+                List<Entry> entries = objectMapper.readValue(in, new TypeReference<List<Entry>>() {});
+                entries.forEach(entry -> definitions.put(entry.key(), ToolDefinition.builder()
+                        .name(entry.name())
+                        .description(entry.description())
+                        .inputSchema(entry.inputSchema())
+                        .build()));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unreadable " + RESOURCE, e);
+            }
+        }
+        this.precomputed = definitions.size();
+    }
+
+    /**
+     * Get the definition of a tool method
+     * @param method A method annotated with @Tool
+     * @return The precomputed definition, or one generated on first use
+     */
+    public ToolDefinition definition(Method method) {
+        return definitions.computeIfAbsent(key(method), key -> {
+            generated.increment();
+            return generate(method);
+        });
+    }
+
+    /**
+     * Generate the definition of a tool method, with its result shaping options
+     */
+    static ToolDefinition generate(Method method) {
+        return ResultShape.withOptions(ToolDefinitions.from(method), method);
+    }
+
+    @ManagedAttribute(description = "Tool definitions loaded from the build-time file")
+    public int getPrecomputed() {
+        return precomputed;
+    }
+
+    @ManagedAttribute(description = "Tool definitions generated at runtime because they were not in the file")
+    public long getGenerated() {
+        return generated.sum();
+    }
+
+    /**
+     * The @Tool methods of a class, in a stable order
+     */
+    public static List<Method> toolMethods(Class<?> type) {
+        return Arrays.stream(type.getDeclaredMethods())
+                .filter(method -> method.isAnnotationPresent(Tool.class))
+                .sorted(Comparator.comparing(ToolSchemas::key))
+                .toList();
+    }
+
+    static String key(Method method) {
+        return method.getDeclaringClass().getName() + "#" + method.getName()
+                + Arrays.stream(method.getGenericParameterTypes())
+                        .map(Type::getTypeName)
+                        .collect(Collectors.joining(",", "(", ")"));
+    }
+}
@@ -0,0 +1,53 @@
+package com.uptc.frw.mcprestaurant.util;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parsing of the date strings used by the restaurant API (ISO yyyy-MM-dd,
+ * optionally followed by a time part)
+ */
+public final class Dates {
+
+    /**
+     * Returned for missing or unparsable dates
+     */
+    public static final long UNKNOWN = Long.MIN_VALUE;
+
+    private Dates() {
+    }
+
+    /**
+     * Convert a date string to its epoch day
+     * @param date The date, e.g. 2025-03-14 or 2025-03-14T12:30:00
+     * @return The epoch day, or {@link #UNKNOWN}
+     */
+    public static long epochDay(String date) {
+        if (date == null || date.length() < 10) {
+            return UNKNOWN;
+        }
+        try {
+            return LocalDate.parse(date.substring(0, 10)).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return UNKNOWN;
+        }
+    }
+
+    /**
+     * Convert an optional date argument to its epoch day
+     * @param date The date, or null
+     * @param missing Value used when the argument is null or blank
+     * @return The epoch day
+     * @throws IllegalArgumentException if the date cannot be parsed
+     */
+    public static long epochDayOrDefault(String date, long missing) {
+        if (date == null || date.isBlank()) {
+            return missing;
+        }
+        long epochDay = epochDay(date.trim());
+        if (epochDay == UNKNOWN) {
+            throw new IllegalArgumentException("Invalid date '" + date + "', expected yyyy-MM-dd");
+        }
+        return epochDay;
+    }
+}
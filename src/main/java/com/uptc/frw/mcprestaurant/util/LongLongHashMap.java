@@ -0,0 +1,215 @@
+package com.uptc.frw.mcprestaurant.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from long to long without boxing.
+ *
+ * Uses linear probing with backward-shift deletion. {@code Long.MIN_VALUE}
+ * is reserved as the empty-slot marker and cannot be used as a key.
+ * Not thread-safe.
+ */
+public final class LongLongHashMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+
+    public LongLongHashMap() {
+        this(16);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Callback for {@link #forEach}
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    /**
+     * Combine two 32-bit values into one key; the high part keeps its sign
+     * @param high A signed 32-bit value
+     * @param low An unsigned 32-bit value
+     * @throws IllegalArgumentException if a part does not fit, as it would collide with another key
+     */
+    public static long key(long high, long low) {
+        if (!fitsKey(high, low)) {
+            throw new IllegalArgumentException("Cannot pack (" + high + ", " + low + ") into a 64-bit key");
+        }
+        return (high << 32) | low;
+    }
+
+    /**
+     * Whether {@link #key} can combine two values without losing bits
+     */
+    public static boolean fitsKey(long high, long low) {
+        return high == (int) high && low >= 0 && low <= 0xFFFFFFFFL;
+    }
+
+    public static long high(long key) {
+        return key >> 32;
+    }
+
+    public static long low(long key) {
+        return key & 0xFFFFFFFFL;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    public long get(long key, long missing) {
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : missing;
+    }
+
+    public void put(long key, long value) {
+        checkKey(key);
+        int index = slot(key);
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    /**
+     * Add a delta to the value of a key, starting from zero when absent
+     * @return The new value
+     */
+    public long addTo(long key, long delta) {
+        checkKey(key);
+        int index = slot(key);
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                return values[index] += delta;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = delta;
+        if (++size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return delta;
+    }
+
+    public boolean remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return false;
+        }
+        int hole = index;
+        int next = hole;
+        while (true) {
+            next = (next + 1) & mask;
+            long candidate = keys[next];
+            if (candidate == EMPTY) {
+                break;
+            }
+            int home = slot(candidate);
+            boolean inRange = hole <= next ? hole < home && home <= next : home > hole || home <= next;
+            if (!inRange) {
+                keys[hole] = candidate;
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = EMPTY;
+        values[hole] = 0;
+        size--;
+        return true;
+    }
+
+    public void forEach(EntryConsumer action) {
+        long[] k = keys;
+        long[] v = values;
+        for (int i = 0; i < k.length; i++) {
+            if (k[i] != EMPTY) {
+                action.accept(k[i], v[i]);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    private int indexOf(long key) {
+        if (key == EMPTY) {
+            return -1;
+        }
+        int index = slot(key);
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = slot(oldKeys[i]);
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        return Math.max(8, capacity);
+    }
+
+    private static void checkKey(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Long.MIN_VALUE cannot be used as a key");
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.uptc.frw.mcprestaurant.analytics;
+
+import com.uptc.frw.mcprestaurant.model.Sale;
+import com.uptc.frw.mcprestaurant.model.SaleMenu;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static com.uptc.frw.mcprestaurant.util.LongLongHashMap.low;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SaleLineColumnsTests {
+
+	@Test
+	void scansMatchTheAppendedRowsAcrossSealedSegments() {
+		SaleLineColumns columns = new SaleLineColumns();
+		long[][] rows = new long[3 * SaleLineColumns.SEGMENT_ROWS + 123][];
+		Random random = new Random(7);
+		for (int i = 0; i < rows.length; i++) {
+			// The third segment gets menu ids spread wide enough to need int offsets
+			long menuId = i / SaleLineColumns.SEGMENT_ROWS == 2 ? random.nextInt(1_000_000) : 1 + random.nextInt(200);
+			rows[i] = new long[] { 10_000 + i / 3, menuId, random.nextInt(9) - 2, 19_000 + i / 500 };
+			columns.append(rows[i][0], rows[i][1], rows[i][2], rows[i][3]);
+		}
+		long fromDay = 19_030;
+		long toDay = 19_170;
+
+		long sum = 0;
+		Map<Long, Long> byMenu = new HashMap<>();
+		for (long[] row : rows) {
+			if (row[3] >= fromDay && row[3] <= toDay) {
+				sum += row[2];
+				byMenu.merge(row[1], row[2], Long::sum);
+			}
+		}
+		long[] windowSum = { 0 };
+		Map<Long, Long> windowByMenu = new HashMap<>();
+		columns.forEach(fromDay, toDay, (saleId, menuId, quantity, day) -> {
+			assertThat(day).isBetween(fromDay, toDay);
+			windowSum[0] += quantity;
+			windowByMenu.merge(menuId, quantity, Long::sum);
+		});
+		int[] visited = { 0 };
+		columns.forEach((saleId, menuId, quantity, day) -> {
+			long[] row = rows[visited[0]++];
+			assertThat(new long[] { saleId, menuId, quantity, day }).containsExactly(row);
+		});
+		int[] outside = { 0 };
+		columns.forEach(0, 1, (saleId, menuId, quantity, day) -> outside[0]++);
+
+		assertThat(columns.rows()).isEqualTo(rows.length);
+		assertThat(windowSum[0]).isEqualTo(sum);
+		assertThat(windowByMenu).isEqualTo(byMenu);
+		assertThat(outside[0]).isZero();
+		assertThat(visited[0]).isEqualTo(rows.length);
+		assertThat(columns.bytes()).isLessThan(8L * Long.BYTES * rows.length);
+	}
+
+	@Test
+	void factLedgerAddsUpToTheDailyAggregates() {
+		SalesFacts facts = new SalesFacts();
+		Random random = new Random(42);
+		LocalDate firstDay = LocalDate.of(2024, 1, 1);
+		for (int i = 0; i < 50_000; i++) {
+			long saleId = 1 + random.nextInt(2_000);
+			long menuId = 1 + random.nextInt(40);
+			switch (random.nextInt(5)) {
+				case 0 -> facts.recordSale(new Sale(saleId, firstDay.plusDays(random.nextInt(90)).toString()));
+				case 1 -> facts.removeSaleLine(menuId, saleId);
+				case 2 -> {
+					if (random.nextInt(20) == 0) {
+						facts.removeSale(saleId);
+					}
+				}
+				default -> facts.recordSaleLine(new SaleMenu(menuId, saleId, 1 + random.nextInt(5)));
+			}
+		}
+
+		Map<Long, Long> fromAggregates = new HashMap<>();
+		facts.dayMenuQuantities.forEach((dayMenu, quantity) -> fromAggregates.merge(low(dayMenu), quantity, Long::sum));
+		fromAggregates.values().removeIf(quantity -> quantity == 0);
+		Map<Long, Long> ledger = new HashMap<>();
+		facts.lineLedger.forEach((saleId, menuId, quantity, day) -> ledger.merge(menuId, quantity, Long::sum));
+		ledger.values().removeIf(quantity -> quantity == 0);
+
+		assertThat(ledger).isEqualTo(fromAggregates);
+	}
+}
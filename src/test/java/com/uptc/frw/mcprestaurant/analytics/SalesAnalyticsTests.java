@@ -0,0 +1,151 @@
+package com.uptc.frw.mcprestaurant.analytics;
+
+import com.uptc.frw.mcprestaurant.client.JsonArrayReader;
+import com.uptc.frw.mcprestaurant.config.SalesIndexProperties;
+import com.uptc.frw.mcprestaurant.model.DailyRevenue;
+import com.uptc.frw.mcprestaurant.model.DishMenu;
+import com.uptc.frw.mcprestaurant.model.MenuRanking;
+import com.uptc.frw.mcprestaurant.model.Sale;
+import com.uptc.frw.mcprestaurant.model.SaleMenu;
+import com.uptc.frw.mcprestaurant.util.Dates;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SalesAnalyticsTests {
+
+	@Test
+	void aggregatesPriceEachDayAtTheMenuPriceOfThatDay() {
+		StubReader reader = new StubReader();
+		reader.arrays.put("/dish-menus", List.of(
+				new DishMenu(1L, 10L, 10.0, "2024-01-01"),
+				new DishMenu(1L, 10L, 12.5, "2024-02-01"),
+				new DishMenu(2L, 20L, 3.0, "2024-01-01")));
+		reader.arrays.put("/sales", List.of(new Sale(100L, "2024-01-15"), new Sale(101L, "2024-02-15")));
+		reader.arrays.put("/SalesMenu", List.of(
+				new SaleMenu(1L, 100L, 1), new SaleMenu(2L, 100L, 3),
+				new SaleMenu(1L, 101L, 2)));
+		SalesAnalytics analytics = new SalesAnalytics(reader, properties());
+		long from = Dates.epochDay("2024-01-01");
+		long to = Dates.epochDay("2024-12-31");
+
+		List<DailyRevenue> days = analytics.revenueByDay(from, to);
+		List<MenuRanking> ranking = analytics.topMenus(from, to, true, 10);
+
+		assertThat(days).containsExactly(
+				new DailyRevenue("2024-01-15", 19.0, 1L),
+				new DailyRevenue("2024-02-15", 25.0, 1L));
+		assertThat(ranking).containsExactly(
+				new MenuRanking(1L, 3L, 35.0),
+				new MenuRanking(2L, 3L, 9.0));
+		assertThat(analytics.ticketStats(from, to).revenue()).isEqualTo(44.0);
+	}
+
+	@Test
+	void writesDuringAResyncAreReplayedOnTopOfIt() {
+		StubReader reader = new StubReader();
+		reader.arrays.put("/sales", List.of(new Sale(100L, "2024-01-15"), new Sale(101L, "2024-01-15")));
+		reader.arrays.put("/SalesMenu", List.of(new SaleMenu(1L, 100L, 1), new SaleMenu(1L, 101L, 1)));
+		SalesAnalytics analytics = new SalesAnalytics(reader, properties());
+		analytics.sync();
+		// The snapshot being streamed predates these writes
+		reader.before.put("/SalesMenu", () -> {
+			analytics.recordSaleLines(List.of(new SaleMenu(1L, 100L, 5)));
+			analytics.removeSale(101);
+		});
+
+		analytics.sync();
+
+		assertThat(analytics.saleLinesByMenu(1, 10)).containsExactly(new SaleMenu(1L, 100L, 5));
+		assertThat(analytics.salesBetween(Long.MIN_VALUE, Long.MAX_VALUE, 10)).containsExactly(new Sale(100L, "2024-01-15"));
+	}
+
+	@Test
+	void staleIndexIsServedWhileItResyncsInTheBackground() throws Exception {
+		StubReader reader = new StubReader();
+		reader.arrays.put("/sales", List.of(new Sale(100L, "2024-01-15")));
+		SalesAnalytics analytics = new SalesAnalytics(reader,
+				new SalesIndexProperties(false, Duration.ofMinutes(5), Duration.ZERO));
+		analytics.salesBetween(Long.MIN_VALUE, Long.MAX_VALUE, 10);
+		CountDownLatch resyncStarted = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		reader.before.put("/dish-menus", () -> {
+			resyncStarted.countDown();
+			await(release);
+		});
+		reader.arrays.put("/sales", List.of(new Sale(100L, "2024-01-15"), new Sale(101L, "2024-01-16")));
+
+		List<Sale> whileResyncing = analytics.salesBetween(Long.MIN_VALUE, Long.MAX_VALUE, 10);
+		assertThat(resyncStarted.await(5, TimeUnit.SECONDS)).isTrue();
+		analytics.salesBetween(Long.MIN_VALUE, Long.MAX_VALUE, 10);
+		// One load on the caller's thread, then a single resync however many queries found the index stale
+		long loads = reader.reads.stream().filter("/dish-menus"::equals).count();
+		release.countDown();
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (analytics.salesBetween(Long.MIN_VALUE, Long.MAX_VALUE, 10).size() < 2) {
+			assertThat(System.nanoTime()).isLessThan(deadline);
+			Thread.sleep(5);
+		}
+		analytics.stop();
+
+		assertThat(whileResyncing).containsExactly(new Sale(100L, "2024-01-15"));
+		assertThat(loads).isEqualTo(2);
+	}
+
+	@Test
+	void priceChangeIsSeenByTheNextQuery() {
+		StubReader reader = new StubReader();
+		reader.arrays.put("/dish-menus", List.of(new DishMenu(1L, 10L, 10.0, "2024-01-01")));
+		reader.arrays.put("/sales", List.of(new Sale(100L, null)));
+		reader.arrays.put("/SalesMenu", List.of(new SaleMenu(1L, 100L, 2)));
+		SalesAnalytics analytics = new SalesAnalytics(reader, properties());
+
+		double before = analytics.saleTotal(100).total();
+		analytics.recordDishMenus(List.of(new DishMenu(1L, 10L, 12.0, "2024-02-01")));
+
+		assertThat(before).isEqualTo(20.0);
+		assertThat(analytics.saleTotal(100).total()).isEqualTo(24.0);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static SalesIndexProperties properties() {
+		return new SalesIndexProperties(false, Duration.ofMinutes(5), Duration.ofMinutes(15));
+	}
+
+	/** Serves each endpoint from a list instead of the backend */
+	private static final class StubReader extends JsonArrayReader {
+
+		final Map<String, List<?>> arrays = new ConcurrentHashMap<>();
+		final Map<String, Runnable> before = new ConcurrentHashMap<>();
+		final List<String> reads = new CopyOnWriteArrayList<>();
+
+		StubReader() {
+			super(null, null);
+		}
+
+		@Override
+		public <T> long forEach(String uri, Class<T> type, Consumer<T> action) {
+			reads.add(uri);
+			before.getOrDefault(uri, () -> {}).run();
+			List<?> items = arrays.getOrDefault(uri, List.of());
+			items.forEach(item -> action.accept(type.cast(item)));
+			return items.size();
+		}
+	}
+}
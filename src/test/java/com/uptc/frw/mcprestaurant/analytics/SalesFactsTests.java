@@ -0,0 +1,211 @@
+package com.uptc.frw.mcprestaurant.analytics;
+
+import com.uptc.frw.mcprestaurant.model.DishMenu;
+import com.uptc.frw.mcprestaurant.model.Sale;
+import com.uptc.frw.mcprestaurant.model.SaleMenu;
+import com.uptc.frw.mcprestaurant.util.Dates;
+import com.uptc.frw.mcprestaurant.util.LongLongHashMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SalesFactsTests {
+
+	@Test
+	void saleBeforeTheFirstPriceIsPricedAtZero() {
+		SalesFacts facts = new SalesFacts();
+		facts.recordDishMenu(new DishMenu(1L, 10L, 12.0, "2024-02-01"));
+		facts.recordSale(new Sale(100L, "2024-01-15"));
+		facts.recordSaleLine(new SaleMenu(1L, 100L, 2));
+		facts.refreshPrices();
+
+		assertThat(facts.menuPriceAt(1, day("2024-01-15"))).isEqualTo(PriceHistory.NONE);
+		assertThat(facts.menuPriceAt(1, day("2024-01-15"), new LongLongHashMap())).isZero();
+		assertThat(facts.saleTotal(100)).isZero();
+		assertThat(facts.saleTotals(day("2024-01-01"), day("2024-01-31")).get(100, -1)).isZero();
+	}
+
+	@Test
+	void undatedSaleIsPricedAtTheCurrentMenuPrice() {
+		SalesFacts facts = new SalesFacts();
+		facts.recordDishMenu(new DishMenu(1L, 10L, 10.0, "2024-01-01"));
+		facts.recordDishMenu(new DishMenu(1L, 10L, 12.5, "2024-03-01"));
+		facts.recordDishMenu(new DishMenu(1L, 11L, 5.0, null));
+		facts.recordSale(new Sale(100L, null));
+		facts.recordSaleLine(new SaleMenu(1L, 100L, 2));
+		facts.refreshPrices();
+
+		assertThat(facts.saleTotal(100)).isEqualTo(2 * (1250 + 500));
+		// An undated price applies to every day, including those before the first dated one
+		assertThat(facts.menuPriceAt(1, day("2023-12-01"))).isEqualTo(500);
+		assertThat(facts.dayMenuQuantities.isEmpty()).isTrue();
+	}
+
+	@Test
+	void priceChangeBetweenTwoSalesPricesEachSaleAtItsDate() {
+		SalesFacts facts = new SalesFacts();
+		facts.recordDishMenu(new DishMenu(1L, 10L, 10.0, "2024-01-01"));
+		facts.recordDishMenu(new DishMenu(1L, 10L, 12.5, "2024-02-01"));
+		facts.recordSale(new Sale(100L, "2024-01-15"));
+		facts.recordSale(new Sale(101L, "2024-02-15"));
+		facts.recordSaleLine(new SaleMenu(1L, 100L, 1));
+		facts.recordSaleLine(new SaleMenu(1L, 101L, 2));
+		facts.refreshPrices();
+
+		assertThat(facts.menuPriceAt(1, day("2024-01-31"))).isEqualTo(1000);
+		assertThat(facts.menuPriceAt(1, day("2024-02-01"))).isEqualTo(1250);
+		assertThat(facts.saleTotal(100)).isEqualTo(1000);
+		assertThat(facts.saleTotal(101)).isEqualTo(2500);
+		LongLongHashMap totals = facts.saleTotals(day("2024-01-01"), day("2024-12-31"));
+		assertThat(totals.get(100, -1)).isEqualTo(1000);
+		assertThat(totals.get(101, -1)).isEqualTo(2500);
+	}
+
+	@Test
+	void removedDishKeepsPricingPastSales() {
+		SalesFacts facts = new SalesFacts();
+		facts.recordDishMenu(new DishMenu(1L, 10L, 10.0, "2024-01-01"));
+		facts.recordDishMenu(new DishMenu(1L, 11L, 4.0, "2024-01-01"));
+		facts.recordSale(new Sale(100L, "2024-01-15"));
+		facts.recordSale(new Sale(101L, null));
+		facts.recordSaleLine(new SaleMenu(1L, 100L, 1));
+		facts.recordSaleLine(new SaleMenu(1L, 101L, 1));
+		facts.removeDishMenu(1, 11, day("2024-02-01"));
+		facts.refreshPrices();
+
+		assertThat(facts.menuPrice(1)).isEqualTo(1000);
+		assertThat(facts.menuPriceAt(1, day("2024-01-15"))).isEqualTo(1400);
+		assertThat(facts.saleTotal(100)).isEqualTo(1400);
+		assertThat(facts.saleTotal(101)).isEqualTo(1000);
+	}
+
+	@Test
+	void removedDishNoLongerPricesSalesFromItsRemoval() {
+		SalesFacts facts = new SalesFacts();
+		facts.recordDishMenu(new DishMenu(1L, 10L, 10.0, "2024-01-01"));
+		facts.recordDishMenu(new DishMenu(1L, 11L, 4.0, "2024-01-01"));
+		facts.recordSale(new Sale(100L, "2024-01-15"));
+		facts.recordSale(new Sale(101L, "2024-02-15"));
+		facts.recordSaleLine(new SaleMenu(1L, 100L, 1));
+		facts.recordSaleLine(new SaleMenu(1L, 101L, 1));
+		facts.removeDishMenu(1, 11, day("2024-02-01"));
+		facts.refreshPrices();
+
+		assertThat(facts.menuPriceAt(1, day("2024-01-31"))).isEqualTo(1400);
+		assertThat(facts.menuPriceAt(1, day("2024-02-01"))).isEqualTo(1000);
+		assertThat(facts.saleTotal(101)).isEqualTo(1000);
+		LongLongHashMap totals = facts.saleTotals(day("2024-01-01"), day("2024-12-31"));
+		assertThat(totals.get(100, -1)).isEqualTo(1400);
+		assertThat(totals.get(101, -1)).isEqualTo(1000);
+
+		// Put back on the menu with a new price
+		facts.recordDishMenu(new DishMenu(1L, 11L, 5.0, "2024-03-01"));
+		assertThat(facts.menuPriceAt(1, day("2024-03-01"))).isEqualTo(1500);
+	}
+
+	@Test
+	void saleMovingToAnotherDayTakesItsLinesAlong() {
+		SalesFacts facts = new SalesFacts();
+		facts.recordSaleLine(new SaleMenu(1L, 100L, 2));
+		facts.recordSale(new Sale(100L, "2024-01-15"));
+		facts.recordSale(new Sale(100L, "2024-01-20"));
+
+		assertThat(facts.dayMenuQuantities.get(LongLongHashMap.key(day("2024-01-15"), 1), 0)).isZero();
+		assertThat(facts.dayMenuQuantities.get(LongLongHashMap.key(day("2024-01-20"), 1), 0)).isEqualTo(2);
+		assertThat(facts.daySales.keySet()).containsExactly(day("2024-01-20"));
+		assertThat(ledgerQuantity(facts, day("2024-01-15"))).isZero();
+		assertThat(ledgerQuantity(facts, day("2024-01-20"))).isEqualTo(2);
+	}
+
+	@Test
+	void removingASaleTakesItsLinesOutOfTheAggregates() {
+		SalesFacts facts = new SalesFacts();
+		facts.recordSale(new Sale(100L, "2024-01-15"));
+		facts.recordSale(new Sale(101L, "2024-01-15"));
+		facts.recordSaleLine(new SaleMenu(1L, 100L, 2));
+		facts.recordSaleLine(new SaleMenu(2L, 100L, 1));
+		facts.recordSaleLine(new SaleMenu(1L, 101L, 5));
+
+		facts.removeSale(100);
+		facts.removeSaleLine(1, 101);
+
+		assertThat(facts.saleCount()).isEqualTo(1);
+		assertThat(facts.saleLineCount()).isZero();
+		assertThat(facts.daySales.get(day("2024-01-15")).containsKey(101)).isTrue();
+		assertThat(facts.daySales.get(day("2024-01-15")).containsKey(100)).isFalse();
+		facts.dayMenuQuantities.forEach((dayMenu, quantity) -> assertThat(quantity).isZero());
+	}
+
+	@Test
+	void mergeBringsTheFactsInLineWithTheSnapshot() {
+		SalesFacts facts = new SalesFacts();
+		facts.recordSale(new Sale(100L, "2024-01-15"));
+		facts.recordSale(new Sale(101L, "2024-01-15"));
+		facts.recordSaleLine(new SaleMenu(1L, 100L, 2));
+		facts.recordSaleLine(new SaleMenu(1L, 101L, 1));
+		facts.recordDishMenu(new DishMenu(1L, 10L, 10.0, "2024-01-01"));
+		facts.recordDishMenu(new DishMenu(1L, 11L, 4.0, "2024-01-01"));
+		SalesFacts fresh = new SalesFacts();
+		fresh.recordSale(new Sale(100L, "2024-01-16"));
+		fresh.recordSale(new Sale(102L, "2024-01-16"));
+		fresh.recordSaleLine(new SaleMenu(1L, 100L, 3));
+		fresh.recordSaleLine(new SaleMenu(2L, 102L, 1));
+		fresh.recordDishMenu(new DishMenu(1L, 10L, 10.0, "2024-01-01"));
+		fresh.recordDishMenu(new DishMenu(1L, 10L, 11.0, "2024-01-10"));
+
+		facts.merge(fresh);
+		facts.refreshPrices();
+
+		assertThat(snapshot(facts.saleDays)).isEqualTo(snapshot(fresh.saleDays));
+		assertThat(snapshot(facts.lineQuantities)).isEqualTo(snapshot(fresh.lineQuantities));
+		assertThat(snapshot(facts.dishPrices)).isEqualTo(snapshot(fresh.dishPrices));
+		assertThat(nonZero(facts.dayMenuQuantities)).isEqualTo(nonZero(fresh.dayMenuQuantities));
+		assertThat(facts.daySales.keySet()).containsExactly(day("2024-01-16"));
+		assertThat(facts.menuPrice(1)).isEqualTo(1100);
+		assertThat(facts.saleTotal(100)).isEqualTo(3 * (1100 + 400));
+	}
+
+	@Test
+	void idsThatDoNotFitACompositeKeyAreLeftOut() {
+		SalesFacts facts = new SalesFacts();
+		long tooLarge = 1L << 32;
+		facts.recordSale(new Sale(tooLarge, "2024-01-15"));
+		facts.recordSaleLine(new SaleMenu(1L, tooLarge, 2));
+		facts.recordSaleLine(new SaleMenu(tooLarge + 1, 100L, 2));
+		facts.recordDishMenu(new DishMenu(1L, -1L, 10.0, "2024-01-01"));
+		facts.removeSaleLine(1, tooLarge);
+
+		assertThat(facts.saleCount()).isZero();
+		assertThat(facts.saleLineCount()).isZero();
+		assertThat(facts.dishPrices.isEmpty()).isTrue();
+	}
+
+	private static long ledgerQuantity(SalesFacts facts, long day) {
+		long[] sum = { 0 };
+		facts.lineLedger.forEach((saleId, menuId, quantity, lineDay) -> {
+			if (lineDay == day) {
+				sum[0] += quantity;
+			}
+		});
+		return sum[0];
+	}
+
+	private static Map<Long, Long> snapshot(LongLongHashMap map) {
+		Map<Long, Long> entries = new HashMap<>();
+		map.forEach(entries::put);
+		return entries;
+	}
+
+	private static Map<Long, Long> nonZero(LongLongHashMap map) {
+		Map<Long, Long> entries = snapshot(map);
+		entries.values().removeIf(value -> value == 0);
+		return entries;
+	}
+
+	private static long day(String date) {
+		return Dates.epochDay(date);
+	}
+}
@@ -0,0 +1,173 @@
+package com.uptc.frw.mcprestaurant.cache;
+
+import com.uptc.frw.mcprestaurant.config.CatalogCacheProperties;
+import com.uptc.frw.mcprestaurant.config.CatalogSnapshotProperties;
+import com.uptc.frw.mcprestaurant.model.Dish;
+import com.uptc.frw.mcprestaurant.model.DishMenu;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.http.HttpStatus;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogSnapshotTests {
+
+	@TempDir
+	Path dir;
+
+	private final List<Dish> dishes = List.of(
+			new Dish(1L, "Sopa", "Ajiaco", "Sopa de papa"),
+			new Dish(2L, "Postre", "Cocada", null));
+
+	@Test
+	void writtenSnapshotIsServedOnTheNextColdStart() {
+		CatalogSnapshot first = new CatalogSnapshot(properties(Duration.ofHours(24)));
+		first.dishes().save(dishes);
+		first.dishMenus().save(List.of(new DishMenu(1L, 2L, 12.5, "2024-03-01"), new DishMenu(1L, 1L, null, null)));
+		first.write();
+
+		CatalogSnapshot next = new CatalogSnapshot(properties(Duration.ofHours(24)));
+
+		assertThat(next.getVersion()).isEqualTo(1);
+		assertThat(next.dishes().warm()).isEqualTo(dishes);
+		assertThat(next.dishMenus().warm()).containsExactly(
+				new DishMenu(1L, 2L, 12.5, "2024-03-01"), new DishMenu(1L, 1L, null, null));
+		assertThat(next.menus().warm()).isNull();
+	}
+
+	@Test
+	void coldCacheAnswersFromTheSnapshotAndRefreshesInTheBackground() {
+		CatalogSnapshot snapshot = new CatalogSnapshot(properties(Duration.ofHours(24)));
+		snapshot.dishes().save(dishes);
+		snapshot.write();
+		List<Runnable> background = new ArrayList<>();
+		AtomicInteger backendCalls = new AtomicInteger();
+		EntityCache<Long, Dish> cache = new EntityCache<>(new CatalogCacheProperties.Entity(true, 100, Duration.ofMinutes(10)),
+				Dish::id, new CatalogSnapshot(properties(Duration.ofHours(24))).dishes(), background::add);
+
+		List<Dish> first = cache.getAll(() -> {
+			backendCalls.incrementAndGet();
+			return List.of(new Dish(3L, "Fuerte", "Bandeja", "Paisa"));
+		});
+
+		assertThat(first).isInstanceOf(SnapshotList.class).isEqualTo(dishes);
+		assertThat(cache.getAll(List::of)).isSameAs(first);
+		assertThat(backendCalls).hasValue(0);
+		background.forEach(Runnable::run);
+		assertThat(cache.getAll(List::of)).extracting(Dish::name).containsExactly("Bandeja");
+	}
+
+	@Test
+	void failedBackgroundRefreshDropsTheSnapshotList() {
+		CatalogSnapshot snapshot = new CatalogSnapshot(properties(Duration.ofHours(24)));
+		snapshot.dishes().save(dishes);
+		snapshot.write();
+		List<Runnable> background = new ArrayList<>();
+		EntityCache<Long, Dish> cache = new EntityCache<>(new CatalogCacheProperties.Entity(true, 100, Duration.ofMinutes(10)),
+				Dish::id, new CatalogSnapshot(properties(Duration.ofHours(24))).dishes(), background::add);
+
+		cache.getAll(() -> {
+			throw new ResourceAccessException("Connection refused");
+		});
+		background.forEach(Runnable::run);
+
+		assertThatThrownBy(() -> cache.getAll(() -> {
+			throw new HttpClientErrorException(HttpStatus.UNAUTHORIZED);
+		})).isInstanceOf(HttpClientErrorException.class);
+	}
+
+	@Test
+	void unchangedListIsNotWrittenAgain() {
+		CatalogSnapshot snapshot = new CatalogSnapshot(properties(Duration.ofHours(24)));
+		snapshot.dishes().save(dishes);
+		snapshot.write();
+
+		snapshot.dishes().save(new ArrayList<>(dishes));
+		snapshot.stop();
+
+		assertThat(snapshot.getWrites()).isEqualTo(1);
+		assertThat(snapshot.getVersion()).isEqualTo(1);
+	}
+
+	@Test
+	void writeLeavesAnotherProcessTemporaryFileAlone() throws Exception {
+		Path foreign = dir.resolve("catalog.snapshot.tmp");
+		Files.write(foreign, new byte[] { 1, 2, 3 });
+		CatalogSnapshot snapshot = new CatalogSnapshot(properties(Duration.ofHours(24)));
+		snapshot.dishes().save(dishes);
+
+		snapshot.write();
+
+		assertThat(Files.readAllBytes(foreign)).containsExactly(1, 2, 3);
+		try (Stream<Path> files = Files.list(dir)) {
+			assertThat(files.map(file -> file.getFileName().toString()))
+					.containsExactlyInAnyOrder("catalog.snapshot", "catalog.snapshot.tmp");
+		}
+		assertThat(new CatalogSnapshot(properties(Duration.ofHours(24))).dishes().warm()).isEqualTo(dishes);
+	}
+
+	@Test
+	void unreachableBackendIsAnsweredFromTheSnapshotFlaggedStale() {
+		CatalogSnapshot snapshot = new CatalogSnapshot(properties(Duration.ZERO));
+		snapshot.dishes().save(dishes);
+		snapshot.write();
+		EntityCache<Long, Dish> cache = new EntityCache<>(new CatalogCacheProperties.Entity(true, 100, Duration.ofMinutes(10)),
+				Dish::id, new CatalogSnapshot(properties(Duration.ZERO)).dishes(), Runnable::run);
+
+		List<Dish> served = cache.getAll(() -> {
+			throw new ResourceAccessException("Connection refused");
+		});
+
+		assertThat(served).isInstanceOf(SnapshotList.class).isEqualTo(dishes);
+		assertThatThrownBy(() -> cache.getAll(() -> {
+			throw new HttpClientErrorException(HttpStatus.UNAUTHORIZED);
+		})).isInstanceOf(HttpClientErrorException.class);
+	}
+
+	@Test
+	void serverErrorIsAnsweredFromTheSnapshotWhicheverExceptionCarriesIt() {
+		CatalogSnapshot snapshot = new CatalogSnapshot(properties(Duration.ZERO));
+		snapshot.dishes().save(dishes);
+		snapshot.write();
+		EntityCache<Long, Dish> cache = new EntityCache<>(new CatalogCacheProperties.Entity(true, 100, Duration.ofMinutes(10)),
+				Dish::id, new CatalogSnapshot(properties(Duration.ZERO)).dishes(), Runnable::run);
+
+		List<Dish> served = cache.getAll(() -> {
+			throw new RestClientResponseException("503 on GET /dishes", HttpStatus.SERVICE_UNAVAILABLE,
+					"Service Unavailable", null, null, null);
+		});
+
+		assertThat(served).isInstanceOf(SnapshotList.class).isEqualTo(dishes);
+		assertThat(CatalogSnapshot.unreachable(new HttpServerErrorException(HttpStatus.BAD_GATEWAY))).isTrue();
+		assertThat(CatalogSnapshot.unreachable(new RestClientResponseException("404 on GET /dishes", HttpStatus.NOT_FOUND,
+				"Not Found", null, null, null))).isFalse();
+	}
+
+	@Test
+	void unreadableFileIsIgnored() throws Exception {
+		Files.write(dir.resolve("catalog.snapshot"), new byte[] { 1, 2, 3 });
+
+		CatalogSnapshot snapshot = new CatalogSnapshot(properties(Duration.ofHours(24)));
+
+		assertThat(snapshot.dishes().warm()).isNull();
+		assertThat(snapshot.getLastError()).isNotNull();
+	}
+
+	private CatalogSnapshotProperties properties(Duration maxAge) {
+		return new CatalogSnapshotProperties(true, dir.resolve("catalog.snapshot"), maxAge, Duration.ofMinutes(1));
+	}
+
+}
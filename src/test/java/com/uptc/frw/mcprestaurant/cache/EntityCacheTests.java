@@ -0,0 +1,78 @@
+package com.uptc.frw.mcprestaurant.cache;
+
+import com.uptc.frw.mcprestaurant.config.CatalogCacheProperties;
+import com.uptc.frw.mcprestaurant.model.Dish;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EntityCacheTests {
+
+	private final EntityCache<Long, Dish> cache = new EntityCache<>(
+			new CatalogCacheProperties.Entity(true, 100, Duration.ofMinutes(10)), Dish::id);
+
+	@Test
+	void listLoadAlsoServesSingleEntries() {
+		AtomicInteger backendCalls = new AtomicInteger();
+		cache.getAll(() -> {
+			backendCalls.incrementAndGet();
+			return List.of(new Dish(1L, "Sopa", "Ajiaco", "Sopa de papa"));
+		});
+
+		Dish dish = cache.get(1L, id -> {
+			backendCalls.incrementAndGet();
+			return null;
+		});
+
+		assertThat(dish.name()).isEqualTo("Ajiaco");
+		assertThat(backendCalls).hasValue(1);
+		assertThat(cache.stats().hitCount()).isEqualTo(1);
+	}
+
+	@Test
+	void writeDropsListAndReplacesEntry() {
+		cache.getAll(() -> List.of(new Dish(1L, "Sopa", "Ajiaco", "Sopa de papa")));
+
+		cache.put(new Dish(1L, "Sopa", "Ajiaco santafereño", "Con guascas"));
+
+		assertThat(cache.get(1L, id -> null).name()).isEqualTo("Ajiaco santafereño");
+		assertThat(cache.getAll(List::of)).isEmpty();
+	}
+
+	@Test
+	void loadStartedBeforeWriteIsNotStored() {
+		cache.getAll(() -> {
+			cache.evict(1L);
+			return List.of(new Dish(1L, "Sopa", "Ajiaco", "Precio viejo"));
+		});
+
+		AtomicInteger backendCalls = new AtomicInteger();
+		cache.getAll(() -> {
+			backendCalls.incrementAndGet();
+			return List.of();
+		});
+
+		assertThat(backendCalls).hasValue(1);
+	}
+
+	@Test
+	void disabledCacheAlwaysCallsBackend() {
+		EntityCache<Long, Dish> disabled = new EntityCache<>(
+				new CatalogCacheProperties.Entity(false, 100, Duration.ofMinutes(10)), Dish::id);
+		AtomicInteger backendCalls = new AtomicInteger();
+
+		for (int i = 0; i < 2; i++) {
+			disabled.get(1L, id -> {
+				backendCalls.incrementAndGet();
+				return new Dish(id, "Sopa", "Ajiaco", "");
+			});
+		}
+
+		assertThat(backendCalls).hasValue(2);
+	}
+
+}
@@ -0,0 +1,100 @@
+package com.uptc.frw.mcprestaurant.client;
+
+import com.uptc.frw.mcprestaurant.config.RestaurantApiProperties;
+import com.uptc.frw.mcprestaurant.model.BulkResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkFetcherTests {
+
+	private static final int CAP = 2;
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+	private final BulkFetcher fetcher = new BulkFetcher(executor,
+			new RestaurantApiProperties(null, null, null, null, null, CAP, null, null));
+
+	@AfterEach
+	void stopExecutor() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void duplicateIdsAreFetchedOnce() {
+		Map<Long, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+		List<BulkResult<String>> results = fetcher.fetchAll("dishes", Arrays.asList(1L, 2L, 1L, null, 2L, 3L), id -> {
+			calls.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+			return "dish " + id;
+		});
+
+		assertThat(results).containsExactly(
+				BulkResult.success(1L, "dish 1"), BulkResult.success(2L, "dish 2"), BulkResult.success(3L, "dish 3"));
+		assertThat(calls.keySet()).containsExactlyInAnyOrder(1L, 2L, 3L);
+		assertThat(calls.values()).allMatch(count -> count.get() == 1);
+	}
+
+	@Test
+	void failingIdOnlyFailsItsOwnResult() {
+		List<BulkResult<String>> results = fetcher.fetchAll("dishes", List.of(1L, 2L, 3L), id -> {
+			if (id == 2L) {
+				throw new IllegalStateException("404 Not Found on GET /dishes/2");
+			}
+			return "dish " + id;
+		});
+
+		assertThat(results).containsExactly(
+				BulkResult.success(1L, "dish 1"),
+				BulkResult.failure(2L, "404 Not Found on GET /dishes/2"),
+				BulkResult.success(3L, "dish 3"));
+	}
+
+	@Test
+	void concurrencyIsCappedPerEndpoint() throws Exception {
+		AtomicInteger inFlight = new AtomicInteger();
+		AtomicInteger maxInFlight = new AtomicInteger();
+		CountDownLatch capReached = new CountDownLatch(CAP);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<List<BulkResult<Long>>> dishes = CompletableFuture.supplyAsync(() ->
+				fetcher.fetchAll("dishes", List.of(1L, 2L, 3L, 4L, 5L, 6L), id -> {
+					maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+					capReached.countDown();
+					await(release);
+					inFlight.decrementAndGet();
+					return id;
+				}));
+		assertThat(capReached.await(5, TimeUnit.SECONDS)).isTrue();
+
+		// The dishes endpoint is saturated, yet another endpoint still gets its own permits
+		List<BulkResult<Long>> menus = fetcher.fetchAll("menus", List.of(7L, 8L), id -> id);
+		Thread.sleep(50);
+		int whileSaturated = inFlight.get();
+		release.countDown();
+
+		assertThat(menus).containsExactly(BulkResult.success(7L, 7L), BulkResult.success(8L, 8L));
+		assertThat(whileSaturated).isEqualTo(CAP);
+		assertThat(dishes.get(5, TimeUnit.SECONDS)).hasSize(6).allMatch(result -> result.error() == null);
+		assertThat(maxInFlight.get()).isEqualTo(CAP);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
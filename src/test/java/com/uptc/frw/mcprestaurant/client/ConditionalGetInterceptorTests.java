@@ -0,0 +1,123 @@
+package com.uptc.frw.mcprestaurant.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConditionalGetInterceptorTests {
+
+	private static final ParameterizedTypeReference<List<Map<String, Object>>> MENUS =
+			new ParameterizedTypeReference<>() {};
+
+	private HttpServer server;
+
+	private final AtomicReference<String> menus = new AtomicReference<>("[{\"id\":1,\"description\":\"Almuerzo\"}]");
+
+	private final AtomicInteger notModifiedSent = new AtomicInteger();
+
+	private ConditionalGetInterceptor conditionalGet;
+
+	private RevalidatingReader reader;
+
+	@BeforeEach
+	void startStub() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/api/menus", exchange -> {
+			String body = menus.get();
+			String etag = "\"v" + body.hashCode() + "\"";
+			if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+				notModifiedSent.incrementAndGet();
+				exchange.sendResponseHeaders(304, -1);
+				exchange.close();
+				return;
+			}
+			exchange.getResponseHeaders().add("ETag", etag);
+			respond(exchange, body);
+		});
+		server.createContext("/api/dishes", exchange -> respond(exchange, "[{\"id\":7,\"name\":\"Ajiaco\"}]"));
+		server.createContext("/api/sales", exchange -> {
+			exchange.sendResponseHeaders(503, -1);
+			exchange.close();
+		});
+		server.start();
+
+		conditionalGet = new ConditionalGetInterceptor();
+		RestClient restClient = RestClient.builder()
+				.baseUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/api")
+				.requestInterceptor(conditionalGet)
+				.build();
+		reader = new RevalidatingReader(restClient);
+	}
+
+	@AfterEach
+	void stopStub() {
+		server.stop(0);
+	}
+
+	@Test
+	void unchangedResourceIsRevalidatedWithoutDownloadOrDecode() {
+		List<Map<String, Object>> first = reader.get("/menus", MENUS);
+		List<Map<String, Object>> second = reader.get("/menus", MENUS);
+
+		assertThat(second).isSameAs(first);
+		assertThat(notModifiedSent).hasValue(1);
+		assertThat(conditionalGet.getBytesSaved()).isEqualTo(conditionalGet.getBytesReceived());
+		assertThat(reader.getDecodes()).isEqualTo(1);
+		assertThat(reader.getDecodesSkipped()).isEqualTo(1);
+	}
+
+	@Test
+	void changedResourceIsDownloadedAgain() {
+		reader.get("/menus", MENUS);
+		menus.set("[{\"id\":1,\"description\":\"Cena\"}]");
+
+		List<Map<String, Object>> changed = reader.get("/menus", MENUS);
+
+		assertThat(changed).extracting(menu -> menu.get("description")).containsExactly("Cena");
+		assertThat(notModifiedSent).hasValue(0);
+		assertThat(reader.getDecodes()).isEqualTo(2);
+	}
+
+	@Test
+	void backendWithoutValidatorsStillSkipsDecodingIdenticalBodies() {
+		List<Map<String, Object>> first = reader.get("/dishes", MENUS);
+		List<Map<String, Object>> second = reader.get("/dishes", MENUS);
+
+		assertThat(second).isSameAs(first);
+		assertThat(conditionalGet.getNotModified()).isZero();
+		assertThat(conditionalGet.getBytesSaved()).isZero();
+		assertThat(reader.getDecodesSkipped()).isEqualTo(1);
+	}
+
+	@Test
+	void errorStatusesAreThrownAsRetrieveWouldThrowThem() {
+		assertThatThrownBy(() -> reader.get("/sales", MENUS)).isInstanceOf(HttpServerErrorException.class);
+		assertThatThrownBy(() -> reader.get("/missing", MENUS)).isInstanceOf(HttpClientErrorException.NotFound.class);
+	}
+
+	private static void respond(HttpExchange exchange, String json) throws IOException {
+		byte[] body = json.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, body.length);
+		exchange.getResponseBody().write(body);
+		exchange.close();
+	}
+
+}
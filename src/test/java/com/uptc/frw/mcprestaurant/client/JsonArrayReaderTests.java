@@ -0,0 +1,111 @@
+package com.uptc.frw.mcprestaurant.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.uptc.frw.mcprestaurant.model.Page;
+import com.uptc.frw.mcprestaurant.model.Sale;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonArrayReaderTests {
+
+	private static final int SALES = 25;
+
+	private HttpServer server;
+
+	private JsonArrayReader reader;
+
+	@BeforeEach
+	void startStub() throws Exception {
+		String sales = LongStream.rangeClosed(1, SALES)
+				.mapToObj(id -> "{\"id\":" + id + ",\"date\":\"2025-03-" + String.format("%02d", id) + "\"}")
+				.collect(Collectors.joining(",", "[", "]"));
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/api/sales", exchange -> {
+			byte[] bytes = sales.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, bytes.length);
+			exchange.getResponseBody().write(bytes);
+			exchange.close();
+		});
+		server.start();
+		RestClient restClient = RestClient.builder()
+				.baseUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/api")
+				.build();
+		reader = new JsonArrayReader(restClient, new ObjectMapper());
+	}
+
+	@AfterEach
+	void stopStub() {
+		server.stop(0);
+	}
+
+	@Test
+	void followingTheTokensVisitsEveryMatchingElementOnce() {
+		List<Long> ids = new ArrayList<>();
+		String token = null;
+		int pages = 0;
+		do {
+			Page<Sale> page = reader.readPage("/sales", Sale.class, sale -> sale.id() % 2 == 0, token, 5);
+			page.items().forEach(sale -> ids.add(sale.id()));
+			token = page.nextPageToken();
+			pages++;
+		} while (token != null);
+
+		assertThat(ids).containsExactlyElementsOf(LongStream.rangeClosed(1, SALES / 2).map(i -> 2 * i).boxed().toList());
+		assertThat(pages).isEqualTo(3);
+	}
+
+	@Test
+	void tokenIsOnlyIssuedWhenMoreElementsMatch() {
+		Page<Sale> everything = reader.readPage("/sales", Sale.class, sale -> true, null, SALES);
+		Page<Sale> allButOne = reader.readPage("/sales", Sale.class, sale -> true, null, SALES - 1);
+		Page<Sale> last = reader.readPage("/sales", Sale.class, sale -> true, allButOne.nextPageToken(), SALES - 1);
+
+		assertThat(everything.items()).hasSize(SALES);
+		assertThat(everything.nextPageToken()).isNull();
+		assertThat(allButOne.nextPageToken()).isNotNull();
+		assertThat(last.items()).containsExactly(new Sale((long) SALES, "2025-03-25"));
+		assertThat(last.nextPageToken()).isNull();
+	}
+
+	@Test
+	void tokenContinuesWithADifferentPageSize() {
+		Page<Sale> first = reader.readPage("/sales", Sale.class, sale -> true, null, 10);
+		Page<Sale> rest = reader.readPage("/sales", Sale.class, sale -> true, first.nextPageToken(), 100);
+
+		assertThat(first.items()).extracting(Sale::id).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+		assertThat(rest.items()).extracting(Sale::id)
+				.containsExactlyElementsOf(LongStream.rangeClosed(11, SALES).boxed().toList());
+		assertThat(rest.nextPageToken()).isNull();
+	}
+
+	@Test
+	void malformedTokenIsRejected() {
+		assertThatThrownBy(() -> reader.readPage("/sales", Sale.class, sale -> true, "bm90LWEtdG9rZW4", 5))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("Invalid page token");
+	}
+
+	@Test
+	void forEachStreamsTheWholeArray() {
+		List<Sale> seen = new ArrayList<>();
+
+		long count = reader.forEach("/sales", Sale.class, seen::add);
+
+		assertThat(count).isEqualTo(SALES);
+		assertThat(seen).hasSize(SALES);
+	}
+}
@@ -0,0 +1,205 @@
+package com.uptc.frw.mcprestaurant.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.uptc.frw.mcprestaurant.config.ResilienceProperties;
+import com.uptc.frw.mcprestaurant.config.RestaurantApiProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResilienceInterceptorTests {
+
+	private HttpServer server;
+
+	private final AtomicInteger failuresLeft = new AtomicInteger();
+
+	private final AtomicInteger menuHits = new AtomicInteger();
+
+	private final AtomicInteger saleMenuHits = new AtomicInteger();
+
+	private ResilienceInterceptor resilience;
+
+	private RestClient restClient;
+
+	private ExecutorService callers;
+
+	@BeforeEach
+	void startStub() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.createContext("/api/menus", exchange -> {
+			menuHits.incrementAndGet();
+			if (failuresLeft.getAndDecrement() > 0) {
+				exchange.sendResponseHeaders(503, -1);
+				exchange.close();
+				return;
+			}
+			respond(exchange, "[{\"id\":1,\"description\":\"Almuerzo\"}]");
+		});
+		server.createContext("/api/SalesMenu", exchange -> {
+			saleMenuHits.incrementAndGet();
+			exchange.sendResponseHeaders(503, -1);
+			exchange.close();
+		});
+		server.createContext("/api/sales", exchange -> {
+			sleep(500);
+			respond(exchange, "[]");
+		});
+		server.createContext("/api/dishes", exchange -> respond(exchange, "[]"));
+		server.start();
+
+		String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/api";
+		RestaurantApiProperties api = new RestaurantApiProperties(baseUrl, "admin", "password",
+				Duration.ofSeconds(2), Duration.ofSeconds(5), 16,
+				new RestaurantApiProperties.Pool(10, 10, Duration.ofSeconds(30), Duration.ofSeconds(2)),
+				new RestaurantApiProperties.BulkEndpoints(null, null));
+		ResilienceProperties properties = new ResilienceProperties(20, Map.of("sales", 1),
+				Duration.ofMillis(50), Duration.ofSeconds(5), 3, Duration.ofMillis(10), Duration.ofMillis(50),
+				3, Duration.ofSeconds(30));
+		resilience = new ResilienceInterceptor(properties, api, new ObjectMapper());
+		restClient = RestClient.builder()
+				.baseUrl(baseUrl)
+				.requestInterceptor(resilience)
+				.build();
+		callers = Executors.newFixedThreadPool(4);
+	}
+
+	@AfterEach
+	void stopStub() {
+		callers.shutdownNow();
+		server.stop(0);
+	}
+
+	@Test
+	void transientFailuresOfGetsAreRetried() {
+		failuresLeft.set(2);
+
+		String menus = restClient.get().uri("/menus").retrieve().body(String.class);
+
+		assertThat(menus).contains("Almuerzo");
+		assertThat(menuHits).hasValue(3);
+		assertThat(state("menus").retries()).isEqualTo(2);
+	}
+
+	@Test
+	void writesAreNotRetried() {
+		assertThatThrownBy(() -> restClient.post().uri("/SalesMenu").body("{}").retrieve().toBodilessEntity())
+				.isInstanceOf(HttpServerErrorException.ServiceUnavailable.class);
+		assertThat(saleMenuHits).hasValue(1);
+	}
+
+	@Test
+	void openCircuitFailsFastWithoutCallingTheBackend() {
+		assertThatThrownBy(() -> restClient.get().uri("/SalesMenu").retrieve().body(String.class))
+				.isInstanceOf(HttpServerErrorException.ServiceUnavailable.class);
+		assertThat(saleMenuHits).hasValue(3);
+
+		assertThatThrownBy(() -> restClient.get().uri("/SalesMenu").retrieve().body(String.class))
+				.isInstanceOf(ResourceAccessException.class)
+				.hasCauseInstanceOf(BackendUnavailableException.class);
+		assertThat(saleMenuHits).hasValue(3);
+		assertThat(state("SalesMenu").circuit()).isEqualTo("OPEN");
+		assertThat(state("SalesMenu").rejectedByCircuit()).isEqualTo(1);
+	}
+
+	@Test
+	void slowEndpointDoesNotStarveTheOthers() throws Exception {
+		Future<String> slow = callers.submit(() -> restClient.get().uri("/sales").retrieve().body(String.class));
+		sleep(100);
+
+		assertThatThrownBy(() -> restClient.get().uri("/sales").retrieve().body(String.class))
+				.hasCauseInstanceOf(BackendUnavailableException.class);
+		assertThat(restClient.get().uri("/dishes").retrieve().body(String.class)).isEqualTo("[]");
+		assertThat(slow.get(10, TimeUnit.SECONDS)).isEqualTo("[]");
+		assertThat(state("sales").rejectedByBulkhead()).isEqualTo(1);
+		assertThat(state("sales").inUse()).isZero();
+	}
+
+	@Test
+	void retryableResponseIsClosedBeforeTheBackoffAndTheLastIsReturnedOpen() throws Exception {
+		List<ClosingResponse> responses = new CopyOnWriteArrayList<>();
+
+		ClientHttpResponse response = resilience.intercept(
+				new MockClientHttpRequest(HttpMethod.GET, URI.create("http://127.0.0.1/api/dishes")), new byte[0],
+				(request, body) -> {
+					assertThat(responses).allMatch(ClosingResponse::isClosed);
+					ClosingResponse next = new ClosingResponse();
+					responses.add(next);
+					return next;
+				});
+
+		assertThat(responses).hasSize(3);
+		assertThat(response).isSameAs(responses.get(2));
+		assertThat(responses.get(2).isClosed()).isFalse();
+		assertThat(state("dishes").retries()).isEqualTo(2);
+	}
+
+	private ResilienceInterceptor.EndpointState state(String endpoint) {
+		return resilience.states().stream()
+				.filter(state -> state.endpoint().equals(endpoint))
+				.findFirst()
+				.orElseThrow();
+	}
+
+	private static void respond(HttpExchange exchange, String json) throws IOException {
+		byte[] body = json.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, body.length);
+		exchange.getResponseBody().write(body);
+		exchange.close();
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static final class ClosingResponse extends MockClientHttpResponse {
+
+		private volatile boolean closed;
+
+		ClosingResponse() {
+			super(new byte[0], HttpStatus.SERVICE_UNAVAILABLE);
+		}
+
+		boolean isClosed() {
+			return closed;
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+			super.close();
+		}
+	}
+}
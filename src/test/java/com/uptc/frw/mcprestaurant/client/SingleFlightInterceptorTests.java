@@ -0,0 +1,180 @@
+package com.uptc.frw.mcprestaurant.client;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightInterceptorTests {
+
+	private static final int CALLERS = 50;
+
+	private HttpServer server;
+
+	private final AtomicInteger dishHits = new AtomicInteger();
+
+	private final AtomicInteger failingHits = new AtomicInteger();
+
+	private final AtomicInteger dishesVersion = new AtomicInteger();
+
+	private SingleFlightInterceptor singleFlight;
+
+	private RestClient restClient;
+
+	private ExecutorService callers;
+
+	@BeforeEach
+	void startStub() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.createContext("/api/dishes", exchange -> {
+			if (exchange.getRequestMethod().equals("POST")) {
+				dishesVersion.incrementAndGet();
+				exchange.sendResponseHeaders(201, -1);
+				exchange.close();
+				return;
+			}
+			dishHits.incrementAndGet();
+			int version = dishesVersion.get();
+			sleep(300);
+			byte[] body = ("[{\"id\":1,\"name\":\"Bandeja paisa v" + version + "\"}]").getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			exchange.getResponseBody().write(body);
+			exchange.close();
+		});
+		server.createContext("/api/sales", exchange -> {
+			failingHits.incrementAndGet();
+			sleep(300);
+			exchange.sendResponseHeaders(503, -1);
+			exchange.close();
+		});
+		server.start();
+
+		singleFlight = new SingleFlightInterceptor(Duration.ofSeconds(5));
+		restClient = RestClient.builder()
+				.baseUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/api")
+				.defaultHeaders(headers -> headers.setBasicAuth("admin", "password"))
+				.requestInterceptor(singleFlight)
+				.build();
+		callers = Executors.newFixedThreadPool(CALLERS);
+	}
+
+	@AfterEach
+	void stopStub() {
+		callers.shutdownNow();
+		server.stop(0);
+	}
+
+	@Test
+	void concurrentIdenticalGetsShareOneBackendHit() throws Exception {
+		List<Future<String>> results = runConcurrently(() ->
+				restClient.get().uri("/dishes").retrieve().body(String.class));
+
+		for (Future<String> result : results) {
+			assertThat(result.get(10, TimeUnit.SECONDS)).contains("Bandeja paisa");
+		}
+		assertThat(dishHits).hasValue(1);
+		assertThat(singleFlight.getCoalesced()).isEqualTo(CALLERS - 1);
+		assertThat(singleFlight.getInFlight()).isZero();
+	}
+
+	@Test
+	void failureReachesEveryWaiter() throws Exception {
+		List<Future<String>> results = runConcurrently(() ->
+				restClient.get().uri("/sales").retrieve().body(String.class));
+
+		for (Future<String> result : results) {
+			assertThatThrownBy(() -> result.get(10, TimeUnit.SECONDS))
+					.hasCauseInstanceOf(HttpServerErrorException.ServiceUnavailable.class);
+		}
+		assertThat(failingHits).hasValue(1);
+		assertThat(singleFlight.getInFlight()).isZero();
+	}
+
+	@Test
+	void differentCredentialsAreNotCoalesced() throws Exception {
+		RestClient otherUser = restClient.mutate()
+				.defaultHeaders(headers -> headers.setBasicAuth("cajero", "secret"))
+				.build();
+		Future<String> first = callers.submit(() -> restClient.get().uri("/dishes").retrieve().body(String.class));
+		Future<String> second = callers.submit(() -> otherUser.get().uri("/dishes").retrieve().body(String.class));
+
+		first.get(10, TimeUnit.SECONDS);
+		second.get(10, TimeUnit.SECONDS);
+
+		assertThat(dishHits).hasValue(2);
+	}
+
+	@Test
+	void getAfterAWriteDoesNotJoinAGetStartedBeforeIt() throws Exception {
+		Future<String> leader = callers.submit(() -> restClient.get().uri("/dishes").retrieve().body(String.class));
+		sleep(100);
+		restClient.post().uri("/dishes").body("{\"name\":\"Ajiaco\"}").retrieve().toBodilessEntity();
+
+		String follower = restClient.get().uri("/dishes").retrieve().body(String.class);
+
+		assertThat(leader.get(10, TimeUnit.SECONDS)).contains("Bandeja paisa v0");
+		assertThat(follower).contains("Bandeja paisa v1");
+		assertThat(dishHits).hasValue(2);
+		assertThat(singleFlight.getCoalesced()).isZero();
+	}
+
+	@Test
+	void waiterGivesUpAfterTimeoutWithoutLeaking() throws Exception {
+		SingleFlightInterceptor impatient = new SingleFlightInterceptor(Duration.ofMillis(50));
+		RestClient client = restClient.mutate()
+				.requestInterceptors(interceptors -> {
+					interceptors.clear();
+					interceptors.add(impatient);
+				})
+				.build();
+		Future<String> leader = callers.submit(() -> client.get().uri("/dishes").retrieve().body(String.class));
+		sleep(100);
+
+		assertThatThrownBy(() -> client.get().uri("/dishes").retrieve().body(String.class))
+				.hasMessageContaining("Timed out waiting");
+		assertThat(leader.get(10, TimeUnit.SECONDS)).contains("Bandeja paisa");
+		assertThat(impatient.getInFlight()).isZero();
+	}
+
+	private List<Future<String>> runConcurrently(Callable<String> call) throws InterruptedException {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < CALLERS; i++) {
+			results.add(callers.submit(() -> {
+				start.await();
+				return call.call();
+			}));
+		}
+		start.countDown();
+		return results;
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,114 @@
+package com.uptc.frw.mcprestaurant.config;
+
+import com.sun.net.httpserver.HttpServer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uptc.frw.mcprestaurant.client.ResilienceInterceptor;
+import com.uptc.frw.mcprestaurant.metrics.BackendMetrics;
+import com.uptc.frw.mcprestaurant.metrics.BackendMetricsInterceptor;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RestClientConfigTests {
+
+	private HttpServer server;
+
+	private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+	@BeforeEach
+	void startStub() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/api/menus", exchange -> {
+			clientPorts.add(exchange.getRemoteAddress().getPort());
+			byte[] body = "[{\"idMenu\":1,\"description\":\"Menu del dia\"}]".getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			exchange.getResponseBody().write(body);
+			exchange.close();
+		});
+		server.createContext("/api/sales", exchange -> {
+			try {
+				Thread.sleep(2000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			exchange.sendResponseHeaders(200, -1);
+			exchange.close();
+		});
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.start();
+	}
+
+	@AfterEach
+	void stopStub() {
+		server.stop(0);
+	}
+
+	@Test
+	void sequentialCallsReuseOnePooledConnection() throws Exception {
+		RestaurantApiProperties properties = properties();
+		RestClientConfig config = new RestClientConfig();
+		try (PoolingHttpClientConnectionManager connectionManager = config.restaurantApiConnectionManager(properties);
+			 CloseableHttpClient httpClient = config.restaurantApiHttpClient(connectionManager, properties)) {
+			BackendMetrics metrics = new BackendMetrics(new ObjectMapper());
+			RestClient restClient = config.restaurantRestClient(httpClient, properties, List.of(new BackendMetricsInterceptor(metrics)));
+
+			for (int i = 0; i < 50; i++) {
+				restClient.get().uri("/menus").retrieve().body(String.class);
+			}
+
+			assertThat(clientPorts).hasSize(1);
+			assertThat(connectionManager.getTotalStats().getLeased()).isZero();
+			assertThat(connectionManager.getTotalStats().getAvailable()).isEqualTo(1);
+			assertThat(metrics.snapshot()).singleElement().satisfies(endpoint -> {
+				assertThat(endpoint.name()).isEqualTo("GET /api/menus");
+				assertThat(endpoint.calls()).isEqualTo(50);
+			});
+		}
+	}
+
+	@Test
+	void attemptDoesNotWaitForTheResponsePastTheDeadline() throws Exception {
+		RestaurantApiProperties properties = properties();
+		ResilienceInterceptor resilience = new ResilienceInterceptor(new ResilienceProperties(20, Map.of(),
+				Duration.ofMillis(50), Duration.ofMillis(300), 1, Duration.ofMillis(10), Duration.ofMillis(50),
+				3, Duration.ofSeconds(30)), properties, new ObjectMapper());
+		RestClientConfig config = new RestClientConfig();
+		try (PoolingHttpClientConnectionManager connectionManager = config.restaurantApiConnectionManager(properties);
+			 CloseableHttpClient httpClient = config.restaurantApiHttpClient(connectionManager, properties)) {
+			RestClient restClient = config.restaurantRestClient(httpClient, properties, List.of(resilience));
+			long start = System.nanoTime();
+
+			assertThatThrownBy(() -> restClient.get().uri("/sales").retrieve().toBodilessEntity())
+					.isInstanceOf(ResourceAccessException.class)
+					.hasCauseInstanceOf(SocketTimeoutException.class);
+			// read timeout is 5s and the stub answers after 2s; only the 300ms deadline ends it this early
+			assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(1500));
+		}
+	}
+
+	private RestaurantApiProperties properties() {
+		return new RestaurantApiProperties(
+				"http://127.0.0.1:" + server.getAddress().getPort() + "/api", "admin", "password",
+				Duration.ofSeconds(2), Duration.ofSeconds(5), 16,
+				new RestaurantApiProperties.Pool(10, 10, Duration.ofSeconds(30), Duration.ofSeconds(2)),
+				new RestaurantApiProperties.BulkEndpoints(null, null));
+	}
+}
@@ -0,0 +1,45 @@
+package com.uptc.frw.mcprestaurant.config;
+
+import com.uptc.frw.mcprestaurant.McprestaurantApplication;
+import com.uptc.frw.mcprestaurant.model.DishMenuItem;
+import com.uptc.frw.mcprestaurant.model.Menu;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RestaurantRuntimeHintsTests {
+
+	private final RuntimeHints hints = new RuntimeHints();
+
+	RestaurantRuntimeHintsTests() {
+		new RestaurantRuntimeHints().registerHints(hints, getClass().getClassLoader());
+	}
+
+	@Test
+	void everyToolMethodIsInvocable() {
+		McprestaurantApplication.TOOL_SERVICES.forEach(service -> Arrays.stream(service.getMethods())
+				.filter(method -> method.isAnnotationPresent(Tool.class))
+				.forEach(method -> assertThat(RuntimeHintsPredicates.reflection().onMethodInvocation(method))
+						.as(method.toString())
+						.accepts(hints)));
+	}
+
+	@Test
+	void modelsAreBindable() {
+		assertThat(RuntimeHintsPredicates.reflection().onType(Menu.class)).accepts(hints);
+		assertThat(RuntimeHintsPredicates.reflection().onMethodInvocation(Menu.class, "description")).accepts(hints);
+		assertThat(RuntimeHintsPredicates.reflection().onType(DishMenuItem.class)).accepts(hints);
+	}
+
+	@Test
+	void virtualThreadFactoryIsReachable() {
+		assertThat(RuntimeHintsPredicates.reflection()
+				.onMethodInvocation("java.util.concurrent.Executors", "newVirtualThreadPerTaskExecutor")).accepts(hints);
+	}
+
+}
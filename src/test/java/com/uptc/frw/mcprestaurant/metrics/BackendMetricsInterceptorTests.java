@@ -0,0 +1,70 @@
+package com.uptc.frw.mcprestaurant.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BackendMetricsInterceptorTests {
+
+	private final BackendMetrics metrics = new BackendMetrics(new ObjectMapper());
+
+	private final BackendMetricsInterceptor interceptor = new BackendMetricsInterceptor(metrics);
+
+	@Test
+	void idsAndQueryValuesAreDroppedFromTheEndpoint() {
+		assertThat(BackendMetricsInterceptor.endpointOf(request(HttpMethod.GET, "/api/menus/12")))
+				.isEqualTo("GET /api/menus/{id}");
+		assertThat(BackendMetricsInterceptor.endpointOf(request(HttpMethod.GET, "/api/SalesMenu/7/dishes/30")))
+				.isEqualTo("GET /api/SalesMenu/{id}/dishes/{id}");
+		assertThat(BackendMetricsInterceptor.endpointOf(request(HttpMethod.DELETE, "/api/menus?id=12")))
+				.isEqualTo("DELETE /api/menus?id=");
+		assertThat(BackendMetricsInterceptor.endpointOf(request(HttpMethod.GET, "/api/sales2025")))
+				.isEqualTo("GET /api/sales2025");
+	}
+
+	@Test
+	void errorStatusCountsAsAFailedCall() throws IOException {
+		byte[] body = "{\"description\":\"Almuerzo\"}".getBytes(StandardCharsets.UTF_8);
+
+		interceptor.intercept(request(HttpMethod.POST, "/api/menus"), body,
+				(request, sent) -> new MockClientHttpResponse(new byte[0], HttpStatus.OK));
+		interceptor.intercept(request(HttpMethod.POST, "/api/menus"), body,
+				(request, sent) -> new MockClientHttpResponse(new byte[0], HttpStatus.SERVICE_UNAVAILABLE));
+
+		CallMetrics.Snapshot endpoint = metrics.snapshot().get(0);
+		assertThat(endpoint.name()).isEqualTo("POST /api/menus");
+		assertThat(endpoint.calls()).isEqualTo(2);
+		assertThat(endpoint.errors()).isEqualTo(1);
+		assertThat(endpoint.bytesIn()).isEqualTo(2L * body.length);
+	}
+
+	@Test
+	void failedExchangeIsRecordedAndRethrown() {
+		IOException failure = new IOException("Connection refused");
+
+		assertThatThrownBy(() -> interceptor.intercept(request(HttpMethod.GET, "/api/dishes/3"), new byte[0],
+				(request, sent) -> {
+					throw failure;
+				})).isSameAs(failure);
+
+		CallMetrics.Snapshot endpoint = metrics.snapshot().get(0);
+		assertThat(endpoint.name()).isEqualTo("GET /api/dishes/{id}");
+		assertThat(endpoint.calls()).isEqualTo(1);
+		assertThat(endpoint.errors()).isEqualTo(1);
+		assertThat(endpoint.bytesOut()).isZero();
+	}
+
+	private static MockClientHttpRequest request(HttpMethod method, String path) {
+		return new MockClientHttpRequest(method, URI.create("http://127.0.0.1:8080" + path));
+	}
+}
@@ -0,0 +1,85 @@
+package com.uptc.frw.mcprestaurant.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InstrumentedToolCallbackTests {
+
+	private final ToolMetrics metrics = new ToolMetrics(new ObjectMapper());
+
+	@Test
+	void successfulCallRecordsItsSizes() {
+		InstrumentedToolCallback callback = new InstrumentedToolCallback(new StubTool(input -> "[1,2]"), metrics);
+
+		assertThat(callback.call("{\"id\":1}")).isEqualTo("[1,2]");
+
+		CallMetrics.Snapshot tool = metrics.snapshot().get(0);
+		assertThat(tool.name()).isEqualTo("getMenuById");
+		assertThat(tool.calls()).isEqualTo(1);
+		assertThat(tool.errors()).isZero();
+		assertThat(tool.bytesIn()).isEqualTo(8);
+		assertThat(tool.bytesOut()).isEqualTo(5);
+	}
+
+	@Test
+	void throwingDelegateIsRecordedAsFailedAndRethrown() {
+		IllegalStateException failure = new IllegalStateException("503 Service Unavailable");
+		InstrumentedToolCallback callback = new InstrumentedToolCallback(new StubTool(input -> {
+			throw failure;
+		}), metrics);
+
+		assertThatThrownBy(() -> callback.call("{\"id\":1}")).isSameAs(failure);
+
+		CallMetrics.Snapshot tool = metrics.snapshot().get(0);
+		assertThat(tool.calls()).isEqualTo(1);
+		assertThat(tool.errors()).isEqualTo(1);
+		assertThat(tool.bytesOut()).isZero();
+	}
+
+	@Test
+	void toolContextIsHandedToTheDelegate() {
+		StubTool delegate = new StubTool(input -> "ok");
+		ToolContext context = new ToolContext(Map.of("session", "1"));
+
+		new InstrumentedToolCallback(delegate, metrics).call("{}", context);
+
+		assertThat(delegate.context).isSameAs(context);
+		assertThat(metrics.snapshot().get(0).errors()).isZero();
+	}
+
+	private static final class StubTool implements ToolCallback {
+
+		private final Function<String, String> body;
+
+		ToolContext context;
+
+		StubTool(Function<String, String> body) {
+			this.body = body;
+		}
+
+		@Override
+		public ToolDefinition getToolDefinition() {
+			return ToolDefinition.builder().name("getMenuById").description("Get a menu").inputSchema("{}").build();
+		}
+
+		@Override
+		public String call(String toolInput) {
+			return body.apply(toolInput);
+		}
+
+		@Override
+		public String call(String toolInput, ToolContext toolContext) {
+			context = toolContext;
+			return call(toolInput);
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package com.uptc.frw.mcprestaurant.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTests {
+
+	@Test
+	void valuesBelowThirtyTwoHaveABucketEach() {
+		assertThat(LatencyHistogram.indexOf(0)).isZero();
+		assertThat(LatencyHistogram.indexOf(31)).isEqualTo(31);
+		assertThat(LatencyHistogram.upperBound(31)).isEqualTo(31);
+	}
+
+	@Test
+	void linearRangeEndsAtSixtyThreeAndTheNextPowerSharesBucketsInPairs() {
+		assertThat(LatencyHistogram.indexOf(32)).isEqualTo(32);
+		assertThat(LatencyHistogram.upperBound(32)).isEqualTo(32);
+		assertThat(LatencyHistogram.indexOf(63)).isEqualTo(63);
+		assertThat(LatencyHistogram.upperBound(63)).isEqualTo(63);
+
+		assertThat(LatencyHistogram.indexOf(64)).isEqualTo(64);
+		assertThat(LatencyHistogram.indexOf(65)).isEqualTo(64);
+		assertThat(LatencyHistogram.upperBound(64)).isEqualTo(65);
+		assertThat(LatencyHistogram.indexOf(66)).isEqualTo(65);
+	}
+
+	@Test
+	void largestValueFallsInTheLastBucketWithoutOverflow() {
+		int last = LatencyHistogram.indexOf(Long.MAX_VALUE);
+
+		assertThat(LatencyHistogram.upperBound(last)).isEqualTo(Long.MAX_VALUE);
+		assertThat(LatencyHistogram.indexOf(Long.MAX_VALUE / 2 + 1)).isLessThan(last);
+
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(Long.MAX_VALUE);
+		assertThat(histogram.max()).isEqualTo(Long.MAX_VALUE);
+		assertThat(histogram.percentile(100)).isEqualTo(Long.MAX_VALUE);
+	}
+
+	@Test
+	void everyUpperBoundIsTheLastValueOfItsBucket() {
+		int last = LatencyHistogram.indexOf(Long.MAX_VALUE);
+		for (int index = 0; index < last; index++) {
+			long bound = LatencyHistogram.upperBound(index);
+			assertThat(LatencyHistogram.indexOf(bound)).isEqualTo(index);
+			assertThat(LatencyHistogram.indexOf(bound + 1)).isEqualTo(index + 1);
+		}
+	}
+
+	@Test
+	void percentileIsTheValueAtTheCeilingRank() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertThat(histogram.percentile(50)).isZero();
+
+		for (long value = 1; value <= 10; value++) {
+			histogram.record(value);
+		}
+
+		assertThat(histogram.percentile(0)).isEqualTo(1);
+		assertThat(histogram.percentile(50)).isEqualTo(5);
+		assertThat(histogram.percentile(90)).isEqualTo(9);
+		assertThat(histogram.percentile(91)).isEqualTo(10);
+		assertThat(histogram.percentile(100)).isEqualTo(10);
+		assertThat(histogram.mean()).isEqualTo(5.5);
+	}
+
+	@Test
+	void percentileIsCappedAtTheLargestRecordedValue() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(64);
+		histogram.record(1000);
+		histogram.record(-5);
+
+		assertThat(histogram.count()).isEqualTo(3);
+		assertThat(histogram.percentile(0)).isZero();
+		assertThat(histogram.percentile(50)).isEqualTo(65);
+		assertThat(histogram.percentile(100)).isEqualTo(1000);
+	}
+}
@@ -0,0 +1,40 @@
+package com.uptc.frw.mcprestaurant.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkResultTests {
+
+	private static final List<Long> IDS = List.of(4L, 5L, 6L);
+
+	@Test
+	void itemsMissingFromAShortResponseAreFailures() {
+		SaleMenu first = new SaleMenu(4L, 100L, 1);
+
+		List<BulkResult<SaleMenu>> results = BulkResult.byPosition(IDS, List.of(first));
+
+		assertThat(results).containsExactly(
+				BulkResult.success(4L, first),
+				BulkResult.failure(5L, "not returned by the backend"),
+				BulkResult.failure(6L, "not returned by the backend"));
+	}
+
+	@Test
+	void nullEntriesAndNullBodiesAreFailures() {
+		SaleMenu last = new SaleMenu(6L, 100L, 3);
+
+		List<BulkResult<SaleMenu>> withHole = BulkResult.byPosition(IDS, Arrays.asList(null, null, last));
+		List<BulkResult<SaleMenu>> withoutBody = BulkResult.byPosition(IDS, null);
+
+		assertThat(withHole).containsExactly(
+				BulkResult.failure(4L, "not returned by the backend"),
+				BulkResult.failure(5L, "not returned by the backend"),
+				BulkResult.success(6L, last));
+		assertThat(withoutBody).allMatch(result -> result.value() == null && result.error() != null);
+		assertThat(withoutBody).extracting(BulkResult::id).containsExactly(4L, 5L, 6L);
+	}
+}
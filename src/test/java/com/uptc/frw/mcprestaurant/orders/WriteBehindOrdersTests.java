@@ -0,0 +1,337 @@
+package com.uptc.frw.mcprestaurant.orders;
+
+import com.uptc.frw.mcprestaurant.config.OrderJournalProperties;
+import com.uptc.frw.mcprestaurant.model.QueuedOrderWrite;
+import com.uptc.frw.mcprestaurant.model.Sale;
+import com.uptc.frw.mcprestaurant.model.SaleMenu;
+import com.uptc.frw.mcprestaurant.model.SaleMenuItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WriteBehindOrdersTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void acknowledgedWritesAreSentInOrderWithTheBackendSaleId() throws Exception {
+		FakeBackend backend = new FakeBackend(true);
+		WriteBehindOrders orders = new WriteBehindOrders(properties(), backend);
+
+		Sale sale = orders.createSale("2025-03-01");
+		orders.addSaleLines(sale.id(), List.of(new SaleMenuItem(7L, 2), new SaleMenuItem(8L, 1)));
+		awaitUntil(() -> orders.getPending() == 0);
+		orders.stop();
+
+		assertThat(sale.id()).isEqualTo(-1L);
+		assertThat(orders.backendId(-1)).isEqualTo(100L);
+		assertThat(backend.calls).containsExactly("sale 2025-03-01", "lines [7x2@100, 8x1@100]");
+		assertThat(backend.keys).doesNotHaveDuplicates();
+		assertThat(orders.getSent()).isEqualTo(3);
+	}
+
+	@Test
+	void queuedWritesAreReadBackAndResentWithTheSameKeysAfterARestart() throws Exception {
+		FakeBackend down = new FakeBackend(false);
+		down.unreachable = true;
+		WriteBehindOrders first = new WriteBehindOrders(properties(), down);
+		Sale sale = first.createSale("2025-03-01");
+		first.addSaleLines(sale.id(), List.of(new SaleMenuItem(7L, 2)));
+
+		assertThat(first.unsentSale(sale.id())).isEqualTo(sale);
+		assertThat(first.unsentLines(sale.id())).containsExactly(new SaleMenu(7L, -1L, 2));
+		awaitUntil(() -> !down.keys.isEmpty());
+		first.stop();
+
+		FakeBackend up = new FakeBackend(false);
+		WriteBehindOrders next = new WriteBehindOrders(properties(), up);
+		assertThat(next.getRecoveredWrites()).isEqualTo(2);
+		awaitUntil(() -> next.getPending() == 0);
+
+		assertThat(up.calls).containsExactly("sale 2025-03-01", "lines [7x2@100]");
+		assertThat(up.keys.get(0)).isEqualTo(down.keys.get(0));
+		assertThat(next.createSale("2025-03-02").id()).isEqualTo(-2L);
+		next.stop();
+	}
+
+	@Test
+	void rejectedSaleFailsItsLinesAndBlocksSynchronousWrites() throws Exception {
+		FakeBackend backend = new FakeBackend(false);
+		backend.unreachable = true;
+		WriteBehindOrders orders = new WriteBehindOrders(properties(), backend);
+
+		Sale sale = orders.createSale("not a date");
+		orders.addSaleLines(sale.id(), List.of(new SaleMenuItem(7L, 2)));
+		backend.rejectSales = true;
+		backend.unreachable = false;
+		awaitUntil(() -> orders.getPending() == 0);
+
+		assertThat(orders.getFailed()).isEqualTo(2);
+		assertThat(orders.status(10).writes()).extracting(QueuedOrderWrite::state).containsOnly("failed");
+		assertThatThrownBy(() -> orders.awaitSent(sale.id())).isInstanceOf(IllegalStateException.class);
+		assertThatThrownBy(() -> orders.addSaleLines(-42L, List.of(new SaleMenuItem(7L, 2))))
+				.isInstanceOf(IllegalArgumentException.class);
+		orders.stop();
+	}
+
+	@Test
+	void timedOutBatchIsResentWithTheSameLinesAndKey() throws Exception {
+		FakeBackend backend = new FakeBackend(true);
+		WriteBehindOrders orders = new WriteBehindOrders(properties(), backend);
+		Sale sale = orders.createSale("2025-03-01");
+		awaitUntil(() -> orders.getPending() == 0);
+
+		backend.timeouts = 1;
+		backend.hold = new CountDownLatch(1);
+		orders.addSaleLines(sale.id(), List.of(new SaleMenuItem(7L, 2), new SaleMenuItem(8L, 1)));
+		awaitUntil(() -> backend.holding);
+		orders.addSaleLines(sale.id(), List.of(new SaleMenuItem(9L, 3)));
+		backend.hold.countDown();
+		awaitUntil(() -> orders.getPending() == 0);
+		orders.stop();
+
+		assertThat(backend.keys).hasSize(4);
+		assertThat(backend.keys.get(2)).isEqualTo(backend.keys.get(1));
+		assertThat(backend.lineKeys.get(1)).isEqualTo(backend.lineKeys.get(0));
+		assertThat(backend.applied).containsExactly("7x2@100", "8x1@100", "9x3@100");
+	}
+
+	@Test
+	void rejectedBatchIsResentLineByLineUnderTheKeysItCarried() throws Exception {
+		FakeBackend backend = new FakeBackend(true);
+		backend.rejectedMenu = 8L;
+		WriteBehindOrders orders = new WriteBehindOrders(properties(), backend);
+		Sale sale = orders.createSale("2025-03-01");
+		awaitUntil(() -> orders.getPending() == 0);
+
+		orders.addSaleLines(sale.id(), List.of(new SaleMenuItem(7L, 2), new SaleMenuItem(8L, 1), new SaleMenuItem(9L, 3)));
+		awaitUntil(() -> orders.getPending() == 0);
+		orders.stop();
+
+		assertThat(backend.keys).hasSize(5);
+		assertThat(backend.keys.subList(2, 5)).isEqualTo(backend.lineKeys.get(0));
+		assertThat(backend.applied).containsExactly("7x2@100", "9x3@100");
+		assertThat(orders.getSent()).isEqualTo(3);
+		assertThat(orders.getFailed()).isEqualTo(1);
+	}
+
+	@Test
+	void batchSentBeforeARestartIsResentWithTheSameLinesAndKey() throws Exception {
+		FakeBackend down = new FakeBackend(true);
+		WriteBehindOrders first = new WriteBehindOrders(properties(), down);
+		Sale sale = first.createSale("2025-03-01");
+		awaitUntil(() -> first.getPending() == 0);
+		down.unreachable = true;
+		first.addSaleLines(sale.id(), List.of(new SaleMenuItem(7L, 2), new SaleMenuItem(8L, 1)));
+		awaitUntil(() -> down.keys.size() >= 2);
+		first.addSaleLines(sale.id(), List.of(new SaleMenuItem(9L, 3)));
+		first.stop();
+
+		FakeBackend up = new FakeBackend(true);
+		WriteBehindOrders next = new WriteBehindOrders(properties(), up);
+		awaitUntil(() -> next.getPending() == 0);
+		next.stop();
+
+		assertThat(up.keys.get(0)).isEqualTo(down.keys.get(1));
+		assertThat(up.calls).containsExactly("lines [7x2@100, 8x1@100]", "lines [9x3@100]");
+	}
+
+	@Test
+	void resetKeepsTheCountersOnDisk() throws Exception {
+		Path file = dir.resolve("orders.journal");
+		try (OrderJournal journal = new OrderJournal(file)) {
+			journal.append(OrderWrite.sale(1, -1, "2025-03-01"));
+			journal.reset(5, 2, -2);
+		}
+
+		try (OrderJournal journal = new OrderJournal(file)) {
+			assertThat(journal.recovered().nextSequence()).isEqualTo(2);
+			assertThat(journal.recovered().nextLocalId()).isEqualTo(-2);
+			assertThat(journal.recovered().writes()).isEmpty();
+		}
+	}
+
+	@Test
+	void tornTailIsCutOffWhenTheJournalIsOpened() throws Exception {
+		Path file = dir.resolve("orders.journal");
+		try (OrderJournal journal = new OrderJournal(file)) {
+			journal.reset(5, 1, -1);
+			journal.append(OrderWrite.sale(1, -1, "2025-03-01"));
+			journal.append(OrderWrite.line(2, -1, 7L, 2));
+		}
+		long intact = Files.size(file);
+		Files.write(file, new byte[] { 0, 0, 0, 40, 1, 2, 3 }, StandardOpenOption.APPEND);
+
+		try (OrderJournal journal = new OrderJournal(file)) {
+			assertThat(journal.recovered().journalId()).isEqualTo(5);
+			assertThat(journal.recovered().writes()).extracting(OrderWrite::sequence).containsExactly(1L, 2L);
+			assertThat(journal.recovered().truncatedBytes()).isEqualTo(7);
+		}
+		assertThat(Files.size(file)).isEqualTo(intact);
+	}
+
+	@Test
+	void writeThatCannotBeMadeDurableIsNeverSent() throws Exception {
+		FakeBackend backend = new FakeBackend(true);
+		FailingJournal journal = new FailingJournal(dir.resolve("orders.journal"));
+		WriteBehindOrders orders = new WriteBehindOrders(properties(), backend, journal);
+
+		journal.failForce = true;
+		assertThatThrownBy(() -> orders.createSale("2025-03-01")).isInstanceOf(UncheckedIOException.class);
+		journal.failForce = false;
+		Sale sale = orders.createSale("2025-03-02");
+		awaitUntil(() -> orders.getPending() == 0);
+		orders.stop();
+
+		assertThat(backend.calls).containsExactly("sale 2025-03-02");
+		assertThat(sale.id()).isEqualTo(-2L);
+		assertThat(orders.unsentSale(-1)).isNull();
+		assertThat(orders.getFailed()).isEqualTo(1);
+		WriteBehindOrders next = new WriteBehindOrders(properties(), new FakeBackend(true));
+		assertThat(next.getRecoveredWrites()).isZero();
+		next.stop();
+	}
+
+	private OrderJournalProperties properties() {
+		return new OrderJournalProperties(true, dir.resolve("orders.journal"), 4, 100, 50,
+				Duration.ofMillis(5), Duration.ofMillis(20), Duration.ofSeconds(5));
+	}
+
+	private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (!condition.getAsBoolean()) {
+			assertThat(System.nanoTime()).isLessThan(deadline);
+			Thread.sleep(5);
+		}
+	}
+
+	/**
+	 * Answers a repeated idempotency key with its first answer, and applies a
+	 * line only once per line key, like a backend that honours both
+	 */
+	private static final class FakeBackend implements OrderBackend {
+
+		final List<String> calls = new ArrayList<>();
+		final List<String> keys = new ArrayList<>();
+		final List<List<String>> lineKeys = new ArrayList<>();
+		final List<String> applied = new ArrayList<>();
+		private final Set<String> answered = new HashSet<>();
+		private final Set<String> appliedKeys = new HashSet<>();
+		private final boolean batches;
+		volatile boolean unreachable;
+		volatile boolean rejectSales;
+		/** Lines requests that time out after being applied */
+		volatile int timeouts;
+		/** Lines of this menu are rejected; the others in the same request are still applied */
+		volatile Long rejectedMenu;
+		/** Held lines requests wait for it before being answered */
+		volatile CountDownLatch hold;
+		volatile boolean holding;
+		private long nextId = 100;
+
+		FakeBackend(boolean batches) {
+			this.batches = batches;
+		}
+
+		@Override
+		public synchronized Sale createSale(String date, String idempotencyKey) {
+			keys.add(idempotencyKey);
+			if (unreachable) {
+				throw new ResourceAccessException("Connection refused");
+			}
+			if (rejectSales) {
+				throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+			}
+			calls.add("sale " + date);
+			return new Sale(nextId++, date);
+		}
+
+		@Override
+		public List<SaleMenu> addSaleLines(List<SaleMenu> lines, List<String> lineKeys, String idempotencyKey) {
+			CountDownLatch latch = hold;
+			if (latch != null) {
+				holding = true;
+				try {
+					latch.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				hold = null;
+			}
+			synchronized (this) {
+				keys.add(idempotencyKey);
+				this.lineKeys.add(lineKeys);
+				if (unreachable) {
+					throw new ResourceAccessException("Connection refused");
+				}
+				if (!answered.add(idempotencyKey)) {
+					return lines;
+				}
+				calls.add("lines " + lines.stream().map(FakeBackend::describe).toList());
+				boolean rejected = false;
+				for (int i = 0; i < lines.size(); i++) {
+					if (lines.get(i).menuId().equals(rejectedMenu)) {
+						rejected = true;
+					} else if (appliedKeys.add(lineKeys.get(i))) {
+						applied.add(describe(lines.get(i)));
+					}
+				}
+				if (rejected) {
+					answered.remove(idempotencyKey);
+					throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+				}
+				if (timeouts > 0) {
+					timeouts--;
+					throw new ResourceAccessException("Read timed out");
+				}
+				return lines;
+			}
+		}
+
+		private static String describe(SaleMenu line) {
+			return line.menuId() + "x" + line.quantity() + "@" + line.saleId();
+		}
+
+		@Override
+		public boolean batchesLines() {
+			return batches;
+		}
+	}
+
+	/** Fails its fsyncs on demand, like a full or failing disk */
+	private static final class FailingJournal extends OrderJournal {
+
+		volatile boolean failForce;
+
+		FailingJournal(Path file) throws IOException {
+			super(file);
+		}
+
+		@Override
+		void force(long position) throws IOException {
+			if (failForce) {
+				throw new IOException("No space left on device");
+			}
+			super.force(position);
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.uptc.frw.mcprestaurant.resource;
+
+import com.uptc.frw.mcprestaurant.model.Dish;
+import com.uptc.frw.mcprestaurant.model.DishMenu;
+import com.uptc.frw.mcprestaurant.model.Menu;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogFingerprintsTests {
+
+	private static final List<Menu> MENUS = List.of(new Menu(1L, "Menú del día"), new Menu(2L, "Menú ejecutivo"));
+	private static final List<Dish> DISHES = List.of(
+			new Dish(10L, "Sopa", "Ajiaco", "Con guascas"),
+			new Dish(11L, "Postre", "Arroz con leche", null));
+	private static final List<DishMenu> DISH_MENUS = List.of(
+			new DishMenu(1L, 10L, 12000.0, "2025-01-01"),
+			new DishMenu(2L, 11L, 6000.0, "2025-01-01"));
+
+	private final CatalogFingerprints fingerprints = new CatalogFingerprints();
+
+	@BeforeEach
+	void takeBaseline() {
+		assertThat(fingerprints.update(MENUS, DISHES, DISH_MENUS).isEmpty()).isTrue();
+	}
+
+	@Test
+	void sameContentInAnotherOrderIsNotAChange() {
+		CatalogFingerprints.Changes changes = fingerprints.update(List.of(MENUS.get(1), MENUS.get(0)),
+				List.of(new Dish(11L, "Postre", "Arroz con leche", null), new Dish(10L, "Sopa", "Ajiaco", "Con guascas")),
+				List.of(DISH_MENUS.get(1), DISH_MENUS.get(0)));
+
+		assertThat(changes.isEmpty()).isTrue();
+	}
+
+	@Test
+	void renamedDishMarksTheDishAndEveryMenuServingIt() {
+		CatalogFingerprints.Changes changes = fingerprints.update(MENUS,
+				List.of(DISHES.get(0), new Dish(11L, "Postre", "Arroz con leche", "")), DISH_MENUS);
+
+		assertThat(changes.uris()).containsExactly(
+				"restaurant://dishes", "restaurant://menus/2", "restaurant://dishes/11");
+		assertThat(changes.menus()).isEmpty();
+	}
+
+	@Test
+	void priceChangeMarksOnlyItsMenu() {
+		CatalogFingerprints.Changes changes = fingerprints.update(MENUS, DISHES,
+				List.of(new DishMenu(1L, 10L, 13000.0, "2025-02-01"), DISH_MENUS.get(1)));
+
+		assertThat(changes.uris()).containsExactly("restaurant://dish-menus", "restaurant://menus/1");
+	}
+
+	@Test
+	void addedAndRemovedMenusAreChanges() {
+		CatalogFingerprints.Changes changes = fingerprints.update(
+				List.of(MENUS.get(0), new Menu(3L, "Menú infantil")), DISHES, DISH_MENUS);
+
+		assertThat(changes.menus()).containsExactly(2L, 3L);
+		assertThat(changes.menuViews()).containsExactly(2L, 3L);
+	}
+}
@@ -0,0 +1,250 @@
+package com.uptc.frw.mcprestaurant.resource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uptc.frw.mcprestaurant.cache.CatalogCache;
+import com.uptc.frw.mcprestaurant.cache.CatalogSnapshot;
+import com.uptc.frw.mcprestaurant.client.RevalidatingReader;
+import com.uptc.frw.mcprestaurant.config.CatalogCacheProperties;
+import com.uptc.frw.mcprestaurant.config.CatalogResourcesProperties;
+import com.uptc.frw.mcprestaurant.config.CatalogSnapshotProperties;
+import com.uptc.frw.mcprestaurant.config.RestaurantApiProperties;
+import com.uptc.frw.mcprestaurant.model.Dish;
+import com.uptc.frw.mcprestaurant.model.DishMenu;
+import com.uptc.frw.mcprestaurant.model.Menu;
+import com.uptc.frw.mcprestaurant.model.MenuDish;
+import com.uptc.frw.mcprestaurant.model.MenuWithDishes;
+import com.uptc.frw.mcprestaurant.service.DishMenuService;
+import com.uptc.frw.mcprestaurant.service.DishService;
+import com.uptc.frw.mcprestaurant.service.MenuDetailService;
+import com.uptc.frw.mcprestaurant.service.MenuService;
+import io.modelcontextprotocol.server.McpServer;
+import io.modelcontextprotocol.server.McpSyncServer;
+import io.modelcontextprotocol.spec.McpSchema;
+import io.modelcontextprotocol.spec.McpServerSession;
+import io.modelcontextprotocol.spec.McpServerTransportProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogResourcesTests {
+
+	private static final List<Menu> MENUS = List.of(new Menu(1L, "Menú del día"), new Menu(2L, null));
+	private static final List<Dish> DISHES = List.of(
+			new Dish(10L, "Sopa", "Ajiaco", "Con guascas"),
+			new Dish(11L, "Postre", "Arroz con leche", null));
+	private static final List<DishMenu> DISH_MENUS = List.of(
+			new DishMenu(1L, 10L, 12000.0, "2025-01-01"),
+			new DishMenu(1L, 11L, 6000.0, "2025-01-01"),
+			new DishMenu(2L, 11L, 5000.0, "2025-01-01"));
+
+	@TempDir
+	Path dir;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	private CatalogWatcher watcher;
+
+	private CatalogResources resources;
+
+	private McpSyncServer server;
+
+	private final StubTransport transport = new StubTransport();
+
+	@BeforeEach
+	void createResources() {
+		CatalogCacheProperties.Entity entity = new CatalogCacheProperties.Entity(true, 100, Duration.ofMinutes(10));
+		CatalogCache cache = new CatalogCache(new CatalogCacheProperties(entity, entity, entity),
+				new CatalogSnapshot(new CatalogSnapshotProperties(false, dir.resolve("catalog.snapshot"),
+						Duration.ofHours(24), Duration.ofSeconds(2))),
+				executor);
+		StaticListableBeanFactory beans = new StaticListableBeanFactory();
+		watcher = new CatalogWatcher(new CatalogResourcesProperties(true, Duration.ofMinutes(5), Duration.ofMillis(250)),
+				new StubReader(), cache);
+		StubMenus menus = new StubMenus();
+		StubDishes dishes = new StubDishes();
+		StubDishMenus dishMenus = new StubDishMenus();
+		beans.addBean("menuService", menus);
+		beans.addBean("dishService", dishes);
+		beans.addBean("dishMenuService", dishMenus);
+		beans.addBean("menuDetailService", new MenuDetailService(menus, dishes, dishMenus, executor));
+		resources = new CatalogResources(beans.getBeanProvider(MenuService.class),
+				beans.getBeanProvider(MenuDetailService.class), beans.getBeanProvider(DishService.class),
+				beans.getBeanProvider(DishMenuService.class), watcher, objectMapper,
+				beans.getBeanProvider(McpSyncServer.class));
+		server = McpServer.sync(transport)
+				.serverInfo("catalog-resources-test", "1")
+				.capabilities(McpSchema.ServerCapabilities.builder().resources(false, true).build())
+				.resources(resources.specifications())
+				.build();
+		beans.addBean("mcpSyncServer", server);
+	}
+
+	@AfterEach
+	void stop() {
+		watcher.stop();
+		server.closeGracefully();
+		executor.shutdownNow();
+	}
+
+	@Test
+	void collectionsAreReadThroughTheirServices() throws Exception {
+		assertThat(resources.read(CatalogResources.MENUS)).isEqualTo(objectMapper.writeValueAsString(MENUS));
+		assertThat(resources.read(CatalogResources.DISHES)).isEqualTo(objectMapper.writeValueAsString(DISHES));
+		assertThat(resources.read(CatalogResources.DISH_MENUS)).isEqualTo(objectMapper.writeValueAsString(DISH_MENUS));
+	}
+
+	@Test
+	void menuIsReadWithItsDishesAndTotal() throws Exception {
+		MenuWithDishes menu = objectMapper.readValue(resources.read("restaurant://menus/1"), MenuWithDishes.class);
+		Dish dish = objectMapper.readValue(resources.read("restaurant://dishes/11"), Dish.class);
+
+		assertThat(menu.description()).isEqualTo("Menú del día");
+		assertThat(menu.dishes()).extracting(MenuDish::name).containsExactlyInAnyOrder("Ajiaco", "Arroz con leche");
+		assertThat(menu.totalPrice()).isEqualTo(18000.0);
+		assertThat(dish).isEqualTo(DISHES.get(1));
+	}
+
+	@Test
+	void firstReadStartsWatchingTheCatalog() {
+		assertThat(watcher.isWatching()).isFalse();
+
+		resources.read(CatalogResources.MENUS);
+
+		assertThat(watcher.isWatching()).isTrue();
+		assertThat(watcher.getPolls()).isEqualTo(1);
+		assertThat(watcher.getResourceReads()).isEqualTo(1);
+	}
+
+	@Test
+	void unknownUrisAreRejected() {
+		assertThatThrownBy(() -> resources.read("restaurant://sales"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("Unknown resource");
+		assertThatThrownBy(() -> resources.read("restaurant://menus/{id}"))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("Unknown resource");
+	}
+
+	@Test
+	void menusAndDishesAreListedByConcreteUri() {
+		assertThat(resources.specifications()).extracting(specification -> specification.resource().uri())
+				.containsExactly(CatalogResources.MENUS, CatalogResources.DISHES, CatalogResources.DISH_MENUS,
+						"restaurant://menus/1", "restaurant://menus/2", "restaurant://dishes/10", "restaurant://dishes/11");
+		assertThat(CatalogResources.itemResources(MENUS, DISHES).get("restaurant://menus/2").name()).isEqualTo("menu 2");
+	}
+
+	@Test
+	void listingOnlyChangesWhatTheCatalogChanged() {
+		resources.list(MENUS, DISHES);
+		assertThat(transport.listChanges).hasValue(0);
+
+		resources.list(List.of(MENUS.get(0), new Menu(3L, "Menú infantil")), DISHES);
+		// menus/2 taken out and menus/3 added
+		assertThat(transport.listChanges).hasValue(2);
+
+		resources.list(List.of(MENUS.get(0), new Menu(3L, "Menú infantil")), DISHES);
+		assertThat(transport.listChanges).hasValue(2);
+	}
+
+	private static final class StubReader extends RevalidatingReader {
+
+		private final Map<String, List<?>> lists = Map.of("/menus", MENUS, "/dishes", DISHES, "/dish-menus", DISH_MENUS);
+
+		StubReader() {
+			super(null);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T get(String uri, ParameterizedTypeReference<T> type) {
+			return (T) lists.get(uri);
+		}
+	}
+
+	/** Counts the list_changed notifications instead of sending them to sessions */
+	private static final class StubTransport implements McpServerTransportProvider {
+
+		final AtomicInteger listChanges = new AtomicInteger();
+
+		@Override
+		public void setSessionFactory(McpServerSession.Factory sessionFactory) {
+		}
+
+		@Override
+		public Mono<Void> notifyClients(String method, Object params) {
+			if (method.equals("notifications/resources/list_changed")) {
+				listChanges.incrementAndGet();
+			}
+			return Mono.empty();
+		}
+
+		@Override
+		public Mono<Void> closeGracefully() {
+			return Mono.empty();
+		}
+	}
+
+	private static final class StubMenus extends MenuService {
+
+		StubMenus() {
+			super(null, null, null, null, null);
+		}
+
+		@Override
+		public List<Menu> getAllMenus() {
+			return MENUS;
+		}
+
+		@Override
+		public Menu getMenuById(Long idMenu) {
+			return MENUS.stream().filter(menu -> menu.id().equals(idMenu)).findFirst().orElseThrow();
+		}
+	}
+
+	private static final class StubDishes extends DishService {
+
+		StubDishes() {
+			super(null, null, null, null, null);
+		}
+
+		@Override
+		public List<Dish> getAllDishes() {
+			return DISHES;
+		}
+
+		@Override
+		public Dish getDishById(Long id) {
+			return DISHES.stream().filter(dish -> dish.id().equals(id)).findFirst().orElseThrow();
+		}
+	}
+
+	private static final class StubDishMenus extends DishMenuService {
+
+		StubDishMenus() {
+			super(null, null, null, new RestaurantApiProperties(null, null, null, null, null, 16, null,
+					new RestaurantApiProperties.BulkEndpoints(null, null)), null, null);
+		}
+
+		@Override
+		public List<DishMenu> getAllDishMenus() {
+			return DISH_MENUS;
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package com.uptc.frw.mcprestaurant.resource;
+
+import com.uptc.frw.mcprestaurant.cache.CatalogCache;
+import com.uptc.frw.mcprestaurant.cache.CatalogSnapshot;
+import com.uptc.frw.mcprestaurant.client.RevalidatingReader;
+import com.uptc.frw.mcprestaurant.config.CatalogCacheProperties;
+import com.uptc.frw.mcprestaurant.config.CatalogResourcesProperties;
+import com.uptc.frw.mcprestaurant.config.CatalogSnapshotProperties;
+import com.uptc.frw.mcprestaurant.model.Dish;
+import com.uptc.frw.mcprestaurant.model.DishMenu;
+import com.uptc.frw.mcprestaurant.model.Menu;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.ParameterizedTypeReference;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogWatcherTests {
+
+	private static final Duration WINDOW = Duration.ofMillis(200);
+
+	@TempDir
+	Path dir;
+
+	private final StubReader reader = new StubReader();
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+	private CatalogWatcher watcher;
+
+	@BeforeEach
+	void createWatcher() {
+		reader.lists.put("/menus", List.of(new Menu(1L, "Menú del día")));
+		reader.lists.put("/dishes", List.of(new Dish(10L, "Sopa", "Ajiaco", "Con guascas")));
+		reader.lists.put("/dish-menus", List.of(new DishMenu(1L, 10L, 12000.0, "2025-01-01")));
+		CatalogCacheProperties.Entity entity = new CatalogCacheProperties.Entity(true, 100, Duration.ofMinutes(10));
+		CatalogCache cache = new CatalogCache(new CatalogCacheProperties(entity, entity, entity),
+				new CatalogSnapshot(new CatalogSnapshotProperties(false, dir.resolve("catalog.snapshot"),
+						Duration.ofHours(24), Duration.ofSeconds(2))),
+				executor);
+		watcher = new CatalogWatcher(new CatalogResourcesProperties(true, Duration.ofMinutes(5), WINDOW), reader, cache);
+	}
+
+	@AfterEach
+	void stopWatcher() {
+		watcher.stop();
+		executor.shutdownNow();
+	}
+
+	@Test
+	void baselinePollHandsTheCatalogOverOnce() throws Exception {
+		List<List<Menu>> catalogs = new CopyOnWriteArrayList<>();
+		watcher.onCatalog((menus, dishes) -> catalogs.add(menus));
+
+		watcher.poll();
+		awaitAnnouncements(1);
+		Thread.sleep(2 * WINDOW.toMillis());
+
+		assertThat(watcher.getPolls()).isEqualTo(1);
+		assertThat(watcher.getChanges()).isZero();
+		assertThat(watcher.getAnnouncements()).isEqualTo(1);
+		assertThat(catalogs).containsExactly(List.of(new Menu(1L, "Menú del día")));
+	}
+
+	@Test
+	void unchangedPollHandsNothingOver() throws Exception {
+		List<List<Menu>> catalogs = new CopyOnWriteArrayList<>();
+		watcher.poll();
+		awaitAnnouncements(1);
+		watcher.onCatalog((menus, dishes) -> catalogs.add(menus));
+
+		watcher.poll();
+		Thread.sleep(2 * WINDOW.toMillis());
+
+		assertThat(watcher.getPolls()).isEqualTo(2);
+		assertThat(watcher.getUnchangedPolls()).isEqualTo(1);
+		assertThat(watcher.getChanges()).isZero();
+		assertThat(watcher.getAnnouncements()).isEqualTo(1);
+		assertThat(catalogs).isEmpty();
+	}
+
+	@Test
+	void changesWithinTheWindowAreHandedOverOnce() throws Exception {
+		List<List<Menu>> catalogs = new CopyOnWriteArrayList<>();
+		watcher.poll();
+		awaitAnnouncements(1);
+		watcher.onCatalog((menus, dishes) -> catalogs.add(menus));
+
+		reader.lists.put("/menus", List.of(new Menu(1L, "Menú ejecutivo")));
+		watcher.poll();
+		reader.lists.put("/menus", List.of(new Menu(1L, "Menú infantil")));
+		watcher.poll();
+		awaitAnnouncements(2);
+		Thread.sleep(2 * WINDOW.toMillis());
+
+		assertThat(watcher.getChanges()).isEqualTo(4);
+		assertThat(watcher.getAnnouncements()).isEqualTo(2);
+		assertThat(catalogs).containsExactly(List.of(new Menu(1L, "Menú infantil")));
+	}
+
+	private void awaitAnnouncements(long count) throws InterruptedException {
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (watcher.getAnnouncements() < count) {
+			assertThat(System.nanoTime()).isLessThan(deadline);
+			Thread.sleep(5);
+		}
+	}
+
+	/** Serves each list from memory; the same instance stands for a 304 */
+	private static final class StubReader extends RevalidatingReader {
+
+		final Map<String, List<?>> lists = new ConcurrentHashMap<>();
+
+		StubReader() {
+			super(null);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T get(String uri, ParameterizedTypeReference<T> type) {
+			return (T) lists.get(uri);
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package com.uptc.frw.mcprestaurant.search;
+
+import com.uptc.frw.mcprestaurant.config.SearchIndexProperties;
+import com.uptc.frw.mcprestaurant.model.Dish;
+import com.uptc.frw.mcprestaurant.model.Menu;
+import com.uptc.frw.mcprestaurant.model.SearchHit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CatalogSearchTests {
+
+	private final CatalogSearch search = new CatalogSearch(new SearchIndexProperties(Duration.ofMinutes(10), 50));
+
+	@BeforeEach
+	void buildIndex() {
+		search.refreshIfStale(() -> List.of(
+				new Dish(1L, "Sopa", "Ajiaco santafereño", "Sopa de papa con pollo y guascas"),
+				new Dish(2L, "Sopa", "Crema de ahuyama", "Sopa vegetariana cremosa"),
+				new Dish(3L, "Plato fuerte", "Bandeja paisa", "Frijoles, chicharrón y arroz"),
+				new Dish(4L, "Postre", "Piña colada", "Postre de piña")),
+				() -> List.of(new Menu(1L, "Menú vegetariano del día"), new Menu(2L, "Menú ejecutivo")));
+	}
+
+	@Test
+	void foldsAccentsAndCase() {
+		assertThat(ids(search.search("PINA", null, null, 10))).containsExactly(4L);
+		assertThat(ids(search.search("santafereno", null, null, 10))).containsExactly(1L);
+	}
+
+	@Test
+	void everyWordMustMatchByPrefixOrWithOneTypo() {
+		assertThat(ids(search.search("vegetari sopa", null, null, 10))).containsExactly(2L);
+		assertThat(ids(search.search("chicharon", null, null, 10))).containsExactly(3L);
+		assertThat(search.search("sopa chicharron", null, null, 10)).isEmpty();
+	}
+
+	@Test
+	void filtersByKindAndDishType() {
+		assertThat(ids(search.search("sopa", null, null, 10))).containsExactly(1L, 2L);
+		assertThat(search.search("vegetariano", CatalogSearch.MENU, null, 10))
+				.extracting(SearchHit::kind, SearchHit::id)
+				.containsExactly(tuple("menu", 1L));
+		assertThat(ids(search.search("postre", CatalogSearch.DISH, "postre", 10))).containsExactly(4L);
+		assertThat(search.search("postre", CatalogSearch.DISH, "Sopa", 10)).isEmpty();
+	}
+
+	@Test
+	void localWritesUpdateTheIndex() {
+		search.putDish(new Dish(1L, "Sopa", "Ajiaco", "Sopa de papa"));
+		search.removeDish(2L);
+		search.putMenu(new Menu(3L, "Almuerzo vegetariano"));
+
+		assertThat(search.search("santafereno", null, null, 10)).isEmpty();
+		assertThat(search.search("vegetariano", null, null, 10))
+				.extracting(SearchHit::kind, SearchHit::id)
+				.containsExactly(tuple("menu", 1L), tuple("menu", 3L));
+		assertThat(search.getDocuments()).isEqualTo(6);
+	}
+
+	private static List<Long> ids(List<SearchHit> hits) {
+		return hits.stream().map(SearchHit::id).toList();
+	}
+}
@@ -0,0 +1,172 @@
+package com.uptc.frw.mcprestaurant.service;
+
+import com.uptc.frw.mcprestaurant.config.RestaurantApiProperties;
+import com.uptc.frw.mcprestaurant.model.Dish;
+import com.uptc.frw.mcprestaurant.model.DishMenu;
+import com.uptc.frw.mcprestaurant.model.Menu;
+import com.uptc.frw.mcprestaurant.model.MenuDish;
+import com.uptc.frw.mcprestaurant.model.MenuWithDishes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MenuDetailServiceTests {
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	private final StubMenus menus = new StubMenus();
+
+	private final StubDishes dishes = new StubDishes();
+
+	private final StubDishMenus dishMenus = new StubDishMenus();
+
+	private final MenuDetailService service = new MenuDetailService(menus, dishes, dishMenus, executor);
+
+	@AfterEach
+	void stopExecutor() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void totalAddsThePriceOfEachDishInTheMenu() {
+		menus.byId.put(1L, new Menu(1L, "Menú del día"));
+		dishes.byId.put(10L, new Dish(10L, "Sopa", "Ajiaco", "Con guascas"));
+		dishes.byId.put(11L, new Dish(11L, "Postre", "Arroz con leche", null));
+		dishes.byId.put(12L, new Dish(12L, "Bebida", "Limonada", null));
+		dishMenus.all.addAll(List.of(
+				new DishMenu(1L, 10L, 12000.0, "2025-01-01"),
+				new DishMenu(1L, 11L, 6000.0, "2025-01-01"),
+				new DishMenu(1L, 12L, null, null),
+				new DishMenu(2L, 10L, 15000.0, "2025-01-01")));
+
+		MenuWithDishes menu = service.getMenuWithDishes(1L);
+
+		assertThat(menu.id()).isEqualTo(1L);
+		assertThat(menu.description()).isEqualTo("Menú del día");
+		assertThat(menu.dishes()).extracting(MenuDish::name).containsExactly("Ajiaco", "Arroz con leche", "Limonada");
+		assertThat(menu.dishes()).extracting(MenuDish::price).containsExactly(12000.0, 6000.0, null);
+		assertThat(menu.totalPrice()).isEqualTo(18000.0);
+	}
+
+	@Test
+	void dishMissingFromTheCatalogKeepsItsEntryAndPrice() {
+		menus.byId.put(1L, new Menu(1L, "Menú del día"));
+		dishes.byId.put(10L, new Dish(10L, "Sopa", "Ajiaco", "Con guascas"));
+		dishMenus.all.addAll(List.of(
+				new DishMenu(1L, 10L, 12000.0, "2025-01-01"),
+				new DishMenu(1L, 99L, 3000.0, "2025-01-01")));
+
+		MenuWithDishes menu = service.getMenuWithDishes(1L);
+
+		assertThat(menu.dishes()).containsExactly(
+				new MenuDish(10L, "Sopa", "Ajiaco", "Con guascas", 12000.0, "2025-01-01"),
+				new MenuDish(99L, null, null, null, 3000.0, "2025-01-01"));
+		assertThat(menu.totalPrice()).isEqualTo(15000.0);
+	}
+
+	@Test
+	void failingSubFetchFailsTheCallWithItsOwnError() {
+		menus.byId.put(1L, new Menu(1L, "Menú del día"));
+		dishMenus.all.add(new DishMenu(1L, 10L, 12000.0, "2025-01-01"));
+		dishes.failing.put(10L, new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+		assertThatThrownBy(() -> service.getMenuWithDishes(1L))
+				.isInstanceOf(HttpServerErrorException.class)
+				.hasMessageContaining("503");
+	}
+
+	@Test
+	void missingMenuFailsTheCall() {
+		assertThatThrownBy(() -> service.getMenuWithDishes(7L))
+				.isInstanceOf(HttpClientErrorException.NotFound.class);
+	}
+
+	@Test
+	void menuWithAnEmptyBodyFailsTheCallAsMissing() {
+		menus.emptyBody.add(7L);
+		dishMenus.all.add(new DishMenu(7L, 10L, 12000.0, "2025-01-01"));
+		dishes.byId.put(10L, new Dish(10L, "Sopa", "Ajiaco", "Con guascas"));
+
+		assertThatThrownBy(() -> service.getMenuWithDishes(7L))
+				.isInstanceOf(HttpClientErrorException.NotFound.class);
+	}
+
+	private static HttpClientErrorException notFound() {
+		return HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null);
+	}
+
+	private static final class StubMenus extends MenuService {
+
+		final Map<Long, Menu> byId = new ConcurrentHashMap<>();
+
+		/** Ids answered with a 200 and no body, which the client reads as null */
+		final Set<Long> emptyBody = ConcurrentHashMap.newKeySet();
+
+		StubMenus() {
+			super(null, null, null, null, null);
+		}
+
+		@Override
+		public Menu getMenuById(Long idMenu) {
+			if (emptyBody.contains(idMenu)) {
+				return null;
+			}
+			Menu menu = byId.get(idMenu);
+			if (menu == null) {
+				throw notFound();
+			}
+			return menu;
+		}
+	}
+
+	private static final class StubDishes extends DishService {
+
+		final Map<Long, Dish> byId = new ConcurrentHashMap<>();
+
+		final Map<Long, RuntimeException> failing = new ConcurrentHashMap<>();
+
+		StubDishes() {
+			super(null, null, null, null, null);
+		}
+
+		@Override
+		public Dish getDishById(Long id) {
+			if (failing.containsKey(id)) {
+				throw failing.get(id);
+			}
+			Dish dish = byId.get(id);
+			if (dish == null) {
+				throw notFound();
+			}
+			return dish;
+		}
+	}
+
+	private static final class StubDishMenus extends DishMenuService {
+
+		final List<DishMenu> all = new ArrayList<>();
+
+		StubDishMenus() {
+			super(null, null, null, new RestaurantApiProperties(null, null, null, null, null, 16, null,
+					new RestaurantApiProperties.BulkEndpoints(null, null)), null, null);
+		}
+
+		@Override
+		public List<DishMenu> getAllDishMenus() {
+			return all;
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package com.uptc.frw.mcprestaurant.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.uptc.frw.mcprestaurant.analytics.SalesAnalytics;
+import com.uptc.frw.mcprestaurant.client.JsonArrayReader;
+import com.uptc.frw.mcprestaurant.config.OrderJournalProperties;
+import com.uptc.frw.mcprestaurant.config.ResultLimitsProperties;
+import com.uptc.frw.mcprestaurant.config.SalesIndexProperties;
+import com.uptc.frw.mcprestaurant.model.CappedList;
+import com.uptc.frw.mcprestaurant.model.Page;
+import com.uptc.frw.mcprestaurant.model.Sale;
+import com.uptc.frw.mcprestaurant.orders.WriteBehindOrders;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SaleServiceTests {
+
+	private HttpServer server;
+
+	private SaleService service;
+
+	@BeforeEach
+	void startStub() throws Exception {
+		String sales = LongStream.rangeClosed(1, 25)
+				.mapToObj(id -> "{\"id\":" + id + ",\"date\":\"2025-03-01\"}")
+				.collect(Collectors.joining(",", "[", "]"));
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/api/sales", exchange -> {
+			byte[] bytes = sales.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, bytes.length);
+			exchange.getResponseBody().write(bytes);
+			exchange.close();
+		});
+		server.start();
+		RestClient restClient = RestClient.builder()
+				.baseUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/api")
+				.build();
+		JsonArrayReader reader = new JsonArrayReader(restClient, new ObjectMapper());
+		SalesAnalytics analytics = new SalesAnalytics(reader,
+				new SalesIndexProperties(false, Duration.ofMinutes(5), Duration.ofMinutes(15)));
+		WriteBehindOrders writeBehind = new WriteBehindOrders(
+				new OrderJournalProperties(false, null, 1, 10, 10, Duration.ofMillis(5), Duration.ofMillis(20), Duration.ofSeconds(1)),
+				null);
+		service = new SaleService(restClient, null, reader, new ResultLimitsProperties(100, 500, 10), analytics, writeBehind);
+	}
+
+	@AfterEach
+	void stopStub() {
+		server.stop(0);
+	}
+
+	@Test
+	void cutHistoryCarriesATokenThatGetSalesPageContinues() {
+		List<Sale> all = service.getAllSales();
+		Page<Sale> rest = service.getSalesPage(null, null, ((CappedList<Sale>) all).nextPageToken(), null);
+
+		assertThat(all).isInstanceOf(CappedList.class);
+		assertThat(all).hasSize(10);
+		assertThat(rest.items()).extracting(Sale::id)
+				.containsExactlyElementsOf(LongStream.rangeClosed(11, 25).boxed().toList());
+		assertThat(rest.nextPageToken()).isNull();
+	}
+}
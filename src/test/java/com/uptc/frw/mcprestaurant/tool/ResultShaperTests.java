@@ -0,0 +1,102 @@
+package com.uptc.frw.mcprestaurant.tool;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uptc.frw.mcprestaurant.model.CappedList;
+import com.uptc.frw.mcprestaurant.model.Dish;
+import com.uptc.frw.mcprestaurant.model.Page;
+import com.uptc.frw.mcprestaurant.model.SaleMenu;
+import com.uptc.frw.mcprestaurant.service.DishService;
+import com.uptc.frw.mcprestaurant.service.SaleMenuService;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResultShaperTests {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final ResultShaper shaper = new ResultShaper(objectMapper);
+
+	private final List<Dish> dishes = List.of(
+			new Dish(1L, "main", "Ajiaco", "A long description"),
+			new Dish(2L, "main", "Bandeja", "Another long description"),
+			new Dish(3L, "dessert", "Cocada", "Sweet"));
+
+	@Test
+	void listToolsOfferShapingOptionsExceptTheirOwnParameters() throws Exception {
+		Method getAllDishes = DishService.class.getMethod("getAllDishes");
+		Method getSaleMenusPage = SaleMenuService.class.getMethod("getSaleMenusPage", Long.class, String.class, Integer.class);
+		Method getDishById = DishService.class.getMethod("getDishById", Long.class);
+		Method getDishesByIds = DishService.class.getMethod("getDishesByIds", List.class);
+
+		assertThat(ResultShape.options(getAllDishes)).containsExactlyInAnyOrder("fields", "format", "offset", "limit");
+		assertThat(ResultShape.options(getSaleMenusPage)).containsExactlyInAnyOrder("fields", "format");
+		assertThat(ResultShape.options(getDishById)).isEmpty();
+		assertThat(ResultShape.options(getDishesByIds)).isEmpty();
+	}
+
+	@Test
+	void projectsAndSlicesAList() throws Exception {
+		Method getAllDishes = DishService.class.getMethod("getAllDishes");
+
+		String json = shape(getAllDishes, "{\"fields\":\"id,name\",\"offset\":1,\"limit\":5}", dishes);
+
+		assertThat(json).isEqualTo("[{\"id\":2,\"name\":\"Bandeja\"},{\"id\":3,\"name\":\"Cocada\"}]");
+	}
+
+	@Test
+	void encodesATableWithTheTotalBeforeSlicing() throws Exception {
+		Method getAllDishes = DishService.class.getMethod("getAllDishes");
+
+		String json = shape(getAllDishes, "{\"fields\":\"name\",\"format\":\"table\",\"limit\":2}", dishes);
+
+		assertThat(json).isEqualTo("{\"columns\":[\"name\"],\"rows\":[[\"Ajiaco\"],[\"Bandeja\"]],\"total\":3}");
+	}
+
+	@Test
+	void keepsThePageTokenAndUsesJsonPropertyNames() throws Exception {
+		Method getSaleMenusPage = SaleMenuService.class.getMethod("getSaleMenusPage", Long.class, String.class, Integer.class);
+		Page<SaleMenu> page = new Page<>(List.of(new SaleMenu(4L, 9L, 2)), "next");
+
+		String json = shape(getSaleMenusPage, "{\"fields\":\"idSale,quantity\",\"limit\":50}", page);
+
+		assertThat(json).isEqualTo("{\"items\":[{\"idSale\":9,\"quantity\":2}],\"nextPageToken\":\"next\"}");
+	}
+
+	@Test
+	void flagsAListCutAtTheResultCap() throws Exception {
+		Method getAllSaleMenus = SaleMenuService.class.getMethod("getAllSaleMenus");
+		CappedList<SaleMenu> capped = new CappedList<>(List.of(new SaleMenu(4L, 9L, 2)), "next");
+
+		String json = shape(getAllSaleMenus, "{\"fields\":\"idSale\"}", capped);
+
+		assertThat(json).isEqualTo("{\"truncated\":true,\"nextPageToken\":\"next\",\"result\":[{\"idSale\":9}]}");
+	}
+
+	@Test
+	void rejectsUnknownFieldsBeforeCallingTheTool() throws Exception {
+		Method getAllDishes = DishService.class.getMethod("getAllDishes");
+		ResultShape shape = ResultShape.parse(objectMapper.readTree("{\"fields\":\"id,price\"}"), ResultShape.options(getAllDishes));
+
+		assertThatThrownBy(() -> shaper.shaped(shape, Dish.class, () -> {
+			throw new AssertionError("tool called");
+		})).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("price");
+	}
+
+	@Test
+	void callsWithoutOptionsAreNotShaped() throws Exception {
+		Method getAllDishes = DishService.class.getMethod("getAllDishes");
+
+		assertThat(ResultShape.parse(objectMapper.readTree("{}"), ResultShape.options(getAllDishes))).isNull();
+	}
+
+	private String shape(Method method, String input, Object result) throws Exception {
+		ResultShape shape = ResultShape.parse(objectMapper.readTree(input), ResultShape.options(method));
+		return shaper.shaped(shape, ResultShape.elementType(method),
+				() -> shaper.convert(result, method.getGenericReturnType()));
+	}
+
+}
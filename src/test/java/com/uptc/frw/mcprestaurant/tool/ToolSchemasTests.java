@@ -0,0 +1,48 @@
+package com.uptc.frw.mcprestaurant.tool;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uptc.frw.mcprestaurant.service.MenuService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.support.ToolDefinitions;
+import org.springframework.core.io.FileSystemResource;
+
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ToolSchemasTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void exportedDefinitionsAreLoadedInsteadOfGenerated() throws Exception {
+		Path file = dir.resolve("tool-schemas.json");
+		ToolSchemaExporter.main(new String[] { file.toString() });
+
+		ToolSchemas schemas = new ToolSchemas(new ObjectMapper(), new FileSystemResource(file));
+		Method getMenuById = MenuService.class.getMethod("getMenuById", Long.class);
+		ToolDefinition definition = schemas.definition(getMenuById);
+
+		assertThat(schemas.getPrecomputed()).isGreaterThan(0);
+		assertThat(schemas.getGenerated()).isZero();
+		assertThat(definition.name()).isEqualTo("getMenuById");
+		assertThat(definition.inputSchema()).isEqualTo(ToolDefinitions.from(getMenuById).inputSchema());
+	}
+
+	@Test
+	void missingFileFallsBackToGeneratingOnce() throws Exception {
+		ToolSchemas schemas = new ToolSchemas(new ObjectMapper(), new FileSystemResource(dir.resolve("missing.json")));
+		Method getAllMenus = MenuService.class.getMethod("getAllMenus");
+
+		ToolDefinition first = schemas.definition(getAllMenus);
+		ToolDefinition second = schemas.definition(getAllMenus);
+
+		assertThat(second).isSameAs(first);
+		assertThat(schemas.getGenerated()).isEqualTo(1);
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.uptc.frw.mcprestaurant.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongLongHashMapTests {
+
+	@Test
+	void matchesHashMapUnderRandomPutsAddsAndRemoves() {
+		LongLongHashMap map = new LongLongHashMap(4);
+		Map<Long, Long> expected = new HashMap<>();
+		Random random = new Random(42);
+
+		for (int i = 0; i < 200_000; i++) {
+			long key = random.nextInt(5_000) - 2_500;
+			switch (random.nextInt(3)) {
+				case 0 -> {
+					map.put(key, i);
+					expected.put(key, (long) i);
+				}
+				case 1 -> {
+					map.addTo(key, 3);
+					expected.merge(key, 3L, Long::sum);
+				}
+				default -> assertThat(map.remove(key)).isEqualTo(expected.remove(key) != null);
+			}
+		}
+
+		assertThat(map.size()).isEqualTo(expected.size());
+		expected.forEach((key, value) -> assertThat(map.get(key, -1)).isEqualTo(value));
+		Map<Long, Long> visited = new HashMap<>();
+		map.forEach(visited::put);
+		assertThat(visited).isEqualTo(expected);
+	}
+
+	@Test
+	void compositeKeysKeepBothParts() {
+		long key = LongLongHashMap.key(-3, 4_000_000_000L);
+
+		assertThat(LongLongHashMap.high(key)).isEqualTo(-3);
+		assertThat(LongLongHashMap.low(key)).isEqualTo(4_000_000_000L);
+	}
+
+	@Test
+	void compositeKeyRejectsPartsThatWouldBeTruncated() {
+		assertThat(LongLongHashMap.fitsKey(Integer.MIN_VALUE, 0xFFFFFFFFL)).isTrue();
+		assertThatThrownBy(() -> LongLongHashMap.key(1, 1L << 32)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> LongLongHashMap.key(1, -1)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> LongLongHashMap.key(1L << 31, 1)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
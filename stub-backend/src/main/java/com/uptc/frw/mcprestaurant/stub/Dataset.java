@@ -0,0 +1,364 @@
+package com.uptc.frw.mcprestaurant.stub;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * In-memory restaurant data.
+ *
+ * Menus, dishes and their prices are generated up front and kept in sorted maps.
+ * Sales and sale-menu lines can run into the millions, so they are not stored:
+ * each is computed from its id and the seed when it is read, and only writes
+ * (new, changed and deleted rows) are kept, as overrides on top of the
+ * generated rows. Reads stream in id order.
+ */
+final class Dataset {
+
+    record Menu(long id, String description) {
+    }
+
+    record Dish(long id, String dishType, String name, String description) {
+    }
+
+    record DishMenu(long menuId, long dishId, double price, String date) {
+    }
+
+    record Sale(long id, String date) {
+    }
+
+    record SaleLine(long menuId, long saleId, int quantity) {
+    }
+
+    static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    static final int SALE_DAYS = 730;
+
+    private static final List<String> DISH_TYPES = List.of("entrada", "plato fuerte", "postre", "bebida");
+
+    /** Quantity stored in the line overrides for a deleted generated line */
+    private static final int REMOVED = 0;
+
+    private final long seed;
+    private final long generatedSales;
+    private final int generatedMenus;
+    private final int linesPerSale;
+
+    private final NavigableMap<Long, Menu> menus = new ConcurrentSkipListMap<>();
+    private final NavigableMap<Long, Dish> dishes = new ConcurrentSkipListMap<>();
+    private final NavigableMap<Long, DishMenu> dishMenus = new ConcurrentSkipListMap<>();
+    private final AtomicLong nextMenuId;
+    private final AtomicLong nextDishId;
+    private final AtomicLong nextSaleId;
+
+    private final NavigableMap<Long, String> saleDates = new ConcurrentSkipListMap<>();
+    private final Set<Long> deletedSales = ConcurrentHashMap.newKeySet();
+    private final Map<Long, NavigableMap<Long, Integer>> lineOverrides = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    Dataset(StubSettings settings) {
+        this.seed = settings.seed();
+        this.generatedSales = settings.sales();
+        this.generatedMenus = settings.menus();
+        this.linesPerSale = settings.linesPerSale();
+
+        for (long id = 1; id <= settings.dishes(); id++) {
+            String type = DISH_TYPES.get((int) (mix(id, 1) % DISH_TYPES.size()));
+            dishes.put(id, new Dish(id, type, "Plato " + id, "Plato numero " + id + " (" + type + ")"));
+        }
+        for (long id = 1; id <= settings.menus(); id++) {
+            menus.put(id, new Menu(id, "Menu " + id));
+            long start = mix(id, 2) % settings.dishes();
+            for (int k = 0; k < settings.dishesPerMenu(); k++) {
+                long dishId = (start + k) % settings.dishes() + 1;
+                double price = 5 + mix(id * 31 + k, 3) % 2000 / 100.0;
+                dishMenus.put(pair(id, dishId), new DishMenu(id, dishId, price,
+                        FIRST_DAY.minusDays(mix(id * 31 + k, 4) % 365).toString()));
+            }
+        }
+        nextMenuId = new AtomicLong(settings.menus());
+        nextDishId = new AtomicLong(settings.dishes());
+        nextSaleId = new AtomicLong(settings.sales());
+    }
+
+    // ---- versions, for ETags
+
+    long version(String collection) {
+        return versions.computeIfAbsent(collection, key -> new AtomicLong()).get();
+    }
+
+    private void changed(String collection) {
+        versions.computeIfAbsent(collection, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    // ---- menus
+
+    Collection<Menu> menus() {
+        return menus.values();
+    }
+
+    Menu menu(long id) {
+        return menus.get(id);
+    }
+
+    Menu createMenu(String description) {
+        Menu menu = new Menu(nextMenuId.incrementAndGet(), description);
+        menus.put(menu.id(), menu);
+        changed("menus");
+        return menu;
+    }
+
+    Menu updateMenu(long id, String description) {
+        Menu updated = menus.computeIfPresent(id, (key, menu) -> new Menu(id, description));
+        if (updated != null) {
+            changed("menus");
+        }
+        return updated;
+    }
+
+    boolean deleteMenu(long id) {
+        if (menus.remove(id) == null) {
+            return false;
+        }
+        dishMenus.subMap(pair(id, 0), true, pair(id, Integer.MAX_VALUE), true).clear();
+        changed("menus");
+        changed("dish-menus");
+        return true;
+    }
+
+    // ---- dishes
+
+    Collection<Dish> dishes() {
+        return dishes.values();
+    }
+
+    Dish dish(long id) {
+        return dishes.get(id);
+    }
+
+    Dish createDish(String dishType, String name, String description) {
+        Dish dish = new Dish(nextDishId.incrementAndGet(), dishType, name, description);
+        dishes.put(dish.id(), dish);
+        changed("dishes");
+        return dish;
+    }
+
+    Dish updateDish(long id, String dishType, String name, String description) {
+        Dish updated = dishes.computeIfPresent(id, (key, dish) -> new Dish(id, dishType, name, description));
+        if (updated != null) {
+            changed("dishes");
+        }
+        return updated;
+    }
+
+    boolean deleteDish(long id) {
+        if (dishes.remove(id) == null) {
+            return false;
+        }
+        if (dishMenus.values().removeIf(dishMenu -> dishMenu.dishId() == id)) {
+            changed("dish-menus");
+        }
+        changed("dishes");
+        return true;
+    }
+
+    // ---- dish-menus
+
+    Collection<DishMenu> dishMenus() {
+        return dishMenus.values();
+    }
+
+    Collection<DishMenu> dishMenusOfMenu(long menuId) {
+        return dishMenus.subMap(pair(menuId, 0), true, pair(menuId, Integer.MAX_VALUE), true).values();
+    }
+
+    DishMenu dishMenu(long menuId, long dishId) {
+        return dishMenus.get(pair(menuId, dishId));
+    }
+
+    DishMenu putDishMenu(DishMenu dishMenu) {
+        dishMenus.put(pair(dishMenu.menuId(), dishMenu.dishId()), dishMenu);
+        changed("dish-menus");
+        return dishMenu;
+    }
+
+    boolean deleteDishMenu(long menuId, long dishId) {
+        if (dishMenus.remove(pair(menuId, dishId)) == null) {
+            return false;
+        }
+        changed("dish-menus");
+        return true;
+    }
+
+    // ---- sales
+
+    Sale sale(long id) {
+        String date = saleDate(id);
+        return date == null ? null : new Sale(id, date);
+    }
+
+    void forEachSale(Consumer<Sale> action) {
+        for (long id = 1; id <= generatedSales; id++) {
+            if (!deletedSales.contains(id)) {
+                action.accept(new Sale(id, saleDates.getOrDefault(id, generatedDate(id))));
+            }
+        }
+        saleDates.tailMap(generatedSales, false).forEach((id, date) -> action.accept(new Sale(id, date)));
+    }
+
+    Sale createSale(String date) {
+        Sale sale = new Sale(nextSaleId.incrementAndGet(), date);
+        saleDates.put(sale.id(), date);
+        changed("sales");
+        return sale;
+    }
+
+    Sale updateSale(long id, String date) {
+        if (saleDate(id) == null) {
+            return null;
+        }
+        saleDates.put(id, date);
+        changed("sales");
+        return new Sale(id, date);
+    }
+
+    boolean deleteSale(long id) {
+        if (saleDate(id) == null) {
+            return false;
+        }
+        if (id <= generatedSales) {
+            deletedSales.add(id);
+        }
+        saleDates.remove(id);
+        lineOverrides.remove(id);
+        changed("sales");
+        changed("SalesMenu");
+        return true;
+    }
+
+    private String saleDate(long id) {
+        if (id < 1 || deletedSales.contains(id)) {
+            return null;
+        }
+        String date = saleDates.get(id);
+        if (date == null && id <= generatedSales) {
+            date = generatedDate(id);
+        }
+        return date;
+    }
+
+    private String generatedDate(long id) {
+        return FIRST_DAY.plusDays(mix(id, 5) % SALE_DAYS).toString();
+    }
+
+    // ---- sale-menu lines
+
+    void forEachLine(Consumer<SaleLine> action) {
+        forEachSale(sale -> forEachLineOfSale(sale.id(), action));
+    }
+
+    void forEachLineOfSale(long saleId, Consumer<SaleLine> action) {
+        if (saleDate(saleId) == null) {
+            return;
+        }
+        NavigableMap<Long, Integer> overrides = lineOverrides.get(saleId);
+        if (saleId <= generatedSales) {
+            long start = mix(saleId, 6) % generatedMenus;
+            for (int k = 0; k < linesPerSale; k++) {
+                long menuId = (start + k) % generatedMenus + 1;
+                Integer quantity = overrides == null ? null : overrides.get(menuId);
+                if (quantity == null) {
+                    action.accept(new SaleLine(menuId, saleId, generatedQuantity(saleId, k)));
+                } else if (quantity != REMOVED) {
+                    action.accept(new SaleLine(menuId, saleId, quantity));
+                }
+            }
+        }
+        if (overrides != null) {
+            overrides.forEach((menuId, quantity) -> {
+                if (quantity != REMOVED && !isGeneratedLine(saleId, menuId)) {
+                    action.accept(new SaleLine(menuId, saleId, quantity));
+                }
+            });
+        }
+    }
+
+    SaleLine line(long menuId, long saleId) {
+        if (saleDate(saleId) == null) {
+            return null;
+        }
+        NavigableMap<Long, Integer> overrides = lineOverrides.get(saleId);
+        Integer quantity = overrides == null ? null : overrides.get(menuId);
+        if (quantity != null) {
+            return quantity == REMOVED ? null : new SaleLine(menuId, saleId, quantity);
+        }
+        if (isGeneratedLine(saleId, menuId)) {
+            long k = Math.floorMod(menuId - 1 - mix(saleId, 6) % generatedMenus, (long) generatedMenus);
+            return new SaleLine(menuId, saleId, generatedQuantity(saleId, (int) k));
+        }
+        return null;
+    }
+
+    /**
+     * Create or replace a line
+     * @return The stored line, or null if the sale does not exist
+     */
+    SaleLine putLine(SaleLine line) {
+        if (saleDate(line.saleId()) == null || line.quantity() <= 0) {
+            return null;
+        }
+        lineOverrides.computeIfAbsent(line.saleId(), key -> new ConcurrentSkipListMap<>())
+                .put(line.menuId(), line.quantity());
+        changed("SalesMenu");
+        return line;
+    }
+
+    boolean deleteLine(long menuId, long saleId) {
+        if (line(menuId, saleId) == null) {
+            return false;
+        }
+        NavigableMap<Long, Integer> overrides = lineOverrides.computeIfAbsent(saleId, key -> new ConcurrentSkipListMap<>());
+        if (isGeneratedLine(saleId, menuId)) {
+            overrides.put(menuId, REMOVED);
+        } else {
+            overrides.remove(menuId);
+        }
+        changed("SalesMenu");
+        return true;
+    }
+
+    private boolean isGeneratedLine(long saleId, long menuId) {
+        if (saleId > generatedSales || menuId < 1 || menuId > generatedMenus) {
+            return false;
+        }
+        long k = Math.floorMod(menuId - 1 - mix(saleId, 6) % generatedMenus, (long) generatedMenus);
+        return k < linesPerSale;
+    }
+
+    private int generatedQuantity(long saleId, int k) {
+        return 1 + (int) ((mix(saleId, 7) + k) % 4);
+    }
+
+    // ---- helpers
+
+    private static long pair(long high, long low) {
+        return high << 32 | low;
+    }
+
+    /**
+     * Non-negative pseudo-random number derived from the seed, an id and a stream (SplitMix64 finalizer)
+     */
+    private long mix(long id, long stream) {
+        long z = seed + id * 0x9E3779B97F4A7C15L + stream * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (z ^ (z >>> 31)) >>> 1;
+    }
+}
@@ -0,0 +1,91 @@
+package com.uptc.frw.mcprestaurant.stub;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and error injection, adjustable while the stub is running, and the
+ * traffic counters reported by /__stub/stats
+ */
+final class Faults {
+
+    private volatile long latencyNanos;
+    private volatile long jitterNanos;
+    private volatile double errorRate;
+    private volatile int errorStatus;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+
+    Faults(StubSettings settings) {
+        set(settings.latency().toNanos(), settings.latencyJitter().toNanos(), settings.errorRate(), settings.errorStatus());
+    }
+
+    void set(long latencyNanos, long jitterNanos, double errorRate, int errorStatus) {
+        this.latencyNanos = latencyNanos;
+        this.jitterNanos = jitterNanos;
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+    }
+
+    /**
+     * Delay the current request and decide whether it fails
+     * @return The status to answer with instead of handling the request, or 0
+     */
+    int apply() throws InterruptedException {
+        requests.increment();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyNanos + (jitterNanos > 0 ? random.nextLong(jitterNanos + 1) : 0);
+        if (delay > 0) {
+            TimeUnit.NANOSECONDS.sleep(delay);
+        }
+        if (errorRate > 0 && random.nextDouble() < errorRate) {
+            injectedErrors.increment();
+            return errorStatus;
+        }
+        return 0;
+    }
+
+    long latencyNanos() {
+        return latencyNanos;
+    }
+
+    long jitterNanos() {
+        return jitterNanos;
+    }
+
+    double errorRate() {
+        return errorRate;
+    }
+
+    int errorStatus() {
+        return errorStatus;
+    }
+
+    long requests() {
+        return requests.sum();
+    }
+
+    long injectedErrors() {
+        return injectedErrors.sum();
+    }
+
+    void countNotModified() {
+        notModified.increment();
+    }
+
+    void countBytesSent(long bytes) {
+        bytesSent.add(bytes);
+    }
+
+    long notModified() {
+        return notModified.sum();
+    }
+
+    long bytesSent() {
+        return bytesSent.sum();
+    }
+}
@@ -0,0 +1,73 @@
+package com.uptc.frw.mcprestaurant.stub;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Stand-in for the restaurant API, serving a synthetic dataset with injected
+ * latency and errors. Runs from the command line or embedded in tests.
+ */
+public final class StubBackend implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final StubSettings settings;
+
+    private StubBackend(HttpServer server, ExecutorService executor, StubSettings settings) {
+        this.server = server;
+        this.executor = executor;
+        this.settings = settings;
+    }
+
+    /**
+     * Generate the dataset and start listening
+     * @param settings The dataset size, port and faults
+     * @return The running backend
+     */
+    public static StubBackend start(StubSettings settings) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(settings.port()), 1024);
+        ExecutorService executor = executor();
+        server.setExecutor(executor);
+        server.createContext(settings.basePath(),
+                new StubHandler(new Dataset(settings), new Faults(settings), settings));
+        server.start();
+        return new StubBackend(server, executor, settings);
+    }
+
+    public static void main(String[] args) throws IOException {
+        StubSettings settings = StubSettings.parse(args);
+        StubBackend backend = start(settings);
+        Runtime.getRuntime().addShutdownHook(new Thread(backend::close));
+        System.out.printf("Restaurant API stub on %s (%d menus, %d dishes, %d sales x %d lines, latency %d ms + %d ms jitter, errors %.2f%%)%n",
+                backend.baseUrl(), settings.menus(), settings.dishes(), settings.sales(), settings.linesPerSale(),
+                settings.latency().toMillis(), settings.latencyJitter().toMillis(), settings.errorRate() * 100);
+    }
+
+    /**
+     * @return The URL to use as restaurant.api.base-url
+     */
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + settings.basePath();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * A virtual thread per request on Java 21 or newer, a large fixed pool on Java 17
+     */
+    private static ExecutorService executor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(256);
+        }
+    }
+}
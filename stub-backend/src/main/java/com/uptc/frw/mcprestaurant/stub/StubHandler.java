@@ -0,0 +1,562 @@
+package com.uptc.frw.mcprestaurant.stub;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Routes requests to the dataset with the paths, query parameters and JSON field
+ * names of the real restaurant API, e.g. GET /SalesMenu/sale/{idSale},
+ * DELETE /SalesMenu?idmenu=&idsale= or PUT /menus with the id in the body.
+ *
+ * Control endpoints live under {basePath}/__stub: GET or POST /__stub/faults
+ * (latency, latency-jitter, error-rate, error-status as query parameters) and
+ * GET /__stub/stats (requests, injected errors, 304 answers and body bytes sent).
+ */
+final class StubHandler implements HttpHandler {
+
+    /**
+     * Ends a request with an error status and message
+     */
+    static final class StubException extends RuntimeException {
+        final int status;
+
+        StubException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    @FunctionalInterface
+    private interface JsonBody {
+        void write(JsonGenerator json) throws IOException;
+    }
+
+    private final Dataset data;
+    private final Faults faults;
+    private final StubSettings settings;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String expectedAuthorization;
+
+    StubHandler(Dataset data, Faults faults, StubSettings settings) {
+        this.data = data;
+        this.faults = faults;
+        this.settings = settings;
+        this.expectedAuthorization = settings.username() == null ? null : "Basic " + Base64.getEncoder()
+                .encodeToString((settings.username() + ":" + settings.password()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            try {
+                String path = exchange.getRequestURI().getPath().substring(settings.basePath().length());
+                List<String> segments = Arrays.stream(path.split("/")).filter(segment -> !segment.isEmpty()).toList();
+                Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+                if (!segments.isEmpty() && segments.get(0).equals("__stub")) {
+                    control(exchange, segments, query);
+                    return;
+                }
+                if (expectedAuthorization != null
+                        && !expectedAuthorization.equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+                    throw new StubException(401, "Unauthorized");
+                }
+                int fault = faults.apply();
+                if (fault != 0) {
+                    throw new StubException(fault, "Injected failure");
+                }
+                if (segments.isEmpty()) {
+                    throw new StubException(404, "No resource");
+                }
+                route(exchange, exchange.getRequestMethod(), segments.get(0), segments.subList(1, segments.size()), query);
+            } catch (StubException e) {
+                error(exchange, e.status, e.getMessage());
+            } catch (JsonProcessingException e) {
+                error(exchange, 400, "Malformed JSON: " + e.getOriginalMessage());
+            } catch (IllegalArgumentException e) {
+                error(exchange, 400, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error(exchange, 503, "Shutting down");
+            } catch (UncheckedIOException e) {
+                // The client went away in the middle of a streamed array
+                throw e.getCause();
+            }
+        }
+    }
+
+    private void route(HttpExchange exchange, String method, String resource, List<String> rest,
+                       Map<String, String> query) throws IOException {
+        switch (resource) {
+            case "menus" -> menus(exchange, method, rest, query);
+            case "dishes" -> dishes(exchange, method, rest, query);
+            case "dish-menus" -> dishMenus(exchange, method, rest, query);
+            case "sales" -> sales(exchange, method, rest, query);
+            case "SalesMenu" -> saleMenus(exchange, method, rest, query);
+            default -> throw new StubException(404, "Unknown resource " + resource);
+        }
+    }
+
+    // ---- menus
+
+    private void menus(HttpExchange exchange, String method, List<String> rest, Map<String, String> query)
+            throws IOException {
+        switch (method) {
+            case "GET" -> {
+                if (rest.isEmpty()) {
+                    list(exchange, "menus", data.menus(), this::writeMenu);
+                } else {
+                    Dataset.Menu menu = found(data.menu(id(rest.get(0))), "Menu");
+                    respond(exchange, 200, json -> writeMenu(json, menu));
+                }
+            }
+            case "POST" -> {
+                Dataset.Menu menu = data.createMenu(text(body(exchange), "description"));
+                respond(exchange, 200, json -> writeMenu(json, menu));
+            }
+            case "PUT" -> {
+                JsonNode body = body(exchange);
+                Dataset.Menu menu = found(data.updateMenu(number(body, "idMenu", "id"), text(body, "description")), "Menu");
+                respond(exchange, 200, json -> writeMenu(json, menu));
+            }
+            case "DELETE" -> deleted(exchange, data.deleteMenu(id(param(query, "id"))), "Menu");
+            default -> throw new StubException(405, "Method not allowed");
+        }
+    }
+
+    // ---- dishes
+
+    private void dishes(HttpExchange exchange, String method, List<String> rest, Map<String, String> query)
+            throws IOException {
+        switch (method) {
+            case "GET" -> {
+                if (rest.isEmpty()) {
+                    list(exchange, "dishes", data.dishes(), this::writeDish);
+                } else {
+                    Dataset.Dish dish = found(data.dish(id(rest.get(0))), "Dish");
+                    respond(exchange, 200, json -> writeDish(json, dish));
+                }
+            }
+            case "POST" -> {
+                JsonNode body = body(exchange);
+                Dataset.Dish dish = data.createDish(text(body, "dishType"), text(body, "name"), text(body, "description"));
+                respond(exchange, 200, json -> writeDish(json, dish));
+            }
+            case "PUT" -> {
+                JsonNode body = body(exchange);
+                Dataset.Dish dish = found(data.updateDish(number(body, "id"), text(body, "dishType"),
+                        text(body, "name"), text(body, "description")), "Dish");
+                respond(exchange, 200, json -> writeDish(json, dish));
+            }
+            case "DELETE" -> deleted(exchange, data.deleteDish(id(param(query, "id"))), "Dish");
+            default -> throw new StubException(405, "Method not allowed");
+        }
+    }
+
+    // ---- dish-menus
+
+    private void dishMenus(HttpExchange exchange, String method, List<String> rest, Map<String, String> query)
+            throws IOException {
+        switch (method) {
+            case "GET" -> {
+                if (rest.size() == 2 || (query.containsKey("idmenu") && query.containsKey("iddish"))) {
+                    long menuId = id(rest.size() == 2 ? rest.get(0) : query.get("idmenu"));
+                    long dishId = id(rest.size() == 2 ? rest.get(1) : query.get("iddish"));
+                    Dataset.DishMenu dishMenu = found(data.dishMenu(menuId, dishId), "Dish-menu");
+                    respond(exchange, 200, json -> writeDishMenu(json, dishMenu));
+                } else if (query.containsKey("idmenu")) {
+                    Collection<Dataset.DishMenu> ofMenu = data.dishMenusOfMenu(id(query.get("idmenu")));
+                    respond(exchange, 200, json -> writeArray(json, ofMenu, this::writeDishMenu));
+                } else {
+                    list(exchange, "dish-menus", data.dishMenus(), this::writeDishMenu);
+                }
+            }
+            case "POST" -> {
+                if (rest.equals(List.of("batch"))) {
+                    List<Dataset.DishMenu> created = new ArrayList<>();
+                    for (JsonNode item : body(exchange)) {
+                        created.add(data.putDishMenu(dishMenu(item)));
+                    }
+                    respond(exchange, 200, json -> writeArray(json, created, this::writeDishMenu));
+                } else {
+                    Dataset.DishMenu created = data.putDishMenu(dishMenu(body(exchange)));
+                    respond(exchange, 200, json -> writeDishMenu(json, created));
+                }
+            }
+            case "PUT" -> {
+                Dataset.DishMenu dishMenu = dishMenu(body(exchange));
+                found(data.dishMenu(dishMenu.menuId(), dishMenu.dishId()), "Dish-menu");
+                Dataset.DishMenu updated = data.putDishMenu(dishMenu);
+                respond(exchange, 200, json -> writeDishMenu(json, updated));
+            }
+            case "DELETE" -> deleted(exchange,
+                    data.deleteDishMenu(id(param(query, "idmenu")), id(param(query, "iddish"))), "Dish-menu");
+            default -> throw new StubException(405, "Method not allowed");
+        }
+    }
+
+    private Dataset.DishMenu dishMenu(JsonNode body) {
+        JsonNode price = body.get("price");
+        if (price == null || !price.isNumber()) {
+            throw new IllegalArgumentException("Missing numeric field price");
+        }
+        return new Dataset.DishMenu(number(body, "idMenu", "menuId"), number(body, "idDish", "dishId"),
+                price.doubleValue(), text(body, "date"));
+    }
+
+    // ---- sales
+
+    private void sales(HttpExchange exchange, String method, List<String> rest, Map<String, String> query)
+            throws IOException {
+        switch (method) {
+            case "GET" -> {
+                if (rest.isEmpty()) {
+                    if (!notModified(exchange, "sales")) {
+                        respond(exchange, 200, json -> {
+                            json.writeStartArray();
+                            data.forEachSale(streaming(json, this::writeSale));
+                            json.writeEndArray();
+                        });
+                    }
+                } else {
+                    Dataset.Sale sale = found(data.sale(id(rest.get(0))), "Sale");
+                    respond(exchange, 200, json -> writeSale(json, sale));
+                }
+            }
+            case "POST" -> {
+                Dataset.Sale sale = data.createSale(text(body(exchange), "date"));
+                respond(exchange, 200, json -> writeSale(json, sale));
+            }
+            case "PUT" -> {
+                JsonNode body = body(exchange);
+                Dataset.Sale sale = found(data.updateSale(number(body, "id"), text(body, "date")), "Sale");
+                respond(exchange, 200, json -> writeSale(json, sale));
+            }
+            case "DELETE" -> deleted(exchange, data.deleteSale(id(param(query, "id"))), "Sale");
+            default -> throw new StubException(405, "Method not allowed");
+        }
+    }
+
+    // ---- SalesMenu
+
+    private void saleMenus(HttpExchange exchange, String method, List<String> rest, Map<String, String> query)
+            throws IOException {
+        switch (method) {
+            case "GET" -> {
+                if (rest.size() == 2 && rest.get(0).equals("sale")) {
+                    linesOfSale(exchange, id(rest.get(1)));
+                } else if (rest.size() == 2 || (query.containsKey("idmenu") && query.containsKey("idsale"))) {
+                    long menuId = id(rest.size() == 2 ? rest.get(0) : query.get("idmenu"));
+                    long saleId = id(rest.size() == 2 ? rest.get(1) : query.get("idsale"));
+                    Dataset.SaleLine line = found(data.line(menuId, saleId), "Sale-menu");
+                    respond(exchange, 200, json -> writeLine(json, line));
+                } else if (query.containsKey("idsale")) {
+                    linesOfSale(exchange, id(query.get("idsale")));
+                } else if (query.containsKey("idmenu")) {
+                    long menuId = id(query.get("idmenu"));
+                    respond(exchange, 200, json -> {
+                        json.writeStartArray();
+                        Consumer<Dataset.SaleLine> out = streaming(json, this::writeLine);
+                        data.forEachLine(line -> {
+                            if (line.menuId() == menuId) {
+                                out.accept(line);
+                            }
+                        });
+                        json.writeEndArray();
+                    });
+                } else if (!notModified(exchange, "SalesMenu")) {
+                    respond(exchange, 200, json -> {
+                        json.writeStartArray();
+                        data.forEachLine(streaming(json, this::writeLine));
+                        json.writeEndArray();
+                    });
+                }
+            }
+            case "POST" -> {
+                if (rest.equals(List.of("batch"))) {
+                    List<Dataset.SaleLine> created = new ArrayList<>();
+                    for (JsonNode item : body(exchange)) {
+                        created.add(found(data.putLine(line(item)), "Sale"));
+                    }
+                    respond(exchange, 200, json -> writeArray(json, created, this::writeLine));
+                } else {
+                    Dataset.SaleLine created = found(data.putLine(line(body(exchange))), "Sale");
+                    respond(exchange, 200, json -> writeLine(json, created));
+                }
+            }
+            case "PUT" -> {
+                Dataset.SaleLine line = line(body(exchange));
+                found(data.line(line.menuId(), line.saleId()), "Sale-menu");
+                Dataset.SaleLine updated = found(data.putLine(line), "Sale");
+                respond(exchange, 200, json -> writeLine(json, updated));
+            }
+            case "DELETE" -> deleted(exchange,
+                    data.deleteLine(id(param(query, "idmenu")), id(param(query, "idsale"))), "Sale-menu");
+            default -> throw new StubException(405, "Method not allowed");
+        }
+    }
+
+    private void linesOfSale(HttpExchange exchange, long saleId) throws IOException {
+        List<Dataset.SaleLine> lines = new ArrayList<>();
+        data.forEachLineOfSale(saleId, lines::add);
+        respond(exchange, 200, json -> writeArray(json, lines, this::writeLine));
+    }
+
+    private Dataset.SaleLine line(JsonNode body) {
+        return new Dataset.SaleLine(number(body, "idMenu", "menuId"), number(body, "idSale", "saleId"),
+                (int) number(body, "quantity"));
+    }
+
+    // ---- control endpoints
+
+    private void control(HttpExchange exchange, List<String> segments, Map<String, String> query) throws IOException {
+        String action = segments.size() > 1 ? segments.get(1) : "";
+        switch (action) {
+            case "faults" -> {
+                if (exchange.getRequestMethod().equals("POST")) {
+                    faults.set(
+                        query.containsKey("latency") ? StubSettings.duration(query.get("latency")).toNanos() : faults.latencyNanos(),
+                        query.containsKey("latency-jitter") ? StubSettings.duration(query.get("latency-jitter")).toNanos() : faults.jitterNanos(),
+                        query.containsKey("error-rate") ? Double.parseDouble(query.get("error-rate")) : faults.errorRate(),
+                        query.containsKey("error-status") ? Integer.parseInt(query.get("error-status")) : faults.errorStatus());
+                }
+                respond(exchange, 200, json -> {
+                    json.writeStartObject();
+                    json.writeNumberField("latencyMillis", faults.latencyNanos() / 1_000_000.0);
+                    json.writeNumberField("latencyJitterMillis", faults.jitterNanos() / 1_000_000.0);
+                    json.writeNumberField("errorRate", faults.errorRate());
+                    json.writeNumberField("errorStatus", faults.errorStatus());
+                    json.writeEndObject();
+                });
+            }
+            case "stats" -> respond(exchange, 200, json -> {
+                json.writeStartObject();
+                json.writeNumberField("requests", faults.requests());
+                json.writeNumberField("injectedErrors", faults.injectedErrors());
+                json.writeNumberField("notModified", faults.notModified());
+                json.writeNumberField("bytesSent", faults.bytesSent());
+                json.writeEndObject();
+            });
+            default -> throw new StubException(404, "Unknown control endpoint");
+        }
+    }
+
+    // ---- responses
+
+    private <T> void list(HttpExchange exchange, String collection, Collection<T> items, ItemWriter<T> writer)
+            throws IOException {
+        if (!notModified(exchange, collection)) {
+            respond(exchange, 200, json -> writeArray(json, items, writer));
+        }
+    }
+
+    /**
+     * Set the collection's ETag, answering 304 if the client already has this version
+     */
+    private boolean notModified(HttpExchange exchange, String collection) throws IOException {
+        if (!settings.etags()) {
+            return false;
+        }
+        String etag = "\"" + collection + "-" + settings.seed() + "-" + data.version(collection) + "\"";
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            faults.countNotModified();
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.sendResponseHeaders(304, -1);
+            return true;
+        }
+        exchange.getResponseHeaders().set("ETag", etag);
+        return false;
+    }
+
+    private void respond(HttpExchange exchange, int status, JsonBody body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, 0);
+        try (OutputStream out = new BufferedOutputStream(new CountingStream(exchange.getResponseBody()), 64 * 1024);
+             JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            body.write(json);
+        }
+    }
+
+    private void deleted(HttpExchange exchange, boolean deleted, String what) throws IOException {
+        if (!deleted) {
+            throw new StubException(404, what + " not found");
+        }
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    private void error(HttpExchange exchange, int status, String message) throws IOException {
+        respond(exchange, status, json -> {
+            json.writeStartObject();
+            json.writeNumberField("status", status);
+            json.writeStringField("error", message);
+            json.writeEndObject();
+        });
+    }
+
+    /**
+     * Adds the response body bytes to the traffic counters
+     */
+    private final class CountingStream extends FilterOutputStream {
+
+        CountingStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            faults.countBytesSent(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            faults.countBytesSent(len);
+        }
+    }
+
+    // ---- JSON
+
+    @FunctionalInterface
+    private interface ItemWriter<T> {
+        void write(JsonGenerator json, T item) throws IOException;
+    }
+
+    private <T> void writeArray(JsonGenerator json, Collection<T> items, ItemWriter<T> writer) throws IOException {
+        json.writeStartArray();
+        for (T item : items) {
+            writer.write(json, item);
+        }
+        json.writeEndArray();
+    }
+
+    private void writeMenu(JsonGenerator json, Dataset.Menu menu) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("idMenu", menu.id());
+        json.writeStringField("description", menu.description());
+        json.writeEndObject();
+    }
+
+    private void writeDish(JsonGenerator json, Dataset.Dish dish) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", dish.id());
+        json.writeStringField("dishType", dish.dishType());
+        json.writeStringField("name", dish.name());
+        json.writeStringField("description", dish.description());
+        json.writeEndObject();
+    }
+
+    private void writeDishMenu(JsonGenerator json, Dataset.DishMenu dishMenu) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("idMenu", dishMenu.menuId());
+        json.writeNumberField("idDish", dishMenu.dishId());
+        json.writeNumberField("price", dishMenu.price());
+        json.writeStringField("date", dishMenu.date());
+        json.writeEndObject();
+    }
+
+    private void writeSale(JsonGenerator json, Dataset.Sale sale) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", sale.id());
+        json.writeStringField("date", sale.date());
+        json.writeEndObject();
+    }
+
+    private void writeLine(JsonGenerator json, Dataset.SaleLine line) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("idMenu", line.menuId());
+        json.writeNumberField("idSale", line.saleId());
+        json.writeNumberField("quantity", line.quantity());
+        json.writeEndObject();
+    }
+
+    /**
+     * Adapt an item writer to the Consumer callbacks of the dataset, where checked exceptions cannot escape
+     */
+    private static <T> Consumer<T> streaming(JsonGenerator json, ItemWriter<T> writer) {
+        return item -> {
+            try {
+                writer.write(json, item);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    // ---- request parsing
+
+    private JsonNode body(HttpExchange exchange) throws IOException {
+        JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+        if (body == null || body.isMissingNode()) {
+            throw new IllegalArgumentException("Missing JSON body");
+        }
+        return body;
+    }
+
+    private static long number(JsonNode body, String... names) {
+        for (String name : names) {
+            JsonNode value = body.get(name);
+            if (value != null && value.canConvertToLong()) {
+                return value.longValue();
+            }
+        }
+        throw new IllegalArgumentException("Missing numeric field " + names[0]);
+    }
+
+    private static String text(JsonNode body, String name) {
+        JsonNode value = body.get(name);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static long id(String value) {
+        return Long.parseLong(value);
+    }
+
+    private static String param(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing query parameter " + name);
+        }
+        return value;
+    }
+
+    private static <T> T found(T value, String what) {
+        if (value == null) {
+            throw new StubException(404, what + " not found");
+        }
+        return value;
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            query.put(name.toLowerCase(), value);
+        }
+        return query;
+    }
+}
@@ -0,0 +1,122 @@
+package com.uptc.frw.mcprestaurant.stub;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line settings of the stub backend, given as --name=value
+ * @param port Port to listen on (0 picks a free one)
+ * @param basePath Path prefix of every endpoint, like the real API's /api
+ * @param menus Number of generated menus
+ * @param dishes Number of generated dishes
+ * @param dishesPerMenu Dishes priced in each menu
+ * @param sales Number of generated sales
+ * @param linesPerSale Sale-menu lines per sale (at most menus)
+ * @param seed Seed of the generated data; the same seed gives the same dataset
+ * @param latency Delay added to every request
+ * @param latencyJitter Random extra delay, uniform between zero and this
+ * @param errorRate Fraction of requests answered with errorStatus instead, 0 to 1
+ * @param errorStatus HTTP status of injected errors
+ * @param etags Send ETags on list endpoints and answer If-None-Match with 304
+ * @param username Basic auth user required on every request, or null for no auth
+ * @param password Basic auth password
+ */
+public record StubSettings(
+    int port,
+    String basePath,
+    int menus,
+    int dishes,
+    int dishesPerMenu,
+    long sales,
+    int linesPerSale,
+    long seed,
+    Duration latency,
+    Duration latencyJitter,
+    double errorRate,
+    int errorStatus,
+    boolean etags,
+    String username,
+    String password
+) {
+
+    private static final Set<String> KNOWN = Set.of(
+        "port", "base-path", "menus", "dishes", "dishes-per-menu", "sales", "lines-per-sale", "seed",
+        "latency", "latency-jitter", "error-rate", "error-status", "etags", "username", "password"
+    );
+
+    public StubSettings {
+        if (menus < 1 || dishes < 1 || sales < 0) {
+            throw new IllegalArgumentException("menus and dishes must be positive and sales not negative");
+        }
+        if (dishesPerMenu < 0 || dishesPerMenu > dishes) {
+            throw new IllegalArgumentException("dishes-per-menu must be between 0 and dishes");
+        }
+        if (linesPerSale < 0 || linesPerSale > menus) {
+            throw new IllegalArgumentException("lines-per-sale must be between 0 and menus");
+        }
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("error-rate must be between 0 and 1");
+        }
+    }
+
+    public static StubSettings defaults() {
+        return parse(new String[0]);
+    }
+
+    /**
+     * Parse --name=value arguments over the defaults
+     * @param args e.g. --sales=1000000 --lines-per-sale=3 --latency=20ms --error-rate=0.01
+     * @return The settings
+     */
+    public static StubSettings parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        StubSettings settings = new StubSettings(
+            Integer.parseInt(values.getOrDefault("port", "8080")),
+            values.getOrDefault("base-path", "/api"),
+            Integer.parseInt(values.getOrDefault("menus", "200")),
+            Integer.parseInt(values.getOrDefault("dishes", "500")),
+            Integer.parseInt(values.getOrDefault("dishes-per-menu", "5")),
+            Long.parseLong(values.getOrDefault("sales", "100000")),
+            Integer.parseInt(values.getOrDefault("lines-per-sale", "3")),
+            Long.parseLong(values.getOrDefault("seed", "42")),
+            duration(values.getOrDefault("latency", "0ms")),
+            duration(values.getOrDefault("latency-jitter", "0ms")),
+            Double.parseDouble(values.getOrDefault("error-rate", "0")),
+            Integer.parseInt(values.getOrDefault("error-status", "503")),
+            Boolean.parseBoolean(values.getOrDefault("etags", "true")),
+            values.get("username"),
+            values.getOrDefault("password", "")
+        );
+        values.keySet().removeAll(KNOWN);
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown settings " + values.keySet());
+        }
+        return settings;
+    }
+
+    /**
+     * Parse a duration such as 250ms, 2s or 1m; a bare number is milliseconds
+     */
+    static Duration duration(String value) {
+        String text = value.trim();
+        if (text.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+        }
+        if (text.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(text.substring(0, text.length() - 1)));
+        }
+        if (text.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(text.substring(0, text.length() - 1)));
+        }
+        return Duration.ofMillis(Long.parseLong(text));
+    }
+}
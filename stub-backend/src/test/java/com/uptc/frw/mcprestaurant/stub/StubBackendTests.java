@@ -0,0 +1,106 @@
+package com.uptc.frw.mcprestaurant.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StubBackendTests {
+
+	private final HttpClient http = HttpClient.newHttpClient();
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private StubBackend backend;
+
+	@BeforeEach
+	void start() throws Exception {
+		backend = StubBackend.start(StubSettings.parse(new String[] {
+				"--port=0", "--menus=20", "--dishes=50", "--dishes-per-menu=4", "--sales=1000", "--lines-per-sale=3" }));
+	}
+
+	@AfterEach
+	void stop() {
+		backend.close();
+	}
+
+	@Test
+	void generatesTheConfiguredDataset() throws Exception {
+		assertThat(get("/menus").size()).isEqualTo(20);
+		assertThat(get("/dishes").size()).isEqualTo(50);
+		assertThat(get("/dish-menus").size()).isEqualTo(80);
+		assertThat(get("/sales").size()).isEqualTo(1000);
+		assertThat(get("/SalesMenu").size()).isEqualTo(3000);
+		assertThat(get("/SalesMenu/sale/7").size()).isEqualTo(3);
+	}
+
+	@Test
+	void servesTheQueryStylesOfTheServices() throws Exception {
+		JsonNode line = get("/SalesMenu/sale/7").get(0);
+		long menuId = line.get("idMenu").asLong();
+
+		assertThat(get("/SalesMenu/" + menuId + "/7")).isEqualTo(line);
+		assertThat(get("/SalesMenu?idmenu=" + menuId + "&idsale=7")).isEqualTo(line);
+		assertThat(send("DELETE", "/SalesMenu?idmenu=" + menuId + "&idsale=7", null).statusCode()).isEqualTo(204);
+		assertThat(send("GET", "/SalesMenu/" + menuId + "/7", null).statusCode()).isEqualTo(404);
+		assertThat(get("/SalesMenu/sale/7").size()).isEqualTo(2);
+
+		String created = send("POST", "/SalesMenu", "{\"menuId\":" + menuId + ",\"saleId\":7,\"quantity\":9}").body();
+		assertThat(objectMapper.readTree(created).get("quantity").asInt()).isEqualTo(9);
+		assertThat(send("PUT", "/menus", "{\"idMenu\":3,\"description\":\"Cena\"}").statusCode()).isEqualTo(200);
+		assertThat(get("/menus/3").get("description").asText()).isEqualTo("Cena");
+		assertThat(send("DELETE", "/dish-menus?idmenu=1&iddish=999", null).statusCode()).isEqualTo(404);
+	}
+
+	@Test
+	void unchangedListsAreRevalidatedWithEtags() throws Exception {
+		HttpResponse<String> first = send("GET", "/menus", null);
+		String etag = first.headers().firstValue("ETag").orElseThrow();
+
+		HttpResponse<String> again = http.send(request("/menus").header("If-None-Match", etag).build(),
+				HttpResponse.BodyHandlers.ofString());
+		send("POST", "/menus", "{\"description\":\"Nuevo\"}");
+		HttpResponse<String> changed = http.send(request("/menus").header("If-None-Match", etag).build(),
+				HttpResponse.BodyHandlers.ofString());
+
+		assertThat(again.statusCode()).isEqualTo(304);
+		assertThat(changed.statusCode()).isEqualTo(200);
+		assertThat(objectMapper.readTree(changed.body()).size()).isEqualTo(21);
+	}
+
+	@Test
+	void injectsErrorsOnDemand() throws Exception {
+		send("POST", "/__stub/faults?error-rate=1&error-status=502", null);
+		assertThat(send("GET", "/menus/1", null).statusCode()).isEqualTo(502);
+
+		send("POST", "/__stub/faults?error-rate=0", null);
+		assertThat(send("GET", "/menus/1", null).statusCode()).isEqualTo(200);
+	}
+
+	private JsonNode get(String path) throws Exception {
+		HttpResponse<String> response = send("GET", path, null);
+		assertThat(response.statusCode()).as(path).isEqualTo(200);
+		return objectMapper.readTree(response.body());
+	}
+
+	private HttpResponse<String> send(String method, String path, String json) throws Exception {
+		HttpRequest.BodyPublisher body = json == null
+				? HttpRequest.BodyPublishers.noBody()
+				: HttpRequest.BodyPublishers.ofString(json);
+		return http.send(request(path).header("Content-Type", "application/json").method(method, body).build(),
+				HttpResponse.BodyHandlers.ofString());
+	}
+
+	private HttpRequest.Builder request(String path) {
+		return HttpRequest.newBuilder(URI.create(backend.baseUrl() + path));
+	}
+
+}